@@ -22,6 +22,7 @@ import static java.util.stream.Collectors.toList;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.stream.Stream;
@@ -41,8 +42,17 @@ public final class ARG<S extends State, A extends Action> {
 	private int nextId = 0;
 	final Domain<S> domain;
 
+	// Index of the nodes in the ARG, kept up to date by node creation,
+	// expansion and pruning, so that queries do not have to traverse the tree
+	private final Collection<ArgNode<S, A>> nodes;
+	private final Collection<ArgNode<S, A>> unexpandedNodes;
+	private final Collection<ArgNode<S, A>> targetNodes;
+
 	private ARG(final Domain<S> domain) {
 		initNodes = new HashSet<>();
+		nodes = new LinkedHashSet<>();
+		unexpandedNodes = new LinkedHashSet<>();
+		targetNodes = new LinkedHashSet<>();
 		this.domain = domain;
 		this.initialized = false;
 	}
@@ -62,15 +72,15 @@ public final class ARG<S extends State, A extends Action> {
 	}
 
 	public Stream<ArgNode<S, A>> getNodes() {
-		return getInitNodes().flatMap(ArgNode::descendants);
+		return nodes.stream();
 	}
 
 	public Stream<ArgNode<S, A>> getUnsafeNodes() {
-		return getInitNodes().flatMap(ArgNode::unexcludedDescendants).filter(ArgNode::isTarget);
+		return targetNodes.stream().filter(n -> !n.isExcluded());
 	}
 
 	public Stream<ArgNode<S, A>> getIncompleteNodes() {
-		return getInitNodes().flatMap(ArgNode::unexcludedDescendants).filter(n -> !n.isExpanded());
+		return unexpandedNodes.stream().filter(n -> !n.isExcluded());
 	}
 
 	////
@@ -80,14 +90,14 @@ public final class ARG<S extends State, A extends Action> {
 	 * its nodes are complete.
 	 */
 	public boolean isComplete() {
-		return isInitialized() && getNodes().allMatch(ArgNode::isComplete);
+		return isInitialized() && unexpandedNodes.stream().allMatch(ArgNode::isExcluded);
 	}
 
 	/**
 	 * Checks if the ARG is safe, i.e., whether all of its nodes are safe.
 	 */
 	public boolean isSafe() {
-		return getNodes().allMatch(ArgNode::isSafe);
+		return targetNodes.stream().allMatch(ArgNode::isExcluded);
 	}
 
 	/**
@@ -122,13 +132,29 @@ public final class ARG<S extends State, A extends Action> {
 	private ArgNode<S, A> createNode(final S state, final int depth, final boolean target) {
 		final ArgNode<S, A> node = new ArgNode<>(this, state, nextId, depth, target);
 		nextId = nextId + 1;
+		nodes.add(node);
+		unexpandedNodes.add(node);
+		if (target) {
+			targetNodes.add(node);
+		}
 		return node;
 	}
 
+	void setExpanded(final ArgNode<S, A> node, final boolean expanded) {
+		assert node.arg == this;
+		node.expanded = expanded;
+		if (expanded) {
+			unexpandedNodes.remove(node);
+		} else if (nodes.contains(node)) {
+			unexpandedNodes.add(node);
+		}
+	}
+
 	private ArgEdge<S, A> createEdge(final ArgNode<S, A> source, final A action, final ArgNode<S, A> target) {
 		final ArgEdge<S, A> edge = new ArgEdge<>(source, action, target);
 		source.outEdges.add(edge);
 		target.inEdge = Optional.of(edge);
+		target.setParent(source);
 		return edge;
 	}
 
@@ -142,7 +168,7 @@ public final class ARG<S extends State, A extends Action> {
 			final ArgEdge<S, A> edge = node.getInEdge().get();
 			final ArgNode<S, A> parent = edge.getSource();
 			parent.outEdges.remove(edge);
-			parent.expanded = false;
+			setExpanded(parent, false);
 		} else {
 			assert initNodes.contains(node);
 			initNodes.remove(node);
@@ -150,6 +176,13 @@ public final class ARG<S extends State, A extends Action> {
 		}
 		node.descendants().forEach(ArgNode::unsetCoveringNode);
 		node.descendants().forEach(ArgNode::clearCoveredNodes);
+		node.descendants().forEach(this::removeFromIndex);
+	}
+
+	private void removeFromIndex(final ArgNode<S, A> node) {
+		nodes.remove(node);
+		unexpandedNodes.remove(node);
+		targetNodes.remove(node);
 
 	}
 
@@ -179,7 +212,7 @@ public final class ARG<S extends State, A extends Action> {
 	 * Gets the size of the ARG, i.e., the number of nodes.
 	 */
 	public long size() {
-		return getNodes().count();
+		return nodes.size();
 	}
 
 	/**
@@ -75,24 +75,50 @@ public final class ArgBuilder<S extends State, A extends Action, P extends Prec>
 	}
 
 	public Collection<ArgNode<S, A>> expand(final ArgNode<S, A> node, final P prec) {
+		return expand(node, getSuccessors(node, prec));
+	}
+
+	/**
+	 * Computes the successors of a node without modifying the ARG. Successors
+	 * that are covered by an existing child of the node or by a previously
+	 * computed successor are dropped.
+	 */
+	public Collection<Successor<S, A>> getSuccessors(final ArgNode<S, A> node, final P prec) {
 		checkNotNull(node);
 		checkNotNull(prec);
 
-		final Collection<ArgNode<S, A>> newSuccNodes = new ArrayList<>();
+		final Collection<Successor<S, A>> successors = new ArrayList<>();
 		final S state = node.getState();
 		final Collection<? extends A> actions = lts.getEnabledActionsFor(state);
 		final TransFunc<S, ? super A, ? super P> transFunc = analysis.getTransFunc();
 		for (final A action : actions) {
 			final Collection<? extends S> succStates = transFunc.getSuccStates(state, action, prec);
 			for (final S succState : succStates) {
-				if (node.getSuccStates().noneMatch(s -> analysis.getDomain().isLeq(succState, s))) {
+				if (node.getSuccStates().noneMatch(s -> analysis.getDomain().isLeq(succState, s))
+						&& successors.stream().noneMatch(s -> analysis.getDomain().isLeq(succState, s.state))) {
 					final boolean isTarget = target.test(succState);
-					final ArgNode<S, A> newNode = node.arg.createSuccNode(node, action, succState, isTarget);
-					newSuccNodes.add(newNode);
+					successors.add(new Successor<>(action, succState, isTarget));
 				}
 			}
 		}
-		node.expanded = true;
+
+		return successors;
+	}
+
+	/**
+	 * Adds previously computed successors to a node and marks it as expanded.
+	 */
+	public Collection<ArgNode<S, A>> expand(final ArgNode<S, A> node, final Collection<Successor<S, A>> successors) {
+		checkNotNull(node);
+		checkNotNull(successors);
+
+		final Collection<ArgNode<S, A>> newSuccNodes = new ArrayList<>();
+		for (final Successor<S, A> successor : successors) {
+			final ArgNode<S, A> newNode = node.arg.createSuccNode(node, successor.action, successor.state,
+					successor.target);
+			newSuccNodes.add(newNode);
+		}
+		node.arg.setExpanded(node, true);
 
 		return newSuccNodes;
 	}
@@ -106,4 +132,31 @@ public final class ArgBuilder<S extends State, A extends Action, P extends Prec>
 		}
 	}
 
+	/**
+	 * A successor of a node that is not yet added to the ARG.
+	 */
+	public static final class Successor<S extends State, A extends Action> {
+		private final A action;
+		private final S state;
+		private final boolean target;
+
+		private Successor(final A action, final S state, final boolean target) {
+			this.action = action;
+			this.state = state;
+			this.target = target;
+		}
+
+		public A getAction() {
+			return action;
+		}
+
+		public S getState() {
+			return state;
+		}
+
+		public boolean isTarget() {
+			return target;
+		}
+	}
+
 }
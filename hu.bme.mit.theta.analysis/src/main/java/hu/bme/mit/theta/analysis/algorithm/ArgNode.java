@@ -18,8 +18,10 @@ package hu.bme.mit.theta.analysis.algorithm;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -47,7 +49,15 @@ public final class ArgNode<S extends State, A extends Action> {
 	Optional<ArgNode<S, A>> coveringNode; // Set by ARG
 	final Collection<ArgNode<S, A>> coveredNodes;
 
-	boolean expanded; // Set by ArgBuilder
+	boolean expanded; // Set by ARG
+
+	private boolean feasible;
+	private boolean subsumed;
+	// Number of subsumed nodes on the path from the root to this node
+	private int subsumedAncestors;
+	// Jump pointer to a proper ancestor (or to itself for roots), see
+	// isAncestorOf(ArgNode)
+	private ArgNode<S, A> jump;
 
 	ArgNode(final ARG<S, A> arg, final S state, final int id, final int depth, final boolean target) {
 		this.arg = arg;
@@ -60,6 +70,10 @@ public final class ArgNode<S extends State, A extends Action> {
 		coveringNode = Optional.empty();
 		coveredNodes = new HashSet<>();
 		expanded = false;
+		feasible = !arg.domain.isBottom(state);
+		subsumed = !feasible;
+		subsumedAncestors = subsumed ? 1 : 0;
+		jump = this;
 	}
 
 	////
@@ -83,13 +97,15 @@ public final class ArgNode<S extends State, A extends Action> {
 	public void setState(final S state) {
 		checkNotNull(state);
 		this.state = state;
+		feasible = !arg.domain.isBottom(state);
+		updateSubsumed();
 	}
 
 	public boolean mayCover(final ArgNode<S, A> node) {
-		if (arg.domain.isLeq(node.getState(), this.getState())) {
-			return ancestors().noneMatch(n -> n.equals(node) || n.isSubsumed());
-		} else {
+		if (isExcluded() || node.isAncestorOf(this)) {
 			return false;
+		} else {
+			return arg.domain.isLeq(node.getState(), this.getState());
 		}
 	}
 
@@ -99,17 +115,22 @@ public final class ArgNode<S extends State, A extends Action> {
 		unsetCoveringNode();
 		coveringNode = Optional.of(node);
 		node.coveredNodes.add(this);
+		updateSubsumed();
 	}
 
 	public void unsetCoveringNode() {
 		if (coveringNode.isPresent()) {
 			coveringNode.get().coveredNodes.remove(this);
 			coveringNode = Optional.empty();
+			updateSubsumed();
 		}
 	}
 
 	public void clearCoveredNodes() {
-		coveredNodes.forEach(n -> n.coveringNode = Optional.empty());
+		for (final ArgNode<S, A> coveredNode : coveredNodes) {
+			coveredNode.coveringNode = Optional.empty();
+			coveredNode.updateSubsumed();
+		}
 		coveredNodes.clear();
 	}
 
@@ -167,7 +188,7 @@ public final class ArgNode<S extends State, A extends Action> {
 	 * Checks if the node is not a bottom state.
 	 */
 	public boolean isFeasible() {
-		return !arg.domain.isBottom(state);
+		return feasible;
 	}
 
 	/**
@@ -175,7 +196,7 @@ public final class ArgNode<S extends State, A extends Action> {
 	 * feasible.
 	 */
 	public boolean isSubsumed() {
-		return isCovered() || !isFeasible();
+		return subsumed;
 	}
 
 	/**
@@ -183,7 +204,7 @@ public final class ArgNode<S extends State, A extends Action> {
 	 * excluded parent.
 	 */
 	public boolean isExcluded() {
-		return ancestors().anyMatch(ArgNode::isSubsumed);
+		return subsumedAncestors > 0;
 	}
 
 	/**
@@ -224,6 +245,27 @@ public final class ArgNode<S extends State, A extends Action> {
 
 	////
 
+	/**
+	 * Checks if the node is an ancestor of the given node, i.e., whether it is
+	 * the given node itself or one of its proper ancestors. The check takes
+	 * logarithmic time in the depth of the given node.
+	 */
+	public boolean isAncestorOf(final ArgNode<S, A> node) {
+		checkNotNull(node);
+		if (node.arg != this.arg || node.depth < this.depth) {
+			return false;
+		}
+		ArgNode<S, A> running = node;
+		while (running.depth > this.depth) {
+			if (running.jump.depth >= this.depth) {
+				running = running.jump;
+			} else {
+				running = running.inEdge.get().getSource();
+			}
+		}
+		return running == this;
+	}
+
 	public Stream<ArgNode<S, A>> properAncestors() {
 		return getParent().map(p -> Stream.concat(Stream.of(p), p.properAncestors())).orElse(Stream.empty());
 	}
@@ -262,6 +304,39 @@ public final class ArgNode<S extends State, A extends Action> {
 
 	////
 
+	void setParent(final ArgNode<S, A> parent) { // Called by ARG
+		assert parent.arg == this.arg;
+		assert parent.depth + 1 == this.depth;
+		subsumedAncestors += parent.subsumedAncestors;
+		// Skew-binary jump pointers: each node stores a single extra pointer,
+		// but any ancestor can be reached in a logarithmic number of steps
+		final ArgNode<S, A> parentJump = parent.jump;
+		if (parent.depth - parentJump.depth == parentJump.depth - parentJump.jump.depth) {
+			jump = parentJump.jump;
+		} else {
+			jump = parent;
+		}
+	}
+
+	private void updateSubsumed() {
+		final boolean newSubsumed = coveringNode.isPresent() || !feasible;
+		if (newSubsumed != subsumed) {
+			subsumed = newSubsumed;
+			final int delta = newSubsumed ? 1 : -1;
+			final Deque<ArgNode<S, A>> nodesToUpdate = new ArrayDeque<>();
+			nodesToUpdate.push(this);
+			while (!nodesToUpdate.isEmpty()) {
+				final ArgNode<S, A> node = nodesToUpdate.pop();
+				node.subsumedAncestors += delta;
+				for (final ArgEdge<S, A> outEdge : node.outEdges) {
+					nodesToUpdate.push(outEdge.getTarget());
+				}
+			}
+		}
+	}
+
+	////
+
 	@Override
 	public int hashCode() {
 		int result = hashCode;
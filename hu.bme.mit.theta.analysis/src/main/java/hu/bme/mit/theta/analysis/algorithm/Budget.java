@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Stopwatch;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult.Unknown.Reason;
+import hu.bme.mit.theta.common.Utils;
+
+/**
+ * Time and memory limits for a single run of a checker. Checkers start
+ * monitoring the budget when their check begins and consult the monitor
+ * between iterations, returning an unknown result when the budget is
+ * exhausted or the checking thread is interrupted. A limit of 0 means no
+ * limit.
+ */
+public final class Budget {
+
+	private static final Budget UNLIMITED = new Budget(0, 0);
+
+	private final long timeLimitMs;
+	private final long memoryLimitBytes;
+
+	private Budget(final long timeLimitMs, final long memoryLimitBytes) {
+		checkArgument(timeLimitMs >= 0, "Time limit must be non-negative");
+		checkArgument(memoryLimitBytes >= 0, "Memory limit must be non-negative");
+		this.timeLimitMs = timeLimitMs;
+		this.memoryLimitBytes = memoryLimitBytes;
+	}
+
+	public static Budget unlimited() {
+		return UNLIMITED;
+	}
+
+	public static Budget create(final long timeLimitMs, final long memoryLimitBytes) {
+		return new Budget(timeLimitMs, memoryLimitBytes);
+	}
+
+	public long getTimeLimitMs() {
+		return timeLimitMs;
+	}
+
+	public long getMemoryLimitBytes() {
+		return memoryLimitBytes;
+	}
+
+	/**
+	 * Starts measuring the time from now.
+	 */
+	public Monitor start() {
+		return new Monitor();
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add("Time limit: " + timeLimitMs + " ms")
+				.add("Memory limit: " + memoryLimitBytes + " bytes").toString();
+	}
+
+	public final class Monitor {
+		private final Stopwatch stopwatch;
+
+		private Monitor() {
+			stopwatch = Stopwatch.createStarted();
+		}
+
+		/**
+		 * Checks the limits and returns the reason if one of them is exceeded
+		 * or if the current thread is interrupted. The used memory is measured
+		 * on the whole heap, without triggering garbage collection.
+		 */
+		public Optional<Reason> check() {
+			if (Thread.currentThread().isInterrupted()) {
+				return Optional.of(Reason.CANCELLED);
+			}
+			if (timeLimitMs > 0 && stopwatch.elapsed(TimeUnit.MILLISECONDS) > timeLimitMs) {
+				return Optional.of(Reason.TIMEOUT);
+			}
+			if (memoryLimitBytes > 0) {
+				final Runtime runtime = Runtime.getRuntime();
+				if (runtime.totalMemory() - runtime.freeMemory() > memoryLimitBytes) {
+					return Optional.of(Reason.MEMORY);
+				}
+			}
+			return Optional.empty();
+		}
+	}
+
+}
@@ -0,0 +1,331 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import com.google.common.base.Stopwatch;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.Analysis;
+import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult.Unknown.Reason;
+import hu.bme.mit.theta.analysis.waitlist.FifoWaitlist;
+import hu.bme.mit.theta.analysis.waitlist.LifoWaitlist;
+import hu.bme.mit.theta.analysis.waitlist.Waitlist;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.impl.NullLogger;
+import hu.bme.mit.theta.solver.UnknownSolverStatusException;
+
+/**
+ * Explores the states of an analysis with a fixed precision without building
+ * an ARG, meant for explicit analyses whose precision already tracks every
+ * variable. Visited states are only stored as fingerprints in a
+ * {@link FingerprintStore} (on the heap by default, or on disk with a
+ * {@link MappedFingerprintStore}) and only the states of the waitlist are kept
+ * in memory. There is no coverage: a state is skipped if its fingerprint was
+ * already visited.
+ *
+ * The counterexample is reconstructed from the parent ids of the target by
+ * replaying the successor computation from the initial states. If the
+ * analysis over-approximates (e.g., a variable has no value after a havoc),
+ * the counterexample can be spurious, which is checked with the given
+ * feasibility predicate: a spurious counterexample yields an unknown result,
+ * as there is no refinement. Therefore a safe model can also yield an unknown
+ * result with reason {@link SafetyResult.Unknown.Reason#IMPRECISE}, e.g., if a
+ * havocked variable without a value guards the path to a target. The ARG of the result only contains the path of
+ * the counterexample, or no nodes at all if the model is safe.
+ */
+public final class ExplicitStateChecker<S extends State, A extends Action, P extends Prec>
+		implements SafetyChecker<S, A, P> {
+
+	// The budget is checked after expanding this many states
+	private static final int BUDGET_CHECK_INTERVAL = 1024;
+
+	private final LTS<? super S, ? extends A> lts;
+	private final Analysis<S, ? super A, ? super P> analysis;
+	private final Predicate<? super S> target;
+	private final ToLongFunction<? super S> fingerprint;
+	private final boolean depthFirst;
+	private final Supplier<? extends FingerprintStore> store;
+	private final Predicate<? super Trace<S, A>> feasibility;
+	private final Budget budget;
+	private final Logger logger;
+
+	private ExplicitStateChecker(final Builder<S, A, P> builder) {
+		this.lts = checkNotNull(builder.lts);
+		this.analysis = checkNotNull(builder.analysis);
+		this.target = checkNotNull(builder.target);
+		this.fingerprint = checkNotNull(builder.fingerprint);
+		this.depthFirst = builder.depthFirst;
+		this.store = checkNotNull(builder.store);
+		this.feasibility = checkNotNull(builder.feasibility);
+		this.budget = checkNotNull(builder.budget);
+		this.logger = checkNotNull(builder.logger);
+	}
+
+	/**
+	 * Creates a builder for a checker, where the fingerprint function should
+	 * give a 64-bit hash that is (with a high probability) different for
+	 * different states.
+	 */
+	public static <S extends State, A extends Action, P extends Prec> Builder<S, A, P> builder(
+			final LTS<? super S, ? extends A> lts, final Analysis<S, ? super A, ? super P> analysis,
+			final Predicate<? super S> target, final ToLongFunction<? super S> fingerprint) {
+		return new Builder<>(lts, analysis, target, fingerprint);
+	}
+
+	@Override
+	public SafetyResult<S, A> check(final P prec) {
+		checkNotNull(prec);
+		logger.writeln("Configuration: ", this, 1, 0);
+		try (final FingerprintStore visited = store.get()) {
+			return check(prec, visited);
+		}
+	}
+
+	private SafetyResult<S, A> check(final P prec, final FingerprintStore visited) {
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final Budget.Monitor monitor = budget.start();
+		final Waitlist<Entry<S>> waitlist = depthFirst ? LifoWaitlist.create() : FifoWaitlist.create();
+		Optional<Reason> unknownReason = Optional.empty();
+		Optional<Trace<S, A>> cex = Optional.empty();
+		long transitions = 0;
+		int expanded = 0;
+		int targetId = -1;
+
+		try {
+			unknownReason = monitor.check();
+			for (final S initState : analysis.getInitFunc().getInitStates(prec)) {
+				if (targetId < 0 && !analysis.getDomain().isBottom(initState)) {
+					targetId = visit(initState, -1, visited, waitlist);
+				}
+			}
+
+			while (targetId < 0 && !unknownReason.isPresent() && !waitlist.isEmpty()) {
+				final Entry<S> entry = waitlist.remove();
+				for (final A action : lts.getEnabledActionsFor(entry.state)) {
+					for (final S succState : analysis.getTransFunc().getSuccStates(entry.state, action, prec)) {
+						transitions++;
+						if (targetId < 0 && !analysis.getDomain().isBottom(succState)) {
+							targetId = visit(succState, entry.id, visited, waitlist);
+						}
+					}
+				}
+				expanded++;
+				if (expanded % BUDGET_CHECK_INTERVAL == 0) {
+					unknownReason = monitor.check();
+					logger.writeln(String.format("%d states, %d waiting", visited.size(), waitlist.size()), 3, 1);
+				}
+			}
+
+			if (targetId >= 0 && !unknownReason.isPresent()) {
+				logger.writeln("Target reached, replaying counterexample...", 2, 1);
+				final Trace<S, A> trace = replay(visited, targetId, prec);
+				if (feasibility.test(trace)) {
+					cex = Optional.of(trace);
+				} else {
+					logger.writeln("Counterexample is spurious", 2, 1);
+					unknownReason = Optional.of(Reason.IMPRECISE);
+				}
+			}
+		} catch (final UnknownSolverStatusException e) {
+			logger.writeln("Solver returned unknown: ", e.getMessage(), 2, 1);
+			unknownReason = Optional.of(Reason.SOLVER);
+		}
+
+		stopwatch.stop();
+		final ExplicitStateStatistics stats = new ExplicitStateStatistics(stopwatch.elapsed(TimeUnit.MILLISECONDS),
+				visited.size(), transitions, visited.getBytes(), visited.getPageIns(), visited.getSpilledBytes());
+		final ARG<S, A> arg = ARG.create(analysis.getDomain());
+		SafetyResult<S, A> result = null;
+
+		if (unknownReason.isPresent()) {
+			result = SafetyResult.unknown(unknownReason.get(), arg, stats);
+		} else if (cex.isPresent()) {
+			addPath(arg, cex.get());
+			result = SafetyResult.unsafe(cex.get(), arg, stats);
+		} else {
+			// No nodes are stored, the empty ARG is complete
+			arg.initialized = true;
+			result = SafetyResult.safe(arg, stats);
+		}
+
+		logger.writeln("Done, result: ", result, 1, 0);
+		logger.writeln(stats, 1);
+		return result;
+	}
+
+	/**
+	 * Adds a state to the visited set if its fingerprint is new and returns
+	 * its id if it is a target, or -1 otherwise.
+	 */
+	private int visit(final S state, final int parent, final FingerprintStore visited,
+			final Waitlist<Entry<S>> waitlist) {
+		final int id = visited.add(fingerprint.applyAsLong(state), parent);
+		if (id < 0) {
+			return -1;
+		} else if (target.test(state)) {
+			return id;
+		} else {
+			waitlist.add(new Entry<>(state, id));
+			return -1;
+		}
+	}
+
+	private Trace<S, A> replay(final FingerprintStore visited, final int targetId, final P prec) {
+		final int[] path = visited.getPath(targetId);
+		final List<S> states = new ArrayList<>(path.length);
+		final List<A> actions = new ArrayList<>(path.length - 1);
+
+		for (final S initState : analysis.getInitFunc().getInitStates(prec)) {
+			if (states.isEmpty() && matches(initState, visited.getFingerprint(path[0]))) {
+				states.add(initState);
+			}
+		}
+		if (states.isEmpty()) {
+			throw new IllegalStateException("Initial state of the counterexample not found");
+		}
+
+		for (int i = 1; i < path.length; i++) {
+			final S state = states.get(i - 1);
+			final long succFingerprint = visited.getFingerprint(path[i]);
+			for (final A action : lts.getEnabledActionsFor(state)) {
+				for (final S succState : analysis.getTransFunc().getSuccStates(state, action, prec)) {
+					if (states.size() == i && matches(succState, succFingerprint)) {
+						states.add(succState);
+						actions.add(action);
+					}
+				}
+			}
+			if (states.size() == i) {
+				throw new IllegalStateException("Successor state of the counterexample not found");
+			}
+		}
+
+		return Trace.of(states, actions);
+	}
+
+	private boolean matches(final S state, final long expected) {
+		return !analysis.getDomain().isBottom(state) && fingerprint.applyAsLong(state) == expected;
+	}
+
+	private static <S extends State, A extends Action> void addPath(final ARG<S, A> arg, final Trace<S, A> trace) {
+		ArgNode<S, A> node = arg.createInitNode(trace.getState(0), trace.length() == 0);
+		for (int i = 0; i < trace.length(); i++) {
+			node = arg.createSuccNode(node, trace.getAction(i), trace.getState(i + 1), i == trace.length() - 1);
+		}
+		arg.initialized = true;
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add(depthFirst ? "DFS" : "BFS").add(budget)
+				.toString();
+	}
+
+	private static final class Entry<S> {
+		private final S state;
+		private final int id;
+
+		private Entry(final S state, final int id) {
+			this.state = state;
+			this.id = id;
+		}
+	}
+
+	public static final class Builder<S extends State, A extends Action, P extends Prec> {
+		private final LTS<? super S, ? extends A> lts;
+		private final Analysis<S, ? super A, ? super P> analysis;
+		private final Predicate<? super S> target;
+		private final ToLongFunction<? super S> fingerprint;
+		private boolean depthFirst;
+		private Supplier<? extends FingerprintStore> store;
+		private Predicate<? super Trace<S, A>> feasibility;
+		private Budget budget;
+		private Logger logger;
+
+		private Builder(final LTS<? super S, ? extends A> lts, final Analysis<S, ? super A, ? super P> analysis,
+				final Predicate<? super S> target, final ToLongFunction<? super S> fingerprint) {
+			this.lts = lts;
+			this.analysis = analysis;
+			this.target = target;
+			this.fingerprint = fingerprint;
+			this.depthFirst = false;
+			this.store = FingerprintSet::create;
+			this.feasibility = t -> true;
+			this.budget = Budget.unlimited();
+			this.logger = NullLogger.getInstance();
+		}
+
+		public Builder<S, A, P> breadthFirst() {
+			this.depthFirst = false;
+			return this;
+		}
+
+		public Builder<S, A, P> depthFirst() {
+			this.depthFirst = true;
+			return this;
+		}
+
+		/**
+		 * Sets the factory of the store of visited fingerprints, which is
+		 * called (and the store is closed) in each check. By default, the
+		 * fingerprints are stored on the heap in a {@link FingerprintSet}.
+		 */
+		public Builder<S, A, P> store(final Supplier<? extends FingerprintStore> store) {
+			this.store = store;
+			return this;
+		}
+
+		/**
+		 * Sets the predicate that checks whether a counterexample is feasible,
+		 * which is needed if the analysis over-approximates. By default, all
+		 * counterexamples are considered feasible.
+		 */
+		public Builder<S, A, P> feasibility(final Predicate<? super Trace<S, A>> feasibility) {
+			this.feasibility = feasibility;
+			return this;
+		}
+
+		public Builder<S, A, P> budget(final Budget budget) {
+			this.budget = budget;
+			return this;
+		}
+
+		public Builder<S, A, P> logger(final Logger logger) {
+			this.logger = logger;
+			return this;
+		}
+
+		public ExplicitStateChecker<S, A, P> build() {
+			return new ExplicitStateChecker<>(this);
+		}
+	}
+
+}
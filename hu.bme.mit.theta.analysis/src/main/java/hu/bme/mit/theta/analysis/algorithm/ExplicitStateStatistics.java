@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+/**
+ * Represents statistics collected by the ExplicitStateChecker algorithm.
+ */
+public final class ExplicitStateStatistics extends Statistics {
+	private final long totalTimeMs;
+	private final long states;
+	private final long transitions;
+	private final long visitedBytes;
+	private final long pageIns;
+	private final long spilledBytes;
+
+	public ExplicitStateStatistics(final long totalTimeMs, final long states, final long transitions,
+			final long visitedBytes, final long pageIns, final long spilledBytes) {
+		this.totalTimeMs = totalTimeMs;
+		this.states = states;
+		this.transitions = transitions;
+		this.visitedBytes = visitedBytes;
+		this.pageIns = pageIns;
+		this.spilledBytes = spilledBytes;
+
+		addStat("TotalTimeMs", this::getTotalTimeMs);
+		addStat("States", this::getStates);
+		addStat("Transitions", this::getTransitions);
+		addStat("StatesPerSecond", this::getStatesPerSecond);
+		addStat("BytesPerState", this::getBytesPerState);
+		addStat("PageIns", this::getPageIns);
+		addStat("SpilledBytes", this::getSpilledBytes);
+	}
+
+	public long getTotalTimeMs() {
+		return totalTimeMs;
+	}
+
+	/**
+	 * Gets the number of distinct states visited.
+	 */
+	public long getStates() {
+		return states;
+	}
+
+	/**
+	 * Gets the number of successor states computed, including the ones that
+	 * were already visited.
+	 */
+	public long getTransitions() {
+		return transitions;
+	}
+
+	/**
+	 * Gets the number of bytes of heap allocated for the set of visited
+	 * states.
+	 */
+	public long getVisitedBytes() {
+		return visitedBytes;
+	}
+
+	/**
+	 * Gets the number of times a part of the visited states had to be loaded
+	 * from disk (0 if they are stored on the heap).
+	 */
+	public long getPageIns() {
+		return pageIns;
+	}
+
+	/**
+	 * Gets the number of bytes of the visited states written to disk (0 if
+	 * they are stored on the heap).
+	 */
+	public long getSpilledBytes() {
+		return spilledBytes;
+	}
+
+	public long getStatesPerSecond() {
+		return states * 1000 / Math.max(1, totalTimeMs);
+	}
+
+	public double getBytesPerState() {
+		return states == 0 ? 0 : (double) visitedBytes / states;
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.util.Arrays;
+
+/**
+ * Set of 64-bit state fingerprints (hash compaction) stored in primitive
+ * arrays. Each added fingerprint gets a dense id, and the id of the state it
+ * was reached from (its parent) is stored with it, which is enough to
+ * reconstruct a path by replaying the successor computation. Lookups use open
+ * addressing with linear probing on a table of ids, so the set does not
+ * allocate objects per state. Two different states with the same fingerprint
+ * are considered the same, which can (with a very small probability) hide a
+ * reachable state. The set is kept on the heap, see
+ * {@link MappedFingerprintStore} for a set that is stored on disk.
+ */
+public final class FingerprintSet implements FingerprintStore {
+
+	private static final int NO_PARENT = -1;
+	private static final int INITIAL_CAPACITY = 64;
+
+	private int[] table;
+	private long[] fingerprints;
+	private int[] parents;
+	private int size;
+
+	private FingerprintSet(final int expectedSize) {
+		checkArgument(expectedSize >= 0, "Expected size must be non-negative");
+		final int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1);
+		table = new int[capacity];
+		fingerprints = new long[Math.max(INITIAL_CAPACITY, expectedSize)];
+		parents = new int[fingerprints.length];
+		size = 0;
+	}
+
+	public static FingerprintSet create() {
+		return new FingerprintSet(0);
+	}
+
+	public static FingerprintSet create(final int expectedSize) {
+		return new FingerprintSet(expectedSize);
+	}
+
+	@Override
+	public int add(final long fingerprint, final int parent) {
+		checkArgument(parent >= NO_PARENT && parent < size, "Invalid parent");
+		final int mask = table.length - 1;
+		int index = index(fingerprint) & mask;
+		while (table[index] != 0) {
+			if (fingerprints[table[index] - 1] == fingerprint) {
+				return -1;
+			}
+			index = (index + 1) & mask;
+		}
+		final int id = size;
+		if (id == fingerprints.length) {
+			final int length = fingerprints.length << 1;
+			checkArgument(length > 0, "Too many fingerprints");
+			fingerprints = Arrays.copyOf(fingerprints, length);
+			parents = Arrays.copyOf(parents, length);
+		}
+		fingerprints[id] = fingerprint;
+		parents[id] = parent;
+		table[index] = id + 1;
+		size++;
+		if (size * 2 > table.length) {
+			rehash(table.length << 1);
+		}
+		return id;
+	}
+
+	@Override
+	public boolean contains(final long fingerprint) {
+		final int mask = table.length - 1;
+		int index = index(fingerprint) & mask;
+		while (table[index] != 0) {
+			if (fingerprints[table[index] - 1] == fingerprint) {
+				return true;
+			}
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+
+	@Override
+	public long getFingerprint(final int id) {
+		checkElementIndex(id, size);
+		return fingerprints[id];
+	}
+
+	@Override
+	public int getParent(final int id) {
+		checkElementIndex(id, size);
+		return parents[id];
+	}
+
+	@Override
+	public int[] getPath(final int id) {
+		checkElementIndex(id, size);
+		int length = 0;
+		for (int i = id; i != NO_PARENT; i = parents[i]) {
+			length++;
+		}
+		final int[] path = new int[length];
+		for (int i = id; i != NO_PARENT; i = parents[i]) {
+			path[--length] = i;
+		}
+		return path;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public long getBytes() {
+		return 4L * table.length + 8L * fingerprints.length + 4L * parents.length;
+	}
+
+	/**
+	 * Mixes the bits of a value (with the finalizer of SplitMix64), so that
+	 * similar values yield very different fingerprints.
+	 */
+	public static long mix(final long value) {
+		long result = value;
+		result = (result ^ (result >>> 30)) * 0xbf58476d1ce4e5b9L;
+		result = (result ^ (result >>> 27)) * 0x94d049bb133111ebL;
+		return result ^ (result >>> 31);
+	}
+
+	static int index(final long fingerprint) {
+		// Fingerprints computed by the callers are not necessarily well mixed
+		return (int) mix(fingerprint);
+	}
+
+	private void rehash(final int capacity) {
+		checkArgument(capacity > 0, "Too many fingerprints");
+		final int[] newTable = new int[capacity];
+		final int mask = capacity - 1;
+		for (int id = 0; id < size; id++) {
+			int index = index(fingerprints[id]) & mask;
+			while (newTable[index] != 0) {
+				index = (index + 1) & mask;
+			}
+			newTable[index] = id + 1;
+		}
+		table = newTable;
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+/**
+ * Common interface of the stores of visited state fingerprints used by the
+ * {@link ExplicitStateChecker}. Each added fingerprint gets a dense id, and
+ * the id of the state it was reached from (its parent) is stored with it.
+ * Stores that hold external resources (e.g., files) release them when closed.
+ */
+public interface FingerprintStore extends AutoCloseable {
+
+	/**
+	 * Adds a fingerprint reached from the state with the given id (or -1 for
+	 * initial states) and returns its new id, or -1 if it is already present.
+	 */
+	int add(long fingerprint, int parent);
+
+	boolean contains(long fingerprint);
+
+	long getFingerprint(int id);
+
+	/**
+	 * Gets the id of the parent of the given id, or -1 if it is an initial
+	 * state.
+	 */
+	int getParent(int id);
+
+	/**
+	 * Gets the ids on the path from an initial state to the given id.
+	 */
+	default int[] getPath(final int id) {
+		int length = 0;
+		for (int i = id; i != -1; i = getParent(i)) {
+			length++;
+		}
+		final int[] path = new int[length];
+		for (int i = id; i != -1; i = getParent(i)) {
+			path[--length] = i;
+		}
+		return path;
+	}
+
+	int size();
+
+	/**
+	 * Gets the number of bytes of heap memory allocated by the store.
+	 */
+	long getBytes();
+
+	/**
+	 * Gets the number of times the store had to load a part of its data from
+	 * disk, or 0 for stores that keep everything in memory.
+	 */
+	default long getPageIns() {
+		return 0;
+	}
+
+	/**
+	 * Gets the number of bytes the store has written to disk, or 0 for stores
+	 * that keep everything in memory.
+	 */
+	default long getSpilledBytes() {
+		return 0;
+	}
+
+	@Override
+	default void close() {
+	}
+
+}
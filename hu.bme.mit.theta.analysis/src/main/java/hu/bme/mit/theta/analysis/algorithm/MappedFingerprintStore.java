@@ -0,0 +1,423 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Set of 64-bit state fingerprints stored in memory-mapped temporary files, so
+ * that its size is bounded by the disk rather than the heap. The fingerprints
+ * and the parent ids are appended to files indexed by the id, and an open
+ * addressing table of fingerprints is kept in a third file. Only a bounded
+ * number of segments of the files are mapped at a time.
+ *
+ * New fingerprints are first collected in a buffer on the heap and inserted
+ * into the table in batches, sorted by their position, so that the table is
+ * written sequentially. A Bloom filter on the heap is consulted before the
+ * table: most new fingerprints are recognized by the filter without touching
+ * the disk. The filter and the buffer grow with the number of fingerprints,
+ * using a few bytes per fingerprint.
+ *
+ * The memory used by the store is bounded by a quota: a quarter of it is the
+ * maximal size of the filter and the buffer, and the rest is shared by the
+ * mapped segments of the files (including the new table while the table is
+ * rehashed). Segments that are no longer needed are unmapped immediately if
+ * the platform allows it. The files are deleted when the store is closed.
+ */
+public final class MappedFingerprintStore implements FingerprintStore {
+
+	private static final int NO_PARENT = -1;
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int BLOOM_HASHES = 3;
+	private static final int BLOOM_BITS_PER_FINGERPRINT = 16;
+	private static final int INITIAL_BLOOM_WORDS = 128;
+	private static final int INITIAL_BUFFER_SIZE = 256;
+	private static final int MAX_BUFFER_BITS = 24;
+	// Buffered fingerprint and at most four entries of the buffer table
+	private static final int BUFFER_ENTRY_BYTES = Long.BYTES + 4 * Integer.BYTES;
+	// The buffer is enlarged while it is smaller than this part of the store
+	private static final int BUFFER_RATIO = 8;
+	private static final int MIN_SEGMENT_SIZE = 4096;
+	private static final int SEGMENTS_PER_FILE = 8;
+	// Fingerprints, parents, and the old and new table while rehashing
+	private static final int MAPPED_FILES = 4;
+
+	private final Path directory;
+	private final int segmentSize;
+	private final int maxSegments;
+	private final int maxBloomWords;
+	private final int maxBufferSize;
+
+	private final MappedSegments fingerprints;
+	private final MappedSegments parents;
+	private MappedSegments table;
+	private long capacity;
+
+	private long[] bloom;
+	private long[] buffer;
+	private int[] bufferTable;
+
+	private int size;
+	private int buffered;
+	private boolean containsZero;
+	private long retiredPageIns;
+	private long retiredWrittenBytes;
+
+	private MappedFingerprintStore(final Builder builder) {
+		this.directory = builder.directory;
+		final long heapBytes = builder.quota / 4;
+		final long fileBytes = (builder.quota - heapBytes) / MAPPED_FILES;
+		// Several segments per file, so that remapping a segment is cheap
+		this.segmentSize = (int) Math.min(builder.segmentSize,
+				Math.max(MIN_SEGMENT_SIZE, Long.highestOneBit(fileBytes / SEGMENTS_PER_FILE)));
+		this.maxSegments = (int) Math.min(Integer.MAX_VALUE, fileBytes / segmentSize);
+
+		final long filterBytes = builder.filterBytes >= 0 ? builder.filterBytes : heapBytes / 2;
+		final long bloomWords = Math.min(1 << 30, filterBytes / Long.BYTES);
+		this.maxBloomWords = bloomWords == 0 ? 0 : Integer.highestOneBit((int) bloomWords);
+		this.maxBufferSize = builder.bufferSize > 0 ? builder.bufferSize
+				: (int) Math.max(1, Math.min(1 << MAX_BUFFER_BITS, heapBytes / 2 / BUFFER_ENTRY_BYTES));
+		this.bloom = new long[Math.min(maxBloomWords, INITIAL_BLOOM_WORDS)];
+		this.buffer = new long[Math.min(maxBufferSize, INITIAL_BUFFER_SIZE)];
+		this.bufferTable = new int[Integer.highestOneBit(buffer.length) << 2];
+
+		this.capacity = INITIAL_CAPACITY;
+		this.size = 0;
+		this.buffered = 0;
+		this.containsZero = false;
+		this.retiredPageIns = 0;
+		this.retiredWrittenBytes = 0;
+
+		this.fingerprints = MappedSegments.create(directory, "fingerprints", segmentSize, maxSegments);
+		this.parents = MappedSegments.create(directory, "parents", segmentSize, maxSegments);
+		this.table = MappedSegments.create(directory, "table", segmentSize, maxSegments);
+	}
+
+	/**
+	 * Creates a store with the default settings (and a quota of 1 GB) in the
+	 * given directory.
+	 */
+	public static MappedFingerprintStore create(final Path directory) {
+		return builder(directory).build();
+	}
+
+	public static Builder builder(final Path directory) {
+		return new Builder(directory);
+	}
+
+	@Override
+	public int add(final long fingerprint, final int parent) {
+		checkArgument(parent >= NO_PARENT && parent < size, "Invalid parent");
+		checkState(size < Integer.MAX_VALUE, "Too many fingerprints");
+		if (contains(fingerprint)) {
+			return -1;
+		}
+		final int id = size;
+		fingerprints.putLong((long) id * Long.BYTES, fingerprint);
+		parents.putInt((long) id * Integer.BYTES, parent);
+		size++;
+		if (fingerprint == 0) {
+			// Zero marks the empty slots of the table
+			containsZero = true;
+		} else {
+			addToFilter(fingerprint);
+			addToBuffer(fingerprint);
+			if (buffered == buffer.length) {
+				flush();
+			}
+			if ((long) size * BLOOM_BITS_PER_FINGERPRINT > (long) bloom.length * Long.SIZE
+					&& bloom.length < maxBloomWords) {
+				growFilter();
+			}
+		}
+		return id;
+	}
+
+	@Override
+	public boolean contains(final long fingerprint) {
+		if (fingerprint == 0) {
+			return containsZero;
+		} else if (bufferContains(fingerprint)) {
+			return true;
+		} else if (!filterContains(fingerprint)) {
+			return false;
+		} else {
+			return tableContains(fingerprint);
+		}
+	}
+
+	@Override
+	public long getFingerprint(final int id) {
+		checkElementIndex(id, size);
+		return fingerprints.getLong((long) id * Long.BYTES);
+	}
+
+	@Override
+	public int getParent(final int id) {
+		checkElementIndex(id, size);
+		return parents.getInt((long) id * Integer.BYTES);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public long getBytes() {
+		return (long) Long.BYTES * (bloom.length + buffer.length) + (long) Integer.BYTES * bufferTable.length;
+	}
+
+	@Override
+	public long getPageIns() {
+		return retiredPageIns + fingerprints.getPageIns() + parents.getPageIns() + table.getPageIns();
+	}
+
+	@Override
+	public long getSpilledBytes() {
+		return retiredWrittenBytes + fingerprints.getWrittenBytes() + parents.getWrittenBytes()
+				+ table.getWrittenBytes();
+	}
+
+	@Override
+	public void close() {
+		fingerprints.close();
+		parents.close();
+		table.close();
+	}
+
+	////
+
+	private void addToFilter(final long fingerprint) {
+		if (bloom.length > 0) {
+			final long hash = FingerprintSet.mix(fingerprint);
+			final long step = (hash >>> 32) | 1;
+			final long mask = (long) bloom.length * Long.SIZE - 1;
+			for (int i = 0; i < BLOOM_HASHES; i++) {
+				final long bit = (hash + i * step) & mask;
+				bloom[(int) (bit >>> 6)] |= 1L << bit;
+			}
+		}
+	}
+
+	/**
+	 * Doubles the size of the filter and adds the stored fingerprints again.
+	 */
+	private void growFilter() {
+		bloom = new long[bloom.length * 2];
+		for (int id = 0; id < size; id++) {
+			final long fingerprint = fingerprints.getLong((long) id * Long.BYTES);
+			if (fingerprint != 0) {
+				addToFilter(fingerprint);
+			}
+		}
+	}
+
+	private boolean filterContains(final long fingerprint) {
+		if (bloom.length == 0) {
+			return true;
+		}
+		final long hash = FingerprintSet.mix(fingerprint);
+		final long step = (hash >>> 32) | 1;
+		final long mask = (long) bloom.length * Long.SIZE - 1;
+		for (int i = 0; i < BLOOM_HASHES; i++) {
+			final long bit = (hash + i * step) & mask;
+			if ((bloom[(int) (bit >>> 6)] & 1L << bit) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void addToBuffer(final long fingerprint) {
+		final int mask = bufferTable.length - 1;
+		int index = FingerprintSet.index(fingerprint) & mask;
+		while (bufferTable[index] != 0) {
+			index = (index + 1) & mask;
+		}
+		buffer[buffered] = fingerprint;
+		buffered++;
+		bufferTable[index] = buffered;
+	}
+
+	private boolean bufferContains(final long fingerprint) {
+		final int mask = bufferTable.length - 1;
+		int index = FingerprintSet.index(fingerprint) & mask;
+		while (bufferTable[index] != 0) {
+			if (buffer[bufferTable[index] - 1] == fingerprint) {
+				return true;
+			}
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+
+	private boolean tableContains(final long fingerprint) {
+		final long mask = capacity - 1;
+		long index = slot(fingerprint) & mask;
+		long value;
+		while ((value = table.getLong(index * Long.BYTES)) != 0) {
+			if (value == fingerprint) {
+				return true;
+			}
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Moves the buffered fingerprints to the table in the order of their
+	 * positions, growing the table if needed. The buffer is enlarged
+	 * afterwards if it is small compared to the store and below its maximal
+	 * size.
+	 */
+	private void flush() {
+		final long indexed = size - buffered - (containsZero ? 1 : 0);
+		long newCapacity = capacity;
+		while ((indexed + buffered) * 2 > newCapacity) {
+			newCapacity <<= 1;
+		}
+		if (newCapacity != capacity) {
+			rehash(newCapacity);
+		}
+
+		// Sort keys: the position in the table followed by the index in the buffer
+		final long mask = capacity - 1;
+		final long[] sorted = new long[buffered];
+		for (int i = 0; i < buffered; i++) {
+			sorted[i] = (slot(buffer[i]) & mask) << MAX_BUFFER_BITS | i;
+		}
+		Arrays.sort(sorted);
+		for (final long entry : sorted) {
+			insert(table, mask, buffer[(int) (entry & ((1 << MAX_BUFFER_BITS) - 1))]);
+		}
+
+		buffered = 0;
+		if (buffer.length < maxBufferSize && buffer.length < size / BUFFER_RATIO) {
+			buffer = new long[(int) Math.min(maxBufferSize, 2L * buffer.length)];
+			bufferTable = new int[Integer.highestOneBit(buffer.length) << 2];
+		} else {
+			Arrays.fill(bufferTable, 0);
+		}
+	}
+
+	/**
+	 * Copies the table to a new file with the given capacity. The old table is
+	 * read sequentially and a fingerprint can only move to its old position or
+	 * to its old position shifted by the old capacity, so the new table is
+	 * also written (mostly) sequentially.
+	 */
+	private void rehash(final long newCapacity) {
+		final MappedSegments newTable = MappedSegments.create(directory, "table", segmentSize, maxSegments);
+		final long newMask = newCapacity - 1;
+		for (long index = 0; index < capacity; index++) {
+			final long value = table.getLong(index * Long.BYTES);
+			if (value != 0) {
+				insert(newTable, newMask, value);
+			}
+		}
+		retiredPageIns += table.getPageIns();
+		retiredWrittenBytes += table.getWrittenBytes();
+		table.close();
+		table = newTable;
+		capacity = newCapacity;
+	}
+
+	private static void insert(final MappedSegments table, final long mask, final long fingerprint) {
+		long index = slot(fingerprint) & mask;
+		while (table.getLong(index * Long.BYTES) != 0) {
+			index = (index + 1) & mask;
+		}
+		table.putLong(index * Long.BYTES, fingerprint);
+	}
+
+	private static long slot(final long fingerprint) {
+		// The table can have more slots than an int can index
+		return FingerprintSet.mix(fingerprint) >>> (Long.SIZE - Integer.SIZE - 1);
+	}
+
+	public static final class Builder {
+		private final Path directory;
+		private long quota;
+		private int segmentSize;
+		private long filterBytes;
+		private int bufferSize;
+
+		private Builder(final Path directory) {
+			this.directory = checkNotNull(directory);
+			this.quota = 1L << 30;
+			this.segmentSize = 1 << 26;
+			this.filterBytes = -1;
+			this.bufferSize = 0;
+		}
+
+		/**
+		 * Sets the memory used by the store in bytes, including the mapped
+		 * segments and the filter and buffer on the heap. It must be at least
+		 * 64 KB.
+		 */
+		public Builder quota(final long quota) {
+			checkArgument(quota >= 16 * MIN_SEGMENT_SIZE, "Quota must be at least 64 KB");
+			this.quota = quota;
+			return this;
+		}
+
+		/**
+		 * Sets the maximal size of the segments of the files in bytes, which
+		 * must be a power of two. Smaller segments are used if the quota
+		 * requires.
+		 */
+		public Builder segmentSize(final int segmentSize) {
+			checkArgument(Integer.bitCount(segmentSize) == 1 && segmentSize >= MIN_SEGMENT_SIZE,
+					"Invalid segment size");
+			this.segmentSize = segmentSize;
+			return this;
+		}
+
+		/**
+		 * Sets the maximal heap memory used by the Bloom filter in bytes
+		 * (rounded down to a power of two, 0 to disable the filter) instead of
+		 * deriving it from the quota.
+		 */
+		public Builder filterBytes(final long filterBytes) {
+			checkArgument(filterBytes >= 0, "Filter bytes must be non-negative");
+			this.filterBytes = filterBytes;
+			return this;
+		}
+
+		/**
+		 * Sets the maximal number of fingerprints buffered on the heap before
+		 * they are inserted into the table instead of deriving it from the
+		 * quota.
+		 */
+		public Builder bufferSize(final int bufferSize) {
+			checkArgument(bufferSize > 0 && bufferSize <= 1 << MAX_BUFFER_BITS, "Invalid buffer size");
+			this.bufferSize = bufferSize;
+			return this;
+		}
+
+		public MappedFingerprintStore build() {
+			return new MappedFingerprintStore(this);
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Temporary file that is accessed through memory-mapped segments of a fixed
+ * size. Segments are mapped on demand and at most a given number of them are
+ * mapped at a time: the least recently used one is unmapped when a new one is
+ * needed. If the platform does not allow unmapping explicitly, dropped segments
+ * are unmapped by the garbage collector. Unwritten parts of the file read as
+ * zeros. Values must be aligned to their size, so that they do
+ * not cross segment boundaries. The file is deleted when closed.
+ */
+final class MappedSegments implements AutoCloseable {
+
+	private static final Consumer<MappedByteBuffer> UNMAPPER = createUnmapper();
+
+	private final Path file;
+	private final FileChannel channel;
+	private final int segmentShift;
+	private final Map<Long, MappedByteBuffer> segments;
+
+	private long lastIndex;
+	private MappedByteBuffer lastSegment;
+	private long pageIns;
+	private long writtenBytes;
+
+	private MappedSegments(final Path file, final int segmentSize, final int maxSegments) throws IOException {
+		checkArgument(Integer.bitCount(segmentSize) == 1 && segmentSize >= 8, "Invalid segment size");
+		checkArgument(maxSegments > 0, "At least one segment must be mapped");
+		this.file = file;
+		this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+		this.segments = new LinkedHashMap<Long, MappedByteBuffer>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Long, MappedByteBuffer> eldest) {
+				if (size() > maxSegments) {
+					// The eldest segment cannot be the last one used, which is
+					// only updated after the new segment is added
+					UNMAPPER.accept(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+		this.lastIndex = -1;
+		this.lastSegment = null;
+		this.pageIns = 0;
+		this.writtenBytes = 0;
+	}
+
+	/**
+	 * Creates a new temporary file in the given directory.
+	 */
+	public static MappedSegments create(final Path directory, final String prefix, final int segmentSize,
+			final int maxSegments) {
+		try {
+			final Path file = Files.createTempFile(directory, prefix, ".bin");
+			try {
+				return new MappedSegments(file, segmentSize, maxSegments);
+			} catch (final IOException | RuntimeException e) {
+				Files.deleteIfExists(file);
+				throw e;
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public long getLong(final long position) {
+		return segment(position).getLong(offset(position));
+	}
+
+	public void putLong(final long position, final long value) {
+		segment(position).putLong(offset(position), value);
+		writtenBytes += Long.BYTES;
+	}
+
+	public int getInt(final long position) {
+		return segment(position).getInt(offset(position));
+	}
+
+	public void putInt(final long position, final int value) {
+		segment(position).putInt(offset(position), value);
+		writtenBytes += Integer.BYTES;
+	}
+
+	/**
+	 * Gets the number of times a segment had to be mapped.
+	 */
+	public long getPageIns() {
+		return pageIns;
+	}
+
+	public long getWrittenBytes() {
+		return writtenBytes;
+	}
+
+	private int offset(final long position) {
+		return (int) (position & ((1L << segmentShift) - 1));
+	}
+
+	private MappedByteBuffer segment(final long position) {
+		final long index = position >>> segmentShift;
+		if (index == lastIndex) {
+			return lastSegment;
+		}
+		MappedByteBuffer segment = segments.get(index);
+		if (segment == null) {
+			try {
+				segment = channel.map(MapMode.READ_WRITE, index << segmentShift, 1L << segmentShift);
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			segments.put(index, segment);
+			pageIns++;
+		}
+		lastIndex = index;
+		lastSegment = segment;
+		return segment;
+	}
+
+	@Override
+	public void close() {
+		segments.values().forEach(UNMAPPER);
+		segments.clear();
+		lastIndex = -1;
+		lastSegment = null;
+		try {
+			channel.close();
+			Files.deleteIfExists(file);
+		} catch (final IOException e) {
+			// The mapping may still be alive on some platforms
+			file.toFile().deleteOnExit();
+		}
+	}
+
+	/**
+	 * Creates a function that releases the mapping of a buffer, which must not
+	 * be accessed afterwards. There is no public API for this, so the internal
+	 * cleaners are used if they are accessible (Java 9 and later, then Java 8).
+	 */
+	private static Consumer<MappedByteBuffer> createUnmapper() {
+		try {
+			final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			final Object unsafe = theUnsafe.get(null);
+			return buffer -> invoke(invokeCleaner, unsafe, buffer);
+		} catch (final ReflectiveOperationException | RuntimeException e) {
+			// Fall back to Java 8
+		}
+		try {
+			final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+			final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+			return buffer -> invoke(clean, invoke(cleaner, buffer));
+		} catch (final ReflectiveOperationException | RuntimeException e) {
+			// Leave it to the garbage collector
+			return buffer -> {
+			};
+		}
+	}
+
+	private static Object invoke(final Method method, final Object target, final Object... args) {
+		try {
+			return method.invoke(target, args);
+		} catch (final IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Could not unmap segment", e);
+		}
+	}
+
+}
@@ -0,0 +1,194 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.algorithm.PortfolioResult.Progress;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.impl.NullLogger;
+
+/**
+ * A checker that runs multiple safety checks (e.g., different configurations
+ * on the same model) concurrently, each on its own thread, and returns as
+ * soon as one of them gives a definitive (safe or unsafe) verdict. The
+ * remaining checks are cancelled by interrupting their threads, which the
+ * checkers observe through their budget monitor between iterations. The
+ * checks must not share solvers or other objects that are not thread-safe.
+ * The resources of a check (e.g., its solvers) are closed on its own thread
+ * when the check ends, including the checks that are cancelled.
+ *
+ * The checkers can have different types of states, actions and precisions,
+ * therefore the portfolio takes the checks as suppliers of results and
+ * returns a PortfolioResult instead of implementing SafetyChecker.
+ */
+public final class PortfolioChecker {
+
+	private final List<String> names;
+	private final List<Supplier<? extends SafetyResult<?, ?>>> checks;
+	private final List<AutoCloseable> resources;
+	private final Logger logger;
+
+	private PortfolioChecker(final Builder builder) {
+		names = ImmutableList.copyOf(builder.names);
+		checks = ImmutableList.copyOf(builder.checks);
+		resources = ImmutableList.copyOf(builder.resources);
+		logger = builder.logger;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public PortfolioResult check() {
+		final int n = checks.size();
+		final ExecutorService executor = Executors.newFixedThreadPool(n,
+				new ThreadFactoryBuilder().setNameFormat("portfolio-%d").setDaemon(true).build());
+		final CompletionService<Progress> completionService = new ExecutorCompletionService<>(executor);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final Progress[] progress = new Progress[n];
+		Optional<Progress> winner = Optional.empty();
+		try {
+			for (int i = 0; i < n; i++) {
+				final String name = names.get(i);
+				final Supplier<? extends SafetyResult<?, ?>> check = checks.get(i);
+				final AutoCloseable resource = resources.get(i);
+				completionService.submit(() -> run(name, check, resource));
+			}
+			for (int i = 0; i < n && !winner.isPresent(); i++) {
+				final Progress finished = completionService.take().get();
+				progress[names.indexOf(finished.getName())] = finished;
+				logger.writeln("Configuration finished: ", finished, 1, 0);
+				if (finished.isDefinitive()) {
+					winner = Optional.of(finished);
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the configurations", e);
+		} catch (final ExecutionException e) {
+			throw new IllegalStateException("Exception while running a configuration", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		final long timeMs = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+		for (int i = 0; i < n; i++) {
+			if (progress[i] == null) {
+				progress[i] = Progress.cancelled(names.get(i), timeMs);
+			}
+		}
+		final PortfolioResult result = new PortfolioResult(Arrays.asList(progress), winner, timeMs);
+		logger.writeln("Done, result: ", result, 1, 0);
+		return result;
+	}
+
+	private static Progress run(final String name, final Supplier<? extends SafetyResult<?, ?>> check,
+			final AutoCloseable resource) {
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try {
+			final SafetyResult<?, ?> result;
+			try {
+				result = check.get();
+			} finally {
+				resource.close();
+			}
+			return Progress.finished(name, stopwatch.elapsed(TimeUnit.MILLISECONDS), result);
+		} catch (final Throwable e) {
+			return Progress.failed(name, stopwatch.elapsed(TimeUnit.MILLISECONDS), e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).addAll(names).toString();
+	}
+
+	public static final class Builder {
+		private final List<String> names;
+		private final List<Supplier<? extends SafetyResult<?, ?>>> checks;
+		private final List<AutoCloseable> resources;
+		private Logger logger;
+
+		private Builder() {
+			names = new ArrayList<>();
+			checks = new ArrayList<>();
+			resources = new ArrayList<>();
+			logger = NullLogger.getInstance();
+		}
+
+		/**
+		 * Adds a check with a unique name. The check is performed on a
+		 * separate thread when the portfolio is checked.
+		 */
+		public Builder add(final String name, final Supplier<? extends SafetyResult<?, ?>> check) {
+			return add(name, check, () -> {
+			});
+		}
+
+		/**
+		 * Adds a check with a unique name and the resources used by the check,
+		 * which are closed on the thread of the check when it ends.
+		 */
+		public Builder add(final String name, final Supplier<? extends SafetyResult<?, ?>> check,
+				final AutoCloseable resource) {
+			checkNotNull(name);
+			checkNotNull(check);
+			checkNotNull(resource);
+			checkState(!names.contains(name), "Duplicate configuration name " + name);
+			names.add(name);
+			checks.add(check);
+			resources.add(resource);
+			return this;
+		}
+
+		public <P extends Prec> Builder add(final String name, final SafetyChecker<?, ?, P> checker, final P prec) {
+			checkNotNull(checker);
+			checkNotNull(prec);
+			return add(name, () -> checker.check(prec));
+		}
+
+		public Builder logger(final Logger logger) {
+			this.logger = checkNotNull(logger);
+			return this;
+		}
+
+		public PortfolioChecker build() {
+			checkState(!names.isEmpty(), "No configurations added");
+			return new PortfolioChecker(this);
+		}
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.common.Utils;
+
+/**
+ * Represents the result of a PortfolioChecker: the configuration that gave the
+ * first definitive verdict (if any) and the progress of each configuration at
+ * the time the portfolio returned.
+ */
+public final class PortfolioResult {
+
+	private final List<Progress> progress;
+	private final Optional<Progress> winner;
+	private final long timeMs;
+
+	PortfolioResult(final List<Progress> progress, final Optional<Progress> winner, final long timeMs) {
+		this.progress = ImmutableList.copyOf(progress);
+		this.winner = checkNotNull(winner);
+		this.timeMs = timeMs;
+	}
+
+	/**
+	 * Gets the progress of the configuration that gave the first definitive
+	 * verdict, or an empty optional if none of them did.
+	 */
+	public Optional<Progress> getWinner() {
+		return winner;
+	}
+
+	/**
+	 * Gets the progress of the configuration whose result should be reported:
+	 * the winner if there is one, otherwise the first configuration that
+	 * finished (with an unknown result).
+	 */
+	public Optional<Progress> getReported() {
+		if (winner.isPresent()) {
+			return winner;
+		} else {
+			return progress.stream().filter(p -> p.getStatus() == Progress.Status.FINISHED).findFirst();
+		}
+	}
+
+	/**
+	 * Gets the result of the reported configuration.
+	 */
+	public Optional<SafetyResult<?, ?>> getResult() {
+		return getReported().flatMap(Progress::getResult);
+	}
+
+	/**
+	 * Gets the progress of the configurations in the order they were added.
+	 */
+	public List<Progress> getProgress() {
+		return progress;
+	}
+
+	public long getTimeMs() {
+		return timeMs;
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName())
+				.add("Winner: " + winner.map(Progress::getName).orElse("none")).add("TimeMs: " + timeMs)
+				.toString();
+	}
+
+	public static final class Progress {
+		public enum Status {
+			/**
+			 * The check returned a result (which may be unknown).
+			 */
+			FINISHED,
+
+			/**
+			 * The check threw an exception.
+			 */
+			FAILED,
+
+			/**
+			 * The check was still running when another configuration gave a
+			 * definitive verdict.
+			 */
+			CANCELLED
+		}
+
+		private final String name;
+		private final Status status;
+		private final long timeMs;
+		private final Optional<SafetyResult<?, ?>> result;
+		private final Optional<Throwable> failure;
+
+		private Progress(final String name, final Status status, final long timeMs,
+				final Optional<SafetyResult<?, ?>> result, final Optional<Throwable> failure) {
+			this.name = checkNotNull(name);
+			this.status = checkNotNull(status);
+			this.timeMs = timeMs;
+			this.result = checkNotNull(result);
+			this.failure = checkNotNull(failure);
+		}
+
+		static Progress finished(final String name, final long timeMs, final SafetyResult<?, ?> result) {
+			return new Progress(name, Status.FINISHED, timeMs, Optional.of(result), Optional.empty());
+		}
+
+		static Progress failed(final String name, final long timeMs, final Throwable failure) {
+			return new Progress(name, Status.FAILED, timeMs, Optional.empty(), Optional.of(failure));
+		}
+
+		static Progress cancelled(final String name, final long timeMs) {
+			return new Progress(name, Status.CANCELLED, timeMs, Optional.empty(), Optional.empty());
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		/**
+		 * Gets the time the configuration was running for.
+		 */
+		public long getTimeMs() {
+			return timeMs;
+		}
+
+		public Optional<SafetyResult<?, ?>> getResult() {
+			return result;
+		}
+
+		public Optional<Throwable> getFailure() {
+			return failure;
+		}
+
+		/**
+		 * Checks if the configuration finished with a safe or unsafe result.
+		 */
+		public boolean isDefinitive() {
+			return result.isPresent() && !result.get().isUnknown();
+		}
+
+		@Override
+		public String toString() {
+			final String outcome;
+			if (result.isPresent()) {
+				outcome = result.get().isUnknown() ? "Unknown (" + result.get().asUnknown().getReason() + ")"
+						: result.get().isSafe() ? "Safe" : "Unsafe";
+			} else if (failure.isPresent()) {
+				outcome = failure.get().getClass().getSimpleName();
+			} else {
+				outcome = status.toString();
+			}
+			return Utils.toStringBuilder(getClass().getSimpleName()).add(name).add(status).add(outcome)
+					.add("TimeMs: " + timeMs).toString();
+		}
+	}
+
+}
@@ -59,14 +59,32 @@ public abstract class SafetyResult<S extends State, A extends Action> {
 		return new Unsafe<>(cex, arg, Optional.of(stats));
 	}
 
+	/**
+	 * Creates a result for a check that was stopped before reaching a verdict,
+	 * with the ARG built so far and the statistics collected so far.
+	 */
+	public static <S extends State, A extends Action> Unknown<S, A> unknown(final Unknown.Reason reason,
+			final ARG<S, A> arg, final Statistics stats) {
+		return new Unknown<>(reason, arg, Optional.of(stats));
+	}
+
 	public abstract boolean isSafe();
 
 	public abstract boolean isUnsafe();
 
+	public boolean isUnknown() {
+		return !isSafe() && !isUnsafe();
+	}
+
 	public abstract Safe<S, A> asSafe();
 
 	public abstract Unsafe<S, A> asUnsafe();
 
+	public Unknown<S, A> asUnknown() {
+		throw new ClassCastException(
+				"Cannot cast " + getClass().getSimpleName() + " to " + Unknown.class.getSimpleName());
+	}
+
 	////
 
 	public static final class Safe<S extends State, A extends Action> extends SafetyResult<S, A> {
@@ -145,4 +163,79 @@ public abstract class SafetyResult<S extends State, A extends Action> {
 		}
 	}
 
+	public static final class Unknown<S extends State, A extends Action> extends SafetyResult<S, A> {
+		public enum Reason {
+			/**
+			 * The time limit of the budget was exceeded.
+			 */
+			TIMEOUT,
+
+			/**
+			 * The memory limit of the budget was exceeded.
+			 */
+			MEMORY,
+
+			/**
+			 * The solver could not decide a query (e.g., because of its own
+			 * timeout or resource limit).
+			 */
+			SOLVER,
+
+			/**
+			 * The check was cancelled by interrupting its thread.
+			 */
+			CANCELLED,
+
+			/**
+			 * The checker found a counterexample that is not feasible, but it
+			 * cannot refine its abstraction.
+			 */
+			IMPRECISE
+		}
+
+		private final Reason reason;
+
+		private Unknown(final Reason reason, final ARG<S, A> arg, final Optional<Statistics> stats) {
+			super(arg, stats);
+			this.reason = checkNotNull(reason);
+		}
+
+		public Reason getReason() {
+			return reason;
+		}
+
+		@Override
+		public boolean isSafe() {
+			return false;
+		}
+
+		@Override
+		public boolean isUnsafe() {
+			return false;
+		}
+
+		@Override
+		public Safe<S, A> asSafe() {
+			throw new ClassCastException(
+					"Cannot cast " + Unknown.class.getSimpleName() + " to " + Safe.class.getSimpleName());
+		}
+
+		@Override
+		public Unsafe<S, A> asUnsafe() {
+			throw new ClassCastException(
+					"Cannot cast " + Unknown.class.getSimpleName() + " to " + Unsafe.class.getSimpleName());
+		}
+
+		@Override
+		public Unknown<S, A> asUnknown() {
+			return this;
+		}
+
+		@Override
+		public String toString() {
+			return Utils.toStringBuilder(SafetyResult.class.getSimpleName()).add(Unknown.class.getSimpleName())
+					.add("Reason: " + reason).toString();
+		}
+	}
+
 }
@@ -30,7 +30,9 @@ import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
 import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterion;
 import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
+import hu.bme.mit.theta.analysis.reachedset.NullSubsumptionIndex;
 import hu.bme.mit.theta.analysis.reachedset.Partition;
+import hu.bme.mit.theta.analysis.reachedset.SubsumptionIndex;
 import hu.bme.mit.theta.analysis.waitlist.FifoWaitlist;
 import hu.bme.mit.theta.analysis.waitlist.Waitlist;
 import hu.bme.mit.theta.common.Utils;
@@ -44,15 +46,18 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 
 	private final ArgBuilder<S, A, P> argBuilder;
 	private final Function<? super S, ?> projection;
+	private final Supplier<? extends SubsumptionIndex<? super ArgNode<S, A>>> subsumptionIndexSupplier;
 	private final Supplier<? extends Waitlist<ArgNode<S, A>>> waitlistSupplier;
 	private final StopCriterion<S, A> stopCriterion;
 	private final Logger logger;
 
 	private BasicAbstractor(final ArgBuilder<S, A, P> argBuilder, final Function<? super S, ?> projection,
+			final Supplier<? extends SubsumptionIndex<? super ArgNode<S, A>>> subsumptionIndexSupplier,
 			final Supplier<? extends Waitlist<ArgNode<S, A>>> waitlistSupplier, final StopCriterion<S, A> stopCriterion,
 			final Logger logger) {
 		this.argBuilder = checkNotNull(argBuilder);
 		this.projection = checkNotNull(projection);
+		this.subsumptionIndexSupplier = checkNotNull(subsumptionIndexSupplier);
 		this.waitlistSupplier = checkNotNull(waitlistSupplier);
 		this.stopCriterion = checkNotNull(stopCriterion);
 		this.logger = checkNotNull(logger);
@@ -86,7 +91,8 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 				arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count()), 3, 2);
 		logger.write("Building ARG...", 3, 2);
 
-		final Partition<ArgNode<S, A>, ?> reachedSet = Partition.of(n -> projection.apply(n.getState()));
+		final Partition<ArgNode<S, A>, ?> reachedSet = Partition.of(n -> projection.apply(n.getState()),
+				subsumptionIndexSupplier);
 		final Waitlist<ArgNode<S, A>> waitlist = waitlistSupplier.get();
 
 		reachedSet.addAll(arg.getNodes());
@@ -95,7 +101,7 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 		while (!waitlist.isEmpty() && !stopCriterion.canStop(arg)) {
 			final ArgNode<S, A> node = waitlist.remove();
 
-			close(node, reachedSet.get(node));
+			close(node, node.isFeasible() ? reachedSet.getCandidates(node) : reachedSet.get(node));
 			if (!node.isCovered() && !node.isTarget()) {
 				final Collection<ArgNode<S, A>> newNodes = argBuilder.expand(node, prec);
 				reachedSet.addAll(newNodes);
@@ -105,6 +111,8 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 
 		logger.writeln(String.format("done: %d nodes, %d incomplete, %d unsafe", arg.getNodes().count(),
 				arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count()), 3);
+		logger.writeln(String.format("Coverage: %d candidates pruned, %d checks saved",
+				reachedSet.getPrunedCandidates(), reachedSet.getSavedLeqChecks()), 4, 2);
 
 		if (arg.isSafe()) {
 			checkState(arg.isComplete(), "Returning incomplete ARG as safe");
@@ -114,7 +122,7 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 		}
 	}
 
-	private void close(final ArgNode<S, A> node, final Collection<ArgNode<S, A>> candidates) {
+	private void close(final ArgNode<S, A> node, final Iterable<ArgNode<S, A>> candidates) {
 		if (!node.isLeaf()) {
 			return;
 		}
@@ -134,6 +142,7 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 	public static final class Builder<S extends State, A extends Action, P extends Prec> {
 		private final ArgBuilder<S, A, P> argBuilder;
 		private Function<? super S, ?> projection;
+		private Supplier<? extends SubsumptionIndex<? super ArgNode<S, A>>> subsumptionIndexSupplier;
 		private Supplier<? extends Waitlist<ArgNode<S, A>>> waitlistSupplier;
 		private StopCriterion<S, A> stopCriterion;
 		private Logger logger;
@@ -141,6 +150,7 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 		private Builder(final ArgBuilder<S, A, P> argBuilder) {
 			this.argBuilder = argBuilder;
 			this.projection = s -> 0;
+			this.subsumptionIndexSupplier = NullSubsumptionIndex.supplier();
 			this.waitlistSupplier = FifoWaitlist.supplier();
 			this.stopCriterion = StopCriterions.firstCex();
 			this.logger = NullLogger.getInstance();
@@ -151,6 +161,12 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 			return this;
 		}
 
+		public Builder<S, A, P> subsumptionIndex(
+				final Supplier<? extends SubsumptionIndex<? super ArgNode<S, A>>> subsumptionIndexSupplier) {
+			this.subsumptionIndexSupplier = subsumptionIndexSupplier;
+			return this;
+		}
+
 		public Builder<S, A, P> waitlistSupplier(final Supplier<? extends Waitlist<ArgNode<S, A>>> waitlistSupplier) {
 			this.waitlistSupplier = waitlistSupplier;
 			return this;
@@ -167,7 +183,8 @@ public final class BasicAbstractor<S extends State, A extends Action, P extends
 		}
 
 		public BasicAbstractor<S, A, P> build() {
-			return new BasicAbstractor<>(argBuilder, projection, waitlistSupplier, stopCriterion, logger);
+			return new BasicAbstractor<>(argBuilder, projection, subsumptionIndexSupplier, waitlistSupplier,
+					stopCriterion, logger);
 		}
 	}
 
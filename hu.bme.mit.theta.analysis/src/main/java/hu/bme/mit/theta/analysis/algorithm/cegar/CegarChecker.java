@@ -17,6 +17,7 @@ package hu.bme.mit.theta.analysis.algorithm.cegar;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Stopwatch;
@@ -25,71 +26,104 @@ import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.Budget;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult.Unknown.Reason;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.impl.NullLogger;
+import hu.bme.mit.theta.solver.UnknownSolverStatusException;
 
 /**
  * Counterexample-Guided Abstraction Refinement (CEGAR) loop implementation,
  * that uses an Abstractor to explore the abstract state space and a Refiner to
  * check counterexamples and refine them if needed. It also provides certain
- * statistics about its execution.
+ * statistics about its execution. The budget is checked between iterations,
+ * and the result is unknown if it is exhausted or if a solver query could not
+ * be decided.
  */
 public final class CegarChecker<S extends State, A extends Action, P extends Prec> implements SafetyChecker<S, A, P> {
 
 	private final Abstractor<S, A, P> abstractor;
 	private final Refiner<S, A, P> refiner;
 	private final Logger logger;
+	private final Budget budget;
 
-	private CegarChecker(final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger) {
+	private CegarChecker(final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger,
+			final Budget budget) {
 		this.abstractor = checkNotNull(abstractor);
 		this.refiner = checkNotNull(refiner);
 		this.logger = checkNotNull(logger);
+		this.budget = checkNotNull(budget);
 	}
 
 	public static <S extends State, A extends Action, P extends Prec> CegarChecker<S, A, P> create(
 			final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner) {
-		return new CegarChecker<>(abstractor, refiner, NullLogger.getInstance());
+		return new CegarChecker<>(abstractor, refiner, NullLogger.getInstance(), Budget.unlimited());
 	}
 
 	public static <S extends State, A extends Action, P extends Prec> CegarChecker<S, A, P> create(
 			final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger) {
-		return new CegarChecker<>(abstractor, refiner, logger);
+		return new CegarChecker<>(abstractor, refiner, logger, Budget.unlimited());
+	}
+
+	public static <S extends State, A extends Action, P extends Prec> CegarChecker<S, A, P> create(
+			final Abstractor<S, A, P> abstractor, final Refiner<S, A, P> refiner, final Logger logger,
+			final Budget budget) {
+		return new CegarChecker<>(abstractor, refiner, logger, budget);
 	}
 
 	@Override
 	public SafetyResult<S, A> check(final P initPrec) {
 		logger.writeln("Configuration: ", this, 1, 0);
 		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final Budget.Monitor monitor = budget.start();
 		long abstractorTime = 0;
 		long refinerTime = 0;
 		RefinerResult<S, A, P> refinerResult = null;
 		AbstractorResult abstractorResult = null;
 		final ARG<S, A> arg = abstractor.createArg();
 		P prec = initPrec;
+		Optional<Reason> unknownReason = Optional.empty();
 		int iteration = 0;
 		do {
+			unknownReason = monitor.check();
+			if (unknownReason.isPresent()) {
+				break;
+			}
+
 			++iteration;
 			logger.writeln("Iteration ", iteration, 2, 0);
 
-			logger.writeln("Checking abstraction...", 2, 1);
-			final long abstractorStartTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
-			abstractorResult = abstractor.check(arg, prec);
-			abstractorTime += stopwatch.elapsed(TimeUnit.MILLISECONDS) - abstractorStartTime;
-			logger.writeln("Checking abstraction done, result: ", abstractorResult, 2, 1);
-
-			if (abstractorResult.isUnsafe()) {
-				logger.writeln("Refining abstraction...", 2, 1);
-				final long refinerStartTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
-				refinerResult = refiner.refine(arg, prec);
-				refinerTime += stopwatch.elapsed(TimeUnit.MILLISECONDS) - refinerStartTime;
-				logger.writeln("Refining abstraction done, result: ", refinerResult, 2, 1);
-
-				if (refinerResult.isSpurious()) {
-					prec = refinerResult.asSpurious().getRefinedPrec();
+			try {
+				logger.writeln("Checking abstraction...", 2, 1);
+				final long abstractorStartTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+				try {
+					abstractorResult = abstractor.check(arg, prec);
+				} finally {
+					abstractorTime += stopwatch.elapsed(TimeUnit.MILLISECONDS) - abstractorStartTime;
+				}
+				logger.writeln("Checking abstraction done, result: ", abstractorResult, 2, 1);
+
+				if (abstractorResult.isUnsafe()) {
+					logger.writeln("Refining abstraction...", 2, 1);
+					final long refinerStartTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+					try {
+						refinerResult = refiner.refine(arg, prec);
+					} finally {
+						refinerTime += stopwatch.elapsed(TimeUnit.MILLISECONDS) - refinerStartTime;
+					}
+					logger.writeln("Refining abstraction done, result: ", refinerResult, 2, 1);
+
+					if (refinerResult.isSpurious()) {
+						prec = refinerResult.asSpurious().getRefinedPrec();
+					}
 				}
+			} catch (final UnknownSolverStatusException e) {
+				logger.writeln("Solver returned unknown: ", e.getMessage(), 2, 1);
+				unknownReason = Optional.of(Reason.SOLVER);
+				break;
 			}
 
 		} while (!abstractorResult.isSafe() && !refinerResult.isUnsafe());
@@ -99,9 +133,12 @@ public final class CegarChecker<S extends State, A extends Action, P extends Pre
 		final CegarStatistics stats = new CegarStatistics(stopwatch.elapsed(TimeUnit.MILLISECONDS), abstractorTime,
 				refinerTime, iteration);
 
-		assert abstractorResult.isSafe() || (refinerResult != null && refinerResult.isUnsafe());
+		assert unknownReason.isPresent() || abstractorResult.isSafe()
+				|| (refinerResult != null && refinerResult.isUnsafe());
 
-		if (abstractorResult.isSafe()) {
+		if (unknownReason.isPresent()) {
+			cegarResult = SafetyResult.unknown(unknownReason.get(), arg, stats);
+		} else if (abstractorResult.isSafe()) {
 			cegarResult = SafetyResult.safe(arg, stats);
 		} else if (refinerResult.isUnsafe()) {
 			cegarResult = SafetyResult.unsafe(refinerResult.asUnsafe().getCex(), arg, stats);
@@ -115,6 +152,7 @@ public final class CegarChecker<S extends State, A extends Action, P extends Pre
 
 	@Override
 	public String toString() {
-		return Utils.toStringBuilder(getClass().getSimpleName()).add(abstractor).add(refiner).toString();
+		return Utils.toStringBuilder(getClass().getSimpleName()).add(abstractor).add(refiner).add(budget)
+				.toString();
 	}
 }
@@ -0,0 +1,325 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm.cegar;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.ArgBuilder.Successor;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterion;
+import hu.bme.mit.theta.analysis.algorithm.cegar.abstractor.StopCriterions;
+import hu.bme.mit.theta.analysis.reachedset.NullSubsumptionIndex;
+import hu.bme.mit.theta.analysis.reachedset.Partition;
+import hu.bme.mit.theta.analysis.reachedset.SubsumptionIndex;
+import hu.bme.mit.theta.analysis.waitlist.FifoWaitlist;
+import hu.bme.mit.theta.analysis.waitlist.Waitlist;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.logging.Logger;
+import hu.bme.mit.theta.common.logging.impl.NullLogger;
+
+/**
+ * Multi-threaded implementation for the abstractor. Successors of frontier
+ * nodes are computed concurrently by worker threads, each having its own
+ * ArgBuilder (and thus its own solver) created by a factory. Modifications of
+ * the ARG, coverage checks and the waitlist are serialized on the calling
+ * thread's lock, so the ARG is explored in the same order as by the
+ * BasicAbstractor, apart from the nodes being expanded at the same time. The
+ * first exception of a worker is rethrown on the calling thread when the
+ * running expansions end, unchanged if it is unchecked, so the checker handles
+ * it (e.g., an unknown solver status) as with the BasicAbstractor.
+ */
+public final class ParallelAbstractor<S extends State, A extends Action, P extends Prec>
+		implements Abstractor<S, A, P> {
+
+	private final ArgBuilder<S, A, P> argBuilder;
+	private final Supplier<? extends ArgBuilder<S, A, P>> workerArgBuilderFactory;
+	private final int threads;
+	private final Function<? super S, ?> projection;
+	private final Supplier<? extends SubsumptionIndex<? super ArgNode<S, A>>> subsumptionIndexSupplier;
+	private final Supplier<? extends Waitlist<ArgNode<S, A>>> waitlistSupplier;
+	private final StopCriterion<S, A> stopCriterion;
+	private final Logger logger;
+
+	private BlockingQueue<ArgBuilder<S, A, P>> workerArgBuilders;
+
+	private ParallelAbstractor(final ArgBuilder<S, A, P> argBuilder,
+			final Supplier<? extends ArgBuilder<S, A, P>> workerArgBuilderFactory, final int threads,
+			final Function<? super S, ?> projection,
+			final Supplier<? extends SubsumptionIndex<? super ArgNode<S, A>>> subsumptionIndexSupplier,
+			final Supplier<? extends Waitlist<ArgNode<S, A>>> waitlistSupplier,
+			final StopCriterion<S, A> stopCriterion, final Logger logger) {
+		checkArgument(threads > 0, "Number of threads must be positive");
+		this.argBuilder = checkNotNull(argBuilder);
+		this.workerArgBuilderFactory = checkNotNull(workerArgBuilderFactory);
+		this.threads = threads;
+		this.projection = checkNotNull(projection);
+		this.subsumptionIndexSupplier = checkNotNull(subsumptionIndexSupplier);
+		this.waitlistSupplier = checkNotNull(waitlistSupplier);
+		this.stopCriterion = checkNotNull(stopCriterion);
+		this.logger = checkNotNull(logger);
+		this.workerArgBuilders = null;
+	}
+
+	/**
+	 * Creates a builder for the abstractor. The ArgBuilder is used for
+	 * initializing the ARG and checking coverage, while the factory is called
+	 * once for each worker thread to create the ArgBuilders computing the
+	 * successors. The ArgBuilders created by the factory should not share
+	 * solvers with each other or with the ArgBuilder.
+	 */
+	public static <S extends State, A extends Action, P extends Prec> Builder<S, A, P> builder(
+			final ArgBuilder<S, A, P> argBuilder, final Supplier<? extends ArgBuilder<S, A, P>> workerArgBuilderFactory) {
+		return new Builder<>(argBuilder, workerArgBuilderFactory);
+	}
+
+	@Override
+	public ARG<S, A> createArg() {
+		return argBuilder.createArg();
+	}
+
+	@Override
+	public AbstractorResult check(final ARG<S, A> arg, final P prec) {
+		checkNotNull(arg);
+		checkNotNull(prec);
+		logger.writeln("Precision: ", prec, 4, 2);
+
+		if (!arg.isInitialized()) {
+			logger.write("(Re)initializing ARG...", 3, 2);
+			argBuilder.init(arg, prec);
+			logger.writeln("done.", 3);
+		}
+
+		assert arg.isInitialized();
+
+		logger.writeln(String.format("Starting ARG: %d nodes, %d incomplete, %d unsafe", arg.getNodes().count(),
+				arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count()), 3, 2);
+		logger.write(String.format("Building ARG with %d threads...", threads), 3, 2);
+
+		final Partition<ArgNode<S, A>, ?> reachedSet = new CheckMethod(arg, prec).run();
+
+		logger.writeln(String.format("done: %d nodes, %d incomplete, %d unsafe", arg.getNodes().count(),
+				arg.getIncompleteNodes().count(), arg.getUnsafeNodes().count()), 3);
+		logger.writeln(String.format("Coverage: %d candidates pruned, %d checks saved",
+				reachedSet.getPrunedCandidates(), reachedSet.getSavedLeqChecks()), 4, 2);
+
+		if (arg.isSafe()) {
+			checkState(arg.isComplete(), "Returning incomplete ARG as safe");
+			return AbstractorResult.safe();
+		} else {
+			return AbstractorResult.unsafe();
+		}
+	}
+
+	private BlockingQueue<ArgBuilder<S, A, P>> getWorkerArgBuilders() {
+		if (workerArgBuilders == null) {
+			workerArgBuilders = new ArrayBlockingQueue<>(threads);
+			for (int i = 0; i < threads; i++) {
+				workerArgBuilders.add(checkNotNull(workerArgBuilderFactory.get()));
+			}
+		}
+		return workerArgBuilders;
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add(threads).add(waitlistSupplier.get())
+				.toString();
+	}
+
+	private final class CheckMethod {
+		private final ARG<S, A> arg;
+		private final P prec;
+		private final Partition<ArgNode<S, A>, ?> reachedSet;
+		private final Waitlist<ArgNode<S, A>> waitlist;
+		private final BlockingQueue<ArgBuilder<S, A, P>> builders;
+		private final Object lock;
+
+		// Guarded by lock
+		private int nodesInProgress;
+		private Throwable failure;
+
+		private CheckMethod(final ARG<S, A> arg, final P prec) {
+			this.arg = arg;
+			this.prec = prec;
+			reachedSet = Partition.of(n -> projection.apply(n.getState()), subsumptionIndexSupplier);
+			waitlist = waitlistSupplier.get();
+			builders = getWorkerArgBuilders();
+			lock = new Object();
+			nodesInProgress = 0;
+			failure = null;
+		}
+
+		private Partition<ArgNode<S, A>, ?> run() {
+			final ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				synchronized (lock) {
+					reachedSet.addAll(arg.getNodes());
+					waitlist.addAll(arg.getIncompleteNodes());
+
+					while (true) {
+						final boolean canDispatch = failure == null && nodesInProgress < threads
+								&& !waitlist.isEmpty() && !stopCriterion.canStop(arg);
+
+						if (canDispatch) {
+							final ArgNode<S, A> node = waitlist.remove();
+							close(node, node.isFeasible() ? reachedSet.getCandidates(node) : reachedSet.get(node));
+							if (!node.isCovered() && !node.isTarget()) {
+								nodesInProgress++;
+								executor.execute(() -> expand(node));
+							}
+						} else if (nodesInProgress == 0) {
+							break;
+						} else {
+							lock.wait();
+						}
+					}
+
+					if (failure instanceof RuntimeException) {
+						// E.g., an UnknownSolverStatusException handled by the checker
+						throw (RuntimeException) failure;
+					} else if (failure instanceof Error) {
+						throw (Error) failure;
+					} else if (failure != null) {
+						throw new IllegalStateException("Exception while expanding node", failure);
+					}
+					return reachedSet;
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while building ARG", e);
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		private void expand(final ArgNode<S, A> node) {
+			try {
+				final ArgBuilder<S, A, P> workerArgBuilder = builders.take();
+				final Collection<Successor<S, A>> successors;
+				try {
+					successors = workerArgBuilder.getSuccessors(node, prec);
+				} finally {
+					builders.add(workerArgBuilder);
+				}
+
+				synchronized (lock) {
+					final Collection<ArgNode<S, A>> newNodes = argBuilder.expand(node, successors);
+					reachedSet.addAll(newNodes);
+					waitlist.addAll(newNodes);
+				}
+			} catch (final Throwable e) {
+				synchronized (lock) {
+					if (failure == null) {
+						failure = e;
+					}
+				}
+			} finally {
+				synchronized (lock) {
+					nodesInProgress--;
+					lock.notifyAll();
+				}
+			}
+		}
+
+		private void close(final ArgNode<S, A> node, final Iterable<ArgNode<S, A>> candidates) {
+			if (!node.isLeaf()) {
+				return;
+			}
+			for (final ArgNode<S, A> candidate : candidates) {
+				if (candidate.mayCover(node)) {
+					node.cover(candidate);
+					return;
+				}
+			}
+		}
+	}
+
+	public static final class Builder<S extends State, A extends Action, P extends Prec> {
+		private final ArgBuilder<S, A, P> argBuilder;
+		private final Supplier<? extends ArgBuilder<S, A, P>> workerArgBuilderFactory;
+		private int threads;
+		private Function<? super S, ?> projection;
+		private Supplier<? extends SubsumptionIndex<? super ArgNode<S, A>>> subsumptionIndexSupplier;
+		private Supplier<? extends Waitlist<ArgNode<S, A>>> waitlistSupplier;
+		private StopCriterion<S, A> stopCriterion;
+		private Logger logger;
+
+		private Builder(final ArgBuilder<S, A, P> argBuilder,
+				final Supplier<? extends ArgBuilder<S, A, P>> workerArgBuilderFactory) {
+			this.argBuilder = argBuilder;
+			this.workerArgBuilderFactory = workerArgBuilderFactory;
+			this.threads = Runtime.getRuntime().availableProcessors();
+			this.projection = s -> 0;
+			this.subsumptionIndexSupplier = NullSubsumptionIndex.supplier();
+			this.waitlistSupplier = FifoWaitlist.supplier();
+			this.stopCriterion = StopCriterions.firstCex();
+			this.logger = NullLogger.getInstance();
+		}
+
+		public Builder<S, A, P> threads(final int threads) {
+			this.threads = threads;
+			return this;
+		}
+
+		public Builder<S, A, P> projection(final Function<? super S, ?> projection) {
+			this.projection = projection;
+			return this;
+		}
+
+		public Builder<S, A, P> subsumptionIndex(
+				final Supplier<? extends SubsumptionIndex<? super ArgNode<S, A>>> subsumptionIndexSupplier) {
+			this.subsumptionIndexSupplier = subsumptionIndexSupplier;
+			return this;
+		}
+
+		public Builder<S, A, P> waitlistSupplier(final Supplier<? extends Waitlist<ArgNode<S, A>>> waitlistSupplier) {
+			this.waitlistSupplier = waitlistSupplier;
+			return this;
+		}
+
+		public Builder<S, A, P> stopCriterion(final StopCriterion<S, A> stopCriterion) {
+			this.stopCriterion = stopCriterion;
+			return this;
+		}
+
+		public Builder<S, A, P> logger(final Logger logger) {
+			this.logger = logger;
+			return this;
+		}
+
+		public ParallelAbstractor<S, A, P> build() {
+			return new ParallelAbstractor<>(argBuilder, workerArgBuilderFactory, threads, projection,
+					subsumptionIndexSupplier, waitlistSupplier,
+					stopCriterion, logger);
+		}
+	}
+
+}
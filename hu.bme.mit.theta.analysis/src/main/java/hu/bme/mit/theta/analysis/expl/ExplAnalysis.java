@@ -22,6 +22,7 @@ import hu.bme.mit.theta.analysis.Domain;
 import hu.bme.mit.theta.analysis.InitFunc;
 import hu.bme.mit.theta.analysis.TransFunc;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.PostCache;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
 import hu.bme.mit.theta.solver.Solver;
@@ -32,17 +33,22 @@ public final class ExplAnalysis implements Analysis<ExplState, ExprAction, ExplP
 	private final InitFunc<ExplState, ExplPrec> initFunc;
 	private final TransFunc<ExplState, ExprAction, ExplPrec> transFunc;
 
-	private ExplAnalysis(final Solver solver, final Expr<BoolType> initExpr) {
+	private ExplAnalysis(final Solver solver, final Expr<BoolType> initExpr, final ExplTransFunc transFunc) {
 		checkNotNull(solver);
 		checkNotNull(initExpr);
 		this.domain = ExplDomain.getInstance();
 		this.initFunc = ExplInitFunc.create(solver, initExpr);
-		this.transFunc = ExplTransFunc.create(solver);
+		this.transFunc = checkNotNull(transFunc);
 
 	}
 
 	public static ExplAnalysis create(final Solver solver, final Expr<BoolType> initExpr) {
-		return new ExplAnalysis(solver, initExpr);
+		return new ExplAnalysis(solver, initExpr, ExplTransFunc.create(solver));
+	}
+
+	public static ExplAnalysis create(final Solver solver, final Expr<BoolType> initExpr,
+			final PostCache<ExplState> postCache) {
+		return new ExplAnalysis(solver, initExpr, ExplTransFunc.create(solver, postCache));
 	}
 
 	@Override
@@ -17,8 +17,10 @@ package hu.bme.mit.theta.analysis.expl;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -26,6 +28,7 @@ import com.google.common.collect.ImmutableSet;
 
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.core.decl.Decl;
 import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.model.BasicValuation;
 import hu.bme.mit.theta.core.model.Valuation;
@@ -33,15 +36,24 @@ import hu.bme.mit.theta.core.type.LitExpr;
 
 /**
  * Represents an immutable, simple explicit precision that is a set of
- * variables.
+ * variables. If all variables have a primitive type (bool, int or rat), the
+ * states are created with values stored in primitive arrays, indexed by a
+ * variable layout that is shared by the precisions obtained by joining.
  */
 public final class ExplPrec implements Prec {
 
 	private final Set<VarDecl<?>> vars;
-	private static ExplPrec EMPTY = new ExplPrec(Collections.emptySet());
+	private final ExplVarLayout layout;
+	private final boolean slotted;
+	private final long[] mask;
+	private static ExplPrec EMPTY = new ExplPrec(Collections.emptySet(), ExplVarLayout.create());
 
-	private ExplPrec(final Iterable<? extends VarDecl<?>> vars) {
+	private ExplPrec(final Iterable<? extends VarDecl<?>> vars, final ExplVarLayout layout) {
 		this.vars = ImmutableSet.copyOf(vars);
+		this.layout = layout;
+		layout.addAll(this.vars);
+		slotted = !this.vars.isEmpty() && this.vars.stream().allMatch(v -> ExplVarLayout.isSupported(v.getType()));
+		mask = ExplValuation.mask(layout, this.vars);
 	}
 
 	public static ExplPrec create() {
@@ -51,7 +63,7 @@ public final class ExplPrec implements Prec {
 	public static ExplPrec create(final Iterable<? extends VarDecl<?>> vars) {
 		checkNotNull(vars);
 		if (vars.iterator().hasNext()) {
-			return new ExplPrec(vars);
+			return new ExplPrec(vars, ExplVarLayout.create());
 		} else {
 			return EMPTY;
 		}
@@ -61,6 +73,10 @@ public final class ExplPrec implements Prec {
 		return vars;
 	}
 
+	public ExplVarLayout getLayout() {
+		return layout;
+	}
+
 	public ExplPrec join(final ExplPrec other) {
 		checkNotNull(other);
 		final Collection<VarDecl<?>> newVars = ImmutableSet.<VarDecl<?>>builder().addAll(vars).addAll(other.vars)
@@ -71,12 +87,21 @@ public final class ExplPrec implements Prec {
 		} else if (newVars.size() == other.vars.size()) {
 			return other;
 		} else {
-			return create(newVars);
+			return new ExplPrec(newVars, layout);
 		}
 	}
 
 	public ExplState createState(final Valuation valuation) {
 		checkNotNull(valuation);
+		if (slotted) {
+			final Optional<ExplValuation> values = valuation instanceof ExplState
+					? ((ExplState) valuation).getExplValuation()
+					: Optional.empty();
+			if (values.isPresent() && values.get().getLayout() == layout) {
+				return ExplState.create(values.get().project(mask));
+			}
+			return ExplState.create(ExplValuation.copyOf(layout, valuation, vars));
+		}
 		final BasicValuation.Builder builder = BasicValuation.builder();
 		for (final VarDecl<?> var : vars) {
 			final Optional<? extends LitExpr<?>> eval = valuation.eval(var);
@@ -87,6 +112,30 @@ public final class ExplPrec implements Prec {
 		return ExplState.create(builder.build());
 	}
 
+	/**
+	 * Converts a state to the layout of this precision (without removing any
+	 * values), so that the successors can be computed on primitive arrays.
+	 * States that cannot be converted are returned unchanged.
+	 */
+	ExplState toLayout(final ExplState state) {
+		if (!slotted || state.isBottom()) {
+			return state;
+		}
+		final Optional<ExplValuation> values = state.getExplValuation();
+		if (values.isPresent() && values.get().getLayout() == layout) {
+			return state;
+		}
+		final List<VarDecl<?>> stateVars = new ArrayList<>(state.getDecls().size());
+		for (final Decl<?> decl : state.getDecls()) {
+			if (!(decl instanceof VarDecl) || !ExplVarLayout.isSupported(decl.getType())) {
+				return state;
+			}
+			stateVars.add((VarDecl<?>) decl);
+		}
+		layout.addAll(stateVars);
+		return ExplState.create(ExplValuation.copyOf(layout, state));
+	}
+
 	@Override
 	public String toString() {
 		return Utils.toStringBuilder(getClass().getSimpleName()).addAll(vars, VarDecl::getName).toString();
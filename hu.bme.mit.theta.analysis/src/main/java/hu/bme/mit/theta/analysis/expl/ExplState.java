@@ -25,6 +25,7 @@ import hu.bme.mit.theta.analysis.expr.ExprState;
 import hu.bme.mit.theta.common.ToStringBuilder;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.model.BasicValuation;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
@@ -35,13 +36,27 @@ import hu.bme.mit.theta.core.type.booltype.BoolType;
 
 public abstract class ExplState implements ExprState, Valuation {
 
+	private static final int HASH_SEED = 6659;
+
 	public static ExplState create(final Valuation values) {
+		if (values instanceof ExplValuation) {
+			return create((ExplValuation) values);
+		}
 		if (values.getDecls().isEmpty()) {
 			return createTop();
 		}
 		return new NonBottom(values);
 	}
 
+	/**
+	 * Creates a state that stores its values in the primitive arrays of the
+	 * given valuation. Unlike other valuations, an empty valuation does not
+	 * yield the top instance, as the state keeps the layout of the valuation.
+	 */
+	public static ExplState create(final ExplValuation values) {
+		return new Slotted(values);
+	}
+
 	public static ExplState createBottom() {
 		return BottomLazyHolder.INSTANCE;
 	}
@@ -56,11 +71,89 @@ public abstract class ExplState implements ExprState, Valuation {
 
 	public abstract boolean isTop();
 
+	/**
+	 * Gets the state where the given variable has the given value and the
+	 * other variables are unchanged.
+	 */
+	public abstract ExplState assign(final VarDecl<?> var, final LitExpr<?> value);
+
+	/**
+	 * Gets the state where the given variable has no value and the other
+	 * variables are unchanged.
+	 */
+	public abstract ExplState havoc(final VarDecl<?> var);
+
+	/**
+	 * Gets a 64-bit hash of the state for hash compaction, which (like the hash
+	 * code) only depends on the assignments of the state.
+	 */
+	public long fingerprint() {
+		final Optional<ExplValuation> values = getExplValuation();
+		if (values.isPresent()) {
+			return values.get().fingerprintOfAssignments();
+		}
+		long result = 0;
+		for (final Decl<?> decl : getDecls()) {
+			result += ExplVarLayout.fingerprint(decl, eval(decl).get());
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the slot-indexed valuation of the state, if it is stored in that
+	 * form.
+	 */
+	Optional<ExplValuation> getExplValuation() {
+		return Optional.empty();
+	}
+
 	////
 
+	private static boolean isLeqByValues(final ExplState state1, final ExplState state2) {
+		if (state2.isBottom()) {
+			return false;
+		}
+		if (state2.getDecls().size() > state1.getDecls().size()) {
+			return false;
+		}
+		for (final Decl<?> varDecl : state2.getDecls()) {
+			final Optional<? extends LitExpr<?>> value1 = state1.eval(varDecl);
+			if (!value1.isPresent() || !state2.eval(varDecl).get().equals(value1.get())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean equalsByValues(final ExplState state1, final ExplState state2) {
+		return !state2.isBottom() && state1.getDecls().size() == state2.getDecls().size()
+				&& isLeqByValues(state1, state2);
+	}
+
+	/**
+	 * The hash of a state only depends on its assignments, so states with
+	 * different representations but with the same values are equal.
+	 */
+	private static int hashOfAssignments(final Valuation values) {
+		int result = 0;
+		for (final Decl<?> decl : values.getDecls()) {
+			result += ExplVarLayout.hash(decl, values.eval(decl).get());
+		}
+		return result;
+	}
+
+	private static BasicValuation.Builder copyWithout(final Valuation values, final VarDecl<?> excluded) {
+		final BasicValuation.Builder builder = BasicValuation.builder();
+		for (final Decl<?> decl : values.getDecls()) {
+			if (!decl.equals(excluded)) {
+				builder.put(decl, values.eval(decl).get());
+			}
+		}
+		return builder;
+	}
+
 	private static final class NonBottom extends ExplState {
 
-		private static final int HASH_SEED = 6659;
 		private final Valuation values;
 		private volatile int hashCode;
 
@@ -87,18 +180,113 @@ public abstract class ExplState implements ExprState, Valuation {
 
 		@Override
 		public boolean isLeq(final ExplState that) {
-			if (that.isBottom()) {
-				return false;
+			return isLeqByValues(this, that);
+		}
+
+		@Override
+		public boolean isBottom() {
+			return false;
+		}
+
+		@Override
+		public boolean isTop() {
+			return values.getDecls().isEmpty();
+		}
+
+		@Override
+		public ExplState assign(final VarDecl<?> var, final LitExpr<?> value) {
+			return new NonBottom(copyWithout(values, var).put(var, value).build());
+		}
+
+		@Override
+		public ExplState havoc(final VarDecl<?> var) {
+			if (!values.getDecls().contains(var)) {
+				return this;
 			}
-			if (that.getDecls().size() > this.getDecls().size()) {
+			return ExplState.create(copyWithout(values, var).build());
+		}
+
+		////
+
+		@Override
+		public int hashCode() {
+			int result = hashCode;
+			if (result == 0) {
+				result = HASH_SEED;
+				result = 31 * result + hashOfAssignments(values);
+				hashCode = result;
+			}
+			return result;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (obj instanceof NonBottom && this.values.equals(((NonBottom) obj).values)) {
+				return true;
+			} else if (obj instanceof ExplState) {
+				return equalsByValues(this, (ExplState) obj);
+			} else {
 				return false;
 			}
-			for (final Decl<?> varDecl : that.getDecls()) {
-				if (!this.getDecls().contains(varDecl) || !that.eval(varDecl).get().equals(this.eval(varDecl).get())) {
-					return false;
+		}
+
+		@Override
+		public String toString() {
+			final ToStringBuilder builder = Utils.toStringBuilder(ExplState.class.getSimpleName());
+			for (final Decl<?> varDecl : values.getDecls()) {
+				builder.add(varDecl.getName() + " = " + eval(varDecl).get());
+			}
+			return builder.toString();
+		}
+	}
+
+	/**
+	 * Non-bottom state whose values are stored in the primitive arrays of an
+	 * {@link ExplValuation}. States with the same layout are compared on the
+	 * arrays, without decoding the values.
+	 */
+	private static final class Slotted extends ExplState {
+
+		private final ExplValuation values;
+		private volatile int hashCode;
+
+		private Slotted(final ExplValuation values) {
+			this.values = checkNotNull(values);
+		}
+
+		@Override
+		public Collection<? extends Decl<?>> getDecls() {
+			return values.getDecls();
+		}
+
+		@Override
+		public <DeclType extends Type> Optional<LitExpr<DeclType>> eval(final Decl<DeclType> decl) {
+			return values.eval(decl);
+		}
+
+		@Override
+		public Expr<BoolType> toExpr() {
+			return values.toExpr();
+		}
+
+		@Override
+		Optional<ExplValuation> getExplValuation() {
+			return Optional.of(values);
+		}
+
+		////
+
+		@Override
+		public boolean isLeq(final ExplState that) {
+			if (that instanceof Slotted) {
+				final ExplValuation thatValues = ((Slotted) that).values;
+				if (thatValues.getLayout() == values.getLayout()) {
+					return values.isLeq(thatValues);
 				}
 			}
-			return true;
+			return isLeqByValues(this, that);
 		}
 
 		@Override
@@ -108,7 +296,26 @@ public abstract class ExplState implements ExprState, Valuation {
 
 		@Override
 		public boolean isTop() {
-			return values.getDecls().isEmpty();
+			return values.isEmpty();
+		}
+
+		@Override
+		public ExplState assign(final VarDecl<?> var, final LitExpr<?> value) {
+			final ExplVarLayout layout = values.getLayout();
+			if (layout.getSlot(var) < 0 && ExplVarLayout.isSupported(var.getType())) {
+				layout.addAll(Collections.singleton(var));
+			}
+			if (layout.getSlot(var) >= 0) {
+				return new Slotted(values.with(var, value));
+			} else {
+				return new NonBottom(values).assign(var, value);
+			}
+		}
+
+		@Override
+		public ExplState havoc(final VarDecl<?> var) {
+			final ExplValuation newValues = values.without(var);
+			return newValues == values ? this : new Slotted(newValues);
 		}
 
 		////
@@ -118,7 +325,7 @@ public abstract class ExplState implements ExprState, Valuation {
 			int result = hashCode;
 			if (result == 0) {
 				result = HASH_SEED;
-				result = 31 * result + values.hashCode();
+				result = 31 * result + values.hashOfAssignments();
 				hashCode = result;
 			}
 			return result;
@@ -128,9 +335,10 @@ public abstract class ExplState implements ExprState, Valuation {
 		public boolean equals(final Object obj) {
 			if (this == obj) {
 				return true;
-			} else if (obj instanceof NonBottom) {
-				final NonBottom that = (NonBottom) obj;
-				return this.values.equals(that.values);
+			} else if (obj instanceof Slotted && ((Slotted) obj).values.getLayout() == values.getLayout()) {
+				return this.values.equals(((Slotted) obj).values);
+			} else if (obj instanceof ExplState) {
+				return equalsByValues(this, (ExplState) obj);
 			} else {
 				return false;
 			}
@@ -169,6 +377,16 @@ public abstract class ExplState implements ExprState, Valuation {
 			return true;
 		}
 
+		@Override
+		public ExplState assign(final VarDecl<?> var, final LitExpr<?> value) {
+			return this;
+		}
+
+		@Override
+		public ExplState havoc(final VarDecl<?> var) {
+			return this;
+		}
+
 		@Override
 		public boolean isBottom() {
 			return true;
@@ -181,6 +399,11 @@ public abstract class ExplState implements ExprState, Valuation {
 
 		////
 
+		@Override
+		public long fingerprint() {
+			return 3931;
+		}
+
 		@Override
 		public int hashCode() {
 			return 3931;
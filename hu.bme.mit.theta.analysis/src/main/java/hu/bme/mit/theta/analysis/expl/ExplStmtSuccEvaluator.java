@@ -15,9 +15,9 @@
  */
 package hu.bme.mit.theta.analysis.expl;
 
+import java.util.Optional;
+
 import hu.bme.mit.theta.core.decl.VarDecl;
-import hu.bme.mit.theta.core.model.BasicValuation;
-import hu.bme.mit.theta.core.model.MutableValuation;
 import hu.bme.mit.theta.core.stmt.AssignStmt;
 import hu.bme.mit.theta.core.stmt.AssumeStmt;
 import hu.bme.mit.theta.core.stmt.HavocStmt;
@@ -28,6 +28,7 @@ import hu.bme.mit.theta.core.type.Type;
 import hu.bme.mit.theta.core.type.booltype.BoolExprs;
 import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.CompiledExpr;
 import hu.bme.mit.theta.core.utils.ExprUtils;
 import hu.bme.mit.theta.core.utils.StmtVisitor;
 
@@ -82,6 +83,17 @@ public final class ExplStmtSuccEvaluator {
 		}
 	}
 
+	/**
+	 * Evaluates an expression with its compiled form, which reads the values
+	 * directly from the slots. If the expression cannot be compiled or its
+	 * value is not determined, the expression has to be simplified, which is
+	 * more precise (and much slower).
+	 */
+	private static long evalCompiled(final Expr<?> expr, final ExplValuation values) {
+		final Optional<CompiledExpr> compiled = values.getLayout().compile(expr);
+		return compiled.isPresent() ? compiled.get().eval(values) : CompiledExpr.UNDETERMINED;
+	}
+
 	private static final class EvaluatorVisitor implements StmtVisitor<ExplState, EvalResult> {
 
 		@Override
@@ -91,16 +103,21 @@ public final class ExplStmtSuccEvaluator {
 			}
 
 			final VarDecl<DeclType> varDecl = stmt.getVarDecl();
+			final Optional<ExplValuation> values = param.getExplValuation();
+			if (values.isPresent()) {
+				final long value = evalCompiled(stmt.getExpr(), values.get());
+				final int slot = values.get().getLayout().getSlot(varDecl);
+				if (value != CompiledExpr.UNDETERMINED && slot >= 0) {
+					return EvalResult.precise(ExplState.create(values.get().with(slot, value)));
+				}
+			}
+
 			final Expr<DeclType> exprSimplified = ExprUtils.simplify(stmt.getExpr(), param);
 			if (exprSimplified instanceof LitExpr<?>) {
 				final LitExpr<DeclType> lit = (LitExpr<DeclType>) exprSimplified;
-				final MutableValuation mutableVal = MutableValuation.copyOf(param).remove(varDecl).put(varDecl, lit);
-				final BasicValuation basicVal = BasicValuation.copyOf(mutableVal);
-				return EvalResult.precise(ExplState.create(basicVal));
+				return EvalResult.precise(param.assign(varDecl, lit));
 			} else {
-				final MutableValuation mutableVal = MutableValuation.copyOf(param).remove(varDecl);
-				final BasicValuation basicVal = BasicValuation.copyOf(mutableVal);
-				return EvalResult.imprecise(ExplState.create(basicVal));
+				return EvalResult.imprecise(param.havoc(varDecl));
 			}
 		}
 
@@ -110,6 +127,16 @@ public final class ExplStmtSuccEvaluator {
 				return EvalResult.precise(param);
 			}
 
+			final Optional<ExplValuation> values = param.getExplValuation();
+			if (values.isPresent()) {
+				final long value = evalCompiled(stmt.getCond(), values.get());
+				if (value == 1) {
+					return EvalResult.precise(param);
+				} else if (value == 0) {
+					return EvalResult.precise(ExplState.createBottom());
+				}
+			}
+
 			final Expr<BoolType> condSimplified = ExprUtils.simplify(stmt.getCond(), param);
 			if (condSimplified instanceof BoolLitExpr) {
 				if (condSimplified.equals(BoolExprs.True())) {
@@ -125,13 +152,7 @@ public final class ExplStmtSuccEvaluator {
 		@Override
 		public <LhsType extends Type> EvalResult visit(final HavocStmt<LhsType> stmt, final ExplState param) {
 			final VarDecl<LhsType> varToHavoc = stmt.getVarDecl();
-			if (param.getDecls().contains(varToHavoc)) {
-				final MutableValuation mutableVal = MutableValuation.copyOf(param).remove(varToHavoc);
-				final BasicValuation basicVal = BasicValuation.copyOf(mutableVal);
-				return EvalResult.precise(ExplState.create(basicVal));
-			} else {
-				return EvalResult.precise(param);
-			}
+			return EvalResult.precise(param.havoc(varToHavoc));
 		}
 	}
 }
@@ -58,7 +58,7 @@ public final class ExplStmtTransFunc implements TransFunc<ExplState, StmtAction,
 
 	Collection<? extends ExplState> getSuccStates(final ExplState state, final List<Stmt> stmts, final ExplPrec prec) {
 		boolean triedSolver = false;
-		ExplState running = state;
+		ExplState running = prec.toLayout(state);
 
 		for (int i = 0; i < stmts.size(); i++) {
 			final Stmt stmt = stmts.get(i);
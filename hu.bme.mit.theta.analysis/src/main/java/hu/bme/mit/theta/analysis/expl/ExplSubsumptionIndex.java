@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import hu.bme.mit.theta.analysis.reachedset.SubsumptionIndex;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.type.LitExpr;
+
+/**
+ * Subsumption index for explicit states, based on a decision trie over the
+ * values of the variables. Each level of the trie corresponds to a variable,
+ * and a state is stored along the path of its values, where variables without
+ * a value are represented by a separate branch. An explicit state can only be
+ * covered by states whose assignments are a subset of its assignments, which
+ * the trie can enumerate without checking other states. The states of the
+ * elements should not change after they are added.
+ */
+public final class ExplSubsumptionIndex<T> implements SubsumptionIndex<T> {
+
+	private final Function<? super T, ? extends ExplState> toState;
+	private final List<Decl<?>> decls;
+	private final Map<Decl<?>, Integer> declToLevel;
+	private final Node root;
+	private int size;
+
+	private ExplSubsumptionIndex(final Function<? super T, ? extends ExplState> toState) {
+		this.toState = checkNotNull(toState);
+		decls = new ArrayList<>();
+		declToLevel = new HashMap<>();
+		root = new Node();
+		size = 0;
+	}
+
+	public static <T> ExplSubsumptionIndex<T> create(final Function<? super T, ? extends ExplState> toState) {
+		return new ExplSubsumptionIndex<>(toState);
+	}
+
+	public static <T> Supplier<ExplSubsumptionIndex<T>> supplier(
+			final Function<? super T, ? extends ExplState> toState) {
+		return () -> create(toState);
+	}
+
+	@Override
+	public void add(final T elem) {
+		final int id = size++;
+		final ExplState state = toState.apply(elem);
+		// Bottom states cannot cover any non-bottom state
+		if (state.isBottom()) {
+			return;
+		}
+
+		for (final Decl<?> decl : state.getDecls()) {
+			if (!declToLevel.containsKey(decl)) {
+				declToLevel.put(decl, decls.size());
+				decls.add(decl);
+			}
+		}
+
+		Node node = root;
+		int remaining = state.getDecls().size();
+		for (int level = 0; remaining > 0; level++) {
+			final Optional<? extends LitExpr<?>> value = state.eval(decls.get(level));
+			if (value.isPresent()) {
+				node = node.children.computeIfAbsent(value.get(), v -> new Node());
+				remaining--;
+			} else {
+				if (node.absent == null) {
+					node.absent = new Node();
+				}
+				node = node.absent;
+			}
+		}
+		node.elems.set(id);
+	}
+
+	@Override
+	public BitSet getCandidates(final T elem) {
+		final ExplState state = toState.apply(elem);
+		final BitSet candidates = new BitSet(size);
+		if (state.isBottom()) {
+			candidates.set(0, size);
+		} else {
+			collect(root, 0, state, candidates);
+		}
+		return candidates;
+	}
+
+	private void collect(final Node node, final int level, final ExplState state, final BitSet candidates) {
+		// Elements ending here have no value for the remaining variables
+		candidates.or(node.elems);
+		if (level == decls.size()) {
+			return;
+		}
+		if (node.absent != null) {
+			collect(node.absent, level + 1, state, candidates);
+		}
+		final Optional<? extends LitExpr<?>> value = state.eval(decls.get(level));
+		if (value.isPresent()) {
+			final Node child = node.children.get(value.get());
+			if (child != null) {
+				collect(child, level + 1, state, candidates);
+			}
+		}
+	}
+
+	private static final class Node {
+		private final Map<LitExpr<?>, Node> children;
+		private final BitSet elems;
+		private Node absent;
+
+		private Node() {
+			children = new HashMap<>();
+			elems = new BitSet();
+			absent = null;
+		}
+	}
+
+}
@@ -16,25 +16,51 @@
 package hu.bme.mit.theta.analysis.expl;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 
 import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
 
 import hu.bme.mit.theta.analysis.TransFunc;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
 import hu.bme.mit.theta.analysis.expr.ExprStates;
+import hu.bme.mit.theta.analysis.expr.PostCache;
+import hu.bme.mit.theta.common.product.Tuple;
+import hu.bme.mit.theta.core.decl.VarDecl;
 import hu.bme.mit.theta.core.type.booltype.BoolExprs;
+import hu.bme.mit.theta.core.utils.ExprUtils;
 import hu.bme.mit.theta.solver.Solver;
 
 public final class ExplTransFunc implements TransFunc<ExplState, ExprAction, ExplPrec> {
 
 	private final Solver solver;
+	private final Optional<PostCache<ExplState>> postCache;
+	private final Cache<ExprAction, Set<VarDecl<?>>> actionToVars;
 
-	private ExplTransFunc(final Solver solver) {
+	private ExplTransFunc(final Solver solver, final Optional<PostCache<ExplState>> postCache) {
 		this.solver = checkNotNull(solver);
+		this.postCache = checkNotNull(postCache);
+		actionToVars = CacheBuilder.newBuilder().weakKeys().build();
 	}
 
 	public static ExplTransFunc create(final Solver solver) {
-		return new ExplTransFunc(solver);
+		return new ExplTransFunc(solver, Optional.empty());
+	}
+
+	/**
+	 * Creates a transfer function that stores the successors in a cache, keyed
+	 * by the state, the action and the variables of the precision that appear
+	 * in the state or the action. Other variables of the precision cannot have
+	 * a value in the successors, so the cached results remain valid when such
+	 * variables are added to the precision.
+	 */
+	public static ExplTransFunc create(final Solver solver, final PostCache<ExplState> postCache) {
+		return new ExplTransFunc(solver, Optional.of(postCache));
 	}
 
 	@Override
@@ -43,6 +69,28 @@ public final class ExplTransFunc implements TransFunc<ExplState, ExprAction, Exp
 		checkNotNull(state);
 		checkNotNull(action);
 		checkNotNull(prec);
+
+		if (postCache.isPresent()) {
+			final Set<VarDecl<?>> actionVars = getVars(action);
+			final Set<VarDecl<?>> relevantVars = prec.getVars().stream()
+					.filter(v -> actionVars.contains(v) || state.getDecls().contains(v)).collect(toImmutableSet());
+			return postCache.get().get(Tuple.of(state, action, relevantVars), () -> post(state, action, prec));
+		} else {
+			return post(state, action, prec);
+		}
+	}
+
+	private Set<VarDecl<?>> getVars(final ExprAction action) {
+		Set<VarDecl<?>> vars = actionToVars.getIfPresent(action);
+		if (vars == null) {
+			vars = ImmutableSet.copyOf(ExprUtils.getVars(action.toExpr()));
+			actionToVars.put(action, vars);
+		}
+		return vars;
+	}
+
+	private Collection<? extends ExplState> post(final ExplState state, final ExprAction action,
+			final ExplPrec prec) {
 		return ExprStates.createStatesForExpr(solver, BoolExprs.And(state.toExpr(), action.toExpr()), 0,
 				prec::createState, action.nextIndexing());
 	}
@@ -0,0 +1,370 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.abstracttype.AbstractExprs.Eq;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import hu.bme.mit.theta.common.ToStringBuilder;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.Type;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.CompiledExpr;
+
+/**
+ * Immutable valuation that stores the values in a primitive array indexed by
+ * the slots of a variable layout, with a bitmask marking the slots that have a
+ * value. Updates copy the arrays (copy-on-write), which is much cheaper than
+ * copying a map. Slots without a value always contain 0, so valuations can be
+ * compared without decoding the values.
+ */
+public final class ExplValuation implements Valuation, CompiledExpr.Slots {
+
+	private static final long[] EMPTY = new long[0];
+
+	private final ExplVarLayout layout;
+	private final long[] present;
+	private final long[] values;
+	private final int size;
+
+	private volatile List<Decl<?>> decls = null;
+	private volatile Expr<BoolType> expr = null;
+	private volatile int hashCode = 0;
+
+	private ExplValuation(final ExplVarLayout layout, final long[] present, final long[] values, final int size) {
+		this.layout = layout;
+		this.present = present;
+		this.values = values;
+		this.size = size;
+	}
+
+	public static ExplValuation empty(final ExplVarLayout layout) {
+		return new ExplValuation(checkNotNull(layout), EMPTY, EMPTY, 0);
+	}
+
+	/**
+	 * Creates a valuation with the values of the given declarations. All
+	 * declarations must have a slot in the layout.
+	 */
+	public static ExplValuation copyOf(final ExplVarLayout layout, final Valuation val) {
+		return copyOf(layout, val, val.getDecls());
+	}
+
+	/**
+	 * Creates a valuation with the values of the given declarations that have
+	 * a value in the given valuation. All declarations must have a slot in the
+	 * layout.
+	 */
+	public static ExplValuation copyOf(final ExplVarLayout layout, final Valuation val,
+			final Iterable<? extends Decl<?>> decls) {
+		checkNotNull(layout);
+		checkNotNull(val);
+		final int length = layout.size();
+		final long[] present = new long[words(length)];
+		final long[] values = new long[length];
+		int size = 0;
+		for (final Decl<?> decl : decls) {
+			final int slot = layout.getSlot(decl);
+			checkArgument(slot >= 0, "Declaration " + decl.getName() + " has no slot.");
+			final Optional<? extends LitExpr<?>> value = val.eval(decl);
+			if (value.isPresent()) {
+				values[slot] = ExplVarLayout.encode(value.get());
+				present[slot >>> 6] |= 1L << slot;
+				size++;
+			}
+		}
+		return new ExplValuation(layout, present, values, size);
+	}
+
+	public ExplVarLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Gets the number of declarations with a value.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets a valuation where the given variable, which must have a slot in the
+	 * layout, has the given value.
+	 */
+	public ExplValuation with(final VarDecl<?> var, final LitExpr<?> value) {
+		checkArgument(value.getType().equals(var.getType()), "Type mismatch.");
+		final int slot = layout.getSlot(var);
+		checkArgument(slot >= 0, "Variable " + var.getName() + " has no slot.");
+		return with(slot, ExplVarLayout.encode(value));
+	}
+
+	/**
+	 * Gets a valuation where the given slot has the given encoded value (see
+	 * {@link ExplVarLayout#encode(LitExpr)}).
+	 */
+	public ExplValuation with(final int slot, final long value) {
+		checkArgument(slot >= 0 && slot < layout.size(), "Slot out of range.");
+		final boolean wasPresent = isPresent(slot);
+		if (wasPresent && values[slot] == value) {
+			return this;
+		}
+		final int length = Math.max(values.length, slot + 1);
+		final long[] newPresent = Arrays.copyOf(present, words(length));
+		final long[] newValues = Arrays.copyOf(values, length);
+		newPresent[slot >>> 6] |= 1L << slot;
+		newValues[slot] = value;
+		return new ExplValuation(layout, newPresent, newValues, wasPresent ? size : size + 1);
+	}
+
+	/**
+	 * Gets a valuation where the given declaration has no value.
+	 */
+	public ExplValuation without(final Decl<?> decl) {
+		final int slot = layout.getSlot(decl);
+		if (slot < 0 || !isPresent(slot)) {
+			return this;
+		}
+		final long[] newPresent = present.clone();
+		final long[] newValues = values.clone();
+		newPresent[slot >>> 6] &= ~(1L << slot);
+		newValues[slot] = 0;
+		return new ExplValuation(layout, newPresent, newValues, size - 1);
+	}
+
+	/**
+	 * Gets a valuation that keeps only the values of the slots in the given
+	 * mask (see {@link #mask(ExplVarLayout, Iterable)}).
+	 */
+	ExplValuation project(final long[] mask) {
+		final long[] newPresent = new long[present.length];
+		boolean changed = false;
+		int newSize = 0;
+		for (int w = 0; w < present.length; w++) {
+			final long word = present[w] & (w < mask.length ? mask[w] : 0);
+			newPresent[w] = word;
+			changed |= word != present[w];
+			newSize += Long.bitCount(word);
+		}
+		if (!changed) {
+			return this;
+		}
+		final long[] newValues = new long[values.length];
+		for (int i = 0; i < values.length; i++) {
+			newValues[i] = (newPresent[i >>> 6] >>> i & 1L) != 0 ? values[i] : 0;
+		}
+		return new ExplValuation(layout, newPresent, newValues, newSize);
+	}
+
+	/**
+	 * Creates a mask of the slots of the given variables.
+	 */
+	static long[] mask(final ExplVarLayout layout, final Iterable<? extends Decl<?>> decls) {
+		final long[] mask = new long[words(layout.size())];
+		for (final Decl<?> decl : decls) {
+			final int slot = layout.getSlot(decl);
+			if (slot >= 0) {
+				mask[slot >>> 6] |= 1L << slot;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Checks whether this valuation has all the values of the other one, which
+	 * must have the same layout.
+	 */
+	public boolean isLeq(final ExplValuation that) {
+		checkArgument(this.layout == that.layout, "Layouts differ.");
+		if (that.size > this.size) {
+			return false;
+		}
+		for (int w = 0; w < that.present.length; w++) {
+			final long thisWord = w < this.present.length ? this.present[w] : 0;
+			if ((that.present[w] & ~thisWord) != 0) {
+				return false;
+			}
+		}
+		// Slots of 'that' beyond the length of 'this' cannot have a value here
+		final int length = Math.min(this.values.length, that.values.length);
+		long differ = 0;
+		for (int i = 0; i < length; i++) {
+			differ |= (this.values[i] ^ that.values[i]) & -(that.present[i >>> 6] >>> i & 1L);
+		}
+		return differ == 0;
+	}
+
+	@Override
+	public boolean isPresent(final int slot) {
+		final int word = slot >>> 6;
+		return word < present.length && (present[word] & 1L << slot) != 0;
+	}
+
+	@Override
+	public long getValue(final int slot) {
+		return values[slot];
+	}
+
+	private static int words(final int length) {
+		return (length + 63) >>> 6;
+	}
+
+	////
+
+	@Override
+	public Collection<? extends Decl<?>> getDecls() {
+		List<Decl<?>> result = decls;
+		if (result == null) {
+			final List<Decl<?>> list = new ArrayList<>(size);
+			for (int i = 0; i < values.length; i++) {
+				if (isPresent(i)) {
+					list.add(layout.getVar(i));
+				}
+			}
+			result = Collections.unmodifiableList(list);
+			decls = result;
+		}
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <DeclType extends Type> Optional<LitExpr<DeclType>> eval(final Decl<DeclType> decl) {
+		final int slot = layout.getSlot(decl);
+		if (slot < 0 || !isPresent(slot)) {
+			return Optional.empty();
+		}
+		return Optional.of((LitExpr<DeclType>) ExplVarLayout.decode(decl.getType(), values[slot]));
+	}
+
+	@Override
+	public Expr<BoolType> toExpr() {
+		Expr<BoolType> result = expr;
+		if (result == null) {
+			final List<Expr<BoolType>> ops = new ArrayList<>(size);
+			for (int i = 0; i < values.length; i++) {
+				if (isPresent(i)) {
+					final VarDecl<?> var = layout.getVar(i);
+					ops.add(Eq(var.getRef(), ExplVarLayout.decode(var.getType(), values[i])));
+				}
+			}
+			if (ops.isEmpty()) {
+				result = True();
+			} else if (ops.size() == 1) {
+				result = ops.get(0);
+			} else {
+				result = And(ops);
+			}
+			expr = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the sum of the hashes of the assignments, which is consistent with
+	 * {@link ExplVarLayout#hash(Decl, LitExpr)}.
+	 */
+	int hashOfAssignments() {
+		int result = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (isPresent(i)) {
+				result += ExplVarLayout.hash(layout.getVar(i), values[i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the sum of the fingerprints of the assignments, which is consistent
+	 * with {@link ExplVarLayout#fingerprint(Decl, LitExpr)}.
+	 */
+	long fingerprintOfAssignments() {
+		long result = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (isPresent(i)) {
+				result += ExplVarLayout.fingerprint(layout.getVar(i), values[i]);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = hashCode;
+		if (result == 0) {
+			result = 6151;
+			result = 31 * result + hashOfAssignments();
+			hashCode = result;
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (obj instanceof ExplValuation) {
+			final ExplValuation that = (ExplValuation) obj;
+			return this.layout == that.layout && this.size == that.size
+					&& equalsZeroExtended(this.present, that.present) && equalsZeroExtended(this.values, that.values);
+		} else {
+			return false;
+		}
+	}
+
+	private static boolean equalsZeroExtended(final long[] a, final long[] b) {
+		final int length = Math.min(a.length, b.length);
+		long differ = 0;
+		for (int i = 0; i < length; i++) {
+			differ |= a[i] ^ b[i];
+		}
+		for (int i = length; i < a.length; i++) {
+			differ |= a[i];
+		}
+		for (int i = length; i < b.length; i++) {
+			differ |= b[i];
+		}
+		return differ == 0;
+	}
+
+	@Override
+	public String toString() {
+		final ToStringBuilder builder = Utils.toStringBuilder(getClass().getSimpleName());
+		for (final Decl<?> decl : getDecls()) {
+			builder.add(decl.getName() + " = " + eval(decl).get());
+		}
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,213 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import hu.bme.mit.theta.analysis.algorithm.FingerprintSet;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.Type;
+import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.type.rattype.RatLitExpr;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+import hu.bme.mit.theta.core.utils.CompiledExpr;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+
+/**
+ * Assigns a dense slot to each variable of an analysis, so that valuations can
+ * store the values in primitive arrays (see {@link ExplValuation}). Only
+ * variables of type bool, int and rat have a slot, whose values are encoded
+ * into a long. The layout can only grow: new variables get new slots, but the
+ * slots of the existing variables never change, so valuations created earlier
+ * remain valid. The layout can be used from multiple threads.
+ */
+public final class ExplVarLayout {
+
+	private volatile Slots slots;
+	private final Map<Expr<?>, Optional<CompiledExpr>> compiledExprs;
+
+	private ExplVarLayout() {
+		slots = new Slots(Collections.emptyList(), Collections.emptyMap());
+		compiledExprs = new ConcurrentHashMap<>();
+	}
+
+	public static ExplVarLayout create() {
+		return new ExplVarLayout();
+	}
+
+	public static ExplVarLayout create(final Iterable<? extends VarDecl<?>> vars) {
+		final ExplVarLayout layout = new ExplVarLayout();
+		layout.addAll(vars);
+		return layout;
+	}
+
+	/**
+	 * Assigns slots to the given variables that do not have one yet and whose
+	 * type is supported.
+	 */
+	public synchronized void addAll(final Iterable<? extends VarDecl<?>> vars) {
+		checkNotNull(vars);
+		final Slots current = slots;
+		List<VarDecl<?>> newVars = null;
+		Map<Decl<?>, Integer> newSlots = null;
+		for (final VarDecl<?> var : vars) {
+			if (isSupported(var.getType()) && !current.declToSlot.containsKey(var)
+					&& (newSlots == null || !newSlots.containsKey(var))) {
+				if (newVars == null) {
+					newVars = new ArrayList<>(current.vars);
+					newSlots = new HashMap<>(current.declToSlot);
+				}
+				newSlots.put(var, newVars.size());
+				newVars.add(var);
+			}
+		}
+		if (newVars != null) {
+			slots = new Slots(newVars, newSlots);
+		}
+	}
+
+	/**
+	 * Gets the slot of a declaration, or -1 if it has no slot.
+	 */
+	public int getSlot(final Decl<?> decl) {
+		final Integer slot = slots.declToSlot.get(decl);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Gets the compiled form of an integer or Boolean expression, which reads
+	 * the values from the slots of this layout, or an empty optional if the
+	 * expression cannot be compiled. The variables of the expression get a
+	 * slot if they do not have one yet. The compiled expressions are cached.
+	 */
+	public Optional<CompiledExpr> compile(final Expr<?> expr) {
+		checkNotNull(expr);
+		final Optional<CompiledExpr> cached = compiledExprs.get(expr);
+		if (cached != null) {
+			return cached;
+		}
+		addAll(ExprUtils.getVars(expr));
+		final Optional<CompiledExpr> compiled = ExprUtils.compile(expr, this::getSlot);
+		compiledExprs.put(expr, compiled);
+		return compiled;
+	}
+
+	public VarDecl<?> getVar(final int slot) {
+		return slots.vars.get(slot);
+	}
+
+	public int size() {
+		return slots.vars.size();
+	}
+
+	public static boolean isSupported(final Type type) {
+		return type instanceof BoolType || type instanceof IntType || type instanceof RatType;
+	}
+
+	/**
+	 * Encodes a literal of a supported type into a long.
+	 */
+	public static long encode(final LitExpr<?> value) {
+		if (value instanceof IntLitExpr) {
+			return ((IntLitExpr) value).getValue();
+		} else if (value instanceof BoolLitExpr) {
+			return ((BoolLitExpr) value).getValue() ? 1 : 0;
+		} else if (value instanceof RatLitExpr) {
+			final RatLitExpr rat = (RatLitExpr) value;
+			return ((long) rat.getNum() << 32) | (rat.getDenom() & 0xFFFFFFFFL);
+		} else {
+			throw new IllegalArgumentException("Unsupported literal: " + value);
+		}
+	}
+
+	/**
+	 * Decodes a literal of the given type, encoded by {@link #encode(LitExpr)}.
+	 */
+	public static LitExpr<?> decode(final Type type, final long value) {
+		if (type instanceof IntType) {
+			return Int((int) value);
+		} else if (type instanceof BoolType) {
+			return Bool(value != 0);
+		} else if (type instanceof RatType) {
+			return Rat((int) (value >> 32), (int) value);
+		} else {
+			throw new IllegalArgumentException("Unsupported type: " + type);
+		}
+	}
+
+	/**
+	 * Gets the hash of an assignment, which is the same for the encoded and
+	 * the literal form of the value.
+	 */
+	static int hash(final Decl<?> decl, final long value) {
+		return 31 * decl.hashCode() + Long.hashCode(value);
+	}
+
+	static int hash(final Decl<?> decl, final LitExpr<?> value) {
+		return isSupported(decl.getType()) ? hash(decl, encode(value)) : 31 * decl.hashCode() + value.hashCode();
+	}
+
+	/**
+	 * Gets the 64-bit fingerprint of an assignment, which is the same for the
+	 * encoded and the literal form of the value. Declarations are equal only
+	 * if they are the same object, but their hash codes only depend on their
+	 * names and types, so the identity hash is used to distinguish variables
+	 * with the same name.
+	 */
+	static long fingerprint(final Decl<?> decl, final long value) {
+		return FingerprintSet.mix(FingerprintSet.mix(System.identityHashCode(decl)) ^ value);
+	}
+
+	static long fingerprint(final Decl<?> decl, final LitExpr<?> value) {
+		return fingerprint(decl, isSupported(decl.getType()) ? encode(value) : value.hashCode());
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).addAll(slots.vars, VarDecl::getName).toString();
+	}
+
+	private static final class Slots {
+		private final List<VarDecl<?>> vars;
+		private final Map<Decl<?>, Integer> declToSlot;
+
+		private Slots(final List<VarDecl<?>> vars, final Map<Decl<?>, Integer> declToSlot) {
+			checkArgument(vars.size() == declToSlot.size());
+			this.vars = vars;
+			this.declToSlot = declToSlot;
+		}
+	}
+
+}
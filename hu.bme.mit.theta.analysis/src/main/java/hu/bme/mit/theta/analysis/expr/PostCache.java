@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.common.Utils;
+
+/**
+ * A bounded cache for the results of abstract post operations. The least
+ * recently used results are evicted when the cache is full. The key should
+ * contain every parameter that the result depends on (e.g., the state, the
+ * action and the relevant part of the precision) so that the cache does not
+ * have to be invalidated when the precision changes. A cache can be shared
+ * between transfer functions, even if they are used from different threads.
+ */
+public final class PostCache<S extends ExprState> {
+
+	private final long maximumSize;
+	private final Cache<Object, Collection<S>> cache;
+
+	private PostCache(final long maximumSize) {
+		checkArgument(maximumSize > 0, "Cache size must be positive");
+		this.maximumSize = maximumSize;
+		cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+	}
+
+	public static <S extends ExprState> PostCache<S> create(final long maximumSize) {
+		return new PostCache<>(maximumSize);
+	}
+
+	/**
+	 * Gets the result for a given key, or computes and stores it if it is not
+	 * in the cache.
+	 */
+	public Collection<S> get(final Object key, final Supplier<? extends Collection<? extends S>> post) {
+		checkNotNull(key);
+		final Collection<S> cached = cache.getIfPresent(key);
+		if (cached != null) {
+			return cached;
+		} else {
+			final Collection<S> result = ImmutableList.copyOf(post.get());
+			cache.put(key, result);
+			return result;
+		}
+	}
+
+	public PostCacheStatistics getStatistics() {
+		return new PostCacheStatistics(cache.stats(), cache.size());
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add(maximumSize).toString();
+	}
+
+}
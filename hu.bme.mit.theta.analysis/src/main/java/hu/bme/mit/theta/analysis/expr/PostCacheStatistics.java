@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr;
+
+import com.google.common.cache.CacheStats;
+
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
+
+/**
+ * Statistics of a PostCache at a given point in time.
+ */
+public final class PostCacheStatistics extends Statistics {
+
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long size;
+
+	PostCacheStatistics(final CacheStats stats, final long size) {
+		hits = stats.hitCount();
+		misses = stats.missCount();
+		evictions = stats.evictionCount();
+		this.size = size;
+
+		addStat("PostCacheHits", this::getHits);
+		addStat("PostCacheMisses", this::getMisses);
+		addStat("PostCacheEvictions", this::getEvictions);
+		addStat("PostCacheSize", this::getSize);
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+}
@@ -17,7 +17,6 @@ package hu.bme.mit.theta.analysis.expr.refinement;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.google.common.collect.ImmutableList;
@@ -35,26 +34,39 @@ import hu.bme.mit.theta.solver.Interpolant;
 import hu.bme.mit.theta.solver.ItpMarker;
 import hu.bme.mit.theta.solver.ItpPattern;
 import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.utils.WithPushPop;
 
 /**
  * An ExprTraceChecker that generates a binary interpolant by incrementally
- * checking the counterexample forward.
+ * checking the counterexample forward. If the underlying session is
+ * incremental, the prefix shared with the previously checked trace is not
+ * asserted and checked again.
  */
 public final class ExprTraceFwBinItpChecker implements ExprTraceChecker<ItpRefutation> {
 
+	private final ExprTraceSession<? extends ItpSolver> session;
 	private final ItpSolver solver;
-	private final Expr<BoolType> init;
 	private final Expr<BoolType> target;
 
-	private ExprTraceFwBinItpChecker(final Expr<BoolType> init, final Expr<BoolType> target, final ItpSolver solver) {
-		this.solver = checkNotNull(solver);
-		this.init = checkNotNull(init);
+	private ItpMarker A;
+	private ItpMarker B;
+	private ItpPattern pattern;
+
+	private ExprTraceFwBinItpChecker(final Expr<BoolType> target,
+			final ExprTraceSession<? extends ItpSolver> session) {
+		this.session = checkNotNull(session);
+		this.solver = session.getSolver();
 		this.target = checkNotNull(target);
 	}
 
 	public static ExprTraceFwBinItpChecker create(final Expr<BoolType> init, final Expr<BoolType> target,
 			final ItpSolver solver) {
-		return new ExprTraceFwBinItpChecker(init, target, solver);
+		return new ExprTraceFwBinItpChecker(target, ExprTraceSession.create(init, solver));
+	}
+
+	public static ExprTraceFwBinItpChecker create(final Expr<BoolType> target,
+			final ExprTraceSession<? extends ItpSolver> session) {
+		return new ExprTraceFwBinItpChecker(target, session);
 	}
 
 	@Override
@@ -62,67 +74,72 @@ public final class ExprTraceFwBinItpChecker implements ExprTraceChecker<ItpRefut
 		checkNotNull(trace);
 		final int stateCount = trace.getStates().size();
 
-		final List<VarIndexing> indexings = new ArrayList<>(stateCount);
-		indexings.add(VarIndexing.all(0));
-
-		solver.push();
-
-		final ItpMarker A = solver.createMarker();
-		final ItpMarker B = solver.createMarker();
-		final ItpPattern pattern = solver.createBinPattern(A, B);
-
-		int nPush = 1;
-		solver.add(A, PathUtils.unfold(init, indexings.get(0)));
-		solver.add(A, PathUtils.unfold(trace.getState(0).toExpr(), indexings.get(0)));
-		assert solver.check().isSat() : "Initial state of the trace is not feasible";
-		int satPrefix = 0;
-
-		for (int i = 1; i < stateCount; ++i) {
-			solver.push();
-			++nPush;
-			indexings.add(indexings.get(i - 1).add(trace.getAction(i - 1).nextIndexing()));
-			solver.add(A, PathUtils.unfold(trace.getState(i).toExpr(), indexings.get(i)));
-			solver.add(A, PathUtils.unfold(trace.getAction(i - 1).toExpr(), indexings.get(i - 1)));
-
-			if (solver.check().isSat()) {
-				satPrefix = i;
-			} else {
-				solver.pop();
-				--nPush;
-				break;
+		// Only satisfiable segments are kept on the stack, so the shared prefix
+		// does not have to be checked again
+		final int sharedCount = session.align(trace);
+
+		try {
+			if (sharedCount == 0) {
+				// The markers are created on the level of the first segment, so
+				// they are popped together with it
+				final List<Expr<BoolType>> assertions = session.push(trace);
+				A = solver.createMarker();
+				B = solver.createMarker();
+				pattern = solver.createBinPattern(A, B);
+				for (final Expr<BoolType> assertion : assertions) {
+					solver.add(A, assertion);
+				}
+				assert solver.check().isSat() : "Initial state of the trace is not feasible";
 			}
-		}
 
-		final boolean concretizable;
-
-		if (satPrefix == stateCount - 1) {
-			solver.add(B, PathUtils.unfold(target, indexings.get(stateCount - 1)));
-			concretizable = solver.check().isSat();
-		} else {
-			solver.add(B, PathUtils.unfold(trace.getState(satPrefix + 1).toExpr(), indexings.get(satPrefix + 1)));
-			solver.add(B, PathUtils.unfold(trace.getAction(satPrefix).toExpr(), indexings.get(satPrefix)));
-			solver.check();
-			assert solver.getStatus().isUnsat() : "Trying to interpolate a feasible formula";
-			concretizable = false;
-		}
+			List<Expr<BoolType>> unsatAssertions = null;
+			for (int i = session.size(); i < stateCount; ++i) {
+				final List<Expr<BoolType>> assertions = session.push(trace);
+				for (final Expr<BoolType> assertion : assertions) {
+					solver.add(A, assertion);
+				}
+
+				if (!solver.check().isSat()) {
+					session.pop();
+					unsatAssertions = assertions;
+					break;
+				}
+			}
 
-		ExprTraceStatus<ItpRefutation> status = null;
-		if (concretizable) {
-			final Model model = solver.getModel();
-			final ImmutableList.Builder<Valuation> builder = ImmutableList.builder();
-			for (final VarIndexing indexing : indexings) {
-				builder.add(PathUtils.extractValuation(model, indexing));
+			final int satPrefix = session.size() - 1;
+			final List<VarIndexing> indexings = session.getIndexings();
+
+			try (WithPushPop wpp = new WithPushPop(solver)) {
+				final boolean concretizable;
+
+				if (satPrefix == stateCount - 1) {
+					solver.add(B, PathUtils.unfold(target, indexings.get(stateCount - 1)));
+					concretizable = solver.check().isSat();
+				} else {
+					for (final Expr<BoolType> assertion : unsatAssertions) {
+						solver.add(B, assertion);
+					}
+					solver.check();
+					assert solver.getStatus().isUnsat() : "Trying to interpolate a feasible formula";
+					concretizable = false;
+				}
+
+				if (concretizable) {
+					final Model model = solver.getModel();
+					final ImmutableList.Builder<Valuation> builder = ImmutableList.builder();
+					for (final VarIndexing indexing : indexings) {
+						builder.add(PathUtils.extractValuation(model, indexing));
+					}
+					return ExprTraceStatus.feasible(Trace.of(builder.build(), trace.getActions()));
+				} else {
+					final Interpolant interpolant = solver.getInterpolant(pattern);
+					final Expr<BoolType> itpFolded = PathUtils.foldin(interpolant.eval(A), indexings.get(satPrefix));
+					return ExprTraceStatus.infeasible(ItpRefutation.binary(itpFolded, satPrefix, stateCount));
+				}
 			}
-			status = ExprTraceStatus.feasible(Trace.of(builder.build(), trace.getActions()));
-		} else {
-			final Interpolant interpolant = solver.getInterpolant(pattern);
-			final Expr<BoolType> itpFolded = PathUtils.foldin(interpolant.eval(A), indexings.get(satPrefix));
-			status = ExprTraceStatus.infeasible(ItpRefutation.binary(itpFolded, satPrefix, stateCount));
+		} finally {
+			session.release();
 		}
-		assert status != null;
-		solver.pop(nPush);
-
-		return status;
 	}
 
 	@Override
@@ -39,23 +39,31 @@ import hu.bme.mit.theta.solver.utils.WithPushPop;
 
 /**
  * An ExprTraceChecker that generates a sequence interpolant by checking the
- * trace at once.
+ * trace at once. If the underlying session is incremental, the prefix shared
+ * with the previously checked trace is not asserted again.
  */
 public final class ExprTraceSeqItpChecker implements ExprTraceChecker<ItpRefutation> {
 
+	private final ExprTraceSession<? extends ItpSolver> session;
 	private final ItpSolver solver;
-	private final Expr<BoolType> init;
 	private final Expr<BoolType> target;
+	private final List<ItpMarker> markers;
 
-	private ExprTraceSeqItpChecker(final Expr<BoolType> init, final Expr<BoolType> target, final ItpSolver solver) {
-		this.solver = checkNotNull(solver);
-		this.init = checkNotNull(init);
+	private ExprTraceSeqItpChecker(final Expr<BoolType> target, final ExprTraceSession<? extends ItpSolver> session) {
+		this.session = checkNotNull(session);
+		this.solver = session.getSolver();
 		this.target = checkNotNull(target);
+		markers = new ArrayList<>();
 	}
 
 	public static ExprTraceSeqItpChecker create(final Expr<BoolType> init, final Expr<BoolType> target,
 			final ItpSolver solver) {
-		return new ExprTraceSeqItpChecker(init, target, solver);
+		return new ExprTraceSeqItpChecker(target, ExprTraceSession.create(init, solver));
+	}
+
+	public static ExprTraceSeqItpChecker create(final Expr<BoolType> target,
+			final ExprTraceSession<? extends ItpSolver> session) {
+		return new ExprTraceSeqItpChecker(target, session);
 	}
 
 	@Override
@@ -63,27 +71,30 @@ public final class ExprTraceSeqItpChecker implements ExprTraceChecker<ItpRefutat
 		checkNotNull(trace);
 		final int stateCount = trace.getStates().size();
 
-		try (WithPushPop wpp = new WithPushPop(solver)) {
-			final List<ItpMarker> markers = new ArrayList<>(stateCount + 1);
-			for (int i = 0; i < stateCount + 1; ++i) {
-				markers.add(solver.createMarker());
+		// Markers are created on the stack level of their segment, so they are
+		// popped together with it
+		final int sharedCount = session.align(trace);
+		markers.subList(sharedCount, markers.size()).clear();
+
+		for (int i = sharedCount; i < stateCount; ++i) {
+			final List<Expr<BoolType>> assertions = session.push(trace);
+			final ItpMarker marker = solver.createMarker();
+			markers.add(marker);
+			for (final Expr<BoolType> assertion : assertions) {
+				solver.add(marker, assertion);
 			}
-			final ItpPattern pattern = solver.createSeqPattern(markers);
-
-			final List<VarIndexing> indexings = new ArrayList<>(stateCount);
-			indexings.add(VarIndexing.all(0));
+			assert i > 0 || solver.check().isSat() : "Initial state of the trace is not feasible";
+		}
 
-			solver.add(markers.get(0), PathUtils.unfold(init, indexings.get(0)));
-			solver.add(markers.get(0), PathUtils.unfold(trace.getState(0).toExpr(), indexings.get(0)));
-			assert solver.check().isSat() : "Initial state of the trace is not feasible";
+		final List<VarIndexing> indexings = session.getIndexings();
 
-			for (int i = 1; i < stateCount; ++i) {
-				indexings.add(indexings.get(i - 1).add(trace.getAction(i - 1).nextIndexing()));
-				solver.add(markers.get(i), PathUtils.unfold(trace.getState(i).toExpr(), indexings.get(i)));
-				solver.add(markers.get(i), PathUtils.unfold(trace.getAction(i - 1).toExpr(), indexings.get(i - 1)));
-			}
+		try (WithPushPop wpp = new WithPushPop(solver)) {
+			final ItpMarker targetMarker = solver.createMarker();
+			final List<ItpMarker> patternMarkers = new ArrayList<>(markers);
+			patternMarkers.add(targetMarker);
+			final ItpPattern pattern = solver.createSeqPattern(patternMarkers);
 
-			solver.add(markers.get(trace.getStates().size()), PathUtils.unfold(target, indexings.get(stateCount - 1)));
+			solver.add(targetMarker, PathUtils.unfold(target, indexings.get(stateCount - 1)));
 			final boolean concretizable = solver.check().isSat();
 
 			if (concretizable) {
@@ -96,11 +107,13 @@ public final class ExprTraceSeqItpChecker implements ExprTraceChecker<ItpRefutat
 			} else {
 				final List<Expr<BoolType>> interpolants = new ArrayList<>();
 				final Interpolant interpolant = solver.getInterpolant(pattern);
-				for (int i = 0; i < markers.size() - 1; ++i) {
+				for (int i = 0; i < markers.size(); ++i) {
 					interpolants.add(PathUtils.foldin(interpolant.eval(markers.get(i)), indexings.get(i)));
 				}
 				return ExprTraceStatus.infeasible(ItpRefutation.sequence(interpolants));
 			}
+		} finally {
+			session.release();
 		}
 	}
 
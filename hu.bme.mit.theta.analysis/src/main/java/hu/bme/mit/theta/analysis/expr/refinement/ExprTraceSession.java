@@ -0,0 +1,201 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+import hu.bme.mit.theta.solver.Solver;
+
+/**
+ * A session for checking traces on a solver segment by segment. Segment 0
+ * consists of the initial expression and the first state, segment i > 0 of the
+ * i-th state and the action leading to it. Each segment is asserted on its own
+ * level of the solver stack.
+ * <p>
+ * An incremental session keeps the segments on the stack after a check, so the
+ * next check only has to pop the suffix diverging from the previous trace and
+ * assert the new segments. The solver of an incremental session must not be
+ * used for anything else. A non-incremental session pops everything after each
+ * check.
+ */
+public final class ExprTraceSession<S extends Solver> {
+
+	private final S solver;
+	private final Expr<BoolType> init;
+	private final boolean incremental;
+	private final List<Segment> segments;
+
+	private long reusedAssertions;
+	private long sentAssertions;
+
+	private ExprTraceSession(final Expr<BoolType> init, final S solver, final boolean incremental) {
+		this.solver = checkNotNull(solver);
+		this.init = checkNotNull(init);
+		this.incremental = incremental;
+		segments = new ArrayList<>();
+		reusedAssertions = 0;
+		sentAssertions = 0;
+	}
+
+	public static <S extends Solver> ExprTraceSession<S> create(final Expr<BoolType> init, final S solver) {
+		return new ExprTraceSession<>(init, solver, false);
+	}
+
+	public static <S extends Solver> ExprTraceSession<S> createIncremental(final Expr<BoolType> init,
+			final S solver) {
+		return new ExprTraceSession<>(init, solver, true);
+	}
+
+	public S getSolver() {
+		return solver;
+	}
+
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Pops the segments that do not match the given trace and returns the
+	 * number of segments kept on the stack.
+	 */
+	public int align(final Trace<? extends ExprState, ? extends ExprAction> trace) {
+		checkNotNull(trace);
+		final int stateCount = trace.getStates().size();
+		int shared = 0;
+		while (shared < segments.size() && shared < stateCount && segments.get(shared).matches(trace, shared)) {
+			++shared;
+		}
+		popTo(shared);
+		for (final Segment segment : segments) {
+			reusedAssertions += segment.assertions.size();
+		}
+		return shared;
+	}
+
+	/**
+	 * Pushes the next segment of the trace to a new stack level and returns
+	 * its unfolded assertions, which have to be added to the solver by the
+	 * caller.
+	 */
+	public List<Expr<BoolType>> push(final Trace<? extends ExprState, ? extends ExprAction> trace) {
+		checkNotNull(trace);
+		final int i = segments.size();
+		checkElementIndex(i, trace.getStates().size());
+
+		final ExprState state = trace.getState(i);
+		final Segment segment;
+		if (i == 0) {
+			final VarIndexing indexing = VarIndexing.all(0);
+			segment = new Segment(state, null, indexing,
+					ImmutableList.of(PathUtils.unfold(init, indexing), PathUtils.unfold(state.toExpr(), indexing)));
+		} else {
+			final ExprAction action = trace.getAction(i - 1);
+			final VarIndexing prevIndexing = segments.get(i - 1).indexing;
+			final VarIndexing indexing = prevIndexing.add(action.nextIndexing());
+			segment = new Segment(state, action, indexing, ImmutableList.of(
+					PathUtils.unfold(state.toExpr(), indexing), PathUtils.unfold(action.toExpr(), prevIndexing)));
+		}
+
+		solver.push();
+		segments.add(segment);
+		sentAssertions += segment.assertions.size();
+		return segment.assertions;
+	}
+
+	/**
+	 * Pops the last segment.
+	 */
+	public void pop() {
+		checkState(!segments.isEmpty(), "No segments to pop.");
+		popTo(segments.size() - 1);
+	}
+
+	/**
+	 * Finishes a check, popping every segment if the session is not
+	 * incremental.
+	 */
+	public void release() {
+		if (!incremental) {
+			popTo(0);
+		}
+	}
+
+	private void popTo(final int size) {
+		final int n = segments.size() - size;
+		if (n > 0) {
+			solver.pop(n);
+			segments.subList(size, segments.size()).clear();
+		}
+	}
+
+	/**
+	 * Gets the number of segments on the stack.
+	 */
+	public int size() {
+		return segments.size();
+	}
+
+	public VarIndexing getIndexing(final int i) {
+		return segments.get(i).indexing;
+	}
+
+	public List<VarIndexing> getIndexings() {
+		return Collections.unmodifiableList(Lists.transform(segments, s -> s.indexing));
+	}
+
+	public ExprTraceSessionStatistics getStatistics() {
+		return new ExprTraceSessionStatistics(reusedAssertions, sentAssertions);
+	}
+
+	private static final class Segment {
+		private final Expr<BoolType> stateExpr;
+		private final Expr<BoolType> actionExpr;
+		private final VarIndexing indexing;
+		private final List<Expr<BoolType>> assertions;
+
+		private Segment(final ExprState state, final ExprAction action, final VarIndexing indexing,
+				final List<Expr<BoolType>> assertions) {
+			this.stateExpr = state.toExpr();
+			this.actionExpr = action == null ? null : action.toExpr();
+			this.indexing = indexing;
+			this.assertions = assertions;
+		}
+
+		private boolean matches(final Trace<? extends ExprState, ? extends ExprAction> trace, final int i) {
+			if (!stateExpr.equals(trace.getState(i).toExpr())) {
+				return false;
+			}
+			return i == 0 || actionExpr.equals(trace.getAction(i - 1).toExpr());
+		}
+	}
+
+}
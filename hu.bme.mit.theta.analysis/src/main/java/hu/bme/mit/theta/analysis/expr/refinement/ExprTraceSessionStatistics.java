@@ -0,0 +1,51 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
+
+/**
+ * Statistics of an ExprTraceSession at a given point in time.
+ */
+public final class ExprTraceSessionStatistics extends Statistics {
+
+	private final long reusedAssertions;
+	private final long sentAssertions;
+
+	ExprTraceSessionStatistics(final long reusedAssertions, final long sentAssertions) {
+		this.reusedAssertions = reusedAssertions;
+		this.sentAssertions = sentAssertions;
+
+		addStat("TraceReusedAssertions", this::getReusedAssertions);
+		addStat("TraceSentAssertions", this::getSentAssertions);
+	}
+
+	/**
+	 * Gets the number of assertions kept on the solver stack from previously
+	 * checked traces.
+	 */
+	public long getReusedAssertions() {
+		return reusedAssertions;
+	}
+
+	/**
+	 * Gets the number of assertions sent to the solver.
+	 */
+	public long getSentAssertions() {
+		return sentAssertions;
+	}
+
+}
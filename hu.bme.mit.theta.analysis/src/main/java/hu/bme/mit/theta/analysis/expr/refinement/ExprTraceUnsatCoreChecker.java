@@ -17,9 +17,7 @@ package hu.bme.mit.theta.analysis.expr.refinement;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import com.google.common.collect.ImmutableList;
 
@@ -39,23 +37,28 @@ import hu.bme.mit.theta.solver.utils.WithPushPop;
 
 /**
  * An ExprTraceChecker that generates an unsat core by checking the trace at
- * once.
+ * once. If the underlying session is incremental, the prefix shared with the
+ * previously checked trace is not asserted and checked again.
  */
 public final class ExprTraceUnsatCoreChecker implements ExprTraceChecker<VarsRefutation> {
 
+	private final ExprTraceSession<?> session;
 	private final Solver solver;
-	private final Expr<BoolType> init;
 	private final Expr<BoolType> target;
 
-	private ExprTraceUnsatCoreChecker(final Expr<BoolType> init, final Expr<BoolType> target, final Solver solver) {
-		this.solver = checkNotNull(solver);
-		this.init = checkNotNull(init);
+	private ExprTraceUnsatCoreChecker(final Expr<BoolType> target, final ExprTraceSession<?> session) {
+		this.session = checkNotNull(session);
+		this.solver = session.getSolver();
 		this.target = checkNotNull(target);
 	}
 
 	public static ExprTraceUnsatCoreChecker create(final Expr<BoolType> init, final Expr<BoolType> target,
 			final Solver solver) {
-		return new ExprTraceUnsatCoreChecker(init, target, solver);
+		return new ExprTraceUnsatCoreChecker(target, ExprTraceSession.create(init, solver));
+	}
+
+	public static ExprTraceUnsatCoreChecker create(final Expr<BoolType> target, final ExprTraceSession<?> session) {
+		return new ExprTraceUnsatCoreChecker(target, session);
 	}
 
 	@Override
@@ -63,44 +66,49 @@ public final class ExprTraceUnsatCoreChecker implements ExprTraceChecker<VarsRef
 		checkNotNull(trace);
 		final int stateCount = trace.getStates().size();
 
-		final List<VarIndexing> indexings = new ArrayList<>(stateCount);
-		indexings.add(VarIndexing.all(0));
+		// Only satisfiable segments are kept on the stack, so the shared prefix
+		// does not have to be checked again
+		final int sharedCount = session.align(trace);
+		boolean feasiblePrefix = true;
 
-		try (WithPushPop wpp = new WithPushPop(solver)) {
-			solver.track(ExprUtils.getConjuncts(PathUtils.unfold(init, indexings.get(0))));
-			solver.track(ExprUtils.getConjuncts(PathUtils.unfold(trace.getState(0).toExpr(), indexings.get(0))));
-			assert solver.check().isSat() : "Initial state of the trace is not feasible";
-			boolean concretizable = true;
-
-			for (int i = 1; i < stateCount; ++i) {
-				indexings.add(indexings.get(i - 1).add(trace.getAction(i - 1).nextIndexing()));
-				solver.track(ExprUtils.getConjuncts(PathUtils.unfold(trace.getState(i).toExpr(), indexings.get(i))));
-				solver.track(ExprUtils
-						.getConjuncts(PathUtils.unfold(trace.getAction(i - 1).toExpr(), indexings.get(i - 1))));
+		try {
+			for (int i = sharedCount; i < stateCount; ++i) {
+				for (final Expr<BoolType> assertion : session.push(trace)) {
+					solver.track(ExprUtils.getConjuncts(assertion));
+				}
 
 				if (!solver.check().isSat()) {
-					concretizable = false;
+					assert i > 0 : "Initial state of the trace is not feasible";
+					feasiblePrefix = false;
 					break;
 				}
 			}
 
-			if (concretizable) {
-				solver.track(ExprUtils.getConjuncts(PathUtils.unfold(target, indexings.get(stateCount - 1))));
-				concretizable = solver.check().isSat();
-			}
+			try (WithPushPop wpp = new WithPushPop(solver)) {
+				boolean concretizable = feasiblePrefix;
+				if (concretizable) {
+					solver.track(ExprUtils.getConjuncts(PathUtils.unfold(target, session.getIndexing(stateCount - 1))));
+					concretizable = solver.check().isSat();
+				}
 
-			if (concretizable) {
-				final Model model = solver.getModel();
-				final ImmutableList.Builder<Valuation> builder = ImmutableList.builder();
-				for (final VarIndexing indexing : indexings) {
-					builder.add(PathUtils.extractValuation(model, indexing));
+				if (concretizable) {
+					final Model model = solver.getModel();
+					final ImmutableList.Builder<Valuation> builder = ImmutableList.builder();
+					for (final VarIndexing indexing : session.getIndexings()) {
+						builder.add(PathUtils.extractValuation(model, indexing));
+					}
+					return ExprTraceStatus.feasible(Trace.of(builder.build(), trace.getActions()));
+				} else {
+					final Collection<Expr<BoolType>> unsatCore = solver.getUnsatCore();
+					final IndexedVars indexedVars = ExprUtils.getVarsIndexed(unsatCore);
+					return ExprTraceStatus.infeasible(VarsRefutation.create(indexedVars));
 				}
-				return ExprTraceStatus.feasible(Trace.of(builder.build(), trace.getActions()));
-			} else {
-				final Collection<Expr<BoolType>> unsatCore = solver.getUnsatCore();
-				final IndexedVars indexedVars = ExprUtils.getVarsIndexed(unsatCore);
-				return ExprTraceStatus.infeasible(VarsRefutation.create(indexedVars));
 			}
+		} finally {
+			if (!feasiblePrefix) {
+				session.pop();
+			}
+			session.release();
 		}
 	}
 
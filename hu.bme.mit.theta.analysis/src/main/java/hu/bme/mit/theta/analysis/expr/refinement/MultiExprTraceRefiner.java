@@ -0,0 +1,145 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr.refinement;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Comparator.comparingInt;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import hu.bme.mit.theta.analysis.Prec;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.ArgTrace;
+import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
+import hu.bme.mit.theta.analysis.algorithm.cegar.RefinerResult;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.logging.Logger;
+
+/**
+ * A Refiner implementation that can refine multiple traces (of ExprStates and
+ * ExprActions) in a single step using an ExprTraceChecker and a PrecRefiner.
+ * The precisions obtained from the spurious traces are joined and the ARG is
+ * pruned at each pruning node. Refinement stops at the first feasible trace.
+ */
+public final class MultiExprTraceRefiner<S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation>
+		implements Refiner<S, A, P> {
+
+	private final ExprTraceChecker<R> exprTraceChecker;
+	private final PrecRefiner<S, A, P, R> precRefiner;
+	private final int maxCexs;
+	private final Logger logger;
+
+	private MultiExprTraceRefiner(final ExprTraceChecker<R> exprTraceChecker,
+			final PrecRefiner<S, A, P, R> precRefiner, final int maxCexs, final Logger logger) {
+		checkArgument(maxCexs > 0, "Number of counterexamples must be positive");
+		this.exprTraceChecker = checkNotNull(exprTraceChecker);
+		this.precRefiner = checkNotNull(precRefiner);
+		this.maxCexs = maxCexs;
+		this.logger = checkNotNull(logger);
+	}
+
+	/**
+	 * Creates a refiner that refines all counterexamples of the ARG.
+	 */
+	public static <S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation> MultiExprTraceRefiner<S, A, P, R> create(
+			final ExprTraceChecker<R> exprTraceChecker, final PrecRefiner<S, A, P, R> precRefiner,
+			final Logger logger) {
+		return new MultiExprTraceRefiner<>(exprTraceChecker, precRefiner, Integer.MAX_VALUE, logger);
+	}
+
+	/**
+	 * Creates a refiner that refines at most the given number of
+	 * counterexamples of the ARG.
+	 */
+	public static <S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation> MultiExprTraceRefiner<S, A, P, R> create(
+			final ExprTraceChecker<R> exprTraceChecker, final PrecRefiner<S, A, P, R> precRefiner, final int maxCexs,
+			final Logger logger) {
+		return new MultiExprTraceRefiner<>(exprTraceChecker, precRefiner, maxCexs, logger);
+	}
+
+	@Override
+	public RefinerResult<S, A, P> refine(final ARG<S, A> arg, final P prec) {
+		checkNotNull(arg);
+		checkNotNull(prec);
+		assert !arg.isSafe() : "ARG must be unsafe";
+
+		final List<ArgTrace<S, A>> cexsToConcretize = arg.getCexs().limit(maxCexs).collect(toList());
+		final List<ArgNode<S, A>> nodesToPrune = new ArrayList<>();
+		P refinedPrec = prec;
+		int refinedCexs = 0;
+
+		for (final ArgTrace<S, A> cexToConcretize : cexsToConcretize) {
+			final ArgNode<S, A> targetNode = cexToConcretize.node(cexToConcretize.length());
+			// Counterexamples in an already refuted subtree are removed by pruning
+			if (nodesToPrune.stream().anyMatch(n -> n.isAncestorOf(targetNode))) {
+				continue;
+			}
+
+			final Trace<S, A> traceToConcretize = cexToConcretize.toTrace();
+			logger.writeln("Trace length: ", traceToConcretize.length(), 3, 2);
+			logger.writeln("Trace: ", traceToConcretize, 4, 3);
+
+			logger.write("Checking...", 3, 2);
+			final ExprTraceStatus<R> cexStatus = exprTraceChecker.check(traceToConcretize);
+			logger.writeln("done: ", cexStatus, 3, 0);
+
+			assert cexStatus.isFeasible() || cexStatus.isInfeasible() : "Unknown CEX status";
+
+			if (cexStatus.isFeasible()) {
+				return RefinerResult.unsafe(traceToConcretize);
+			}
+
+			final R refutation = cexStatus.asInfeasible().getRefutation();
+			logger.writeln(refutation, 4, 3);
+			refinedPrec = precRefiner.refine(refinedPrec, traceToConcretize, refutation);
+			final int pruneIndex = refutation.getPruneIndex();
+			assert 0 <= pruneIndex : "Pruning index must be non-negative";
+			assert pruneIndex <= cexToConcretize.length() : "Pruning index larger than cex length";
+			nodesToPrune.add(cexToConcretize.node(pruneIndex));
+			refinedCexs++;
+		}
+
+		logger.writeln(String.format("Refined %d of %d counterexamples", refinedCexs, cexsToConcretize.size()), 3,
+				2);
+
+		// Only the topmost nodes are pruned, their subtrees are removed anyway
+		nodesToPrune.sort(comparingInt(ArgNode::getDepth));
+		final List<ArgNode<S, A>> topmostNodes = new ArrayList<>();
+		for (final ArgNode<S, A> node : nodesToPrune) {
+			if (topmostNodes.stream().noneMatch(n -> n.isAncestorOf(node))) {
+				topmostNodes.add(node);
+			}
+		}
+		logger.writeln(String.format("Pruning %d subtrees", topmostNodes.size()), 3, 2);
+		topmostNodes.forEach(arg::prune);
+
+		return RefinerResult.spurious(refinedPrec);
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add(exprTraceChecker).add(precRefiner)
+				.add(maxCexs == Integer.MAX_VALUE ? "all" : maxCexs).toString();
+	}
+
+}
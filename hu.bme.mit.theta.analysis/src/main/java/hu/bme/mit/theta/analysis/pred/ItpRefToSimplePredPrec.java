@@ -19,6 +19,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.function.Function;
 
 import hu.bme.mit.theta.analysis.expr.refinement.ItpRefutation;
@@ -33,17 +34,27 @@ public class ItpRefToSimplePredPrec implements RefutationToPrec<SimplePredPrec,
 
 	private final Solver solver;
 	private final ExprSplitter exprSplitter;
+	private final Optional<PredBddEncoder> bddEncoder;
 
 	public ItpRefToSimplePredPrec(final Solver solver, final ExprSplitter exprSplitter) {
 		this.solver = checkNotNull(solver);
 		this.exprSplitter = checkNotNull(exprSplitter);
+		this.bddEncoder = Optional.empty();
+	}
+
+	public ItpRefToSimplePredPrec(final Solver solver, final ExprSplitter exprSplitter,
+			final PredBddEncoder bddEncoder) {
+		this.solver = checkNotNull(solver);
+		this.exprSplitter = checkNotNull(exprSplitter);
+		this.bddEncoder = Optional.of(bddEncoder);
 	}
 
 	@Override
 	public SimplePredPrec toPrec(final ItpRefutation refutation, final int index) {
 		final Expr<BoolType> expr = refutation.get(index);
 		final Collection<Expr<BoolType>> exprs = exprSplitter.apply(expr);
-		final SimplePredPrec prec = SimplePredPrec.create(exprs, solver);
+		final SimplePredPrec prec = bddEncoder.isPresent() ? SimplePredPrec.create(exprs, solver, bddEncoder.get())
+				: SimplePredPrec.create(exprs, solver);
 		return prec;
 	}
 
@@ -0,0 +1,268 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import hu.bme.mit.theta.core.model.Model;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.utils.WithPushPop;
+
+/**
+ * Strategies for computing the abstract states (with respect to a predicate
+ * precision) that satisfy an expression.
+ */
+public final class PredAbstractors {
+
+	public interface PredAbstractor {
+		/**
+		 * Create the abstract states that satisfy a given expression.
+		 *
+		 * @param expr Expression to be satisfied
+		 * @param exprIndex Index for unfolding the expression
+		 * @param prec Precision
+		 * @param stateIndexing Index for extracting the state
+		 * @return Abstract states satisfying the expression
+		 */
+		Collection<PredState> createStatesForExpr(final Expr<BoolType> expr, final int exprIndex,
+				final PredPrec prec, final VarIndexing stateIndexing);
+
+		/**
+		 * Get the number of satisfiability checks performed so far.
+		 */
+		long getSolverCalls();
+	}
+
+	private PredAbstractors() {
+	}
+
+	/**
+	 * Enumerates all models of the expression and maps each of them to a state
+	 * using the precision, blocking the state before the next check. This is
+	 * the default behavior of the predicate analysis.
+	 */
+	public static PredAbstractor allSat(final Solver solver) {
+		return new AllSat(solver);
+	}
+
+	/**
+	 * Enumerates the models of the expression projected to the predicates of
+	 * the precision. Literals are read directly from the models and only the
+	 * projection is blocked, so each abstract state costs a single check.
+	 * Requires a {@link SimplePredPrec}, falls back to {@link #allSat(Solver)}
+	 * otherwise.
+	 */
+	public static PredAbstractor booleanAllSat(final Solver solver) {
+		return new BooleanAllSat(solver);
+	}
+
+	/**
+	 * Computes a single state by checking each predicate and its negation
+	 * separately. This may be coarser than the other strategies, but the number
+	 * of checks is linear in the number of predicates. Requires a
+	 * {@link SimplePredPrec}, falls back to {@link #allSat(Solver)} otherwise.
+	 */
+	public static PredAbstractor cartesian(final Solver solver) {
+		return new Cartesian(solver);
+	}
+
+	/**
+	 * Get the total number of satisfiability checks performed by the given
+	 * abstractors.
+	 */
+	public static long getSolverCalls(final Iterable<? extends PredAbstractor> abstractors) {
+		long sum = 0;
+		for (final PredAbstractor abstractor : abstractors) {
+			sum += abstractor.getSolverCalls();
+		}
+		return sum;
+	}
+
+	private static abstract class AbstractPredAbstractor implements PredAbstractor {
+		protected final Solver solver;
+		private final LongAdder solverCalls;
+
+		protected AbstractPredAbstractor(final Solver solver) {
+			this.solver = checkNotNull(solver);
+			this.solverCalls = new LongAdder();
+		}
+
+		protected final boolean check() {
+			solverCalls.increment();
+			return solver.check().isSat();
+		}
+
+		@Override
+		public final long getSolverCalls() {
+			return solverCalls.sum();
+		}
+
+		protected final Collection<PredState> allSat(final Expr<BoolType> expr, final int exprIndex,
+				final PredPrec prec, final VarIndexing stateIndexing) {
+			try (WithPushPop wpp = new WithPushPop(solver)) {
+				solver.add(PathUtils.unfold(expr, exprIndex));
+
+				final Collection<PredState> result = new ArrayList<>();
+				while (check()) {
+					final Model model = solver.getModel();
+					final Valuation valuation = PathUtils.extractValuation(model, stateIndexing);
+					final PredState state = prec.createState(valuation);
+					result.add(state);
+					solver.add(Not(PathUtils.unfold(state.toExpr(), stateIndexing)));
+				}
+				return result;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName();
+		}
+	}
+
+	private static final class AllSat extends AbstractPredAbstractor {
+		private AllSat(final Solver solver) {
+			super(solver);
+		}
+
+		@Override
+		public Collection<PredState> createStatesForExpr(final Expr<BoolType> expr, final int exprIndex,
+				final PredPrec prec, final VarIndexing stateIndexing) {
+			return allSat(checkNotNull(expr), exprIndex, checkNotNull(prec), checkNotNull(stateIndexing));
+		}
+	}
+
+	private static final class BooleanAllSat extends AbstractPredAbstractor {
+		private BooleanAllSat(final Solver solver) {
+			super(solver);
+		}
+
+		@Override
+		public Collection<PredState> createStatesForExpr(final Expr<BoolType> expr, final int exprIndex,
+				final PredPrec prec, final VarIndexing stateIndexing) {
+			checkNotNull(expr);
+			checkNotNull(prec);
+			checkNotNull(stateIndexing);
+			if (!(prec instanceof SimplePredPrec)) {
+				return allSat(expr, exprIndex, prec, stateIndexing);
+			}
+
+			final SimplePredPrec simplePrec = (SimplePredPrec) prec;
+			final List<Expr<BoolType>> preds = new ArrayList<>(simplePrec.getPreds());
+			final List<Expr<BoolType>> unfoldedPreds = new ArrayList<>(preds.size());
+			for (final Expr<BoolType> pred : preds) {
+				unfoldedPreds.add(PathUtils.unfold(pred, stateIndexing));
+			}
+
+			try (WithPushPop wpp = new WithPushPop(solver)) {
+				solver.add(PathUtils.unfold(expr, exprIndex));
+
+				final Collection<PredState> result = new ArrayList<>();
+				while (check()) {
+					final Model model = solver.getModel();
+					final Map<Expr<BoolType>, Boolean> predValues = new LinkedHashMap<>();
+					final List<Expr<BoolType>> literals = new ArrayList<>();
+
+					for (int i = 0; i < preds.size(); i++) {
+						final Expr<BoolType> value = ExprUtils.simplify(unfoldedPreds.get(i), model);
+						if (value.equals(True())) {
+							predValues.put(preds.get(i), true);
+							literals.add(unfoldedPreds.get(i));
+						} else if (value.equals(False())) {
+							predValues.put(preds.get(i), false);
+							literals.add(Not(unfoldedPreds.get(i)));
+						}
+						// Predicates not fixed by the model are left out of the state
+					}
+
+					result.add(simplePrec.createState(predValues));
+					if (literals.isEmpty()) {
+						break;
+					}
+					solver.add(Not(And(literals)));
+				}
+				return result;
+			}
+		}
+	}
+
+	private static final class Cartesian extends AbstractPredAbstractor {
+		private Cartesian(final Solver solver) {
+			super(solver);
+		}
+
+		@Override
+		public Collection<PredState> createStatesForExpr(final Expr<BoolType> expr, final int exprIndex,
+				final PredPrec prec, final VarIndexing stateIndexing) {
+			checkNotNull(expr);
+			checkNotNull(prec);
+			checkNotNull(stateIndexing);
+			if (!(prec instanceof SimplePredPrec)) {
+				return allSat(expr, exprIndex, prec, stateIndexing);
+			}
+
+			final SimplePredPrec simplePrec = (SimplePredPrec) prec;
+
+			try (WithPushPop wpp = new WithPushPop(solver)) {
+				solver.add(PathUtils.unfold(expr, exprIndex));
+				if (!check()) {
+					return Collections.emptyList();
+				}
+				final Model model = solver.getModel();
+
+				final Map<Expr<BoolType>, Boolean> predValues = new LinkedHashMap<>();
+				for (final Expr<BoolType> pred : simplePrec.getPreds()) {
+					final Expr<BoolType> unfoldedPred = PathUtils.unfold(pred, stateIndexing);
+					final Expr<BoolType> value = ExprUtils.simplify(unfoldedPred, model);
+					// A polarity that holds in the model is satisfiable, no need to check it
+					if (!value.equals(False()) && isValid(unfoldedPred)) {
+						predValues.put(pred, true);
+					} else if (!value.equals(True()) && isValid(Not(unfoldedPred))) {
+						predValues.put(pred, false);
+					}
+				}
+
+				return Collections.singletonList(simplePrec.createState(predValues));
+			}
+		}
+
+		private boolean isValid(final Expr<BoolType> unfoldedPred) {
+			try (WithPushPop wpp = new WithPushPop(solver)) {
+				solver.add(Not(unfoldedPred));
+				return !check();
+			}
+		}
+	}
+
+}
@@ -20,6 +20,8 @@ import hu.bme.mit.theta.analysis.Domain;
 import hu.bme.mit.theta.analysis.InitFunc;
 import hu.bme.mit.theta.analysis.TransFunc;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
+import hu.bme.mit.theta.analysis.expr.PostCache;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
 import hu.bme.mit.theta.solver.Solver;
@@ -30,14 +32,34 @@ public final class PredAnalysis implements Analysis<PredState, ExprAction, PredP
 	private final InitFunc<PredState, PredPrec> initFunc;
 	private final TransFunc<PredState, ExprAction, PredPrec> transFunc;
 
-	private PredAnalysis(final Solver solver, final Expr<BoolType> initExpr) {
+	private PredAnalysis(final Solver solver, final Expr<BoolType> initExpr, final PredAbstractor predAbstractor,
+			final PredTransFunc transFunc) {
 		domain = PredDomain.create(solver);
-		initFunc = PredInitFunc.create(solver, initExpr);
-		transFunc = PredTransFunc.create(solver);
+		initFunc = PredInitFunc.create(predAbstractor, initExpr);
+		this.transFunc = transFunc;
 	}
 
 	public static PredAnalysis create(final Solver solver, final Expr<BoolType> initExpr) {
-		return new PredAnalysis(solver, initExpr);
+		return create(solver, initExpr, PredAbstractors.allSat(solver));
+	}
+
+	public static PredAnalysis create(final Solver solver, final Expr<BoolType> initExpr,
+			final PostCache<PredState> postCache) {
+		return create(solver, initExpr, PredAbstractors.allSat(solver), postCache);
+	}
+
+	/**
+	 * Creates an analysis that computes the initial and successor states with
+	 * the given abstractor (which should use the same solver).
+	 */
+	public static PredAnalysis create(final Solver solver, final Expr<BoolType> initExpr,
+			final PredAbstractor predAbstractor) {
+		return new PredAnalysis(solver, initExpr, predAbstractor, PredTransFunc.create(predAbstractor));
+	}
+
+	public static PredAnalysis create(final Solver solver, final Expr<BoolType> initExpr,
+			final PredAbstractor predAbstractor, final PostCache<PredState> postCache) {
+		return new PredAnalysis(solver, initExpr, predAbstractor, PredTransFunc.create(predAbstractor, postCache));
 	}
 
 	////
@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.bdd.Bdd;
+import hu.bme.mit.theta.common.bdd.BddManager;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+
+/**
+ * Encodes predicates as BDD variables. Each (ponated) predicate gets a fixed
+ * index when it is first encoded, so that BDDs stay comparable when the
+ * precision is refined. An encoder should be shared by all precisions of an
+ * analysis.
+ */
+public final class PredBddEncoder {
+
+	private final BddManager manager;
+	private final Map<Expr<BoolType>, Integer> predToIndex;
+	private final AtomicInteger nextIndex;
+
+	private PredBddEncoder() {
+		manager = BddManager.create();
+		predToIndex = new ConcurrentHashMap<>();
+		nextIndex = new AtomicInteger(0);
+	}
+
+	public static PredBddEncoder create() {
+		return new PredBddEncoder();
+	}
+
+	public BddManager getManager() {
+		return manager;
+	}
+
+	/**
+	 * Get the BDD variable index of a ponated predicate.
+	 */
+	public int getIndex(final Expr<BoolType> pred) {
+		checkNotNull(pred);
+		return predToIndex.computeIfAbsent(pred, p -> nextIndex.getAndIncrement());
+	}
+
+	/**
+	 * Get the BDD of a ponated predicate or its negation.
+	 */
+	public Bdd encode(final Expr<BoolType> pred, final boolean value) {
+		final int index = getIndex(pred);
+		return value ? manager.var(index) : manager.nvar(index);
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add(predToIndex.size()).toString();
+	}
+
+}
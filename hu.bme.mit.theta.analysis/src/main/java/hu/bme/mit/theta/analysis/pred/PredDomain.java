@@ -18,11 +18,19 @@ package hu.bme.mit.theta.analysis.pred;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 
+import java.util.Optional;
+
 import hu.bme.mit.theta.analysis.Domain;
+import hu.bme.mit.theta.common.bdd.Bdd;
 import hu.bme.mit.theta.core.utils.PathUtils;
 import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.utils.WithPushPop;
 
+/**
+ * Domain of predicate states. If the states store their values as BDDs (of the
+ * same manager), the operations are performed on the BDDs, treating the
+ * predicates as independent Boolean variables. Otherwise the solver is used.
+ */
 public final class PredDomain implements Domain<PredState> {
 
 	private final Solver solver;
@@ -37,6 +45,9 @@ public final class PredDomain implements Domain<PredState> {
 
 	@Override
 	public boolean isTop(final PredState state) {
+		if (state.getBdd().isPresent()) {
+			return state.getBdd().get().isTrue();
+		}
 		try (WithPushPop wpp = new WithPushPop(solver)) {
 			solver.add(PathUtils.unfold(Not(state.toExpr()), 0));
 			return solver.check().isUnsat();
@@ -45,6 +56,9 @@ public final class PredDomain implements Domain<PredState> {
 
 	@Override
 	public boolean isBottom(final PredState state) {
+		if (state.getBdd().isPresent()) {
+			return state.getBdd().get().isFalse();
+		}
 		try (WithPushPop wpp = new WithPushPop(solver)) {
 			solver.add(PathUtils.unfold(state.toExpr(), 0));
 			return solver.check().isUnsat();
@@ -53,6 +67,11 @@ public final class PredDomain implements Domain<PredState> {
 
 	@Override
 	public boolean isLeq(final PredState state1, final PredState state2) {
+		final Optional<Bdd> bdd1 = state1.getBdd();
+		final Optional<Bdd> bdd2 = state2.getBdd();
+		if (bdd1.isPresent() && bdd2.isPresent() && bdd1.get().getManager() == bdd2.get().getManager()) {
+			return bdd1.get().implies(bdd2.get());
+		}
 		try (WithPushPop wpp = new WithPushPop(solver)) {
 			solver.add(PathUtils.unfold(state1.toExpr(), 0));
 			solver.add(PathUtils.unfold(Not(state2.toExpr()), 0));
@@ -19,12 +19,14 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 
+import java.util.Optional;
 import java.util.Set;
 
 import com.google.common.collect.ImmutableSet;
 
 import hu.bme.mit.theta.analysis.expr.ExprState;
 import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.bdd.Bdd;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
 
@@ -33,20 +35,35 @@ public final class PredState implements ExprState {
 	private static final int HASH_SEED = 7621;
 
 	private final Set<Expr<BoolType>> preds;
+	private final Optional<Bdd> bdd;
 
 	private volatile Expr<BoolType> expr = null;
 
 	private volatile int hashCode;
 
-	private PredState(final Iterable<? extends Expr<BoolType>> preds) {
+	private PredState(final Iterable<? extends Expr<BoolType>> preds, final Optional<Bdd> bdd) {
 		checkNotNull(preds);
 		this.preds = ImmutableSet.copyOf(preds);
+		this.bdd = checkNotNull(bdd);
+	}
+
+	private PredState(final Iterable<? extends Expr<BoolType>> preds) {
+		this(preds, Optional.empty());
 	}
 
 	public static PredState of(final Iterable<? extends Expr<BoolType>> preds) {
 		return new PredState(preds);
 	}
 
+	/**
+	 * Creates a state that also stores its value as a BDD over the indices of
+	 * the predicates (see {@link PredBddEncoder}). The BDD must be equivalent to
+	 * the conjunction of the predicates.
+	 */
+	public static PredState of(final Iterable<? extends Expr<BoolType>> preds, final Bdd bdd) {
+		return new PredState(preds, Optional.of(bdd));
+	}
+
 	// Convenience factory methods
 
 	public static PredState of() {
@@ -81,6 +98,10 @@ public final class PredState implements ExprState {
 		return preds;
 	}
 
+	public Optional<Bdd> getBdd() {
+		return bdd;
+	}
+
 	@Override
 	public Expr<BoolType> toExpr() {
 		Expr<BoolType> result = expr;
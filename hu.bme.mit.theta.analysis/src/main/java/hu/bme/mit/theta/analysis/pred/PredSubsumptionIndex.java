@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import hu.bme.mit.theta.analysis.reachedset.SubsumptionIndex;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.NotExpr;
+
+/**
+ * Subsumption index for predicate states, storing the set of elements for each
+ * predicate as a bitset. A satisfiable predicate state cannot be covered by a
+ * state containing the negation of one of its predicates, so these states are
+ * pruned. The states of the elements should not change after they are added.
+ */
+public final class PredSubsumptionIndex<T> implements SubsumptionIndex<T> {
+
+	private final Function<? super T, ? extends PredState> toState;
+	private final Map<Expr<BoolType>, BitSet> predToElems;
+	private int size;
+
+	private PredSubsumptionIndex(final Function<? super T, ? extends PredState> toState) {
+		this.toState = checkNotNull(toState);
+		predToElems = new HashMap<>();
+		size = 0;
+	}
+
+	public static <T> PredSubsumptionIndex<T> create(final Function<? super T, ? extends PredState> toState) {
+		return new PredSubsumptionIndex<>(toState);
+	}
+
+	public static <T> Supplier<PredSubsumptionIndex<T>> supplier(
+			final Function<? super T, ? extends PredState> toState) {
+		return () -> create(toState);
+	}
+
+	@Override
+	public void add(final T elem) {
+		final int id = size++;
+		for (final Expr<BoolType> pred : toState.apply(elem).getPreds()) {
+			predToElems.computeIfAbsent(pred, p -> new BitSet()).set(id);
+		}
+	}
+
+	@Override
+	public BitSet getCandidates(final T elem) {
+		final BitSet candidates = new BitSet(size);
+		candidates.set(0, size);
+		for (final Expr<BoolType> pred : toState.apply(elem).getPreds()) {
+			final BitSet contradicting = predToElems.get(negate(pred));
+			if (contradicting != null) {
+				candidates.andNot(contradicting);
+			}
+		}
+		return candidates;
+	}
+
+	private static Expr<BoolType> negate(final Expr<BoolType> pred) {
+		if (pred instanceof NotExpr) {
+			return ((NotExpr) pred).getOp();
+		} else {
+			return Not(pred);
+		}
+	}
+
+}
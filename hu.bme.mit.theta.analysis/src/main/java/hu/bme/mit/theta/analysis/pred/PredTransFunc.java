@@ -16,25 +16,65 @@
 package hu.bme.mit.theta.analysis.pred;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
 
 import hu.bme.mit.theta.analysis.TransFunc;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
-import hu.bme.mit.theta.analysis.expr.ExprStates;
+import hu.bme.mit.theta.analysis.expr.PostCache;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
+import hu.bme.mit.theta.common.product.Tuple;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.booltype.BoolExprs;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.ExprUtils;
 import hu.bme.mit.theta.solver.Solver;
 
 public final class PredTransFunc implements TransFunc<PredState, ExprAction, PredPrec> {
 
-	private final Solver solver;
+	private final PredAbstractor predAbstractor;
+	private final Optional<PostCache<PredState>> postCache;
+	private final Cache<Object, Set<VarDecl<?>>> exprToVars;
 
-	private PredTransFunc(final Solver solver) {
-		this.solver = checkNotNull(solver);
+	private PredTransFunc(final PredAbstractor predAbstractor, final Optional<PostCache<PredState>> postCache) {
+		this.predAbstractor = checkNotNull(predAbstractor);
+		this.postCache = checkNotNull(postCache);
+		exprToVars = CacheBuilder.newBuilder().weakKeys().build();
 	}
 
 	public static PredTransFunc create(final Solver solver) {
-		return new PredTransFunc(solver);
+		return create(PredAbstractors.allSat(solver));
+	}
+
+	public static PredTransFunc create(final PredAbstractor predAbstractor) {
+		return new PredTransFunc(predAbstractor, Optional.empty());
+	}
+
+	/**
+	 * Creates a transfer function that stores the successors in a cache, keyed
+	 * by the state, the action and the predicates of the precision that share a
+	 * variable with the state or the action. Other predicates are not
+	 * constrained by the state and the action, so they cannot appear in the
+	 * successors and the cached results remain valid when such predicates are
+	 * added to the precision. Precisions other than {@link SimplePredPrec} are
+	 * used as a whole in the key.
+	 */
+	public static PredTransFunc create(final Solver solver, final PostCache<PredState> postCache) {
+		return create(PredAbstractors.allSat(solver), postCache);
+	}
+
+	public static PredTransFunc create(final PredAbstractor predAbstractor, final PostCache<PredState> postCache) {
+		return new PredTransFunc(predAbstractor, Optional.of(postCache));
 	}
 
 	@Override
@@ -44,8 +84,37 @@ public final class PredTransFunc implements TransFunc<PredState, ExprAction, Pre
 		checkNotNull(action);
 		checkNotNull(prec);
 
-		return ExprStates.createStatesForExpr(solver, BoolExprs.And(state.toExpr(), action.toExpr()), 0,
-				prec::createState, action.nextIndexing());
+		if (postCache.isPresent()) {
+			if (prec instanceof SimplePredPrec) {
+				final SimplePredPrec simplePrec = (SimplePredPrec) prec;
+				final Set<VarDecl<?>> vars = new HashSet<>(getVars(action, action.toExpr()));
+				state.getPreds().forEach(p -> vars.addAll(getVars(p, p)));
+				final Set<Expr<BoolType>> relevantPreds = simplePrec.getPreds().stream()
+						.filter(p -> getVars(p, p).isEmpty() || !Collections.disjoint(getVars(p, p), vars))
+						.collect(toImmutableSet());
+				return postCache.get().get(Tuple.of(state, action, relevantPreds),
+						() -> post(state, action, simplePrec.restrict(relevantPreds)));
+			} else {
+				return postCache.get().get(Tuple.of(state, action, prec), () -> post(state, action, prec));
+			}
+		} else {
+			return post(state, action, prec);
+		}
+	}
+
+	private Set<VarDecl<?>> getVars(final Object key, final Expr<BoolType> expr) {
+		Set<VarDecl<?>> vars = exprToVars.getIfPresent(key);
+		if (vars == null) {
+			vars = ImmutableSet.copyOf(ExprUtils.getVars(expr));
+			exprToVars.put(key, vars);
+		}
+		return vars;
+	}
+
+	private Collection<? extends PredState> post(final PredState state, final ExprAction action,
+			final PredPrec prec) {
+		return predAbstractor.createStatesForExpr(BoolExprs.And(state.toExpr(), action.toExpr()), 0, prec,
+				action.nextIndexing());
 	}
 
 }
@@ -25,12 +25,15 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import com.google.common.collect.ImmutableSet;
 
 import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.common.bdd.Bdd;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
@@ -42,28 +45,37 @@ import hu.bme.mit.theta.solver.utils.WithPushPop;
 
 /**
  * Represents an immutable, simple predicate precision that is a set of
- * predicates.
+ * predicates. If a {@link PredBddEncoder} is given, the created states also
+ * store their values as BDDs.
  */
 public final class SimplePredPrec implements PredPrec {
 
 	private final Map<Expr<BoolType>, Expr<BoolType>> predToNegMap;
 	private final Solver solver;
+	private final Optional<PredBddEncoder> bddEncoder;
 
 	public static SimplePredPrec create(final Solver solver) {
-		return new SimplePredPrec(Collections.emptySet(), solver);
+		return new SimplePredPrec(Collections.emptySet(), solver, Optional.empty());
 	}
 
 	public static SimplePredPrec create(final Iterable<Expr<BoolType>> preds, final Solver solver) {
-		return new SimplePredPrec(preds, solver);
+		return new SimplePredPrec(preds, solver, Optional.empty());
 	}
 
 	public static SimplePredPrec create(final Expr<BoolType> pred, final Solver solver) {
-		return new SimplePredPrec(Collections.singleton(pred), solver);
+		return new SimplePredPrec(Collections.singleton(pred), solver, Optional.empty());
 	}
 
-	private SimplePredPrec(final Iterable<Expr<BoolType>> preds, final Solver solver) {
+	public static SimplePredPrec create(final Iterable<Expr<BoolType>> preds, final Solver solver,
+			final PredBddEncoder bddEncoder) {
+		return new SimplePredPrec(preds, solver, Optional.of(bddEncoder));
+	}
+
+	private SimplePredPrec(final Iterable<Expr<BoolType>> preds, final Solver solver,
+			final Optional<PredBddEncoder> bddEncoder) {
 		checkNotNull(preds);
 		this.solver = checkNotNull(solver);
+		this.bddEncoder = checkNotNull(bddEncoder);
 		this.predToNegMap = new HashMap<>();
 
 		for (final Expr<BoolType> pred : preds) {
@@ -81,7 +93,15 @@ public final class SimplePredPrec implements PredPrec {
 		return solver;
 	}
 
-	private Expr<BoolType> negate(final Expr<BoolType> pred) {
+	public Set<Expr<BoolType>> getPreds() {
+		return Collections.unmodifiableSet(predToNegMap.keySet());
+	}
+
+	public Optional<PredBddEncoder> getBddEncoder() {
+		return bddEncoder;
+	}
+
+	Expr<BoolType> negate(final Expr<BoolType> pred) {
 		final Expr<BoolType> negated = predToNegMap.get(pred);
 		checkArgument(negated != null, "Negated predicate not found");
 		return negated;
@@ -90,52 +110,91 @@ public final class SimplePredPrec implements PredPrec {
 	@Override
 	public PredState createState(final Valuation valuation) {
 		checkNotNull(valuation);
-		final Set<Expr<BoolType>> statePreds = new HashSet<>();
+		final Map<Expr<BoolType>, Boolean> predValues = new LinkedHashMap<>();
 
 		for (final Expr<BoolType> pred : predToNegMap.keySet()) {
 			final Expr<BoolType> simplified = ExprUtils.simplify(pred, valuation);
 			if (simplified.equals(True())) {
-				statePreds.add(pred);
+				predValues.put(pred, true);
 			} else if (simplified.equals(False())) {
-				statePreds.add(negate(pred));
+				predValues.put(pred, false);
 			} else {
 				final Expr<BoolType> simplified0 = PathUtils.unfold(simplified, 0);
 
 				boolean ponValid;
 				boolean negValid;
-				try (WithPushPop wpp = new WithPushPop(solver)) {
-					solver.add(Not(simplified0));
-					ponValid = solver.check().isUnsat();
-				}
-				try (WithPushPop wpp = new WithPushPop(solver)) {
-					solver.add(simplified0);
-					negValid = solver.check().isUnsat();
+				// The precision may be shared by multiple threads building the ARG
+				synchronized (solver) {
+					try (WithPushPop wpp = new WithPushPop(solver)) {
+						solver.add(Not(simplified0));
+						ponValid = solver.check().isUnsat();
+					}
+					try (WithPushPop wpp = new WithPushPop(solver)) {
+						solver.add(simplified0);
+						negValid = solver.check().isUnsat();
+					}
 				}
 
 				assert !(ponValid && negValid) : "Ponated and negated predicates are both valid";
 				if (ponValid) {
-					statePreds.add(pred);
+					predValues.put(pred, true);
 				} else if (negValid) {
-					statePreds.add(negate(pred));
+					predValues.put(pred, false);
 				}
 			}
 		}
 
-		return PredState.of(statePreds);
+		return createState(predValues);
+	}
+
+	/**
+	 * Create a state from the values of some predicates of the precision. The
+	 * other predicates are left out of the state.
+	 */
+	PredState createState(final Map<Expr<BoolType>, Boolean> predValues) {
+		final Set<Expr<BoolType>> statePreds = new HashSet<>();
+		for (final Map.Entry<Expr<BoolType>, Boolean> entry : predValues.entrySet()) {
+			statePreds.add(entry.getValue() ? entry.getKey() : negate(entry.getKey()));
+		}
+
+		if (bddEncoder.isPresent()) {
+			final PredBddEncoder encoder = bddEncoder.get();
+			Bdd bdd = encoder.getManager().getTrue();
+			for (final Map.Entry<Expr<BoolType>, Boolean> entry : predValues.entrySet()) {
+				bdd = bdd.and(encoder.encode(entry.getKey(), entry.getValue()));
+			}
+			return PredState.of(statePreds, bdd);
+		} else {
+			return PredState.of(statePreds);
+		}
+	}
+
+	/**
+	 * Create a precision with a subset of the predicates, sharing the solver
+	 * and the BDD encoder of this precision.
+	 */
+	SimplePredPrec restrict(final Collection<Expr<BoolType>> preds) {
+		checkArgument(predToNegMap.keySet().containsAll(preds), "Predicates not in the precision");
+		if (preds.size() == predToNegMap.size()) {
+			return this;
+		}
+		return new SimplePredPrec(preds, solver, bddEncoder);
 	}
 
 	public SimplePredPrec join(final SimplePredPrec other) {
 		checkNotNull(other);
 		final Collection<Expr<BoolType>> joinedPreds = ImmutableSet.<Expr<BoolType>>builder()
 				.addAll(this.predToNegMap.keySet()).addAll(other.predToNegMap.keySet()).build();
+		final Optional<PredBddEncoder> joinedEncoder = this.bddEncoder.isPresent() ? this.bddEncoder
+				: other.bddEncoder;
 		// If no new predicate was added, return same instance (immutable)
-		if (joinedPreds.size() == this.predToNegMap.size()) {
+		if (joinedPreds.size() == this.predToNegMap.size() && this.bddEncoder.equals(joinedEncoder)) {
 			return this;
-		} else if (joinedPreds.size() == other.predToNegMap.size()) {
+		} else if (joinedPreds.size() == other.predToNegMap.size() && other.bddEncoder.equals(joinedEncoder)) {
 			return other;
 		}
 
-		return create(joinedPreds, solver);
+		return new SimplePredPrec(joinedPreds, solver, joinedEncoder);
 	}
 
 	@Override
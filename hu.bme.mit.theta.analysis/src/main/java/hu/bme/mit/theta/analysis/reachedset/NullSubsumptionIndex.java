@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.reachedset;
+
+import java.util.BitSet;
+import java.util.function.Supplier;
+
+/**
+ * Subsumption index that does not prune any elements.
+ */
+public final class NullSubsumptionIndex<T> implements SubsumptionIndex<T> {
+
+	private int size;
+
+	private NullSubsumptionIndex() {
+		size = 0;
+	}
+
+	public static <T> NullSubsumptionIndex<T> create() {
+		return new NullSubsumptionIndex<>();
+	}
+
+	public static <T> Supplier<NullSubsumptionIndex<T>> supplier() {
+		return NullSubsumptionIndex::create;
+	}
+
+	@Override
+	public void add(final T elem) {
+		size++;
+	}
+
+	@Override
+	public BitSet getCandidates(final T elem) {
+		final BitSet candidates = new BitSet(size);
+		candidates.set(0, size);
+		return candidates;
+	}
+
+}
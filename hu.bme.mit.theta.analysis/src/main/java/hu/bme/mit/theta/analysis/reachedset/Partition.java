@@ -18,32 +18,56 @@ package hu.bme.mit.theta.analysis.reachedset;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+/**
+ * Partitions elements into classes based on a projection. Each class can have
+ * a subsumption index, which is used to prune the elements of the class that
+ * cannot cover a given element.
+ */
 public final class Partition<T, K> {
 
 	private final Function<? super T, ? extends K> projection;
-	private final Map<K, Collection<T>> classes;
+	private final Supplier<? extends SubsumptionIndex<? super T>> indexSupplier;
+	private final Map<K, Block<T>> classes;
+
+	private long prunedCandidates;
+	private long savedLeqChecks;
 
-	private Partition(final Function<? super T, ? extends K> projection) {
+	private Partition(final Function<? super T, ? extends K> projection,
+			final Supplier<? extends SubsumptionIndex<? super T>> indexSupplier) {
 		this.projection = checkNotNull(projection);
+		this.indexSupplier = checkNotNull(indexSupplier);
 		classes = new HashMap<>();
+		prunedCandidates = 0;
+		savedLeqChecks = 0;
 	}
 
 	public static <T, K> Partition<T, K> of(final Function<? super T, ? extends K> projection) {
-		return new Partition<>(projection);
+		return new Partition<>(projection, NullSubsumptionIndex.supplier());
+	}
+
+	public static <T, K> Partition<T, K> of(final Function<? super T, ? extends K> projection,
+			final Supplier<? extends SubsumptionIndex<? super T>> indexSupplier) {
+		return new Partition<>(projection, indexSupplier);
 	}
 
 	public void add(final T elem) {
 		checkNotNull(elem);
 		final K key = projection.apply(elem);
-		final Collection<T> partition = classes.computeIfAbsent(key, k -> new ArrayList<>());
-		partition.add(elem);
+		final Block<T> block = classes.computeIfAbsent(key, k -> new Block<>(indexSupplier.get()));
+		block.elems.add(elem);
+		block.index.add(elem);
 	}
 
 	public void addAll(final Iterable<? extends T> elems) {
@@ -54,11 +78,103 @@ public final class Partition<T, K> {
 		elems.forEach(this::add);
 	}
 
+	/**
+	 * Gets all elements in the class of a given element.
+	 */
 	public Collection<T> get(final T elem) {
 		checkNotNull(elem);
 		final K key = projection.apply(elem);
-		final Collection<T> partition = classes.getOrDefault(key, Collections.emptyList());
-		return partition;
+		final Block<T> block = classes.get(key);
+		if (block == null) {
+			return Collections.emptyList();
+		} else {
+			return block.elems;
+		}
+	}
+
+	/**
+	 * Gets the elements in the class of a given element that might cover it,
+	 * in the order of their addition. Elements pruned by the index are skipped
+	 * while iterating, and counted as saved checks, so the result should only
+	 * be iterated once.
+	 */
+	public Iterable<T> getCandidates(final T elem) {
+		checkNotNull(elem);
+		final K key = projection.apply(elem);
+		final Block<T> block = classes.get(key);
+		if (block == null) {
+			return Collections.emptyList();
+		}
+
+		final List<T> elems = block.elems;
+		final int size = elems.size();
+		final BitSet candidates = block.index.getCandidates(elem);
+		prunedCandidates += size - candidates.get(0, size).cardinality();
+		return () -> new CandidateIterator(elems, size, candidates);
+	}
+
+	/**
+	 * Gets the number of elements pruned by the indexes.
+	 */
+	public long getPrunedCandidates() {
+		return prunedCandidates;
+	}
+
+	/**
+	 * Gets the number of coverage checks saved compared to checking the
+	 * elements of a class one by one, i.e., the number of pruned elements
+	 * skipped before the iteration over the candidates stopped.
+	 */
+	public long getSavedLeqChecks() {
+		return savedLeqChecks;
+	}
+
+	private static final class Block<T> {
+		private final List<T> elems;
+		private final SubsumptionIndex<? super T> index;
+
+		private Block(final SubsumptionIndex<? super T> index) {
+			this.elems = new ArrayList<>();
+			this.index = checkNotNull(index);
+		}
+	}
+
+	private final class CandidateIterator implements Iterator<T> {
+		private final List<T> elems;
+		private final int size;
+		private final BitSet candidates;
+
+		private int current;
+		private int next;
+
+		private CandidateIterator(final List<T> elems, final int size, final BitSet candidates) {
+			this.elems = elems;
+			this.size = size;
+			this.candidates = candidates;
+			current = -1;
+			next = -1;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next < 0) {
+				final int from = current + 1;
+				final int candidate = candidates.nextSetBit(from);
+				next = (candidate < 0 || candidate > size) ? size : candidate;
+				savedLeqChecks += next - from;
+			}
+			return next < size;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			current = next;
+			next = -1;
+			return elems.get(current);
+		}
 	}
 
 }
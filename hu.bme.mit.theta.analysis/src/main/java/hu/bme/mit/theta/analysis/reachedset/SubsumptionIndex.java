@@ -0,0 +1,39 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.reachedset;
+
+import java.util.BitSet;
+
+/**
+ * Common interface for indexes that can rule out elements that cannot cover a
+ * given element, without performing the (possibly expensive) coverage check.
+ * Elements are identified by the order of their addition, starting from zero.
+ * Implementations may assume that the element to be covered is not bottom.
+ */
+public interface SubsumptionIndex<T> {
+
+	/**
+	 * Add a new element to the index.
+	 */
+	void add(T elem);
+
+	/**
+	 * Get the elements that might cover a given element. Elements not included
+	 * in the result are guaranteed not to cover the given element.
+	 */
+	BitSet getCandidates(T elem);
+
+}
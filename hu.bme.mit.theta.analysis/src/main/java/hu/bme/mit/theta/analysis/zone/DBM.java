@@ -405,6 +405,25 @@ final class DBM {
 		return true;
 	}
 
+	/**
+	 * Checks a necessary condition of {@link #isLeq(DBM)} by only comparing the
+	 * lower and upper bounds of the clocks.
+	 */
+	public boolean mayBeLeq(final DBM that) {
+		return this.hasLeqBounds(that, this.signature) && this.hasLeqBounds(that, that.signature);
+	}
+
+	private boolean hasLeqBounds(final DBM that, final DbmSignature vars) {
+		final VarDecl<RatType> zero = ZeroVar.getInstance();
+		for (final VarDecl<RatType> x : vars) {
+			if (this.getOrDefault(x, zero) > that.getOrDefault(x, zero)
+					|| this.getOrDefault(zero, x) > that.getOrDefault(zero, x)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public boolean isLeq(final DBM that, final Collection<? extends VarDecl<RatType>> activeVars) {
 		final Set<VarDecl<RatType>> vars = Sets.union(this.signature.toSet(), that.signature.toSet());
 
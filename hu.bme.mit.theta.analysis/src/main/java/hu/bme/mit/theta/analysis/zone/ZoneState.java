@@ -164,6 +164,14 @@ public final class ZoneState implements ExprState {
 		return this.dbm.isLeq(that.dbm);
 	}
 
+	/**
+	 * Checks a necessary condition of {@link #isLeq(ZoneState)}, which is
+	 * cheaper to compute.
+	 */
+	public boolean mayBeLeq(final ZoneState that) {
+		return this.dbm.mayBeLeq(that.dbm);
+	}
+
 	public boolean isLeq(final ZoneState that, final Collection<? extends VarDecl<RatType>> activeVars) {
 		return this.dbm.isLeq(that.dbm, activeVars);
 	}
@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import hu.bme.mit.theta.analysis.reachedset.SubsumptionIndex;
+
+/**
+ * Subsumption index for zones, pre-filtering the elements by comparing only the
+ * lower and upper bounds of the clocks, which is a necessary condition for
+ * inclusion. The zones are obtained at the time of the query, therefore the
+ * states of the elements may change after they are added.
+ *
+ * The zone of the element to be covered and the zones of the stored elements
+ * can be obtained by different functions. This is needed if coverage is
+ * checked between different components of the states, e.g., the concrete zone
+ * of the element to be covered and the interpolant of the covering element.
+ */
+public final class ZoneSubsumptionIndex<T> implements SubsumptionIndex<T> {
+
+	private final Function<? super T, ? extends ZoneState> queryToZone;
+	private final Function<? super T, ? extends ZoneState> elemToZone;
+	private final List<T> elems;
+
+	private ZoneSubsumptionIndex(final Function<? super T, ? extends ZoneState> queryToZone,
+			final Function<? super T, ? extends ZoneState> elemToZone) {
+		this.queryToZone = checkNotNull(queryToZone);
+		this.elemToZone = checkNotNull(elemToZone);
+		elems = new ArrayList<>();
+	}
+
+	public static <T> ZoneSubsumptionIndex<T> create(final Function<? super T, ? extends ZoneState> toZone) {
+		return new ZoneSubsumptionIndex<>(toZone, toZone);
+	}
+
+	/**
+	 * Creates an index that compares the zone of the element to be covered,
+	 * given by the first function, to the zones of the stored elements, given
+	 * by the second function. The first zone should be included in any zone
+	 * that the element to be covered is checked with.
+	 */
+	public static <T> ZoneSubsumptionIndex<T> create(final Function<? super T, ? extends ZoneState> queryToZone,
+			final Function<? super T, ? extends ZoneState> elemToZone) {
+		return new ZoneSubsumptionIndex<>(queryToZone, elemToZone);
+	}
+
+	public static <T> Supplier<ZoneSubsumptionIndex<T>> supplier(
+			final Function<? super T, ? extends ZoneState> toZone) {
+		return () -> create(toZone);
+	}
+
+	public static <T> Supplier<ZoneSubsumptionIndex<T>> supplier(
+			final Function<? super T, ? extends ZoneState> queryToZone,
+			final Function<? super T, ? extends ZoneState> elemToZone) {
+		return () -> create(queryToZone, elemToZone);
+	}
+
+	@Override
+	public void add(final T elem) {
+		elems.add(elem);
+	}
+
+	@Override
+	public BitSet getCandidates(final T elem) {
+		final ZoneState zone = queryToZone.apply(elem);
+		final BitSet candidates = new BitSet(elems.size());
+		if (zone.isBottom()) {
+			candidates.set(0, elems.size());
+			return candidates;
+		}
+		for (int i = 0; i < elems.size(); i++) {
+			if (zone.mayBeLeq(elemToZone.apply(elems.get(i)))) {
+				candidates.set(i);
+			}
+		}
+		return candidates;
+	}
+
+}
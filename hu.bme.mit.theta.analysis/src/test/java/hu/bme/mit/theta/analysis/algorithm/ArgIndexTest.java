@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.stubs.ActionStub;
+import hu.bme.mit.theta.analysis.stubs.DomainStub;
+import hu.bme.mit.theta.analysis.stubs.StateStub;
+
+public class ArgIndexTest {
+
+	@Test
+	public void test() {
+		final ARG<State, Action> arg = ARG.create(new DomainStub());
+		final Action a = new ActionStub("A");
+
+		final ArgNode<State, Action> n0 = arg.createInitNode(new StateStub("0"), false);
+		arg.initialized = true;
+		assertEquals(1, arg.size());
+		assertEquals(1, arg.getIncompleteNodes().count());
+		assertFalse(arg.isComplete());
+		assertTrue(arg.isSafe());
+
+		final ArgNode<State, Action> n00 = arg.createSuccNode(n0, a, new StateStub("00"), false);
+		final ArgNode<State, Action> n01 = arg.createSuccNode(n0, a, new StateStub("01"), true);
+		arg.setExpanded(n0, true);
+		assertEquals(3, arg.size());
+		assertEquals(2, arg.getIncompleteNodes().count());
+		assertEquals(1, arg.getUnsafeNodes().count());
+		assertFalse(arg.isSafe());
+
+		final ArgNode<State, Action> n000 = arg.createSuccNode(n00, a, new StateStub("000"), false);
+		arg.setExpanded(n00, true);
+		n000.setCoveringNode(n0);
+		n01.setCoveringNode(n0);
+		assertEquals(4, arg.size());
+		assertEquals(0, arg.getIncompleteNodes().count());
+		assertEquals(0, arg.getUnsafeNodes().count());
+		assertTrue(arg.isSafe());
+		assertTrue(arg.isComplete());
+
+		arg.prune(n00);
+		assertEquals(2, arg.size());
+		assertEquals(1, arg.getIncompleteNodes().count());
+		assertEquals(n0, arg.getIncompleteNodes().findFirst().get());
+		assertFalse(arg.isComplete());
+		assertTrue(arg.isSafe());
+
+		arg.prune(n0);
+		assertEquals(0, arg.size());
+		assertEquals(0, arg.getIncompleteNodes().count());
+		assertFalse(arg.isInitialized());
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.stubs.ActionStub;
+import hu.bme.mit.theta.analysis.stubs.DomainStub;
+import hu.bme.mit.theta.analysis.stubs.StateStub;
+
+public class ArgNodeExclusionTest {
+
+	private final Action a = new ActionStub("A");
+
+	@Test
+	public void testAncestors() {
+		final ARG<State, Action> arg = ARG.create(new DomainStub());
+		final List<ArgNode<State, Action>> path = new ArrayList<>();
+		path.add(arg.createInitNode(new StateStub("0"), false));
+		for (int i = 1; i < 1000; i++) {
+			path.add(arg.createSuccNode(path.get(i - 1), a, new StateStub(Integer.toString(i)), false));
+		}
+		final ArgNode<State, Action> branch = arg.createSuccNode(path.get(500), a, new StateStub("b"), false);
+		final ArgNode<State, Action> otherRoot = arg.createInitNode(new StateStub("r"), false);
+
+		for (int i = 0; i < path.size(); i += 37) {
+			for (int j = 0; j < path.size(); j += 41) {
+				assertEquals(i <= j, path.get(i).isAncestorOf(path.get(j)));
+			}
+			assertEquals(i <= 500, path.get(i).isAncestorOf(branch));
+			assertFalse(path.get(i).isAncestorOf(otherRoot));
+		}
+		assertTrue(branch.isAncestorOf(branch));
+		assertFalse(branch.isAncestorOf(path.get(501)));
+		assertFalse(otherRoot.isAncestorOf(branch));
+	}
+
+	@Test
+	public void testExclusion() {
+		final ARG<State, Action> arg = ARG.create(new DomainStub());
+		final ArgNode<State, Action> n0 = arg.createInitNode(new StateStub("0"), false);
+		final ArgNode<State, Action> n00 = arg.createSuccNode(n0, a, new StateStub("00"), false);
+		final ArgNode<State, Action> n01 = arg.createSuccNode(n0, a, new StateStub("01"), false);
+		final ArgNode<State, Action> n000 = arg.createSuccNode(n00, a, new StateStub("000"), false);
+		final ArgNode<State, Action> n0000 = arg.createSuccNode(n000, a, new StateStub("0000"), false);
+
+		n00.setCoveringNode(n01);
+		assertTrue(n00.isSubsumed());
+		assertTrue(n0000.isExcluded());
+		assertFalse(n0000.isSubsumed());
+		assertFalse(n01.isExcluded());
+		assertFalse(n01.mayCover(n000));
+
+		n000.setCoveringNode(n01);
+		n00.unsetCoveringNode();
+		assertFalse(n00.isExcluded());
+		assertTrue(n000.isExcluded());
+		assertTrue(n0000.isExcluded());
+
+		n01.clearCoveredNodes();
+		assertFalse(n000.isExcluded());
+		assertFalse(n0000.isExcluded());
+
+		n0000.setCoveringNode(n01);
+		n01.cover(n00);
+		assertTrue(n01.isExcluded());
+		assertTrue(n0000.isCovered());
+		assertEquals(n00, n0000.getCoveringNode().get());
+		assertTrue(n0000.isExcluded());
+		assertFalse(n00.mayCover(n0000));
+
+		arg.prune(n00);
+		assertFalse(n01.isExcluded());
+		assertFalse(n0000.isExcluded());
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.Analysis;
+import hu.bme.mit.theta.analysis.Domain;
+import hu.bme.mit.theta.analysis.InitFunc;
+import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.TransFunc;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult.Unknown.Reason;
+import hu.bme.mit.theta.analysis.algorithm.cegar.Abstractor;
+import hu.bme.mit.theta.analysis.algorithm.cegar.AbstractorResult;
+import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
+import hu.bme.mit.theta.analysis.algorithm.cegar.CegarStatistics;
+import hu.bme.mit.theta.analysis.algorithm.cegar.ParallelAbstractor;
+import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
+import hu.bme.mit.theta.analysis.algorithm.cegar.RefinerResult;
+import hu.bme.mit.theta.analysis.stubs.ActionStub;
+import hu.bme.mit.theta.analysis.stubs.DomainStub;
+import hu.bme.mit.theta.analysis.stubs.PrecStub;
+import hu.bme.mit.theta.analysis.stubs.StateStub;
+import hu.bme.mit.theta.analysis.stubs.UnknownSolverStub;
+import hu.bme.mit.theta.common.logging.impl.NullLogger;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.UnknownSolverStatusException;
+
+public final class CegarBudgetTest {
+
+	private final ARG<State, Action> arg = ARG.create(new DomainStub());
+
+	private final Abstractor<State, Action, PrecStub> abstractor = new Abstractor<State, Action, PrecStub>() {
+		@Override
+		public ARG<State, Action> createArg() {
+			return arg;
+		}
+
+		@Override
+		public AbstractorResult check(final ARG<State, Action> arg, final PrecStub prec) {
+			return AbstractorResult.unsafe();
+		}
+	};
+
+	@Test
+	public void testTimeout() {
+		final Refiner<State, Action, PrecStub> refiner = (arg, prec) -> RefinerResult.spurious(prec);
+		final CegarChecker<State, Action, PrecStub> checker = CegarChecker.create(abstractor, refiner,
+				NullLogger.getInstance(), Budget.create(100, 0));
+
+		final SafetyResult<State, Action> result = checker.check(new PrecStub());
+
+		assertTrue(result.isUnknown());
+		assertEquals(Reason.TIMEOUT, result.asUnknown().getReason());
+		assertSame(arg, result.getArg());
+		final CegarStatistics stats = (CegarStatistics) result.getStats().get();
+		assertTrue(stats.getIterations() > 0);
+		assertTrue(stats.getTotalTimeMs() >= 100);
+	}
+
+	@Test
+	public void testSolverUnknown() {
+		final Refiner<State, Action, PrecStub> refiner = (arg, prec) -> {
+			throw new UnknownSolverStatusException("timeout");
+		};
+		final CegarChecker<State, Action, PrecStub> checker = CegarChecker.create(abstractor, refiner);
+
+		final SafetyResult<State, Action> result = checker.check(new PrecStub());
+
+		assertTrue(result.isUnknown());
+		assertEquals(Reason.SOLVER, result.asUnknown().getReason());
+		assertEquals(1, ((CegarStatistics) result.getStats().get()).getIterations());
+	}
+
+	@Test
+	public void testParallelSolverUnknown() {
+		final LTS<State, Action> lts = s -> Collections.singleton(new ActionStub("a"));
+		final ArgBuilder<State, Action, PrecStub> argBuilder = ArgBuilder.create(lts,
+				createAnalysis(new UnknownSolverStub()), s -> false);
+		final ParallelAbstractor<State, Action, PrecStub> abstractor = ParallelAbstractor
+				.builder(argBuilder, () -> ArgBuilder.create(lts, createAnalysis(new UnknownSolverStub()), s -> false))
+				.threads(2).build();
+		final Refiner<State, Action, PrecStub> refiner = (arg, prec) -> RefinerResult.spurious(prec);
+		final CegarChecker<State, Action, PrecStub> checker = CegarChecker.create(abstractor, refiner);
+
+		final SafetyResult<State, Action> result = checker.check(new PrecStub());
+
+		assertTrue(result.isUnknown());
+		assertEquals(Reason.SOLVER, result.asUnknown().getReason());
+	}
+
+	private static Analysis<State, Action, PrecStub> createAnalysis(final Solver solver) {
+		return new Analysis<State, Action, PrecStub>() {
+			@Override
+			public Domain<State> getDomain() {
+				return new DomainStub();
+			}
+
+			@Override
+			public InitFunc<State, PrecStub> getInitFunc() {
+				return prec -> Collections.singleton(new StateStub("s0"));
+			}
+
+			@Override
+			public TransFunc<State, Action, PrecStub> getTransFunc() {
+				return (state, action, prec) -> {
+					solver.check();
+					return Collections.singleton(new StateStub("s1"));
+				};
+			}
+		};
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FingerprintSetTest {
+
+	@Test
+	public void testAdd() {
+		final FingerprintSet set = FingerprintSet.create();
+		assertEquals(0, set.add(42, -1));
+		assertEquals(1, set.add(43, 0));
+		assertEquals(-1, set.add(42, 1));
+		assertEquals(2, set.size());
+		assertTrue(set.contains(42));
+		assertTrue(set.contains(43));
+		assertFalse(set.contains(44));
+		assertEquals(43, set.getFingerprint(1));
+		assertEquals(0, set.getParent(1));
+	}
+
+	@Test
+	public void testGrow() {
+		final FingerprintSet set = FingerprintSet.create();
+		final int n = 10000;
+		for (int i = 0; i < n; i++) {
+			// Consecutive multiples of a power of two collide without mixing
+			assertEquals(i, set.add((long) i << 32, i - 1));
+		}
+		assertEquals(n, set.size());
+		for (int i = 0; i < n; i++) {
+			assertTrue(set.contains((long) i << 32));
+			assertEquals(-1, set.add((long) i << 32, 0));
+		}
+		assertFalse(set.contains((long) n << 32));
+		assertEquals(n, set.getPath(n - 1).length);
+	}
+
+	@Test
+	public void testPath() {
+		final FingerprintSet set = FingerprintSet.create();
+		final int a = set.add(1, -1);
+		final int b = set.add(2, -1);
+		final int c = set.add(3, a);
+		final int d = set.add(4, b);
+		final int e = set.add(5, c);
+		assertArrayEquals(new int[] { a, c, e }, set.getPath(e));
+		assertArrayEquals(new int[] { b, d }, set.getPath(d));
+		assertArrayEquals(new int[] { b }, set.getPath(b));
+	}
+
+}
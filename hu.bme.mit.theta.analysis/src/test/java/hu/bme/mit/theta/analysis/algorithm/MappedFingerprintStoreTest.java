@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class MappedFingerprintStoreTest {
+
+	@Test
+	public void testAgainstFingerprintSet() throws IOException {
+		final Path directory = Files.createTempDirectory("theta");
+		final Random random = new Random(42);
+		final FingerprintSet expected = FingerprintSet.create();
+		final int n = 20000;
+
+		// Small segments, quota and buffer to exercise flushing, rehashing,
+		// remapping and growing the filter
+		try (final MappedFingerprintStore store = MappedFingerprintStore.builder(directory).quota(64 * 1024)
+				.segmentSize(4096).bufferSize(100).build()) {
+			for (int i = 0; i < n; i++) {
+				// Many duplicates and the special value zero
+				final long fingerprint = random.nextInt(n) * 0x9E3779B97F4A7C15L;
+				final int parent = expected.size() == 0 ? -1 : random.nextInt(expected.size());
+				assertEquals(expected.add(fingerprint, parent), store.add(fingerprint, parent));
+			}
+			assertEquals(expected.size(), store.size());
+			for (int i = 0; i < n; i++) {
+				final long fingerprint = i * 0x9E3779B97F4A7C15L;
+				assertEquals(expected.contains(fingerprint), store.contains(fingerprint));
+			}
+			assertFalse(store.contains(1));
+			for (int id = 0; id < expected.size(); id++) {
+				assertEquals(expected.getFingerprint(id), store.getFingerprint(id));
+				assertEquals(expected.getParent(id), store.getParent(id));
+			}
+			final int last = expected.size() - 1;
+			assertArrayEquals(expected.getPath(last), store.getPath(last));
+
+			assertTrue(store.getPageIns() > 3);
+			assertTrue(store.getSpilledBytes() >= 12L * store.size());
+		}
+
+		try (final Stream<Path> files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+		Files.delete(directory);
+	}
+
+}
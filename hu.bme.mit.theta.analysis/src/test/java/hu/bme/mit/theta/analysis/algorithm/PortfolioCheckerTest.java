@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.algorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.Action;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.PortfolioResult.Progress;
+import hu.bme.mit.theta.analysis.algorithm.PortfolioResult.Progress.Status;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult.Unknown.Reason;
+import hu.bme.mit.theta.analysis.algorithm.cegar.Abstractor;
+import hu.bme.mit.theta.analysis.algorithm.cegar.AbstractorResult;
+import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
+import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
+import hu.bme.mit.theta.analysis.algorithm.cegar.RefinerResult;
+import hu.bme.mit.theta.analysis.stubs.DomainStub;
+import hu.bme.mit.theta.analysis.stubs.PrecStub;
+import hu.bme.mit.theta.common.logging.impl.NullLogger;
+
+public final class PortfolioCheckerTest {
+
+	private final Abstractor<State, Action, PrecStub> abstractor = new Abstractor<State, Action, PrecStub>() {
+		@Override
+		public ARG<State, Action> createArg() {
+			return ARG.create(new DomainStub());
+		}
+
+		@Override
+		public AbstractorResult check(final ARG<State, Action> arg, final PrecStub prec) {
+			return AbstractorResult.unsafe();
+		}
+	};
+
+	private final Refiner<State, Action, PrecStub> refiner = (arg, prec) -> RefinerResult.spurious(prec);
+
+	private CegarChecker<State, Action, PrecStub> createNonTerminating(final Budget budget) {
+		return CegarChecker.create(abstractor, refiner, NullLogger.getInstance(), budget);
+	}
+
+	@Test
+	public void testFirstDefinitiveWins() throws InterruptedException {
+		final CegarChecker<State, Action, PrecStub> slowChecker = createNonTerminating(Budget.unlimited());
+		final AtomicReference<SafetyResult<?, ?>> slowResult = new AtomicReference<>();
+		final CountDownLatch slowDone = new CountDownLatch(1);
+		final ARG<State, Action> arg = ARG.create(new DomainStub());
+		arg.initialized = true;
+
+		final PortfolioResult result = PortfolioChecker.builder().add("slow", () -> {
+			try {
+				final SafetyResult<?, ?> r = slowChecker.check(new PrecStub());
+				slowResult.set(r);
+				return r;
+			} finally {
+				slowDone.countDown();
+			}
+		}).add("fast", () -> SafetyResult.safe(arg)).build().check();
+
+		assertTrue(result.getWinner().isPresent());
+		assertEquals("fast", result.getWinner().get().getName());
+		assertTrue(result.getResult().get().isSafe());
+		assertSame(arg, result.getResult().get().getArg());
+
+		final Progress slowProgress = result.getProgress().get(0);
+		assertEquals("slow", slowProgress.getName());
+		assertEquals(Status.CANCELLED, slowProgress.getStatus());
+		assertFalse(slowProgress.getResult().isPresent());
+
+		assertTrue(slowDone.await(10, TimeUnit.SECONDS));
+		assertEquals(Reason.CANCELLED, slowResult.get().asUnknown().getReason());
+	}
+
+	@Test
+	public void testNoDefinitiveVerdict() {
+		final PortfolioResult result = PortfolioChecker.builder()
+				.add("failing", () -> {
+					throw new UnsupportedOperationException();
+				}).add("timeout", createNonTerminating(Budget.create(10, 0)), new PrecStub()).build().check();
+
+		assertFalse(result.getWinner().isPresent());
+		assertEquals(Status.FAILED, result.getProgress().get(0).getStatus());
+		assertTrue(result.getProgress().get(0).getFailure().get() instanceof UnsupportedOperationException);
+		assertEquals(Status.FINISHED, result.getProgress().get(1).getStatus());
+		assertEquals("timeout", result.getReported().get().getName());
+		assertEquals(Reason.TIMEOUT, result.getResult().get().asUnknown().getReason());
+	}
+
+	@Test
+	public void testResourcesClosedWhenChecksEnd() throws InterruptedException {
+		final CegarChecker<State, Action, PrecStub> slowChecker = createNonTerminating(Budget.unlimited());
+		final AtomicBoolean slowEnded = new AtomicBoolean(false);
+		final AtomicBoolean slowClosedAfterEnd = new AtomicBoolean(false);
+		final CountDownLatch slowClosed = new CountDownLatch(1);
+		final CountDownLatch fastClosed = new CountDownLatch(1);
+		final ARG<State, Action> arg = ARG.create(new DomainStub());
+		arg.initialized = true;
+
+		final PortfolioResult result = PortfolioChecker.builder().add("slow", () -> {
+			try {
+				return slowChecker.check(new PrecStub());
+			} finally {
+				slowEnded.set(true);
+			}
+		}, () -> {
+			slowClosedAfterEnd.set(slowEnded.get());
+			slowClosed.countDown();
+		}).add("fast", () -> SafetyResult.safe(arg), fastClosed::countDown).build().check();
+
+		assertEquals("fast", result.getWinner().get().getName());
+		assertTrue(fastClosed.await(10, TimeUnit.SECONDS));
+		assertTrue(slowClosed.await(10, TimeUnit.SECONDS));
+		assertTrue(slowClosedAfterEnd.get());
+	}
+
+	@Test
+	public void testResourceClosedWhenCheckFails() {
+		final AtomicBoolean closed = new AtomicBoolean(false);
+
+		final PortfolioResult result = PortfolioChecker.builder().add("failing", () -> {
+			throw new UnsupportedOperationException();
+		}, () -> closed.set(true)).build().check();
+
+		assertEquals(Status.FAILED, result.getProgress().get(0).getStatus());
+		assertTrue(result.getProgress().get(0).getFailure().get() instanceof UnsupportedOperationException);
+		assertTrue(closed.get());
+	}
+
+	@Test
+	public void testMonitorInterrupted() {
+		final Budget.Monitor monitor = Budget.unlimited().start();
+		assertFalse(monitor.check().isPresent());
+		Thread.currentThread().interrupt();
+		try {
+			assertEquals(Reason.CANCELLED, monitor.check().get());
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+}
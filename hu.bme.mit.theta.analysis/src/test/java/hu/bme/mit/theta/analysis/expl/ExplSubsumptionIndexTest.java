@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expl;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.reachedset.Partition;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.BasicValuation;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class ExplSubsumptionIndexTest {
+
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+
+	@Test
+	public void testCandidatesMatchIsLeq() {
+		final List<ExplState> states = createStates();
+		final ExplSubsumptionIndex<ExplState> index = ExplSubsumptionIndex.create(Function.identity());
+		states.forEach(index::add);
+
+		for (final ExplState state : states) {
+			final BitSet expected = new BitSet();
+			for (int i = 0; i < states.size(); i++) {
+				if (state.isLeq(states.get(i))) {
+					expected.set(i);
+				}
+			}
+			final BitSet candidates = index.getCandidates(state);
+			expected.andNot(candidates);
+			assertEquals(state.toString(), 0, expected.cardinality());
+		}
+	}
+
+	@Test
+	public void testPartitionCounters() {
+		final Partition<ExplState, Integer> partition = Partition.of(s -> 0,
+				ExplSubsumptionIndex.supplier(Function.identity()));
+		final ExplState s1 = ExplState.create(BasicValuation.builder().put(x, Int(1)).build());
+		final ExplState s2 = ExplState.create(BasicValuation.builder().put(x, Int(2)).build());
+		final ExplState s3 = ExplState.create(BasicValuation.builder().put(x, Int(1)).put(y, Int(1)).build());
+		partition.add(s1);
+		partition.add(s2);
+		partition.add(s3);
+
+		final List<ExplState> candidates = new ArrayList<>();
+		partition.getCandidates(s1).forEach(candidates::add);
+
+		assertEquals(1, candidates.size());
+		assertEquals(s1, candidates.get(0));
+		assertEquals(2, partition.getPrunedCandidates());
+	}
+
+	private List<ExplState> createStates() {
+		final List<ExplState> states = new ArrayList<>();
+		for (int vx = -1; vx <= 1; vx++) {
+			for (int vy = -1; vy <= 1; vy++) {
+				final BasicValuation.Builder builder = BasicValuation.builder();
+				if (vx >= 0) {
+					builder.put(x, Int(vx));
+				}
+				if (vy >= 0) {
+					builder.put(y, Int(vy));
+				}
+				states.add(ExplState.create(builder.build()));
+			}
+		}
+		states.add(ExplState.createBottom());
+		return states;
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expl;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import hu.bme.mit.theta.analysis.expr.PostCache;
+import hu.bme.mit.theta.analysis.expr.PostCacheStatistics;
+import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.BasicValuation;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+public class ExplTransFuncTest {
+	private final Solver solver = Z3SolverFactory.getInstace().createSolver();
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+	private final VarDecl<IntType> z = Var("z", Int());
+
+	private final StmtAction incX = new StmtAction() {
+		@Override
+		public List<Stmt> getStmts() {
+			return ImmutableList.of(Assign(x, Add(x.getRef(), Int(1))), Assign(y, x.getRef()));
+		}
+	};
+
+	@Test
+	public void testCacheHit() {
+		final PostCache<ExplState> postCache = PostCache.create(10);
+		final ExplTransFunc transFunc = ExplTransFunc.create(solver, postCache);
+		final ExplState state = ExplState.create(BasicValuation.builder().put(x, Int(1)).build());
+		final ExplPrec prec = ExplPrec.create(ImmutableSet.of(x));
+
+		final Collection<? extends ExplState> succStates1 = transFunc.getSuccStates(state, incX, prec);
+		final Collection<? extends ExplState> succStates2 = transFunc.getSuccStates(state, incX, prec);
+
+		final ExplState expectedState = ExplState.create(BasicValuation.builder().put(x, Int(2)).build());
+		Assert.assertEquals(expectedState, Utils.singleElementOf(succStates1));
+		Assert.assertEquals(succStates1, succStates2);
+
+		final PostCacheStatistics stats = postCache.getStatistics();
+		Assert.assertEquals(1, stats.getHits());
+		Assert.assertEquals(1, stats.getMisses());
+	}
+
+	@Test
+	public void testPrecChange() {
+		final PostCache<ExplState> postCache = PostCache.create(10);
+		final ExplTransFunc transFunc = ExplTransFunc.create(solver, postCache);
+		final ExplState state = ExplState.create(BasicValuation.builder().put(x, Int(1)).build());
+
+		transFunc.getSuccStates(state, incX, ExplPrec.create(ImmutableSet.of(x)));
+		// Variable not appearing in the state or the action
+		transFunc.getSuccStates(state, incX, ExplPrec.create(ImmutableSet.of(x, z)));
+		Assert.assertEquals(1, postCache.getStatistics().getHits());
+
+		// Variable appearing in the action
+		final Collection<? extends ExplState> succStates = transFunc.getSuccStates(state, incX,
+				ExplPrec.create(ImmutableSet.of(x, y)));
+		Assert.assertEquals(2, postCache.getStatistics().getMisses());
+		final ExplState expectedState = ExplState.create(BasicValuation.builder().put(x, Int(2)).put(y, Int(2)).build());
+		Assert.assertEquals(expectedState, Utils.singleElementOf(succStates));
+	}
+
+	@Test
+	public void testEviction() {
+		final PostCache<ExplState> postCache = PostCache.create(1);
+		final ExplTransFunc transFunc = ExplTransFunc.create(solver, postCache);
+		final ExplPrec prec = ExplPrec.create(ImmutableSet.of(x));
+
+		transFunc.getSuccStates(ExplState.create(BasicValuation.builder().put(x, Int(1)).build()), incX, prec);
+		transFunc.getSuccStates(ExplState.create(BasicValuation.builder().put(x, Int(2)).build()), incX, prec);
+
+		Assert.assertEquals(1, postCache.getStatistics().getEvictions());
+		Assert.assertEquals(1, postCache.getStatistics().getSize());
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expl;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.core.decl.Decls;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.BasicValuation;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+public class ExplValuationTest {
+
+	final VarDecl<IntType> x = Decls.Var("x", Int());
+	final VarDecl<BoolType> b = Decls.Var("b", Bool());
+	final VarDecl<RatType> r = Decls.Var("r", Rat());
+
+	final ExplVarLayout layout = ExplVarLayout.create(ImmutableList.of(x, b, r));
+
+	@Test
+	public void testEncoding() {
+		final ExplValuation val = ExplValuation.empty(layout).with(x, Int(-5)).with(b, True()).with(r, Rat(-3, 4));
+
+		Assert.assertEquals(3, val.size());
+		Assert.assertEquals(Optional.of(Int(-5)), val.eval(x));
+		Assert.assertEquals(Optional.of(True()), val.eval(b));
+		Assert.assertEquals(Optional.of(Rat(-3, 4)), val.eval(r));
+		Assert.assertEquals(ImmutableList.of(x, b, r), val.getDecls());
+	}
+
+	@Test
+	public void testCopyOnWrite() {
+		final ExplValuation val1 = ExplValuation.empty(layout).with(x, Int(1));
+		final ExplValuation val2 = val1.with(x, Int(2));
+		final ExplValuation val3 = val2.without(x);
+
+		Assert.assertEquals(Optional.of(Int(1)), val1.eval(x));
+		Assert.assertEquals(Optional.of(Int(2)), val2.eval(x));
+		Assert.assertEquals(Optional.empty(), val3.eval(x));
+		Assert.assertSame(val1, val1.with(x, Int(1)));
+		Assert.assertSame(val3, val3.without(x));
+		Assert.assertEquals(ExplValuation.empty(layout), val3);
+	}
+
+	@Test
+	public void testLeq() {
+		final ExplValuation v1 = ExplValuation.empty(layout).with(x, Int(1));
+		final ExplValuation v2 = v1.with(b, False());
+		final ExplValuation v3 = ExplValuation.empty(layout).with(x, Int(2)).with(b, False());
+
+		Assert.assertTrue(v2.isLeq(v1));
+		Assert.assertTrue(v1.isLeq(v1));
+		Assert.assertTrue(v1.isLeq(ExplValuation.empty(layout)));
+		Assert.assertFalse(v1.isLeq(v2));
+		Assert.assertFalse(v3.isLeq(v1));
+	}
+
+	@Test
+	public void testGrowingLayout() {
+		final ExplVarLayout growing = ExplVarLayout.create(ImmutableList.of(x));
+		final ExplValuation v1 = ExplValuation.empty(growing).with(x, Int(1));
+		final List<VarDecl<IntType>> vars = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			vars.add(Decls.Var("y" + i, Int()));
+		}
+		growing.addAll(vars);
+		final ExplValuation v2 = v1.with(vars.get(99), Int(3)).without(vars.get(99));
+
+		Assert.assertEquals(101, growing.size());
+		Assert.assertEquals(v1, v2);
+		Assert.assertEquals(v1.hashCode(), v2.hashCode());
+		Assert.assertTrue(v1.isLeq(v2));
+		Assert.assertTrue(v2.with(vars.get(70), Int(0)).isLeq(v1));
+	}
+
+	@Test
+	public void testStates() {
+		final ExplPrec prec = ExplPrec.create(ImmutableList.of(x, b));
+		final ExplState slotted = prec.createState(BasicValuation.builder().put(x, Int(1)).put(b, True()).build());
+		final ExplState basic = ExplState.create(BasicValuation.builder().put(b, True()).put(x, Int(1)).build());
+
+		Assert.assertTrue(slotted.getExplValuation().isPresent());
+		Assert.assertEquals(basic, slotted);
+		Assert.assertEquals(slotted, basic);
+		Assert.assertEquals(basic.hashCode(), slotted.hashCode());
+		Assert.assertTrue(slotted.isLeq(basic));
+		Assert.assertTrue(basic.isLeq(slotted));
+		Assert.assertEquals(slotted.assign(x, Int(2)), basic.assign(x, Int(2)));
+		Assert.assertEquals(slotted.havoc(x), basic.havoc(x));
+		Assert.assertEquals(slotted, prec.createState(slotted));
+		Assert.assertEquals(basic.havoc(b), ExplPrec.create(ImmutableList.of(x)).createState(slotted));
+	}
+
+	@Test
+	public void testFingerprints() {
+		final VarDecl<IntType> y1 = Decls.Var("y", Int());
+		final VarDecl<IntType> y2 = Decls.Var("y", Int());
+		final ExplPrec prec = ExplPrec.create(ImmutableList.of(y1, y2));
+		final ExplState slotted = prec.createState(BasicValuation.builder().put(y1, Int(1)).put(y2, Int(2)).build());
+		final ExplState basic = ExplState.create(BasicValuation.builder().put(y1, Int(1)).put(y2, Int(2)).build());
+		final ExplState swapped = prec.createState(BasicValuation.builder().put(y1, Int(2)).put(y2, Int(1)).build());
+
+		Assert.assertEquals(y1.hashCode(), y2.hashCode());
+		Assert.assertEquals(basic.fingerprint(), slotted.fingerprint());
+		Assert.assertNotEquals(slotted, swapped);
+		Assert.assertNotEquals(slotted.fingerprint(), swapped.fingerprint());
+		Assert.assertNotEquals(basic.fingerprint(), ExplState.create(BasicValuation.builder().put(y1, Int(2))
+				.put(y2, Int(1)).build()).fingerprint());
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Prime;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceFwBinItpChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSeqItpChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSession;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSessionStatistics;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUnsatCoreChecker;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.sat.SatSolverFactory;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+public final class ExprTraceSessionTest {
+
+	private ExprAction inc;
+	private ExprAction reset;
+	private ExprAction positive;
+
+	private Trace<ExprState, ExprAction> incInc;
+	private Trace<ExprState, ExprAction> incIncResetPositive;
+	private Trace<ExprState, ExprAction> resetPositive;
+
+	@Before
+	public void before() {
+		final Expr<IntType> x = Var("x", Int()).getRef();
+		inc = action(Eq(Prime(x), Add(x, Int(1))), VarIndexing.all(1));
+		reset = action(Eq(Prime(x), Int(0)), VarIndexing.all(1));
+		positive = action(Geq(x, Int(1)), VarIndexing.all(0));
+
+		incInc = ExprTraceUtils.traceFrom(Arrays.asList(inc, inc));
+		incIncResetPositive = ExprTraceUtils.traceFrom(Arrays.asList(inc, inc, reset, positive));
+		resetPositive = ExprTraceUtils.traceFrom(Arrays.asList(reset, positive));
+	}
+
+	private static ExprAction action(final Expr<BoolType> expr, final VarIndexing nextIndexing) {
+		final ExprAction actionMock = mock(ExprAction.class);
+		doReturn(expr).when(actionMock).toExpr();
+		when(actionMock.nextIndexing()).thenReturn(nextIndexing);
+		return actionMock;
+	}
+
+	@Test
+	public void testReuse() {
+		final ExprTraceSession<ItpSolver> session = ExprTraceSession.createIncremental(True(),
+				Z3SolverFactory.getInstace().createItpSolver());
+		final ExprTraceChecker<?> checker = ExprTraceSeqItpChecker.create(True(), session);
+
+		assertTrue(checker.check(incInc).isFeasible());
+		assertStatistics(session, 0, 6);
+		assertEquals(3, session.size());
+
+		assertTrue(checker.check(incIncResetPositive).isInfeasible());
+		assertStatistics(session, 6, 10);
+		assertEquals(5, session.size());
+
+		assertTrue(checker.check(resetPositive).isInfeasible());
+		assertStatistics(session, 8, 14);
+		assertEquals(3, session.size());
+	}
+
+	@Test
+	public void testReuseWithUnsatCores() {
+		final Expr<BoolType> a = Var("a", Bool()).getRef();
+		final ExprAction flip = action(Iff(Prime(a), Not(a)), VarIndexing.all(1));
+		final ExprAction clear = action(Not(Prime(a)), VarIndexing.all(1));
+		final ExprAction assume = action(a, VarIndexing.all(0));
+		final ExprTraceSession<Solver> session = ExprTraceSession.createIncremental(True(),
+				SatSolverFactory.getInstance().createSolver());
+		final ExprTraceChecker<?> checker = ExprTraceUnsatCoreChecker.create(True(), session);
+
+		assertTrue(checker.check(ExprTraceUtils.traceFrom(Arrays.asList(flip, flip))).isFeasible());
+		assertStatistics(session, 0, 6);
+		assertEquals(3, session.size());
+
+		assertTrue(checker.check(ExprTraceUtils.traceFrom(Arrays.asList(flip, flip, clear, assume))).isInfeasible());
+		assertStatistics(session, 6, 10);
+		// The infeasible segment is not kept
+		assertEquals(4, session.size());
+
+		assertTrue(checker.check(ExprTraceUtils.traceFrom(Arrays.asList(clear, assume))).isInfeasible());
+		assertStatistics(session, 8, 14);
+		assertEquals(2, session.size());
+	}
+
+	@Test
+	public void testNonIncremental() {
+		final ExprTraceSession<ItpSolver> session = ExprTraceSession.create(True(),
+				Z3SolverFactory.getInstace().createItpSolver());
+		final ExprTraceChecker<?> checker = ExprTraceSeqItpChecker.create(True(), session);
+
+		assertTrue(checker.check(incInc).isFeasible());
+		assertTrue(checker.check(incIncResetPositive).isInfeasible());
+		assertStatistics(session, 0, 16);
+		assertEquals(0, session.size());
+		assertTrue(session.getSolver().getAssertions().isEmpty());
+	}
+
+	@Test
+	public void testCheckersAgree() {
+		final List<Function<ExprTraceSession<ItpSolver>, ExprTraceChecker<?>>> checkerFactories = Arrays.asList(
+				s -> ExprTraceSeqItpChecker.create(True(), s), s -> ExprTraceFwBinItpChecker.create(True(), s),
+				s -> ExprTraceUnsatCoreChecker.create(True(), s));
+		final List<Trace<ExprState, ExprAction>> traces = Arrays.asList(incInc, incIncResetPositive, resetPositive,
+				incIncResetPositive, incInc);
+
+		for (final Function<ExprTraceSession<ItpSolver>, ExprTraceChecker<?>> checkerFactory : checkerFactories) {
+			final ExprTraceSession<ItpSolver> session = ExprTraceSession.createIncremental(True(),
+					Z3SolverFactory.getInstace().createItpSolver());
+			final ExprTraceChecker<?> incrementalChecker = checkerFactory.apply(session);
+			final ExprTraceChecker<?> checker = checkerFactory
+					.apply(ExprTraceSession.create(True(), Z3SolverFactory.getInstace().createItpSolver()));
+
+			for (final Trace<ExprState, ExprAction> trace : traces) {
+				assertEquals(checker.check(trace).isFeasible(), incrementalChecker.check(trace).isFeasible());
+			}
+			assertFalse(session.getStatistics().getReusedAssertions() == 0);
+		}
+	}
+
+	private static void assertStatistics(final ExprTraceSession<?> session, final long reused, final long sent) {
+		final ExprTraceSessionStatistics statistics = session.getStatistics();
+		assertEquals(reused, statistics.getReusedAssertions());
+		assertEquals(sent, statistics.getSentAssertions());
+	}
+
+}
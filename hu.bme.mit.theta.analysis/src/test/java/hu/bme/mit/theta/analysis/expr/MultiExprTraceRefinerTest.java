@@ -0,0 +1,150 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.expr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.analysis.Domain;
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.algorithm.cegar.RefinerResult;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceStatus;
+import hu.bme.mit.theta.analysis.expr.refinement.MultiExprTraceRefiner;
+import hu.bme.mit.theta.analysis.expr.refinement.PrecRefiner;
+import hu.bme.mit.theta.analysis.expr.refinement.Refutation;
+import hu.bme.mit.theta.analysis.stubs.PrecStub;
+import hu.bme.mit.theta.common.logging.impl.NullLogger;
+import hu.bme.mit.theta.core.model.BasicValuation;
+import hu.bme.mit.theta.core.model.Valuation;
+
+public final class MultiExprTraceRefinerTest {
+
+	private final PrecStub prec = new PrecStub();
+	private final ExprAction action = mock(ExprAction.class);
+
+	private ExprTraceChecker<Refutation> checker;
+	private PrecRefiner<ExprState, ExprAction, PrecStub, Refutation> precRefiner;
+	private ARG<ExprState, ExprAction> arg;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void before() {
+		checker = mock(ExprTraceChecker.class);
+		precRefiner = mock(PrecRefiner.class);
+		when(precRefiner.refine(any(), any(), any())).thenReturn(prec);
+
+		// Two targets below the left child and one below the right child
+		arg = ARG.create(new Domain<ExprState>() {
+			@Override
+			public boolean isTop(final ExprState state) {
+				return false;
+			}
+
+			@Override
+			public boolean isBottom(final ExprState state) {
+				return false;
+			}
+
+			@Override
+			public boolean isLeq(final ExprState state1, final ExprState state2) {
+				return false;
+			}
+		});
+		final ArgNode<ExprState, ExprAction> root = arg.createInitNode(mock(ExprState.class), false);
+		final ArgNode<ExprState, ExprAction> left = arg.createSuccNode(root, action, mock(ExprState.class), false);
+		final ArgNode<ExprState, ExprAction> right = arg.createSuccNode(root, action, mock(ExprState.class), false);
+		arg.createSuccNode(left, action, mock(ExprState.class), true);
+		arg.createSuccNode(left, action, mock(ExprState.class), true);
+		arg.createSuccNode(right, action, mock(ExprState.class), true);
+	}
+
+	private static ExprTraceStatus<Refutation> infeasible(final int pruneIndex) {
+		return ExprTraceStatus.infeasible(() -> pruneIndex);
+	}
+
+	@Test
+	public void testAllCexs() {
+		when(checker.check(any())).thenReturn(infeasible(1));
+		final MultiExprTraceRefiner<ExprState, ExprAction, PrecStub, Refutation> refiner = MultiExprTraceRefiner
+				.create(checker, precRefiner, NullLogger.getInstance());
+
+		final RefinerResult<ExprState, ExprAction, PrecStub> result = refiner.refine(arg, prec);
+
+		assertTrue(result.isSpurious());
+		// The second target below the left child is in an already refuted subtree
+		verify(checker, times(2)).check(any());
+		verify(precRefiner, times(2)).refine(any(), any(), any());
+		assertEquals(1, arg.getNodes().count());
+	}
+
+	@Test
+	public void testMaxCexs() {
+		when(checker.check(any())).thenReturn(infeasible(1));
+		final MultiExprTraceRefiner<ExprState, ExprAction, PrecStub, Refutation> refiner = MultiExprTraceRefiner
+				.create(checker, precRefiner, 1, NullLogger.getInstance());
+
+		final RefinerResult<ExprState, ExprAction, PrecStub> result = refiner.refine(arg, prec);
+
+		assertTrue(result.isSpurious());
+		verify(checker, times(1)).check(any());
+		verify(precRefiner, times(1)).refine(any(), any(), any());
+		assertEquals(3, arg.getNodes().count());
+	}
+
+	@Test
+	public void testTargetPruning() {
+		when(checker.check(any())).thenReturn(infeasible(2));
+		final MultiExprTraceRefiner<ExprState, ExprAction, PrecStub, Refutation> refiner = MultiExprTraceRefiner
+				.create(checker, precRefiner, NullLogger.getInstance());
+
+		final RefinerResult<ExprState, ExprAction, PrecStub> result = refiner.refine(arg, prec);
+
+		assertTrue(result.isSpurious());
+		verify(checker, times(3)).check(any());
+		verify(precRefiner, times(3)).refine(any(), any(), any());
+		assertEquals(3, arg.getNodes().count());
+	}
+
+	@Test
+	public void testFeasibleCex() {
+		final Trace<Valuation, ExprAction> valuations = Trace.of(ImmutableList.of(BasicValuation.empty()),
+				ImmutableList.of());
+		when(checker.check(any())).thenReturn(infeasible(2)).thenReturn(ExprTraceStatus.feasible(valuations));
+		final MultiExprTraceRefiner<ExprState, ExprAction, PrecStub, Refutation> refiner = MultiExprTraceRefiner
+				.create(checker, precRefiner, NullLogger.getInstance());
+
+		final RefinerResult<ExprState, ExprAction, PrecStub> result = refiner.refine(arg, prec);
+
+		assertTrue(result.isUnsafe());
+		verify(checker, times(2)).check(any());
+		verify(precRefiner, times(1)).refine(any(), any(), any());
+		assertEquals(6, arg.getNodes().count());
+	}
+
+}
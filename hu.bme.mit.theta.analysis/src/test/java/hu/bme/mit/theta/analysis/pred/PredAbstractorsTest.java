@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+
+import java.util.Collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+public class PredAbstractorsTest {
+	private final Solver solver = Z3SolverFactory.getInstace().createSolver();
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+
+	private final Expr<BoolType> xGt0 = Gt(x.getRef(), Int(0));
+	private final Expr<BoolType> xGt3 = Gt(x.getRef(), Int(3));
+	private final Expr<BoolType> yGt0 = Gt(y.getRef(), Int(0));
+	private final Expr<BoolType> expr = And(xGt0, Lt(x.getRef(), Int(5)));
+	private final SimplePredPrec prec = SimplePredPrec.create(ImmutableSet.of(xGt0, xGt3, yGt0), solver);
+
+	private Collection<PredState> createStates(final PredAbstractor abstractor, final Expr<BoolType> expr) {
+		return abstractor.createStatesForExpr(expr, 0, prec, VarIndexing.all(0));
+	}
+
+	@Test
+	public void testAllSat() {
+		final Collection<PredState> states = createStates(PredAbstractors.allSat(solver), expr);
+		Assert.assertEquals(ImmutableSet.of(PredState.of(xGt0, xGt3), PredState.of(xGt0, Not(xGt3))),
+				ImmutableSet.copyOf(states));
+	}
+
+	@Test
+	public void testBooleanAllSat() {
+		final PredAbstractor abstractor = PredAbstractors.booleanAllSat(solver);
+		final Collection<PredState> states = createStates(abstractor, expr);
+		Assert.assertEquals(ImmutableSet.of(PredState.of(xGt0, xGt3), PredState.of(xGt0, Not(xGt3))),
+				ImmutableSet.copyOf(states));
+		Assert.assertEquals(3, abstractor.getSolverCalls());
+	}
+
+	@Test
+	public void testCartesian() {
+		final PredAbstractor abstractor = PredAbstractors.cartesian(solver);
+		final Collection<PredState> states = createStates(abstractor, expr);
+		Assert.assertEquals(ImmutableSet.of(PredState.of(xGt0)), ImmutableSet.copyOf(states));
+		Assert.assertTrue(abstractor.getSolverCalls() <= 1 + 2 * prec.getPreds().size());
+	}
+
+	@Test
+	public void testUnsat() {
+		final Expr<BoolType> unsat = And(expr, False());
+		Assert.assertTrue(createStates(PredAbstractors.allSat(solver), unsat).isEmpty());
+		Assert.assertTrue(createStates(PredAbstractors.booleanAllSat(solver), unsat).isEmpty());
+		Assert.assertTrue(createStates(PredAbstractors.cartesian(solver), unsat).isEmpty());
+	}
+
+	@Test
+	public void testSolverCalls() {
+		final PredAbstractor abstractor1 = PredAbstractors.booleanAllSat(solver);
+		final PredAbstractor abstractor2 = PredAbstractors.cartesian(solver);
+		createStates(abstractor1, expr);
+		createStates(abstractor2, expr);
+		Assert.assertEquals(abstractor1.getSolverCalls() + abstractor2.getSolverCalls(),
+				PredAbstractors.getSolverCalls(ImmutableSet.of(abstractor1, abstractor2)));
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.BasicValuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+public class PredBddTest {
+	private final Solver solver = Z3SolverFactory.getInstace().createSolver();
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+
+	private final Expr<BoolType> xGt0 = Gt(x.getRef(), Int(0));
+	private final Expr<BoolType> yGt0 = Gt(y.getRef(), Int(0));
+
+	@Test
+	public void testCreateState() {
+		final PredBddEncoder encoder = PredBddEncoder.create();
+		final SimplePredPrec prec = SimplePredPrec.create(ImmutableSet.of(xGt0, yGt0), solver, encoder);
+
+		final PredState state = prec
+				.createState(BasicValuation.builder().put(x, Int(1)).put(y, Int(0)).build());
+
+		Assert.assertEquals(PredState.of(xGt0, Not(yGt0)), state);
+		Assert.assertEquals(encoder.encode(xGt0, true).and(encoder.encode(yGt0, false)), state.getBdd().get());
+	}
+
+	@Test
+	public void testDomain() {
+		final PredBddEncoder encoder = PredBddEncoder.create();
+		final SimplePredPrec prec = SimplePredPrec.create(ImmutableSet.of(xGt0, yGt0), solver, encoder);
+		final PredDomain domain = PredDomain.create(solver);
+
+		final PredState s1 = prec.createState(BasicValuation.builder().put(x, Int(1)).put(y, Int(1)).build());
+		final PredState s2 = prec.createState(BasicValuation.builder().put(x, Int(1)).build());
+		final PredState s3 = prec.createState(BasicValuation.builder().put(y, Int(1)).build());
+
+		Assert.assertTrue(domain.isLeq(s1, s2));
+		Assert.assertFalse(domain.isLeq(s2, s1));
+		Assert.assertFalse(domain.isLeq(s2, s3));
+		Assert.assertFalse(domain.isBottom(s1));
+		Assert.assertFalse(domain.isTop(s1));
+		Assert.assertTrue(domain.isTop(prec.createState(BasicValuation.empty())));
+	}
+
+	@Test
+	public void testJoinKeepsEncoder() {
+		final PredBddEncoder encoder = PredBddEncoder.create();
+		final SimplePredPrec prec1 = SimplePredPrec.create(ImmutableSet.of(xGt0), solver, encoder);
+		final SimplePredPrec prec2 = SimplePredPrec.create(ImmutableSet.of(xGt0, yGt0), solver);
+
+		final SimplePredPrec joined = prec1.join(prec2);
+		Assert.assertEquals(prec2, joined);
+		Assert.assertEquals(encoder, joined.getBddEncoder().get());
+		Assert.assertEquals(0, encoder.getIndex(xGt0));
+		Assert.assertEquals(1, encoder.getIndex(yGt0));
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.pred;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.stmt.Stmts.Assign;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import hu.bme.mit.theta.analysis.expr.PostCache;
+import hu.bme.mit.theta.analysis.expr.StmtAction;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.stmt.Stmt;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.sat.SatSolverFactory;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+public class PredTransFuncTest {
+	private final VarDecl<IntType> x = Var("x", Int());
+	private final VarDecl<IntType> y = Var("y", Int());
+
+	private final Expr<BoolType> xGt0 = Gt(x.getRef(), Int(0));
+	private final Expr<BoolType> xGt3 = Gt(x.getRef(), Int(3));
+	private final Expr<BoolType> yGt0 = Gt(y.getRef(), Int(0));
+
+	private final StmtAction incX = new StmtAction() {
+		@Override
+		public List<Stmt> getStmts() {
+			return ImmutableList.of(Assign(x, Add(x.getRef(), Int(1))));
+		}
+	};
+
+	@Test
+	public void testPrecChange() {
+		final Solver solver = Z3SolverFactory.getInstace().createSolver();
+		final PostCache<PredState> postCache = PostCache.create(10);
+		final PredTransFunc transFunc = PredTransFunc.create(solver, postCache);
+		final PredState state = PredState.of(xGt0);
+
+		final Collection<? extends PredState> succStates1 = transFunc.getSuccStates(state, incX,
+				SimplePredPrec.create(ImmutableSet.of(xGt0), solver));
+		Assert.assertEquals(ImmutableSet.of(state), ImmutableSet.copyOf(succStates1));
+
+		// Predicate sharing no variable with the state or the action
+		final Collection<? extends PredState> succStates2 = transFunc.getSuccStates(state, incX,
+				SimplePredPrec.create(ImmutableSet.of(xGt0, yGt0), solver));
+		Assert.assertEquals(1, postCache.getStatistics().getHits());
+		Assert.assertEquals(succStates1, succStates2);
+
+		// Predicate sharing a variable with the state and the action
+		final Collection<? extends PredState> succStates3 = transFunc.getSuccStates(state, incX,
+				SimplePredPrec.create(ImmutableSet.of(xGt0, xGt3, yGt0), solver));
+		Assert.assertEquals(2, postCache.getStatistics().getMisses());
+		Assert.assertEquals(ImmutableSet.of(PredState.of(xGt0, xGt3), PredState.of(xGt0, Not(xGt3))),
+				ImmutableSet.copyOf(succStates3));
+	}
+
+	@Test
+	public void testCacheHitsAcrossIterations() {
+		final Solver satSolver = SatSolverFactory.getInstance().createSolver();
+		final VarDecl<BoolType> a = Var("a", Bool());
+		final VarDecl<BoolType> b = Var("b", Bool());
+		final VarDecl<BoolType> c = Var("c", Bool());
+		final StmtAction flipA = new StmtAction() {
+			@Override
+			public List<Stmt> getStmts() {
+				return ImmutableList.of(Assign(a, Not(a.getRef())));
+			}
+		};
+		final PostCache<PredState> postCache = PostCache.create(10);
+		final PredTransFunc transFunc = PredTransFunc.create(satSolver, postCache);
+		final PredState aTrue = PredState.of(a.getRef());
+		final PredState aFalse = PredState.of(Not(a.getRef()));
+
+		// First iteration
+		final SimplePredPrec prec1 = SimplePredPrec.create(ImmutableSet.of(a.getRef()), satSolver);
+		Assert.assertEquals(ImmutableSet.of(aFalse), ImmutableSet.copyOf(transFunc.getSuccStates(aTrue, flipA, prec1)));
+		Assert.assertEquals(ImmutableSet.of(aTrue), ImmutableSet.copyOf(transFunc.getSuccStates(aFalse, flipA, prec1)));
+		Assert.assertEquals(0, postCache.getStatistics().getHits());
+		Assert.assertEquals(2, postCache.getStatistics().getMisses());
+
+		// Refined with a predicate unrelated to the states and the action
+		final SimplePredPrec prec2 = SimplePredPrec.create(ImmutableSet.of(a.getRef(), b.getRef()), satSolver);
+		Assert.assertEquals(ImmutableSet.of(aFalse), ImmutableSet.copyOf(transFunc.getSuccStates(aTrue, flipA, prec2)));
+		Assert.assertEquals(ImmutableSet.of(aTrue), ImmutableSet.copyOf(transFunc.getSuccStates(aFalse, flipA, prec2)));
+		Assert.assertEquals(2, postCache.getStatistics().getHits());
+		Assert.assertEquals(2, postCache.getStatistics().getMisses());
+
+		// Refined with a predicate on the variable of the action
+		final SimplePredPrec prec3 = SimplePredPrec.create(ImmutableSet.of(a.getRef(), b.getRef(),
+				Iff(a.getRef(), c.getRef())), satSolver);
+		transFunc.getSuccStates(aTrue, flipA, prec3);
+		Assert.assertEquals(2, postCache.getStatistics().getHits());
+		Assert.assertEquals(3, postCache.getStatistics().getMisses());
+	}
+
+}
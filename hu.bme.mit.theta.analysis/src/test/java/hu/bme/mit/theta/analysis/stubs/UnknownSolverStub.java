@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.stubs;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import hu.bme.mit.theta.core.model.Model;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverStatus;
+import hu.bme.mit.theta.solver.UnknownSolverStatusException;
+
+/**
+ * Solver that returns unknown for every check, like a solver running out of
+ * its time or resource limit.
+ */
+public class UnknownSolverStub implements Solver {
+
+	@Override
+	public void add(final Expr<BoolType> assertion) {
+	}
+
+	@Override
+	public void track(final Expr<BoolType> assertion) {
+	}
+
+	@Override
+	public SolverStatus check() {
+		throw new UnknownSolverStatusException("timeout");
+	}
+
+	@Override
+	public void push() {
+	}
+
+	@Override
+	public void pop(final int n) {
+	}
+
+	@Override
+	public void reset() {
+	}
+
+	@Override
+	public SolverStatus getStatus() {
+		throw new IllegalStateException();
+	}
+
+	@Override
+	public Model getModel() {
+		throw new IllegalStateException();
+	}
+
+	@Override
+	public Collection<Expr<BoolType>> getUnsatCore() {
+		throw new IllegalStateException();
+	}
+
+	@Override
+	public Collection<Expr<BoolType>> getAssertions() {
+		return Collections.emptyList();
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import static hu.bme.mit.theta.core.clock.constr.ClockConstrs.And;
+import static hu.bme.mit.theta.core.clock.constr.ClockConstrs.Geq;
+import static hu.bme.mit.theta.core.clock.constr.ClockConstrs.Leq;
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.analysis.zone.itp.ItpZoneState;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+public class ZoneSubsumptionIndexTest {
+
+	private final VarDecl<RatType> x = Var("x", Rat());
+
+	@Test
+	public void testRefinedInterpolantIsCandidate() {
+		final ZoneSubsumptionIndex<ItpZoneState> index = ZoneSubsumptionIndex.create(ItpZoneState::getZone,
+				ItpZoneState::getInterpolant);
+		// Covering element whose interpolant was strengthened by a refinement
+		final ItpZoneState covering = ItpZoneState.of(zone(0, 2), upTo(5));
+		index.add(covering);
+
+		// Element to be covered whose interpolant was reset to top
+		final ItpZoneState nodeToCover = ItpZoneState.of(zone(1, 3), ZoneState.top());
+		assertTrue(nodeToCover.getZone().isLeq(covering.getInterpolant()));
+
+		final BitSet candidates = index.getCandidates(nodeToCover);
+		assertTrue(candidates.get(0));
+	}
+
+	@Test
+	public void testNonCoveringInterpolantIsPruned() {
+		final ZoneSubsumptionIndex<ItpZoneState> index = ZoneSubsumptionIndex.create(ItpZoneState::getZone,
+				ItpZoneState::getInterpolant);
+		final ItpZoneState covering = ItpZoneState.of(zone(0, 2), upTo(5));
+		index.add(covering);
+
+		final ItpZoneState nodeToCover = ItpZoneState.of(zone(6, 7), ZoneState.top());
+
+		final BitSet candidates = index.getCandidates(nodeToCover);
+		assertFalse(candidates.get(0));
+	}
+
+	private ZoneState zone(final int lower, final int upper) {
+		return ZoneState.zero(ImmutableList.of(x)).transform().up().and(And(Geq(x, lower), Leq(x, upper))).build();
+	}
+
+	private ZoneState upTo(final int upper) {
+		return ZoneState.zero(ImmutableList.of(x)).transform().up().and(Leq(x, upper)).build();
+	}
+
+}
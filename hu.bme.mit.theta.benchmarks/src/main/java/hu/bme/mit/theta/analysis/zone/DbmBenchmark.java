@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.analysis.zone;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.core.clock.constr.ClockConstr;
+import hu.bme.mit.theta.core.clock.constr.ClockConstrs;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.rattype.RatType;
+
+/**
+ * Benchmarks for the basic operations of DBMs. It is in the package of
+ * {@link DBM}, because the class is not public.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DbmBenchmark {
+
+	@Param({ "4", "16" })
+	public int clocks;
+
+	private List<VarDecl<RatType>> vars;
+	private List<ClockConstr> constrs;
+	private DBM zone;
+	private DBM smallerZone;
+	private DBM disjointZone;
+
+	@Setup
+	public void setup() {
+		vars = new ArrayList<>();
+		constrs = new ArrayList<>();
+		for (int i = 0; i < clocks; i++) {
+			final VarDecl<RatType> var = Var("x" + i, Rat());
+			vars.add(var);
+			constrs.add(ClockConstrs.Leq(var, 10 + i));
+			if (i > 0) {
+				constrs.add(ClockConstrs.Lt(vars.get(i - 1), var, 5));
+			}
+		}
+
+		zone = DBM.zero(vars);
+		zone.up();
+		for (final ClockConstr constr : constrs) {
+			zone.and(constr);
+		}
+
+		smallerZone = DBM.copyOf(zone);
+		smallerZone.and(ClockConstrs.Leq(vars.get(0), 2));
+
+		disjointZone = DBM.top(vars);
+		disjointZone.and(ClockConstrs.Geq(vars.get(0), 100));
+	}
+
+	@Benchmark
+	public DBM and() {
+		final DBM dbm = DBM.top(vars);
+		for (final ClockConstr constr : constrs) {
+			dbm.and(constr);
+		}
+		return dbm;
+	}
+
+	@Benchmark
+	public DBM up() {
+		final DBM dbm = DBM.copyOf(smallerZone);
+		dbm.up();
+		return dbm;
+	}
+
+	@Benchmark
+	public boolean isLeq() {
+		return smallerZone.isLeq(zone);
+	}
+
+	@Benchmark
+	public DBM interpolant() {
+		return DBM.interpolant(zone, disjointZone);
+	}
+
+}
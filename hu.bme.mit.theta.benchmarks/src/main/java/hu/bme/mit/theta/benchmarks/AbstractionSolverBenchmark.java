@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.formalism.cfa.CFA;
+import hu.bme.mit.theta.formalism.cfa.dsl.CfaDslManager;
+import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder;
+import hu.bme.mit.theta.formalism.sts.STS;
+import hu.bme.mit.theta.formalism.sts.aiger.BasicAigerParser;
+import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder;
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+/**
+ * End-to-end benchmark comparing abstraction on plain solvers with abstraction
+ * on interpolating solvers (that also produce proofs) on the CFA and AIGER
+ * models of the test resources.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AbstractionSolverBenchmark {
+
+	public enum AbstractionSolver {
+		PLAIN(Z3SolverFactory.getInstace()), INTERPOLATING(new ItpOnlySolverFactory());
+
+		private final SolverFactory solverFactory;
+
+		private AbstractionSolver(final SolverFactory solverFactory) {
+			this.solverFactory = solverFactory;
+		}
+	}
+
+	@Param({ "counter5_true.cfa", "locking.cfa", "simple3.aag", "buffer.aag" })
+	public String model;
+
+	@Param({ "EXPL", "PRED" })
+	public String domain;
+
+	@Param({ "PLAIN", "INTERPOLATING" })
+	public AbstractionSolver abstractionSolver;
+
+	private CFA cfa;
+	private STS sts;
+
+	@Setup
+	public void setup() throws IOException {
+		if (model.endsWith(".cfa")) {
+			try (InputStream inputStream = new FileInputStream(BenchmarkModels.getPath("formalism.cfa", model))) {
+				cfa = CfaDslManager.createCfa(inputStream);
+			}
+		} else {
+			sts = new BasicAigerParser().parse(BenchmarkModels.getPath("formalism.sts", model));
+		}
+	}
+
+	@Benchmark
+	public SafetyResult<?, ?> check() {
+		final SolverFactory solverFactory = abstractionSolver.solverFactory;
+		if (cfa != null) {
+			try (final hu.bme.mit.theta.formalism.cfa.tool.Config<?, ?, ?> config = new CfaConfigBuilder(
+					CfaConfigBuilder.Domain.valueOf(domain), CfaConfigBuilder.Refinement.SEQ_ITP)
+							.solverFactory(solverFactory).build(cfa)) {
+				return config.check();
+			}
+		} else {
+			try (final hu.bme.mit.theta.formalism.sts.tool.Config<?, ?, ?> config = new StsConfigBuilder(
+					StsConfigBuilder.Domain.valueOf(domain), StsConfigBuilder.Refinement.SEQ_ITP)
+							.solverFactory(solverFactory).build(sts)) {
+				return config.check();
+			}
+		}
+	}
+
+	/**
+	 * A solver factory creating interpolating solvers even if no interpolation
+	 * is needed, which is how abstraction used to be performed.
+	 */
+	private static final class ItpOnlySolverFactory implements SolverFactory {
+
+		@Override
+		public Solver createSolver() {
+			return Z3SolverFactory.getInstace().createItpSolver();
+		}
+
+		@Override
+		public ItpSolver createItpSolver() {
+			return Z3SolverFactory.getInstace().createItpSolver();
+		}
+
+	}
+
+}
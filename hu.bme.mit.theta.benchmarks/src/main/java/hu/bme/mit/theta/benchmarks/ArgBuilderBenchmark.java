@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Level;
+
+import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.ARG;
+import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
+import hu.bme.mit.theta.analysis.expl.ExplAnalysis;
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expl.ExplStatePredicate;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.formalism.sts.STS;
+import hu.bme.mit.theta.formalism.sts.StsUtils;
+import hu.bme.mit.theta.formalism.sts.analysis.StsAction;
+import hu.bme.mit.theta.formalism.sts.analysis.StsLts;
+import hu.bme.mit.theta.formalism.sts.dsl.StsDslManager;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
+
+/**
+ * Benchmark for expanding the initial node of an ARG with explicit analysis,
+ * tracking every variable of an STS.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class ArgBuilderBenchmark {
+
+	@Param({ "readerswriters.system" })
+	public String model;
+
+	private ArgBuilder<ExplState, StsAction, ExplPrec> argBuilder;
+	private ExplPrec prec;
+	private ArgNode<ExplState, StsAction> node;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException {
+		final STS sts;
+		try (InputStream inputStream = new FileInputStream(BenchmarkModels.getPath("formalism.sts", model))) {
+			sts = StsUtils.eliminateIte(Utils.singleElementOf(StsDslManager.createStsSpec(inputStream).getAllSts()));
+		}
+		final Solver solver = Z3SolverFactory.getInstace().createSolver();
+		final LTS<State, StsAction> lts = StsLts.create(sts);
+		argBuilder = ArgBuilder.create(lts, ExplAnalysis.create(solver, sts.getInit()),
+				new ExplStatePredicate(Not(sts.getProp()), solver));
+		prec = ExplPrec.create(sts.getVars());
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		final ARG<ExplState, StsAction> arg = argBuilder.createArg();
+		node = Utils.anyElementOf(argBuilder.init(arg, prec));
+	}
+
+	@Benchmark
+	public Collection<ArgNode<ExplState, StsAction>> expand() {
+		return argBuilder.expand(node, prec);
+	}
+
+}
@@ -0,0 +1,38 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import java.io.File;
+
+/**
+ * Locates the models shipped in the test resources of the projects. The root
+ * directory of the repository is given by the system property
+ * {@value #ROOT_DIR_PROPERTY} (set by the jmh task), or it is the parent of the
+ * working directory by default.
+ */
+final class BenchmarkModels {
+
+	static final String ROOT_DIR_PROPERTY = "theta.rootDir";
+
+	private BenchmarkModels() {
+	}
+
+	static String getPath(final String project, final String model) {
+		final String rootDir = System.getProperty(ROOT_DIR_PROPERTY, "..");
+		return String.join(File.separator, rootDir, "hu.bme.mit.theta." + project, "src", "test", "resources", model);
+	}
+
+}
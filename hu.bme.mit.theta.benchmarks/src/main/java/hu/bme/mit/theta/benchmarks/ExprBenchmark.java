@@ -0,0 +1,112 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Prime;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mul;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Sub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.core.utils.VarIndexing;
+
+/**
+ * Benchmarks for the simplification and the unfolding of expressions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExprBenchmark {
+
+	@Param({ "10", "100" })
+	public int vars;
+
+	private Expr<BoolType> expr;
+	private Expr<BoolType> unfoldedExpr;
+	private VarIndexing indexing;
+
+	@Setup
+	public void setup() {
+		final List<VarDecl<IntType>> varDecls = new ArrayList<>();
+		for (int i = 0; i < vars; i++) {
+			varDecls.add(Var("x" + i, Int()));
+		}
+
+		// Transition-like expression with constant subexpressions to simplify
+		final List<Expr<BoolType>> ops = new ArrayList<>();
+		for (int i = 0; i < vars; i++) {
+			final Expr<IntType> x = varDecls.get(i).getRef();
+			final Expr<IntType> next = varDecls.get((i + 1) % vars).getRef();
+			ops.add(Or(Eq(Prime(x), Add(next, Mul(Int(i), Int(0)))),
+					And(True(), Lt(Add(x, Int(0)), Sub(Int(i + 2), Int(1))))));
+		}
+		expr = And(ops);
+
+		final VarIndexing.Builder builder = VarIndexing.builder(0);
+		for (int i = 0; i < vars; i += 2) {
+			builder.inc(varDecls.get(i));
+		}
+		indexing = builder.build();
+		unfoldedExpr = PathUtils.unfold(expr, indexing);
+	}
+
+	@Benchmark
+	public Expr<BoolType> simplify() {
+		return ExprUtils.simplify(expr);
+	}
+
+	@Benchmark
+	public Expr<BoolType> unfold() {
+		return PathUtils.unfold(expr, indexing);
+	}
+
+	@Benchmark
+	public Expr<BoolType> foldin() {
+		return PathUtils.foldin(unfoldedExpr, indexing);
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.core.type.HashConsing;
+import hu.bme.mit.theta.formalism.cfa.CFA;
+import hu.bme.mit.theta.formalism.cfa.dsl.CfaDslManager;
+import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder;
+import hu.bme.mit.theta.formalism.sts.STS;
+import hu.bme.mit.theta.formalism.sts.aiger.BasicAigerParser;
+import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder;
+
+/**
+ * End-to-end benchmark comparing CEGAR with and without hash-consing of
+ * expressions on the CFA and AIGER models of the test resources. Memory usage
+ * can be compared by running it with the GC profiler (-prof gc), which reports
+ * the allocation rate and the number of collections.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HashConsingBenchmark {
+
+	@Param({ "counter5_true.cfa", "locking.cfa", "simple3.aag", "buffer.aag" })
+	public String model;
+
+	@Param({ "EXPL", "PRED" })
+	public String domain;
+
+	@Param({ "false", "true" })
+	public boolean hashConsing;
+
+	private CFA cfa;
+	private STS sts;
+
+	@Setup
+	public void setup() throws IOException {
+		// Each parameter combination runs in its own fork, so the global
+		// setting does not leak between them
+		HashConsing.setEnabled(hashConsing);
+		if (model.endsWith(".cfa")) {
+			try (InputStream inputStream = new FileInputStream(BenchmarkModels.getPath("formalism.cfa", model))) {
+				cfa = CfaDslManager.createCfa(inputStream);
+			}
+		} else {
+			sts = new BasicAigerParser().parse(BenchmarkModels.getPath("formalism.sts", model));
+		}
+	}
+
+	@Benchmark
+	public SafetyResult<?, ?> check() {
+		if (cfa != null) {
+			try (final hu.bme.mit.theta.formalism.cfa.tool.Config<?, ?, ?> config = new CfaConfigBuilder(
+					CfaConfigBuilder.Domain.valueOf(domain), CfaConfigBuilder.Refinement.SEQ_ITP).build(cfa)) {
+				return config.check();
+			}
+		} else {
+			try (final hu.bme.mit.theta.formalism.sts.tool.Config<?, ?, ?> config = new StsConfigBuilder(
+					StsConfigBuilder.Domain.valueOf(domain), StsConfigBuilder.Refinement.SEQ_ITP).build(sts)) {
+				return config.check();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Prime;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.PathUtils;
+
+/**
+ * Benchmark for the cost and the gain of hash-consing on the expression
+ * operations of CEGAR that do not need a solver. Unfolding a trace builds the
+ * same expressions again in each refinement, which hash-consing maps to the
+ * existing instances, while looking up an expression that was built again
+ * compares it structurally unless hash-consing made it identical.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HashConsingExprBenchmark {
+
+	private static final int TRACE_LENGTH = 10;
+
+	@Param({ "10", "100" })
+	public int vars;
+
+	@Param({ "false", "true" })
+	public boolean hashConsing;
+
+	private List<VarDecl<IntType>> varDecls;
+	private Map<Expr<BoolType>, Integer> exprs;
+	private Expr<BoolType> rebuiltExpr;
+
+	@Setup
+	public void setup() {
+		// Each parameter combination runs in its own fork, so the global
+		// setting does not leak between them
+		HashConsing.setEnabled(hashConsing);
+		varDecls = new ArrayList<>();
+		for (int i = 0; i < vars; i++) {
+			varDecls.add(Var("x" + i, Int()));
+		}
+
+		exprs = new HashMap<>();
+		for (int i = 0; i < TRACE_LENGTH; i++) {
+			exprs.put(PathUtils.unfold(createTrans(), i), i);
+		}
+		rebuiltExpr = PathUtils.unfold(createTrans(), TRACE_LENGTH - 1);
+	}
+
+	private Expr<BoolType> createTrans() {
+		final List<Expr<BoolType>> ops = new ArrayList<>();
+		for (int i = 0; i < vars; i++) {
+			final Expr<IntType> x = varDecls.get(i).getRef();
+			final Expr<IntType> next = varDecls.get((i + 1) % vars).getRef();
+			ops.add(Or(Eq(Prime(x), Add(next, Int(1))), Lt(x, Int(i))));
+		}
+		return And(ops);
+	}
+
+	@Benchmark
+	public List<Expr<BoolType>> unfoldTrace() {
+		final Expr<BoolType> trans = createTrans();
+		final List<Expr<BoolType>> result = new ArrayList<>(TRACE_LENGTH);
+		for (int i = 0; i < TRACE_LENGTH; i++) {
+			result.add(PathUtils.unfold(trans, i));
+		}
+		return result;
+	}
+
+	@Benchmark
+	public Integer lookup() {
+		return exprs.get(rebuiltExpr);
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.formalism.sts.STS;
+import hu.bme.mit.theta.formalism.sts.aiger.BasicAigerParser;
+import hu.bme.mit.theta.formalism.sts.tool.Config;
+import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder;
+import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder.Domain;
+import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder.Refinement;
+
+/**
+ * End-to-end benchmark running CEGAR on the AIGER models of the test
+ * resources.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StsCegarBenchmark {
+
+	@Param({ "simple.aag", "simple3.aag", "buffer.aag", "flipflop.aag" })
+	public String model;
+
+	@Param({ "EXPL", "PRED" })
+	public Domain domain;
+
+	@Param({ "SEQ_ITP" })
+	public Refinement refinement;
+
+	private STS sts;
+
+	@Setup
+	public void setup() throws IOException {
+		sts = new BasicAigerParser().parse(BenchmarkModels.getPath("formalism.sts", model));
+	}
+
+	@Benchmark
+	public SafetyResult<?, ?> check() {
+		try (final Config<?, ?, ?> config = new StsConfigBuilder(domain, refinement).build(sts)) {
+			return config.check();
+		}
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.unit.UnitPrec;
+import hu.bme.mit.theta.formalism.xta.XtaSystem;
+import hu.bme.mit.theta.formalism.xta.dsl.XtaDslManager;
+import hu.bme.mit.theta.formalism.xta.tool.XtaCheckerBuilder;
+import hu.bme.mit.theta.formalism.xta.tool.XtaCheckerBuilder.Algorithm;
+import hu.bme.mit.theta.formalism.xta.tool.XtaCheckerBuilder.Search;
+
+/**
+ * End-to-end benchmark running the lazy abstraction algorithms on the timed
+ * automata of the test resources.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XtaBenchmark {
+
+	@Param({ "critical-2-25-50.xta", "csma-2.xta", "fddi-2.xta", "fischer-2-32-64.xta", "lynch-2-16.xta" })
+	public String model;
+
+	@Param({ "SEQITP", "LU" })
+	public Algorithm algorithm;
+
+	@Param({ "BFS" })
+	public Search search;
+
+	private XtaSystem xta;
+
+	@Setup
+	public void setup() throws IOException {
+		try (InputStream inputStream = new FileInputStream(BenchmarkModels.getPath("formalism.xta", model))) {
+			xta = XtaDslManager.createSystem(inputStream);
+		}
+	}
+
+	@Benchmark
+	public SafetyResult<?, ?> check() {
+		return XtaCheckerBuilder.build(algorithm, search, xta).check(UnitPrec.getInstance());
+	}
+
+}
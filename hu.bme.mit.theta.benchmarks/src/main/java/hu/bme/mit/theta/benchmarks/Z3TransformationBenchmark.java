@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.benchmarks;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.microsoft.z3.Context;
+
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.utils.PathUtils;
+import hu.bme.mit.theta.solver.z3.transform.Z3SymbolTable;
+import hu.bme.mit.theta.solver.z3.transform.Z3TransformationManager;
+
+/**
+ * Benchmarks for transforming expressions to Z3 terms, both with an empty
+ * (fresh transformer) and a filled cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Z3TransformationBenchmark {
+
+	@Param({ "10", "100" })
+	public int vars;
+
+	private Context context;
+	private Expr<BoolType> expr;
+	private Z3TransformationManager freshTransformer;
+	private Z3TransformationManager cachedTransformer;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		context = new Context();
+
+		final List<VarDecl<IntType>> varDecls = new ArrayList<>();
+		for (int i = 0; i < vars; i++) {
+			varDecls.add(Var("x" + i, Int()));
+		}
+		final List<Expr<BoolType>> ops = new ArrayList<>();
+		for (int i = 0; i < vars; i++) {
+			final Expr<IntType> x = varDecls.get(i).getRef();
+			final Expr<IntType> next = varDecls.get((i + 1) % vars).getRef();
+			ops.add(Or(Eq(next, Add(x, Int(1))), Lt(x, Int(i))));
+		}
+		expr = PathUtils.unfold(And(ops), 0);
+
+		cachedTransformer = new Z3TransformationManager(new Z3SymbolTable(), context);
+		cachedTransformer.toTerm(expr);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		freshTransformer = new Z3TransformationManager(new Z3SymbolTable(), context);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public com.microsoft.z3.Expr toTerm() {
+		return freshTransformer.toTerm(expr);
+	}
+
+	@Benchmark
+	public com.microsoft.z3.Expr toTermCached() {
+		return cachedTransformer.toTerm(expr);
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.bdd;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import hu.bme.mit.theta.common.Utils;
+
+/**
+ * An immutable handle for a node of a {@link BddManager}. BDDs can only be
+ * combined with other BDDs of the same manager.
+ */
+public final class Bdd {
+
+	private final BddManager manager;
+	private final int node;
+
+	Bdd(final BddManager manager, final int node) {
+		this.manager = manager;
+		this.node = node;
+	}
+
+	public BddManager getManager() {
+		return manager;
+	}
+
+	////
+
+	public boolean isTrue() {
+		return node == BddManager.TRUE;
+	}
+
+	public boolean isFalse() {
+		return node == BddManager.FALSE;
+	}
+
+	/**
+	 * Get the number of nodes (including the terminals) of this BDD.
+	 */
+	public int size() {
+		return manager.size(node);
+	}
+
+	////
+
+	public Bdd not() {
+		return create(manager.ite(node, BddManager.FALSE, BddManager.TRUE));
+	}
+
+	public Bdd and(final Bdd that) {
+		return create(manager.ite(node, nodeOf(that), BddManager.FALSE));
+	}
+
+	public Bdd or(final Bdd that) {
+		return create(manager.ite(node, BddManager.TRUE, nodeOf(that)));
+	}
+
+	public Bdd imp(final Bdd that) {
+		return create(manager.ite(node, nodeOf(that), BddManager.TRUE));
+	}
+
+	public Bdd ite(final Bdd then, final Bdd elze) {
+		return create(manager.ite(node, nodeOf(then), nodeOf(elze)));
+	}
+
+	/**
+	 * Check whether this BDD implies an other one.
+	 */
+	public boolean implies(final Bdd that) {
+		return manager.ite(node, nodeOf(that), BddManager.TRUE) == BddManager.TRUE;
+	}
+
+	////
+
+	private int nodeOf(final Bdd that) {
+		checkNotNull(that);
+		checkArgument(this.manager == that.manager, "BDDs of different managers");
+		return that.node;
+	}
+
+	private Bdd create(final int result) {
+		if (result == node) {
+			return this;
+		} else if (result == BddManager.TRUE) {
+			return manager.getTrue();
+		} else if (result == BddManager.FALSE) {
+			return manager.getFalse();
+		} else {
+			return new Bdd(manager, result);
+		}
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (obj instanceof Bdd) {
+			final Bdd that = (Bdd) obj;
+			return this.manager == that.manager && this.node == that.node;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * node + System.identityHashCode(manager);
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add(node).toString();
+	}
+
+}
@@ -0,0 +1,244 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.bdd;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+import hu.bme.mit.theta.common.Utils;
+
+/**
+ * A manager for reduced ordered binary decision diagrams. Variables are
+ * identified by non-negative indices and ordered by them. Nodes are stored in
+ * arrays and shared via a unique table, so two BDDs of the same manager are
+ * equal if and only if they represent the same function. Results of the ite
+ * operation are kept in a lossy cache. Nodes are never freed, the manager
+ * lives as long as its BDDs. Operations are synchronized, so BDDs can be used
+ * from multiple threads.
+ */
+public final class BddManager {
+
+	static final int FALSE = 0;
+	static final int TRUE = 1;
+
+	private static final int TERMINAL_VAR = Integer.MAX_VALUE;
+	private static final int INITIAL_CAPACITY = 1 << 10;
+
+	private int[] vars;
+	private int[] lows;
+	private int[] highs;
+	private int nodeCount;
+
+	private int[] uniqueTable;
+
+	private int[] cacheF;
+	private int[] cacheG;
+	private int[] cacheH;
+	private int[] cacheResult;
+
+	private final Bdd trueBdd;
+	private final Bdd falseBdd;
+
+	private BddManager() {
+		vars = new int[INITIAL_CAPACITY];
+		lows = new int[INITIAL_CAPACITY];
+		highs = new int[INITIAL_CAPACITY];
+		uniqueTable = new int[2 * INITIAL_CAPACITY];
+		Arrays.fill(uniqueTable, -1);
+		createCache(INITIAL_CAPACITY);
+
+		vars[FALSE] = TERMINAL_VAR;
+		vars[TRUE] = TERMINAL_VAR;
+		nodeCount = 2;
+
+		trueBdd = new Bdd(this, TRUE);
+		falseBdd = new Bdd(this, FALSE);
+	}
+
+	public static BddManager create() {
+		return new BddManager();
+	}
+
+	////
+
+	public Bdd getTrue() {
+		return trueBdd;
+	}
+
+	public Bdd getFalse() {
+		return falseBdd;
+	}
+
+	/**
+	 * Get the BDD of a single variable.
+	 */
+	public synchronized Bdd var(final int index) {
+		checkArgument(index >= 0 && index != TERMINAL_VAR, "Invalid variable index");
+		return new Bdd(this, mk(index, FALSE, TRUE));
+	}
+
+	/**
+	 * Get the BDD of the negation of a single variable.
+	 */
+	public synchronized Bdd nvar(final int index) {
+		checkArgument(index >= 0 && index != TERMINAL_VAR, "Invalid variable index");
+		return new Bdd(this, mk(index, TRUE, FALSE));
+	}
+
+	/**
+	 * Get the number of nodes (including the terminals) created so far.
+	 */
+	public synchronized int getNodeCount() {
+		return nodeCount;
+	}
+
+	////
+
+	synchronized int ite(final int f, final int g, final int h) {
+		return iteRec(f, g, h);
+	}
+
+	synchronized int size(final int node) {
+		return sizeRec(node, new boolean[nodeCount]);
+	}
+
+	////
+
+	private int iteRec(final int f, final int g, final int h) {
+		if (f == TRUE) {
+			return g;
+		} else if (f == FALSE) {
+			return h;
+		} else if (g == h) {
+			return g;
+		} else if (g == TRUE && h == FALSE) {
+			return f;
+		}
+
+		final int slot = cacheSlot(f, g, h);
+		if (cacheF[slot] == f && cacheG[slot] == g && cacheH[slot] == h) {
+			return cacheResult[slot];
+		}
+
+		final int var = Math.min(vars[f], Math.min(vars[g], vars[h]));
+		final int low = iteRec(cofactor(f, var, false), cofactor(g, var, false), cofactor(h, var, false));
+		final int high = iteRec(cofactor(f, var, true), cofactor(g, var, true), cofactor(h, var, true));
+		final int result = mk(var, low, high);
+
+		// The cache may have been reallocated by mk
+		final int newSlot = cacheSlot(f, g, h);
+		cacheF[newSlot] = f;
+		cacheG[newSlot] = g;
+		cacheH[newSlot] = h;
+		cacheResult[newSlot] = result;
+		return result;
+	}
+
+	private int cofactor(final int node, final int var, final boolean value) {
+		if (vars[node] != var) {
+			return node;
+		} else {
+			return value ? highs[node] : lows[node];
+		}
+	}
+
+	private int sizeRec(final int node, final boolean[] visited) {
+		if (visited[node]) {
+			return 0;
+		}
+		visited[node] = true;
+		if (node == TRUE || node == FALSE) {
+			return 1;
+		} else {
+			return 1 + sizeRec(lows[node], visited) + sizeRec(highs[node], visited);
+		}
+	}
+
+	private int mk(final int var, final int low, final int high) {
+		if (low == high) {
+			return low;
+		}
+
+		final int mask = uniqueTable.length - 1;
+		int slot = hash(var, low, high) & mask;
+		while (uniqueTable[slot] != -1) {
+			final int node = uniqueTable[slot];
+			if (vars[node] == var && lows[node] == low && highs[node] == high) {
+				return node;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (nodeCount == vars.length) {
+			grow();
+			return mk(var, low, high);
+		}
+
+		final int node = nodeCount;
+		vars[node] = var;
+		lows[node] = low;
+		highs[node] = high;
+		nodeCount++;
+		uniqueTable[slot] = node;
+		return node;
+	}
+
+	private void grow() {
+		final int capacity = 2 * vars.length;
+		vars = Arrays.copyOf(vars, capacity);
+		lows = Arrays.copyOf(lows, capacity);
+		highs = Arrays.copyOf(highs, capacity);
+
+		uniqueTable = new int[2 * capacity];
+		Arrays.fill(uniqueTable, -1);
+		final int mask = uniqueTable.length - 1;
+		for (int node = 2; node < nodeCount; node++) {
+			int slot = hash(vars[node], lows[node], highs[node]) & mask;
+			while (uniqueTable[slot] != -1) {
+				slot = (slot + 1) & mask;
+			}
+			uniqueTable[slot] = node;
+		}
+
+		createCache(capacity);
+	}
+
+	private void createCache(final int size) {
+		cacheF = new int[size];
+		cacheG = new int[size];
+		cacheH = new int[size];
+		cacheResult = new int[size];
+		Arrays.fill(cacheF, -1);
+	}
+
+	private int cacheSlot(final int f, final int g, final int h) {
+		return hash(f, g, h) & (cacheF.length - 1);
+	}
+
+	private static int hash(final int a, final int b, final int c) {
+		int result = a;
+		result = 31 * result + b;
+		result = 31 * result + c;
+		return result ^ (result >>> 16);
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add(getNodeCount()).toString();
+	}
+
+}
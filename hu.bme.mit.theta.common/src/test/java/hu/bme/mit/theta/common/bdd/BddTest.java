@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.common.bdd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BddTest {
+
+	@Test
+	public void testTerminals() {
+		final BddManager manager = BddManager.create();
+		assertTrue(manager.getTrue().isTrue());
+		assertTrue(manager.getFalse().isFalse());
+		assertEquals(manager.getFalse(), manager.getTrue().not());
+	}
+
+	@Test
+	public void testCanonicity() {
+		final BddManager manager = BddManager.create();
+		final Bdd a = manager.var(0);
+		final Bdd b = manager.var(1);
+		final Bdd c = manager.var(2);
+
+		assertEquals(a.and(b), b.and(a));
+		assertEquals(a.and(b.or(c)), a.and(b).or(a.and(c)));
+		assertEquals(a.imp(b), a.not().or(b));
+		assertEquals(a.and(b).not(), a.not().or(b.not()));
+		assertEquals(manager.nvar(1), b.not());
+		assertEquals(a, a.not().not());
+		assertNotEquals(a.and(b), a.or(b));
+		assertTrue(a.and(a.not()).isFalse());
+		assertTrue(a.or(a.not()).isTrue());
+		assertEquals(c, a.ite(c, c));
+	}
+
+	@Test
+	public void testImplies() {
+		final BddManager manager = BddManager.create();
+		final Bdd a = manager.var(0);
+		final Bdd b = manager.var(1);
+
+		assertTrue(a.and(b).implies(a));
+		assertTrue(a.implies(a.or(b)));
+		assertFalse(a.implies(a.and(b)));
+		assertTrue(manager.getFalse().implies(a));
+		assertTrue(a.implies(manager.getTrue()));
+		assertFalse(manager.getTrue().implies(a));
+	}
+
+	@Test
+	public void testGrow() {
+		final BddManager manager = BddManager.create();
+		Bdd parity = manager.getFalse();
+		final int n = 1000;
+		for (int i = 0; i < n; i++) {
+			final Bdd var = manager.var(i);
+			parity = parity.and(var.not()).or(parity.not().and(var));
+		}
+		// Two nodes per variable except for the first one, plus the terminals
+		assertEquals(2 * n + 1, parity.size());
+		assertTrue(manager.getNodeCount() > 1 << 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentManagers() {
+		BddManager.create().var(0).and(BddManager.create().var(0));
+	}
+
+}
@@ -18,23 +18,28 @@ package hu.bme.mit.theta.core.decl;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.type.Type;
 
+/**
+ * Represents a variable declaration. Indexed constants of the variable are
+ * created on demand and cached, and can be safely queried from multiple
+ * threads.
+ */
 public final class VarDecl<DeclType extends Type> extends AbstractDecl<DeclType> {
 	private static final String DECL_LABEL = "Var";
 
 	private final String name;
 	private final DeclType type;
-	private final Map<Integer, IndexedConstDecl<DeclType>> indexToConst;
+	private final ConcurrentMap<Integer, IndexedConstDecl<DeclType>> indexToConst;
 
 	VarDecl(final String name, final DeclType type) {
 		this.name = checkNotNull(name);
 		this.type = checkNotNull(type);
-		indexToConst = new HashMap<>();
+		indexToConst = new ConcurrentHashMap<>();
 	}
 
 	@Override
@@ -49,12 +54,12 @@ public final class VarDecl<DeclType extends Type> extends AbstractDecl<DeclType>
 
 	public IndexedConstDecl<DeclType> getConstDecl(final int index) {
 		checkArgument(index >= 0);
-		IndexedConstDecl<DeclType> constDecl = indexToConst.get(index);
-		if (constDecl == null) {
-			constDecl = new IndexedConstDecl<>(this, index);
-			indexToConst.put(index, constDecl);
+		// Try a plain lookup first, as computeIfAbsent locks even if present
+		final IndexedConstDecl<DeclType> constDecl = indexToConst.get(index);
+		if (constDecl != null) {
+			return constDecl;
 		}
-		return constDecl;
+		return indexToConst.computeIfAbsent(index, i -> new IndexedConstDecl<>(this, i));
 	}
 
 	@Override
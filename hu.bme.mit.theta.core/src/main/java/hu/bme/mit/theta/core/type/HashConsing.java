@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.type;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Optional hash-consing of expressions. If enabled, the expression factories
+ * return a canonical instance for structurally equal expressions, so equal
+ * expressions are identical and shared subexpressions are stored only once.
+ * Canonical instances are held in a concurrent weak table, so they are
+ * collected when no longer used.
+ * <p>
+ * Hash-consing is disabled by default. It can be enabled by setting the
+ * {@value #PROPERTY} system property to true, or by calling
+ * {@link #setEnabled(boolean)} before building expressions. Expressions built
+ * while it was disabled remain valid, they are just not shared.
+ */
+public final class HashConsing {
+
+	public static final String PROPERTY = "theta.hashConsing";
+
+	private static final Interner<Expr<?>> INTERNER = Interners.newWeakInterner();
+
+	private static volatile boolean enabled = Boolean.getBoolean(PROPERTY);
+
+	private HashConsing() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(final boolean enabled) {
+		HashConsing.enabled = enabled;
+	}
+
+	/**
+	 * Gets the canonical instance of an expression if hash-consing is enabled,
+	 * or the expression itself otherwise.
+	 */
+	public static <T extends Expr<?>> T intern(final T expr) {
+		if (enabled) {
+			@SuppressWarnings("unchecked")
+			final T result = (T) INTERNER.intern(expr);
+			return result;
+		} else {
+			return expr;
+		}
+	}
+
+}
@@ -19,6 +19,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import hu.bme.mit.theta.core.decl.Decl;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.Type;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
 
@@ -28,16 +29,18 @@ public final class Exprs {
 	}
 
 	public static <DeclType extends Type> RefExpr<DeclType> Ref(final Decl<DeclType> decl) {
+		// Not interned: declarations create their single reference in their
+		// constructor, before the fields their hash code depends on are set
 		return new RefExpr<>(decl);
 	}
 
 	public static <ExprType extends Type> IteExpr<ExprType> Ite(final Expr<BoolType> cond, final Expr<ExprType> then,
 			final Expr<ExprType> elze) {
-		return new IteExpr<>(cond, then, elze);
+		return HashConsing.intern(new IteExpr<>(cond, then, elze));
 	}
 
 	public static <ExprType extends Type> PrimeExpr<ExprType> Prime(final Expr<ExprType> op) {
-		return new PrimeExpr<>(op);
+		return HashConsing.intern(new PrimeExpr<>(op));
 	}
 
 	/*
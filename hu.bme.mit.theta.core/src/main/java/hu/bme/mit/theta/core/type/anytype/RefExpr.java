@@ -63,6 +63,8 @@ public final class RefExpr<DeclType extends Type> extends NullaryExpr<DeclType>
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof RefExpr) {
 			final RefExpr<?> that = (RefExpr<?>) obj;
 			return this.getDecl().equals(that.getDecl());
@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableList;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.Type;
 import hu.bme.mit.theta.core.utils.TypeUtils;
@@ -88,7 +89,7 @@ public final class ArrayReadExpr<IndexType extends Type, ElemType extends Type>
 		if (this.array == array && this.index == index) {
 			return this;
 		} else {
-			return new ArrayReadExpr<>(array, index);
+			return HashConsing.intern(new ArrayReadExpr<>(array, index));
 		}
 	}
 
@@ -117,6 +118,8 @@ public final class ArrayReadExpr<IndexType extends Type, ElemType extends Type>
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof ArrayReadExpr<?, ?>) {
 			final ArrayReadExpr<?, ?> that = (ArrayReadExpr<?, ?>) obj;
 			return this.getArray().equals(that.getArray()) && this.getIndex().equals(that.getIndex());
@@ -26,6 +26,7 @@ import com.google.common.collect.ImmutableList;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.Type;
 import hu.bme.mit.theta.core.utils.TypeUtils;
@@ -98,7 +99,7 @@ public final class ArrayWriteExpr<IndexType extends Type, ElemType extends Type>
 		if (this.array == array && this.index == index && elem == this.elem) {
 			return this;
 		} else {
-			return new ArrayWriteExpr<>(array, index, elem);
+			return HashConsing.intern(new ArrayWriteExpr<>(array, index, elem));
 		}
 	}
 
@@ -127,6 +128,8 @@ public final class ArrayWriteExpr<IndexType extends Type, ElemType extends Type>
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof ArrayWriteExpr<?, ?>) {
 			final ArrayWriteExpr<?, ?> that = (ArrayWriteExpr<?, ?>) obj;
 			return this.getArray().equals(that.getArray()) && this.getIndex().equals(that.getIndex())
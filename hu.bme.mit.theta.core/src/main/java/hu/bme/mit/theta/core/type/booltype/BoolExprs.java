@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableList;
 
 import hu.bme.mit.theta.core.decl.ParamDecl;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 
 public final class BoolExprs {
 
@@ -46,35 +47,35 @@ public final class BoolExprs {
 	}
 
 	public static NotExpr Not(final Expr<BoolType> op) {
-		return new NotExpr(op);
+		return HashConsing.intern(new NotExpr(op));
 	}
 
 	public static ImplyExpr Imply(final Expr<BoolType> leftOp, final Expr<BoolType> rightOp) {
-		return new ImplyExpr(leftOp, rightOp);
+		return HashConsing.intern(new ImplyExpr(leftOp, rightOp));
 	}
 
 	public static IffExpr Iff(final Expr<BoolType> leftOp, final Expr<BoolType> rightOp) {
-		return new IffExpr(leftOp, rightOp);
+		return HashConsing.intern(new IffExpr(leftOp, rightOp));
 	}
 
 	public static XorExpr Xor(final Expr<BoolType> leftOp, final Expr<BoolType> rightOp) {
-		return new XorExpr(leftOp, rightOp);
+		return HashConsing.intern(new XorExpr(leftOp, rightOp));
 	}
 
 	public static AndExpr And(final Iterable<? extends Expr<BoolType>> ops) {
-		return new AndExpr(ops);
+		return HashConsing.intern(new AndExpr(ops));
 	}
 
 	public static OrExpr Or(final Iterable<? extends Expr<BoolType>> ops) {
-		return new OrExpr(ops);
+		return HashConsing.intern(new OrExpr(ops));
 	}
 
 	public static ForallExpr Forall(final Iterable<? extends ParamDecl<?>> paramDecls, final Expr<BoolType> op) {
-		return new ForallExpr(paramDecls, op);
+		return HashConsing.intern(new ForallExpr(paramDecls, op));
 	}
 
 	public static ExistsExpr Exists(final Iterable<? extends ParamDecl<?>> paramDecls, final Expr<BoolType> op) {
-		return new ExistsExpr(paramDecls, op);
+		return HashConsing.intern(new ExistsExpr(paramDecls, op));
 	}
 
 	/*
@@ -21,6 +21,7 @@ import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.MultiaryExpr;
 
 public final class OrExpr extends MultiaryExpr<BoolType, BoolType> {
@@ -54,7 +55,7 @@ public final class OrExpr extends MultiaryExpr<BoolType, BoolType> {
 		if (ops == getOps()) {
 			return this;
 		} else {
-			return new OrExpr(ops);
+			return HashConsing.intern(new OrExpr(ops));
 		}
 	}
 
@@ -62,6 +63,8 @@ public final class OrExpr extends MultiaryExpr<BoolType, BoolType> {
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof OrExpr) {
 			final OrExpr that = (OrExpr) obj;
 			return this.getOps().equals(that.getOps());
@@ -24,6 +24,7 @@ import com.google.common.collect.ImmutableList;
 import hu.bme.mit.theta.common.Utils;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.Type;
 
@@ -83,7 +84,7 @@ public final class FuncAppExpr<ParamType extends Type, ResultType extends Type>
 		if (this.func == func && this.param == param) {
 			return this;
 		} else {
-			return new FuncAppExpr<>(func, param);
+			return HashConsing.intern(new FuncAppExpr<>(func, param));
 		}
 	}
 
@@ -111,6 +112,8 @@ public final class FuncAppExpr<ParamType extends Type, ResultType extends Type>
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof FuncAppExpr<?, ?>) {
 			final FuncAppExpr<?, ?> that = (FuncAppExpr<?, ?>) obj;
 			return this.getFunc().equals(that.getFunc()) && this.getParam().equals(that.getParam());
@@ -17,6 +17,7 @@ package hu.bme.mit.theta.core.type.functype;
 
 import hu.bme.mit.theta.core.decl.ParamDecl;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.Type;
 
 public final class FuncExprs {
@@ -31,12 +32,12 @@ public final class FuncExprs {
 
 	public static <ParamType extends Type, ResultType extends Type> FuncLitExpr<ParamType, ResultType> Func(
 			final ParamDecl<ParamType> paramDecl, final Expr<ResultType> result) {
-		return new FuncLitExpr<>(paramDecl, result);
+		return HashConsing.intern(new FuncLitExpr<>(paramDecl, result));
 	}
 
 	public static <ParamType extends Type, ResultType extends Type> FuncAppExpr<ParamType, ResultType> App(
 			final Expr<FuncType<ParamType, ResultType>> func, final Expr<ParamType> param) {
-		return new FuncAppExpr<>(func, param);
+		return HashConsing.intern(new FuncAppExpr<>(func, param));
 	}
 
 }
@@ -26,6 +26,7 @@ import com.google.common.collect.ImmutableList;
 import hu.bme.mit.theta.core.decl.ParamDecl;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.Type;
 import hu.bme.mit.theta.core.utils.TypeUtils;
@@ -86,7 +87,7 @@ public final class FuncLitExpr<ParamType extends Type, ResultType extends Type>
 		if (this.result == result) {
 			return this;
 		} else {
-			return new FuncLitExpr<>(param, result);
+			return HashConsing.intern(new FuncLitExpr<>(param, result));
 		}
 	}
 
@@ -106,6 +107,8 @@ public final class FuncLitExpr<ParamType extends Type, ResultType extends Type>
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof FuncLitExpr) {
 			final FuncLitExpr<?, ?> that = (FuncLitExpr<?, ?>) obj;
 			return this.getParam().equals(that.getParam()) && this.getResult().equals(that.getResult());
@@ -19,6 +19,7 @@ import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
 
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.abstracttype.DivExpr;
 
 public final class IntDivExpr extends DivExpr<IntType> {
@@ -48,7 +49,7 @@ public final class IntDivExpr extends DivExpr<IntType> {
 		if (leftOp == getLeftOp() && rightOp == getRightOp()) {
 			return this;
 		} else {
-			return new IntDivExpr(leftOp, rightOp);
+			return HashConsing.intern(new IntDivExpr(leftOp, rightOp));
 		}
 	}
 
@@ -66,6 +67,8 @@ public final class IntDivExpr extends DivExpr<IntType> {
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof IntDivExpr) {
 			final IntDivExpr that = (IntDivExpr) obj;
 			return this.getLeftOp().equals(that.getLeftOp()) && this.getRightOp().equals(that.getRightOp());
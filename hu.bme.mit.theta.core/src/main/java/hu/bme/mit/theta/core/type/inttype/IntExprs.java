@@ -18,6 +18,7 @@ package hu.bme.mit.theta.core.type.inttype;
 import com.google.common.collect.ImmutableList;
 
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 
 public final class IntExprs {
 
@@ -29,63 +30,63 @@ public final class IntExprs {
 	}
 
 	public static IntLitExpr Int(final int value) {
-		return new IntLitExpr(value);
+		return HashConsing.intern(new IntLitExpr(value));
 	}
 
 	public static IntToRatExpr ToRat(final Expr<IntType> op) {
-		return new IntToRatExpr(op);
+		return HashConsing.intern(new IntToRatExpr(op));
 	}
 
 	public static IntAddExpr Add(final Iterable<? extends Expr<IntType>> ops) {
-		return new IntAddExpr(ops);
+		return HashConsing.intern(new IntAddExpr(ops));
 	}
 
 	public static IntSubExpr Sub(final Expr<IntType> leftOp, final Expr<IntType> rightOp) {
-		return new IntSubExpr(leftOp, rightOp);
+		return HashConsing.intern(new IntSubExpr(leftOp, rightOp));
 	}
 
 	public static IntNegExpr Neg(final Expr<IntType> op) {
-		return new IntNegExpr(op);
+		return HashConsing.intern(new IntNegExpr(op));
 	}
 
 	public static IntMulExpr Mul(final Iterable<? extends Expr<IntType>> ops) {
-		return new IntMulExpr(ops);
+		return HashConsing.intern(new IntMulExpr(ops));
 	}
 
 	public static IntDivExpr Div(final Expr<IntType> leftOp, final Expr<IntType> rightOp) {
-		return new IntDivExpr(leftOp, rightOp);
+		return HashConsing.intern(new IntDivExpr(leftOp, rightOp));
 	}
 
 	public static ModExpr Mod(final Expr<IntType> leftOp, final Expr<IntType> rightOp) {
-		return new ModExpr(leftOp, rightOp);
+		return HashConsing.intern(new ModExpr(leftOp, rightOp));
 	}
 
 	public static RemExpr Rem(final Expr<IntType> leftOp, final Expr<IntType> rightOp) {
-		return new RemExpr(leftOp, rightOp);
+		return HashConsing.intern(new RemExpr(leftOp, rightOp));
 	}
 
 	public static IntEqExpr Eq(final Expr<IntType> leftOp, final Expr<IntType> rightOp) {
-		return new IntEqExpr(leftOp, rightOp);
+		return HashConsing.intern(new IntEqExpr(leftOp, rightOp));
 	}
 
 	public static IntNeqExpr Neq(final Expr<IntType> leftOp, final Expr<IntType> rightOp) {
-		return new IntNeqExpr(leftOp, rightOp);
+		return HashConsing.intern(new IntNeqExpr(leftOp, rightOp));
 	}
 
 	public static IntLtExpr Lt(final Expr<IntType> leftOp, final Expr<IntType> rightOp) {
-		return new IntLtExpr(leftOp, rightOp);
+		return HashConsing.intern(new IntLtExpr(leftOp, rightOp));
 	}
 
 	public static IntLeqExpr Leq(final Expr<IntType> leftOp, final Expr<IntType> rightOp) {
-		return new IntLeqExpr(leftOp, rightOp);
+		return HashConsing.intern(new IntLeqExpr(leftOp, rightOp));
 	}
 
 	public static IntGtExpr Gt(final Expr<IntType> leftOp, final Expr<IntType> rightOp) {
-		return new IntGtExpr(leftOp, rightOp);
+		return HashConsing.intern(new IntGtExpr(leftOp, rightOp));
 	}
 
 	public static IntGeqExpr Geq(final Expr<IntType> leftOp, final Expr<IntType> rightOp) {
-		return new IntGeqExpr(leftOp, rightOp);
+		return HashConsing.intern(new IntGeqExpr(leftOp, rightOp));
 	}
 
 	/*
@@ -19,6 +19,7 @@ import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
 
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.abstracttype.NegExpr;
 
 public final class IntNegExpr extends NegExpr<IntType> {
@@ -46,7 +47,7 @@ public final class IntNegExpr extends NegExpr<IntType> {
 		if (op == getOp()) {
 			return this;
 		} else {
-			return new IntNegExpr(op);
+			return HashConsing.intern(new IntNegExpr(op));
 		}
 	}
 
@@ -54,6 +55,8 @@ public final class IntNegExpr extends NegExpr<IntType> {
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof IntNegExpr) {
 			final IntNegExpr that = (IntNegExpr) obj;
 			return this.getOp().equals(that.getOp());
@@ -19,6 +19,7 @@ import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
 
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.abstracttype.SubExpr;
 
 public final class IntSubExpr extends SubExpr<IntType> {
@@ -47,7 +48,7 @@ public final class IntSubExpr extends SubExpr<IntType> {
 		if (leftOp == getLeftOp() && rightOp == getRightOp()) {
 			return this;
 		} else {
-			return new IntSubExpr(leftOp, rightOp);
+			return HashConsing.intern(new IntSubExpr(leftOp, rightOp));
 		}
 	}
 
@@ -65,6 +66,8 @@ public final class IntSubExpr extends SubExpr<IntType> {
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof IntSubExpr) {
 			final IntSubExpr that = (IntSubExpr) obj;
 			return this.getLeftOp().equals(that.getLeftOp()) && this.getRightOp().equals(that.getRightOp());
@@ -19,6 +19,7 @@ import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
 
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.abstracttype.CastExpr;
 import hu.bme.mit.theta.core.type.rattype.RatLitExpr;
 import hu.bme.mit.theta.core.type.rattype.RatType;
@@ -48,7 +49,7 @@ public final class IntToRatExpr extends CastExpr<IntType, RatType> {
 		if (op == getOp()) {
 			return this;
 		} else {
-			return new IntToRatExpr(op);
+			return HashConsing.intern(new IntToRatExpr(op));
 		}
 	}
 
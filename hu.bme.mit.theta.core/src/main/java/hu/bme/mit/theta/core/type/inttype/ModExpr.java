@@ -20,6 +20,7 @@ import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.BinaryExpr;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 
 public final class ModExpr extends BinaryExpr<IntType, IntType> {
 
@@ -47,7 +48,7 @@ public final class ModExpr extends BinaryExpr<IntType, IntType> {
 		if (leftOp == getLeftOp() && rightOp == getRightOp()) {
 			return this;
 		} else {
-			return new ModExpr(leftOp, rightOp);
+			return HashConsing.intern(new ModExpr(leftOp, rightOp));
 		}
 	}
 
@@ -65,6 +66,8 @@ public final class ModExpr extends BinaryExpr<IntType, IntType> {
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof ModExpr) {
 			final ModExpr that = (ModExpr) obj;
 			return this.getLeftOp().equals(that.getLeftOp()) && this.getRightOp().equals(that.getRightOp());
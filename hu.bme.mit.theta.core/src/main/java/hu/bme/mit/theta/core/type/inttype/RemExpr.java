@@ -20,6 +20,7 @@ import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.BinaryExpr;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 
 public final class RemExpr extends BinaryExpr<IntType, IntType> {
 
@@ -48,7 +49,7 @@ public final class RemExpr extends BinaryExpr<IntType, IntType> {
 		if (leftOp == getLeftOp() && rightOp == getRightOp()) {
 			return this;
 		} else {
-			return new RemExpr(leftOp, rightOp);
+			return HashConsing.intern(new RemExpr(leftOp, rightOp));
 		}
 	}
 
@@ -66,6 +67,8 @@ public final class RemExpr extends BinaryExpr<IntType, IntType> {
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof RemExpr) {
 			final RemExpr that = (RemExpr) obj;
 			return this.getLeftOp().equals(that.getLeftOp()) && this.getRightOp().equals(that.getRightOp());
@@ -67,6 +67,8 @@ public final class NewExpr<PointedType extends Type> extends NullaryExpr<Pointer
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof NewExpr) {
 			final NewExpr<?> that = (NewExpr<?>) obj;
 			return this.getPointedType().equals(that.getPointedType());
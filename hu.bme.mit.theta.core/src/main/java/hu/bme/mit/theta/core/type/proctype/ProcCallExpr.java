@@ -92,6 +92,8 @@ public final class ProcCallExpr<ReturnType extends Type> implements Expr<ReturnT
 	public final boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof ProcCallExpr<?>) {
 			final ProcCallExpr<?> that = (ProcCallExpr<?>) obj;
 			return this.getProc().equals(that.getProc()) && this.getParams().equals(that.getParams());
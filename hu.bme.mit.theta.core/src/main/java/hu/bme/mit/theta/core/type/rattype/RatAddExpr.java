@@ -19,6 +19,7 @@ import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
 
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.abstracttype.AddExpr;
 
 public final class RatAddExpr extends AddExpr<RatType> {
@@ -56,7 +57,7 @@ public final class RatAddExpr extends AddExpr<RatType> {
 		if (ops == getOps()) {
 			return this;
 		} else {
-			return new RatAddExpr(ops);
+			return HashConsing.intern(new RatAddExpr(ops));
 		}
 	}
 
@@ -64,6 +65,8 @@ public final class RatAddExpr extends AddExpr<RatType> {
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof RatAddExpr) {
 			final RatAddExpr that = (RatAddExpr) obj;
 			return this.getOps().equals(that.getOps());
@@ -21,6 +21,7 @@ import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
 import com.google.common.math.IntMath;
 
 import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.LitExpr;
 import hu.bme.mit.theta.core.type.NullaryExpr;
 import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
@@ -48,7 +49,7 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 	}
 
 	private static RatLitExpr Rat(final int num, final int denom) {
-		return new RatLitExpr(num, denom);
+		return HashConsing.intern(new RatLitExpr(num, denom));
 	}
 
 	private static RatType Rat() {
@@ -163,6 +164,8 @@ public final class RatLitExpr extends NullaryExpr<RatType> implements LitExpr<Ra
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof RatLitExpr) {
 			final RatLitExpr that = (RatLitExpr) obj;
 			return (this.getNum() == that.getNum() && this.getDenom() == that.getDenom());
@@ -19,6 +19,7 @@ import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
 
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.abstracttype.MulExpr;
 
 public final class RatMulExpr extends MulExpr<RatType> {
@@ -52,7 +53,7 @@ public final class RatMulExpr extends MulExpr<RatType> {
 		if (ops == getOps()) {
 			return this;
 		} else {
-			return new RatMulExpr(ops);
+			return HashConsing.intern(new RatMulExpr(ops));
 		}
 	}
 
@@ -60,6 +61,8 @@ public final class RatMulExpr extends MulExpr<RatType> {
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof RatMulExpr) {
 			final RatMulExpr that = (RatMulExpr) obj;
 			return this.getOps().equals(that.getOps());
@@ -19,6 +19,7 @@ import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
 
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
 import hu.bme.mit.theta.core.type.abstracttype.NegExpr;
 
 public final class RatNegExpr extends NegExpr<RatType> {
@@ -46,7 +47,7 @@ public final class RatNegExpr extends NegExpr<RatType> {
 		if (op == getOp()) {
 			return this;
 		} else {
-			return new RatNegExpr(op);
+			return HashConsing.intern(new RatNegExpr(op));
 		}
 	}
 
@@ -54,6 +55,8 @@ public final class RatNegExpr extends NegExpr<RatType> {
 	public boolean equals(final Object obj) {
 		if (this == obj) {
 			return true;
+		} else if (obj == null || this.hashCode() != obj.hashCode()) {
+			return false;
 		} else if (obj instanceof RatNegExpr) {
 			final RatNegExpr that = (RatNegExpr) obj;
 			return this.getOp().equals(that.getOp());
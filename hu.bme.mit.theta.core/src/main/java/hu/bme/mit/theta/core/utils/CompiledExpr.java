@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.utils;
+
+/**
+ * An integer or Boolean expression compiled into a tree of evaluator objects
+ * (see {@link ExprUtils#compile}), which reads the values of the variables
+ * directly from the slots of a valuation. Integers are represented by their
+ * value and Booleans by 0 (false) or 1 (true). Evaluation does not allocate
+ * objects. If the value depends on a variable without a value, the result is
+ * {@link #UNDETERMINED}.
+ */
+public abstract class CompiledExpr {
+
+	/**
+	 * The result of the evaluation if the value is not fully determined by the
+	 * valuation. It is outside the range of integers, so it cannot be confused
+	 * with a value.
+	 */
+	public static final long UNDETERMINED = Long.MIN_VALUE;
+
+	/**
+	 * Values of variables indexed by slots.
+	 */
+	public interface Slots {
+		boolean isPresent(int slot);
+
+		/**
+		 * Gets the value of a slot, which must be present.
+		 */
+		long getValue(int slot);
+	}
+
+	CompiledExpr() {
+	}
+
+	public abstract long eval(final Slots slots);
+
+}
@@ -0,0 +1,440 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.utils;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ToIntFunction;
+
+import hu.bme.mit.theta.common.DispatchTable;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.type.BinaryExpr;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.anytype.IteExpr;
+import hu.bme.mit.theta.core.type.anytype.RefExpr;
+import hu.bme.mit.theta.core.type.booltype.AndExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.FalseExpr;
+import hu.bme.mit.theta.core.type.booltype.IffExpr;
+import hu.bme.mit.theta.core.type.booltype.ImplyExpr;
+import hu.bme.mit.theta.core.type.booltype.NotExpr;
+import hu.bme.mit.theta.core.type.booltype.OrExpr;
+import hu.bme.mit.theta.core.type.booltype.TrueExpr;
+import hu.bme.mit.theta.core.type.booltype.XorExpr;
+import hu.bme.mit.theta.core.type.inttype.IntAddExpr;
+import hu.bme.mit.theta.core.type.inttype.IntDivExpr;
+import hu.bme.mit.theta.core.type.inttype.IntEqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntGeqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntGtExpr;
+import hu.bme.mit.theta.core.type.inttype.IntLeqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntLitExpr;
+import hu.bme.mit.theta.core.type.inttype.IntLtExpr;
+import hu.bme.mit.theta.core.type.inttype.IntMulExpr;
+import hu.bme.mit.theta.core.type.inttype.IntNegExpr;
+import hu.bme.mit.theta.core.type.inttype.IntNeqExpr;
+import hu.bme.mit.theta.core.type.inttype.IntSubExpr;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.core.type.inttype.ModExpr;
+
+/**
+ * Compiles integer and Boolean expressions into trees of evaluator objects. The
+ * evaluators are never more precise than {@link ExprSimplifier}: if an
+ * evaluator yields a value, simplification yields the same literal. The
+ * converse does not always hold (e.g., simplification also exploits that x - x
+ * is 0 for compound operands), so callers can fall back to simplification
+ * for undetermined results.
+ */
+final class ExprCompiler {
+
+	private static final long U = CompiledExpr.UNDETERMINED;
+
+	private final ToIntFunction<? super Decl<?>> slotOf;
+	private final DispatchTable<CompiledExpr> table;
+
+	private ExprCompiler(final ToIntFunction<? super Decl<?>> slotOf) {
+		this.slotOf = checkNotNull(slotOf);
+
+		table = DispatchTable.<CompiledExpr>builder()
+
+				// Boolean
+
+				.addCase(TrueExpr.class, e -> new Const(1))
+
+				.addCase(FalseExpr.class, e -> new Const(0))
+
+				.addCase(NotExpr.class, this::compileNot)
+
+				.addCase(ImplyExpr.class, this::compileImply)
+
+				.addCase(IffExpr.class, e -> compileBinary(e, 1, (a, b) -> a == b ? 1 : 0))
+
+				.addCase(XorExpr.class, e -> compileBinary(e, 0, (a, b) -> a != b ? 1 : 0))
+
+				.addCase(AndExpr.class, e -> new And(compileAll(e.getOps())))
+
+				.addCase(OrExpr.class, e -> new Or(compileAll(e.getOps())))
+
+				// Integer
+
+				.addCase(IntLitExpr.class, e -> new Const(e.getValue()))
+
+				.addCase(IntAddExpr.class, e -> new Add(compileAll(e.getOps())))
+
+				.addCase(IntSubExpr.class, e -> compileBinary(e, 0, (a, b) -> a - b))
+
+				.addCase(IntNegExpr.class, e -> new Neg(compile(e.getOp())))
+
+				.addCase(IntMulExpr.class, e -> new Mul(compileAll(e.getOps())))
+
+				.addCase(IntDivExpr.class, e -> compileBinary(e, (a, b) -> a / b))
+
+				.addCase(ModExpr.class, e -> compileBinary(e, ExprCompiler::mod))
+
+				.addCase(IntEqExpr.class, e -> compileBinary(e, 1, (a, b) -> a == b ? 1 : 0))
+
+				.addCase(IntNeqExpr.class, e -> compileBinary(e, 0, (a, b) -> a != b ? 1 : 0))
+
+				.addCase(IntGeqExpr.class, e -> compileBinary(e, 1, (a, b) -> a >= b ? 1 : 0))
+
+				.addCase(IntGtExpr.class, e -> compileBinary(e, 0, (a, b) -> a > b ? 1 : 0))
+
+				.addCase(IntLeqExpr.class, e -> compileBinary(e, 1, (a, b) -> a <= b ? 1 : 0))
+
+				.addCase(IntLtExpr.class, e -> compileBinary(e, 0, (a, b) -> a < b ? 1 : 0))
+
+				// General
+
+				.addCase(RefExpr.class, this::compileRef)
+
+				.addCase(IteExpr.class, this::compileIte)
+
+				// Default
+
+				.addDefault(o -> {
+					throw new UnsupportedOperationException();
+				})
+
+				.build();
+	}
+
+	/**
+	 * Compiles an integer or Boolean expression, where the slots of the
+	 * variables are given by a function (returning -1 for variables without a
+	 * slot, which are never determined). Returns an empty optional if the
+	 * expression contains unsupported types or operators.
+	 */
+	static Optional<CompiledExpr> compile(final Expr<?> expr, final ToIntFunction<? super Decl<?>> slotOf) {
+		checkNotNull(expr);
+		try {
+			return Optional.of(new ExprCompiler(slotOf).compile(expr));
+		} catch (final UnsupportedOperationException e) {
+			return Optional.empty();
+		}
+	}
+
+	private CompiledExpr compile(final Expr<?> expr) {
+		return table.dispatch(expr);
+	}
+
+	private CompiledExpr[] compileAll(final List<? extends Expr<?>> exprs) {
+		final CompiledExpr[] result = new CompiledExpr[exprs.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = compile(exprs.get(i));
+		}
+		return result;
+	}
+
+	private CompiledExpr compileRef(final RefExpr<?> expr) {
+		final Decl<?> decl = expr.getDecl();
+		if (!(decl.getType() instanceof IntType || decl.getType() instanceof BoolType)) {
+			throw new UnsupportedOperationException();
+		}
+		final int slot = slotOf.applyAsInt(decl);
+		return slot >= 0 ? new Slot(slot) : new Const(U);
+	}
+
+	private CompiledExpr compileNot(final NotExpr expr) {
+		return new Not(compile(expr.getOp()));
+	}
+
+	private CompiledExpr compileImply(final ImplyExpr expr) {
+		if (isSameRef(expr)) {
+			return new Const(1);
+		}
+		return new Imply(compile(expr.getLeftOp()), compile(expr.getRightOp()));
+	}
+
+	private CompiledExpr compileIte(final IteExpr<?> expr) {
+		return new Ite(compile(expr.getCond()), compile(expr.getThen()), compile(expr.getElse()));
+	}
+
+	private CompiledExpr compileBinary(final BinaryExpr<?, ?> expr, final IntBinaryOperator op) {
+		return new Binary(compile(expr.getLeftOp()), compile(expr.getRightOp()), op);
+	}
+
+	/**
+	 * Compiles a binary operator that yields the given value for identical
+	 * references, like the simplifier does.
+	 */
+	private CompiledExpr compileBinary(final BinaryExpr<?, ?> expr, final int sameRefValue,
+			final IntBinaryOperator op) {
+		if (isSameRef(expr)) {
+			return new Const(sameRefValue);
+		}
+		return compileBinary(expr, op);
+	}
+
+	private static boolean isSameRef(final BinaryExpr<?, ?> expr) {
+		return expr.getLeftOp() instanceof RefExpr && expr.getLeftOp().equals(expr.getRightOp());
+	}
+
+	private static int mod(final int a, final int b) {
+		// Same semantics as IntLitExpr.mod
+		int result = a % b;
+		if (result < 0) {
+			result += Math.abs(b);
+		}
+		return result;
+	}
+
+	////
+
+	private static final class Const extends CompiledExpr {
+		private final long value;
+
+		private Const(final long value) {
+			this.value = value;
+		}
+
+		@Override
+		public long eval(final Slots slots) {
+			return value;
+		}
+	}
+
+	private static final class Slot extends CompiledExpr {
+		private final int slot;
+
+		private Slot(final int slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		public long eval(final Slots slots) {
+			return slots.isPresent(slot) ? slots.getValue(slot) : U;
+		}
+	}
+
+	private static final class Not extends CompiledExpr {
+		private final CompiledExpr op;
+
+		private Not(final CompiledExpr op) {
+			this.op = op;
+		}
+
+		@Override
+		public long eval(final Slots slots) {
+			final long value = op.eval(slots);
+			return value == U ? U : 1 - value;
+		}
+	}
+
+	private static final class Neg extends CompiledExpr {
+		private final CompiledExpr op;
+
+		private Neg(final CompiledExpr op) {
+			this.op = op;
+		}
+
+		@Override
+		public long eval(final Slots slots) {
+			final long value = op.eval(slots);
+			return value == U ? U : -(int) value;
+		}
+	}
+
+	private static final class Binary extends CompiledExpr {
+		private final CompiledExpr left;
+		private final CompiledExpr right;
+		private final IntBinaryOperator op;
+
+		private Binary(final CompiledExpr left, final CompiledExpr right, final IntBinaryOperator op) {
+			this.left = left;
+			this.right = right;
+			this.op = op;
+		}
+
+		@Override
+		public long eval(final Slots slots) {
+			final long leftValue = left.eval(slots);
+			if (leftValue == U) {
+				return U;
+			}
+			final long rightValue = right.eval(slots);
+			if (rightValue == U) {
+				return U;
+			}
+			return op.applyAsInt((int) leftValue, (int) rightValue);
+		}
+	}
+
+	private static final class Imply extends CompiledExpr {
+		private final CompiledExpr left;
+		private final CompiledExpr right;
+
+		private Imply(final CompiledExpr left, final CompiledExpr right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public long eval(final Slots slots) {
+			final long leftValue = left.eval(slots);
+			if (leftValue == 0) {
+				return 1;
+			}
+			final long rightValue = right.eval(slots);
+			if (rightValue == 1) {
+				return 1;
+			}
+			return leftValue == U || rightValue == U ? U : 0;
+		}
+	}
+
+	private static final class And extends CompiledExpr {
+		private final CompiledExpr[] ops;
+
+		private And(final CompiledExpr[] ops) {
+			this.ops = ops;
+		}
+
+		@Override
+		public long eval(final Slots slots) {
+			boolean undetermined = false;
+			for (final CompiledExpr op : ops) {
+				final long value = op.eval(slots);
+				if (value == 0) {
+					return 0;
+				}
+				undetermined |= value == U;
+			}
+			return undetermined ? U : 1;
+		}
+	}
+
+	/**
+	 * Disjunction, where no operands means true (as in the simplifier).
+	 */
+	private static final class Or extends CompiledExpr {
+		private final CompiledExpr[] ops;
+
+		private Or(final CompiledExpr[] ops) {
+			this.ops = ops;
+		}
+
+		@Override
+		public long eval(final Slots slots) {
+			if (ops.length == 0) {
+				return 1;
+			}
+			boolean undetermined = false;
+			for (final CompiledExpr op : ops) {
+				final long value = op.eval(slots);
+				if (value == 1) {
+					return 1;
+				}
+				undetermined |= value == U;
+			}
+			return undetermined ? U : 0;
+		}
+	}
+
+	private static final class Add extends CompiledExpr {
+		private final CompiledExpr[] ops;
+
+		private Add(final CompiledExpr[] ops) {
+			this.ops = ops;
+		}
+
+		@Override
+		public long eval(final Slots slots) {
+			int sum = 0;
+			for (final CompiledExpr op : ops) {
+				final long value = op.eval(slots);
+				if (value == U) {
+					return U;
+				}
+				sum += (int) value;
+			}
+			return sum;
+		}
+	}
+
+	/**
+	 * Multiplication, which is 0 if the product of the determined operands
+	 * is 0 (as in the simplifier).
+	 */
+	private static final class Mul extends CompiledExpr {
+		private final CompiledExpr[] ops;
+
+		private Mul(final CompiledExpr[] ops) {
+			this.ops = ops;
+		}
+
+		@Override
+		public long eval(final Slots slots) {
+			int product = 1;
+			boolean undetermined = false;
+			for (final CompiledExpr op : ops) {
+				final long value = op.eval(slots);
+				if (value == U) {
+					undetermined = true;
+				} else {
+					product *= (int) value;
+					if (product == 0) {
+						return 0;
+					}
+				}
+			}
+			return undetermined ? U : product;
+		}
+	}
+
+	private static final class Ite extends CompiledExpr {
+		private final CompiledExpr cond;
+		private final CompiledExpr then;
+		private final CompiledExpr elze;
+
+		private Ite(final CompiledExpr cond, final CompiledExpr then, final CompiledExpr elze) {
+			this.cond = cond;
+			this.then = then;
+			this.elze = elze;
+		}
+
+		@Override
+		public long eval(final Slots slots) {
+			final long condValue = cond.eval(slots);
+			if (condValue == U) {
+				return U;
+			}
+			return condValue != 0 ? then.eval(slots) : elze.eval(slots);
+		}
+	}
+
+}
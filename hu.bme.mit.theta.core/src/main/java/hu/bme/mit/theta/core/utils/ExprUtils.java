@@ -23,7 +23,9 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 import hu.bme.mit.theta.core.decl.Decl;
@@ -214,6 +216,19 @@ public final class ExprUtils {
 		return simplify(expr, BasicValuation.empty());
 	}
 
+	/**
+	 * Compile an integer or Boolean expression into an evaluator that reads
+	 * the values of the variables from slots.
+	 *
+	 * @param expr Expression
+	 * @param slotOf Slot of a declaration, or -1 if it has no slot
+	 * @return Compiled expression, or empty if the expression contains
+	 *         unsupported types or operators
+	 */
+	public static Optional<CompiledExpr> compile(final Expr<?> expr, final ToIntFunction<? super Decl<?>> slotOf) {
+		return ExprCompiler.compile(expr, slotOf);
+	}
+
 	/**
 	 * Simplify a list of expressions.
 	 *
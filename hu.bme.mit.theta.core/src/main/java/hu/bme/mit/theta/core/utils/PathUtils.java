@@ -36,7 +36,8 @@ import hu.bme.mit.theta.core.type.anytype.PrimeExpr;
 import hu.bme.mit.theta.core.type.anytype.RefExpr;
 
 /**
- * Utility functions related to paths.
+ * Utility functions related to paths. The functions do not share any mutable
+ * state, so they can be called from multiple threads.
  */
 public class PathUtils {
 
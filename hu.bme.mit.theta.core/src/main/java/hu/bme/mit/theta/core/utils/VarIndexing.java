@@ -32,6 +32,7 @@ import hu.bme.mit.theta.core.decl.VarDecl;
 /**
  * Represents an immutable mapping, where each variable is associated with an
  * index. The inner builder class can also be used to create a new instance.
+ * Instances can be shared between threads, builders cannot.
  */
 public class VarIndexing {
 
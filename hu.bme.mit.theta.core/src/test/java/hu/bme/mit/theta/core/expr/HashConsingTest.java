@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.expr;
+
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.core.decl.ConstDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.HashConsing;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class HashConsingTest {
+
+	private final ConstDecl<IntType> ca = Const("a", Int());
+	private final ConstDecl<IntType> cb = Const("b", Int());
+
+	@After
+	public void tearDown() {
+		HashConsing.setEnabled(false);
+	}
+
+	@Test
+	public void testDisabled() {
+		HashConsing.setEnabled(false);
+		final Expr<BoolType> e1 = Eq(Add(ca.getRef(), Int(1)), cb.getRef());
+		final Expr<BoolType> e2 = Eq(Add(ca.getRef(), Int(1)), cb.getRef());
+		assertNotSame(e1, e2);
+		assertEquals(e1, e2);
+	}
+
+	@Test
+	public void testEnabled() {
+		HashConsing.setEnabled(true);
+		final Expr<BoolType> e1 = Eq(Add(ca.getRef(), Int(1)), cb.getRef());
+		final Expr<BoolType> e2 = Eq(Add(ca.getRef(), Int(1)), cb.getRef());
+		final Expr<BoolType> e3 = Eq(Add(ca.getRef(), Int(2)), cb.getRef());
+		assertSame(e1, e2);
+		assertNotEquals(e1, e3);
+		assertSame(Int(1), Int(1));
+	}
+
+	@Test
+	public void testSharedSubexprs() {
+		HashConsing.setEnabled(true);
+		final Expr<BoolType> e1 = And(Eq(ca.getRef(), Int(1)), Not(Eq(cb.getRef(), Int(2))));
+		final Expr<BoolType> e2 = Not(Eq(cb.getRef(), Int(2)));
+		assertSame(e1.getOps().get(1), e2);
+		assertSame(e1, e1.withOps(ImmutableList.of(Eq(ca.getRef(), Int(1)), e2)));
+	}
+
+	@Test
+	public void testDeclsCreatedWhileEnabled() {
+		HashConsing.setEnabled(true);
+		final ConstDecl<IntType> cc = Const("c", Int());
+		final Expr<BoolType> e1 = Eq(Add(cc.getRef(), Int(1)), ca.getRef());
+		final Expr<BoolType> e2 = Eq(Add(cc.getRef(), Int(1)), ca.getRef());
+		assertSame(e1, e2);
+		assertNotEquals(e1, Eq(Add(Const("c", Int()).getRef(), Int(1)), ca.getRef()));
+	}
+
+	@Test
+	public void testLiteralOperations() {
+		HashConsing.setEnabled(true);
+		assertSame(Int(3), Int(1).add(Int(2)));
+	}
+
+}
@@ -0,0 +1,203 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.utils;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Prime;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.decl.IndexedConstDecl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+/**
+ * Stress tests for sharing declarations, indexings and unfolding between
+ * threads.
+ */
+public class ConcurrencyStressTest {
+
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 50;
+	private static final int MAX_INDEX = 200;
+	private static final int VARS = 20;
+
+	private ExecutorService executor;
+
+	@Before
+	public void before() {
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testGetConstDecl() throws Exception {
+		for (int round = 0; round < ROUNDS; round++) {
+			final List<VarDecl<IntType>> vars = createVars();
+
+			final List<IndexedConstDecl<?>[][]> results = runOnAllThreads(random -> {
+				final IndexedConstDecl<?>[][] consts = new IndexedConstDecl<?>[VARS][MAX_INDEX];
+				// Every thread queries the same indexes, but in a different order
+				final int offset = random.nextInt(MAX_INDEX);
+				for (int i = 0; i < MAX_INDEX; i++) {
+					final int index = (i + offset) % MAX_INDEX;
+					for (int v = 0; v < VARS; v++) {
+						consts[v][index] = vars.get(v).getConstDecl(index);
+					}
+				}
+				return consts;
+			});
+
+			for (int v = 0; v < VARS; v++) {
+				for (int i = 0; i < MAX_INDEX; i++) {
+					final IndexedConstDecl<?> expected = vars.get(v).getConstDecl(i);
+					assertEquals(i, expected.getIndex());
+					for (final IndexedConstDecl<?>[][] result : results) {
+						assertSame(expected, result[v][i]);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testUnfoldFoldin() throws Exception {
+		for (int round = 0; round < ROUNDS; round++) {
+			final List<VarDecl<IntType>> vars = createVars();
+			final Expr<BoolType> expr = createExpr(vars);
+
+			final List<List<Expr<BoolType>>> results = runOnAllThreads(random -> {
+				final List<Expr<BoolType>> unfolded = new ArrayList<>();
+				for (int i = 0; i < MAX_INDEX; i++) {
+					final VarIndexing indexing = createIndexing(vars, i);
+					final Expr<BoolType> unfoldedExpr = PathUtils.unfold(expr, indexing);
+					assertEquals(expr, PathUtils.foldin(unfoldedExpr, indexing));
+					unfolded.add(unfoldedExpr);
+				}
+				return unfolded;
+			});
+
+			for (int i = 0; i < MAX_INDEX; i++) {
+				final Expr<BoolType> expected = PathUtils.unfold(expr, createIndexing(vars, i));
+				for (final List<Expr<BoolType>> result : results) {
+					assertEquals(expected, result.get(i));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testVarIndexing() throws Exception {
+		final List<VarDecl<IntType>> vars = createVars();
+		final VarIndexing shared = createIndexing(vars, 3);
+
+		final List<List<VarIndexing>> results = runOnAllThreads(random -> {
+			final List<VarIndexing> indexings = new ArrayList<>();
+			for (int i = 0; i < MAX_INDEX; i++) {
+				final VarIndexing other = createIndexing(vars, i);
+				indexings.add(shared.add(other).join(other).sub(shared));
+			}
+			return indexings;
+		});
+
+		for (int i = 0; i < MAX_INDEX; i++) {
+			final VarIndexing other = createIndexing(vars, i);
+			final VarIndexing expected = shared.add(other).join(other).sub(shared);
+			for (final List<VarIndexing> result : results) {
+				for (final VarDecl<IntType> var : vars) {
+					assertEquals(expected.get(var), result.get(i).get(var));
+				}
+			}
+		}
+	}
+
+	////
+
+	private <T> List<T> runOnAllThreads(final Task<T> task) throws Exception {
+		final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+		final List<Future<T>> futures = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			final Random random = new Random(i);
+			final Callable<T> callable = () -> {
+				barrier.await();
+				return task.run(random);
+			};
+			futures.add(executor.submit(callable));
+		}
+
+		final List<T> results = new ArrayList<>();
+		for (final Future<T> future : futures) {
+			results.add(future.get());
+		}
+		return results;
+	}
+
+	private interface Task<T> {
+		T run(Random random) throws Exception;
+	}
+
+	private static List<VarDecl<IntType>> createVars() {
+		final List<VarDecl<IntType>> vars = new ArrayList<>();
+		for (int i = 0; i < VARS; i++) {
+			vars.add(Var("v" + i, Int()));
+		}
+		return vars;
+	}
+
+	private static Expr<BoolType> createExpr(final List<VarDecl<IntType>> vars) {
+		final List<Expr<BoolType>> ops = new ArrayList<>();
+		for (int i = 0; i < vars.size(); i++) {
+			final Expr<IntType> v1 = vars.get(i).getRef();
+			final Expr<IntType> v2 = vars.get((i + 1) % vars.size()).getRef();
+			ops.add(Eq(Prime(v1), Add(v2, Int(i))));
+			ops.add(Lt(v1, Prime(v2, 2)));
+		}
+		return And(ops);
+	}
+
+	private static VarIndexing createIndexing(final List<VarDecl<IntType>> vars, final int i) {
+		final VarIndexing.Builder builder = VarIndexing.builder(i);
+		for (int j = 0; j < vars.size(); j++) {
+			builder.inc(vars.get(j), j % 3);
+		}
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,231 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.core.utils;
+
+import static hu.bme.mit.theta.core.decl.Decls.Var;
+import static hu.bme.mit.theta.core.type.anytype.Exprs.Ite;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Xor;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Add;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Div;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Eq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Geq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Leq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mod;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Mul;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neg;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Neq;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Rem;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Sub;
+import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.BasicValuation;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+
+public class ExprCompilerTest {
+
+	private final VarDecl<BoolType> vx = Var("x", Bool());
+	private final VarDecl<BoolType> vy = Var("y", Bool());
+	private final VarDecl<IntType> va = Var("a", Int());
+	private final VarDecl<IntType> vb = Var("b", Int());
+	private final List<Decl<?>> decls = Arrays.asList(vx, vy, va, vb);
+
+	private final Expr<BoolType> x = vx.getRef();
+	private final Expr<BoolType> y = vy.getRef();
+	private final Expr<IntType> a = va.getRef();
+	private final Expr<IntType> b = vb.getRef();
+
+	private static final class ArraySlots implements CompiledExpr.Slots {
+		private final boolean[] present;
+		private final long[] values;
+
+		private ArraySlots(final int size) {
+			present = new boolean[size];
+			values = new long[size];
+		}
+
+		@Override
+		public boolean isPresent(final int slot) {
+			return present[slot];
+		}
+
+		@Override
+		public long getValue(final int slot) {
+			return values[slot];
+		}
+	}
+
+	private CompiledExpr compile(final Expr<?> expr) {
+		return ExprUtils.compile(expr, decls::indexOf).get();
+	}
+
+	@Test
+	public void testDetermined() {
+		final ArraySlots slots = new ArraySlots(decls.size());
+		slots.present[0] = true;
+		slots.values[0] = 1;
+		slots.present[2] = true;
+		slots.values[2] = -7;
+
+		assertEquals(1, compile(x).eval(slots));
+		assertEquals(-7, compile(a).eval(slots));
+		assertEquals(-6, compile(Add(a, Int(1))).eval(slots));
+		assertEquals(2, compile(Mod(a, Int(3))).eval(slots));
+		assertEquals(-2, compile(Div(a, Int(3))).eval(slots));
+		assertEquals(0, compile(And(x, Lt(Int(0), a))).eval(slots));
+		assertEquals(5, compile(Ite(x, Int(5), b)).eval(slots));
+	}
+
+	@Test
+	public void testUndetermined() {
+		final ArraySlots slots = new ArraySlots(decls.size());
+		slots.present[0] = true;
+		slots.values[0] = 0;
+
+		assertEquals(CompiledExpr.UNDETERMINED, compile(y).eval(slots));
+		assertEquals(CompiledExpr.UNDETERMINED, compile(Add(a, Int(1))).eval(slots));
+		assertEquals(CompiledExpr.UNDETERMINED, compile(Ite(y, Int(1), Int(2))).eval(slots));
+		assertEquals(CompiledExpr.UNDETERMINED, compile(Or(x, y)).eval(slots));
+		assertEquals(0, compile(And(y, x)).eval(slots));
+		assertEquals(1, compile(Imply(x, y)).eval(slots));
+		assertEquals(0, compile(Mul(a, Int(0))).eval(slots));
+		assertEquals(1, compile(Leq(a, a)).eval(slots));
+		assertEquals(CompiledExpr.UNDETERMINED, ExprUtils.compile(b, d -> -1).get().eval(slots));
+	}
+
+	@Test
+	public void testUnsupported() {
+		assertFalse(ExprUtils.compile(Rat(1, 2), decls::indexOf).isPresent());
+		assertFalse(ExprUtils.compile(Rem(a, b), decls::indexOf).isPresent());
+		assertTrue(ExprUtils.compile(Eq(a, b), decls::indexOf).isPresent());
+	}
+
+	/**
+	 * Checks on random expressions and valuations that a determined compiled
+	 * value always agrees with the simplifier.
+	 */
+	@Test
+	public void testAgainstSimplifier() {
+		final Random random = new Random(0);
+		int determined = 0;
+		for (int i = 0; i < 2000; i++) {
+			final Expr<BoolType> expr = randomBool(random, 4);
+			final CompiledExpr compiled = compile(expr);
+			for (int j = 0; j < 5; j++) {
+				final ArraySlots slots = new ArraySlots(decls.size());
+				final BasicValuation.Builder builder = BasicValuation.builder();
+				for (int k = 0; k < decls.size(); k++) {
+					if (random.nextInt(4) != 0) {
+						final boolean isBool = k < 2;
+						final int value = isBool ? random.nextInt(2) : random.nextInt(7) - 3;
+						slots.present[k] = true;
+						slots.values[k] = value;
+						builder.put(decls.get(k), isBool ? Bool(value != 0) : Int(value));
+					}
+				}
+				final long value = compiled.eval(slots);
+				final Expr<BoolType> simplified = ExprUtils.simplify(expr, builder.build());
+				if (value != CompiledExpr.UNDETERMINED) {
+					determined++;
+					assertEquals(expr.toString(), Bool(value != 0), simplified);
+				}
+				assertEquals(value, compiled.eval(slots));
+			}
+		}
+		assertTrue(determined > 0);
+	}
+
+	private Expr<BoolType> randomBool(final Random random, final int depth) {
+		final int choice = random.nextInt(depth == 0 ? 3 : 12);
+		switch (choice) {
+		case 0:
+			return random.nextBoolean() ? x : y;
+		case 1:
+			return random.nextBoolean() ? True() : False();
+		case 2:
+			return random.nextBoolean() ? x : Not(y);
+		case 3:
+			return Not(randomBool(random, depth - 1));
+		case 4:
+			return And(randomBool(random, depth - 1), randomBool(random, depth - 1));
+		case 5:
+			return Or(randomBool(random, depth - 1), randomBool(random, depth - 1));
+		case 6:
+			return Imply(randomBool(random, depth - 1), randomBool(random, depth - 1));
+		case 7:
+			return random.nextBoolean() ? Iff(randomBool(random, depth - 1), randomBool(random, depth - 1))
+					: Xor(randomBool(random, depth - 1), randomBool(random, depth - 1));
+		case 8:
+			return Eq(randomInt(random, depth - 1), randomInt(random, depth - 1));
+		case 9:
+			return random.nextBoolean() ? Lt(randomInt(random, depth - 1), randomInt(random, depth - 1))
+					: Geq(randomInt(random, depth - 1), randomInt(random, depth - 1));
+		case 10:
+			return random.nextBoolean() ? Neq(randomInt(random, depth - 1), randomInt(random, depth - 1))
+					: Gt(randomInt(random, depth - 1), randomInt(random, depth - 1));
+		default:
+			return Ite(randomBool(random, depth - 1), randomBool(random, depth - 1), randomBool(random, depth - 1));
+		}
+	}
+
+	private Expr<IntType> randomInt(final Random random, final int depth) {
+		final int choice = random.nextInt(depth <= 0 ? 2 : 9);
+		switch (choice) {
+		case 0:
+			return random.nextBoolean() ? a : b;
+		case 1:
+			return Int(random.nextInt(5) - 2);
+		case 2:
+			return Add(randomInt(random, depth - 1), randomInt(random, depth - 1));
+		case 3:
+			return Sub(randomInt(random, depth - 1), randomInt(random, depth - 1));
+		case 4:
+			return Mul(randomInt(random, depth - 1), randomInt(random, depth - 1));
+		case 5:
+			return Neg(randomInt(random, depth - 1));
+		case 6:
+			return Div(randomInt(random, depth - 1), Int(random.nextInt(3) + 1));
+		case 7:
+			return Mod(randomInt(random, depth - 1), Int(random.nextInt(3) - 3));
+		default:
+			return Ite(randomBool(random, depth - 1), randomInt(random, depth - 1), randomInt(random, depth - 1));
+		}
+	}
+
+}
@@ -29,6 +29,7 @@ import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceStatus;
 import hu.bme.mit.theta.analysis.expr.refinement.ItpRefutation;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.booltype.BoolExprs;
+import hu.bme.mit.theta.solver.ItpSolver;
 import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
 
 public final class CfaTraceConcretizer {
@@ -37,11 +38,14 @@ public final class CfaTraceConcretizer {
 	}
 
 	public static Trace<CfaState<ExplState>, CfaAction> concretize(final Trace<CfaState<?>, CfaAction> trace) {
-		final ExprTraceChecker<ItpRefutation> checker = ExprTraceFwBinItpChecker.create(BoolExprs.True(),
-				BoolExprs.True(), Z3SolverFactory.getInstace().createItpSolver());
-		final ExprTraceStatus<ItpRefutation> status = checker.check(trace);
-		checkArgument(status.isFeasible(), "Infeasible trace.");
-		final Trace<Valuation, ? extends Action> valuations = status.asFeasible().getValuations();
+		final Trace<Valuation, ? extends Action> valuations;
+		try (final ItpSolver solver = Z3SolverFactory.getInstace().createItpSolver()) {
+			final ExprTraceChecker<ItpRefutation> checker = ExprTraceFwBinItpChecker.create(BoolExprs.True(),
+					BoolExprs.True(), solver);
+			final ExprTraceStatus<ItpRefutation> status = checker.check(trace);
+			checkArgument(status.isFeasible(), "Infeasible trace.");
+			valuations = status.asFeasible().getValuations();
+		}
 
 		assert valuations.getStates().size() == trace.getStates().size();
 
@@ -19,13 +19,29 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
+import com.google.common.base.Joiner;
 
+import hu.bme.mit.theta.analysis.algorithm.Budget;
+import hu.bme.mit.theta.analysis.algorithm.ExplicitStateStatistics;
+import hu.bme.mit.theta.analysis.algorithm.PortfolioChecker;
+import hu.bme.mit.theta.analysis.algorithm.PortfolioResult;
+import hu.bme.mit.theta.analysis.algorithm.PortfolioResult.Progress;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarStatistics;
+import hu.bme.mit.theta.analysis.expr.PostCacheStatistics;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSessionStatistics;
 import hu.bme.mit.theta.analysis.utils.ArgVisualizer;
 import hu.bme.mit.theta.analysis.utils.TraceVisualizer;
 import hu.bme.mit.theta.common.logging.Logger;
@@ -40,9 +56,14 @@ import hu.bme.mit.theta.formalism.cfa.dsl.CfaDslManager;
 import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder.Domain;
 import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder.Encoding;
 import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder.PrecGranularity;
+import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder.PredAbstraction;
 import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder.PredSplit;
 import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder.Refinement;
 import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder.Search;
+import hu.bme.mit.theta.solver.SolverCallStatistics;
+import hu.bme.mit.theta.solver.SolverInstrumentation;
+import hu.bme.mit.theta.solver.SolverInstrumentation.Category;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
 
 /**
  * A command line interface for running a CEGAR configuration on a CFA.
@@ -52,7 +73,9 @@ public class CfaCli {
 	private final String[] args;
 	private final TableWriter writer;
 
-	@Parameter(names = { "--domain" }, description = "Abstract domain", required = true)
+	@Parameter(names = { "--domain" }, description = "Abstract domain (EXPL_NOARG reports an unknown result "
+			+ "instead of safe if a havocked variable without a value, see --maxenum, guards the error location)",
+			required = true)
 	Domain domain;
 
 	@Parameter(names = { "--refinement" }, description = "Refinement strategy", required = true)
@@ -64,6 +87,15 @@ public class CfaCli {
 	@Parameter(names = { "--predsplit" }, description = "Predicate splitting")
 	PredSplit predSplit = PredSplit.WHOLE;
 
+	@Parameter(names = { "--predabstraction" }, description = "Computation of abstract states for predicates")
+	PredAbstraction predAbstraction = PredAbstraction.ALLSAT;
+
+	@Parameter(names = { "--bdd" }, description = "Store predicate states as BDDs for coverage checks")
+	Boolean bddPredStates = false;
+
+	@Parameter(names = { "--incremental" }, description = "Reuse the common prefix of counterexamples in refinement")
+	Boolean incrementalTraceCheck = false;
+
 	@Parameter(names = { "--model" }, description = "Path of the input model", required = true)
 	String model;
 
@@ -76,6 +108,54 @@ public class CfaCli {
 	@Parameter(names = { "--loglevel" }, description = "Detailedness of logging")
 	Integer logLevel = 1;
 
+	@Parameter(names = { "--threads" }, description = "Number of threads used for building the ARG")
+	Integer threads = 1;
+
+	@Parameter(names = { "--maxcexs" }, description = "Number of counterexamples refined per iteration (0 for all)")
+	Integer maxCexs = 1;
+
+	@Parameter(names = { "--maxenum" }, description = "Maximal number of successors enumerated by the solver "
+			+ "for a transition that cannot be evaluated explicitly (EXPL_NOARG domain)")
+	Integer maxEnum = 10;
+
+	@Parameter(names = { "--storedir" }, description = "Directory for storing the visited states on disk "
+			+ "(EXPL_NOARG domain, by default they are stored in memory)")
+	String storeDirectory = null;
+
+	@Parameter(names = { "--storequota" }, description = "Memory used for the visited states stored on disk in MB, "
+			+ "including the mapped parts of the files (only with --storedir, at least 1)")
+	Long storeQuota = 1024L;
+
+	@Parameter(names = { "--postcache" }, description = "Size of the abstract post cache (0 to disable)")
+	Long postCacheSize = 0L;
+
+	@Parameter(names = { "--solvercache" }, description = "Size of the abstraction solver cache (0 to disable)")
+	Long solverCacheSize = 0L;
+
+	@Parameter(names = { "--timeout" }, description = "Time limit of the whole check in seconds (0 for no limit)")
+	Long timeout = 0L;
+
+	@Parameter(names = { "--memlimit" }, description = "Memory limit of the whole check in MB (0 for no limit)")
+	Long memoryLimit = 0L;
+
+	@Parameter(names = { "--querytimeout" }, description = "Time limit of a solver query in ms (0 for no limit)")
+	Long queryTimeout = 0L;
+
+	@Parameter(names = { "--rlimit" }, description = "Resource limit of a solver query (0 for no limit)")
+	Long resourceLimit = 0L;
+
+	@Parameter(names = { "--contextpool" }, description = "Number of idle Z3 contexts kept for reuse by the solvers "
+			+ "of the configurations (0 to close the contexts with their solvers)")
+	Integer contextPoolSize = 0;
+
+	@Parameter(names = { "--solverstats" }, description = "Record solver statistics for each category of callers")
+	Boolean solverStatistics = false;
+
+	@Parameter(names = { "--portfolio" }, description = "Additional configurations run in parallel with the main one, "
+			+ "in the form DOMAIN/REFINEMENT[/SEARCH[/ENCODING[/PRECGRANULARITY]]] (missing parts are taken from "
+			+ "the main configuration)")
+	List<String> portfolio = new ArrayList<>();
+
 	@Parameter(names = { "--benchmark" }, description = "Benchmark mode (only print metrics)")
 	Boolean benchmarkMode = false;
 
@@ -86,6 +166,7 @@ public class CfaCli {
 	boolean headerOnly = false;
 
 	private Logger logger;
+	private Z3SolverFactory solverFactory;
 
 	public CfaCli(final String[] args) {
 		this.args = args;
@@ -114,14 +195,17 @@ public class CfaCli {
 
 		try {
 			final CFA cfa = loadModel();
-			final Config<?, ?, ?> configuration = buildConfiguration(cfa);
-			final SafetyResult<?, ?> status = configuration.check();
-			printResult(status, cfa);
+			solverFactory = createSolverFactory();
+			final SafetyResult<?, ?> status = portfolio.isEmpty() ? runSingle(cfa) : runPortfolio(cfa);
 			if (dotfile != null) {
 				writeVisualStatus(status, dotfile);
 			}
 		} catch (final Throwable ex) {
 			printError(ex);
+		} finally {
+			if (solverFactory != null) {
+				solverFactory.clearContextPool();
+			}
 		}
 		if (benchmarkMode) {
 			writer.newRow();
@@ -130,10 +214,24 @@ public class CfaCli {
 
 	private void printHeader() {
 		final String[] header = new String[] { "Result", "TimeMs", "AbsTimeMs", "RefTimeMs", "Iterations", "ArgSize",
-				"ArgDepth", "ArgMeanBranchFactor", "CexLen", "Vars", "Locs", "Edges" };
+				"ArgDepth", "ArgMeanBranchFactor", "CexLen", "Vars", "Locs", "Edges", "States", "StatesPerSecond",
+				"BytesPerState", "PageIns", "SpilledBytes", "PostCacheHits",
+				"PostCacheMisses", "PostCacheEvictions", "AbsSolverCalls", "TraceReusedAssertions",
+				"TraceSentAssertions" };
 		for (final String str : header) {
 			writer.cell(str);
 		}
+		for (final Category category : Category.values()) {
+			writer.cell(category.label + "Checks");
+			writer.cell(category.label + "CheckTimeMs");
+			writer.cell(category.label + "CheckHistogram");
+		}
+		writer.cell("SolverAssertions");
+		writer.cell("SolverAssertionNodes");
+		writer.cell("ModelTimeMs");
+		writer.cell("UnsatCoreTimeMs");
+		writer.cell("Winner");
+		writer.cell("Portfolio");
 		writer.newRow();
 	}
 
@@ -143,21 +241,110 @@ public class CfaCli {
 		return cfa;
 	}
 
-	private Config<?, ?, ?> buildConfiguration(final CFA cfa) {
-		return new CfaConfigBuilder(domain, refinement).precGranularity(precGranularity).search(search)
-				.predSplit(predSplit).encoding(encoding).logger(logger).build(cfa);
+	private SafetyResult<?, ?> runSingle(final CFA cfa) {
+		try (final Config<?, ?, ?> configuration = buildConfiguration(cfa, domain, refinement, search, encoding,
+				precGranularity, logger)) {
+			final SafetyResult<?, ?> status = configuration.check();
+			printResult(status, cfa, configuration);
+			printPortfolio(Optional.empty());
+			return status;
+		}
 	}
 
-	private void printResult(final SafetyResult<?, ?> status, final CFA cfa) {
-		final CegarStatistics stats = (CegarStatistics) status.getStats().get();
+	/**
+	 * Runs the main configuration and the additional configurations of the
+	 * portfolio in parallel, each with its own solvers, and reports the result
+	 * of the first definitive one.
+	 */
+	private SafetyResult<?, ?> runPortfolio(final CFA cfa) {
+		final Map<String, Config<?, ?, ?>> configurations = new LinkedHashMap<>();
+		configurations.put(getName(domain, refinement, search, encoding, precGranularity),
+				buildConfiguration(cfa, domain, refinement, search, encoding, precGranularity,
+						NullLogger.getInstance()));
+		for (final String spec : portfolio) {
+			final String[] parts = spec.split("/");
+			if (parts.length < 2 || parts.length > 5) {
+				throw new IllegalArgumentException("Invalid portfolio configuration: " + spec);
+			}
+			final Domain specDomain = Domain.valueOf(parts[0]);
+			final Refinement specRefinement = Refinement.valueOf(parts[1]);
+			final Search specSearch = parts.length > 2 ? Search.valueOf(parts[2]) : search;
+			final Encoding specEncoding = parts.length > 3 ? Encoding.valueOf(parts[3]) : encoding;
+			final PrecGranularity specPrecGranularity = parts.length > 4 ? PrecGranularity.valueOf(parts[4])
+					: precGranularity;
+			final String name = getName(specDomain, specRefinement, specSearch, specEncoding, specPrecGranularity);
+			if (configurations.containsKey(name)) {
+				throw new IllegalArgumentException("Duplicate portfolio configuration: " + name);
+			}
+			configurations.put(name, buildConfiguration(cfa, specDomain, specRefinement, specSearch, specEncoding,
+					specPrecGranularity, NullLogger.getInstance()));
+		}
+
+		final PortfolioChecker.Builder builder = PortfolioChecker.builder().logger(logger);
+		// Each configuration is closed by the portfolio when its check ends
+		configurations.forEach((name, configuration) -> builder.add(name, configuration::check, configuration));
+		final PortfolioResult result = builder.build().check();
+
+		final Progress reported = result.getReported()
+				.orElseThrow(() -> new IllegalStateException("None of the configurations finished"));
+		final SafetyResult<?, ?> status = reported.getResult().get();
+		printResult(status, cfa, configurations.get(reported.getName()));
+		printPortfolio(Optional.of(result));
+		return status;
+	}
+
+	private static String getName(final Domain domain, final Refinement refinement, final Search search,
+			final Encoding encoding, final PrecGranularity precGranularity) {
+		return Joiner.on('/').join(domain, refinement, search, encoding, precGranularity);
+	}
+
+	private Config<?, ?, ?> buildConfiguration(final CFA cfa, final Domain domain, final Refinement refinement,
+			final Search search, final Encoding encoding, final PrecGranularity precGranularity,
+			final Logger logger) {
+		final CfaConfigBuilder builder = new CfaConfigBuilder(domain, refinement).precGranularity(precGranularity)
+				.search(search).predSplit(predSplit).predAbstraction(predAbstraction).bddPredStates(bddPredStates)
+				.incrementalTraceCheck(incrementalTraceCheck).solverStatistics(solverStatistics).encoding(encoding)
+				.threads(threads).maxCexs(maxCexs).maxEnum(maxEnum).postCacheSize(postCacheSize).solverCacheSize(solverCacheSize)
+				.solverFactory(solverFactory)
+				.budget(Budget.create(TimeUnit.SECONDS.toMillis(timeout), memoryLimit * 1024 * 1024)).logger(logger);
+		if (storeDirectory != null) {
+			builder.store(Paths.get(storeDirectory), storeQuota * 1024 * 1024);
+		}
+		return builder.build(cfa);
+	}
+
+	/**
+	 * Creates the solver factory shared by the configurations, so that they can
+	 * reuse the contexts of the closed solvers from its context pool.
+	 */
+	private Z3SolverFactory createSolverFactory() {
+		return Z3SolverFactory.builder().timeout(queryTimeout, TimeUnit.MILLISECONDS).resourceLimit(resourceLimit)
+				.contextPoolSize(contextPoolSize).build();
+	}
+
+	private void printResult(final SafetyResult<?, ?> status, final CFA cfa, final Config<?, ?, ?> configuration) {
+		final Statistics stats = status.getStats().get();
+		final Optional<PostCacheStatistics> postCacheStats = configuration.getPostCacheStatistics();
+		final Optional<Long> absSolverCalls = configuration.getAbstractionSolverCalls();
+		final Optional<ExprTraceSessionStatistics> traceStats = configuration.getTraceSessionStatistics();
 		if (benchmarkMode) {
-			writer.cell(status.isSafe());
-			writer.cell(stats.getTotalTimeMs());
-			writer.cell(stats.getAbstractorTimeMs());
-			writer.cell(stats.getRefinerTimeMs());
-			writer.cell(stats.getIterations());
+			writer.cell(status.isUnknown() ? status.asUnknown().getReason() : status.isSafe());
+			if (stats instanceof CegarStatistics) {
+				final CegarStatistics cegarStats = (CegarStatistics) stats;
+				writer.cell(cegarStats.getTotalTimeMs());
+				writer.cell(cegarStats.getAbstractorTimeMs());
+				writer.cell(cegarStats.getRefinerTimeMs());
+				writer.cell(cegarStats.getIterations());
+			} else {
+				// Checkers without abstraction and refinement
+				writer.cell(((ExplicitStateStatistics) stats).getTotalTimeMs());
+				writer.cell("");
+				writer.cell("");
+				writer.cell("");
+			}
 			writer.cell(status.getArg().size());
-			writer.cell(status.getArg().getDepth());
+			// The ARG is empty if the checker does not build one
+			writer.cell(status.getArg().size() > 0 ? status.getArg().getDepth() + "" : "");
 			writer.cell(status.getArg().getMeanBranchingFactor());
 			if (status.isUnsafe()) {
 				writer.cell(status.asUnsafe().getTrace().length() + "");
@@ -167,6 +354,100 @@ public class CfaCli {
 			writer.cell(cfa.getVars().size());
 			writer.cell(cfa.getLocs().size());
 			writer.cell(cfa.getEdges().size());
+			if (stats instanceof ExplicitStateStatistics) {
+				final ExplicitStateStatistics explicitStats = (ExplicitStateStatistics) stats;
+				writer.cell(explicitStats.getStates());
+				writer.cell(explicitStats.getStatesPerSecond());
+				writer.cell(explicitStats.getBytesPerState());
+				writer.cell(explicitStats.getPageIns());
+				writer.cell(explicitStats.getSpilledBytes());
+			} else {
+				writer.cell("");
+				writer.cell("");
+				writer.cell("");
+				writer.cell("");
+				writer.cell("");
+			}
+		}
+		if (postCacheStats.isPresent()) {
+			if (benchmarkMode) {
+				writer.cell(postCacheStats.get().getHits());
+				writer.cell(postCacheStats.get().getMisses());
+				writer.cell(postCacheStats.get().getEvictions());
+			} else {
+				logger.writeln(postCacheStats.get(), 1);
+			}
+		} else if (benchmarkMode) {
+			writer.cell("");
+			writer.cell("");
+			writer.cell("");
+		}
+		if (absSolverCalls.isPresent()) {
+			if (benchmarkMode) {
+				writer.cell(absSolverCalls.get());
+			} else {
+				logger.writeln("Abstraction solver calls: " + absSolverCalls.get(), 1);
+			}
+		} else if (benchmarkMode) {
+			writer.cell("");
+		}
+		if (traceStats.isPresent()) {
+			if (benchmarkMode) {
+				writer.cell(traceStats.get().getReusedAssertions());
+				writer.cell(traceStats.get().getSentAssertions());
+			} else {
+				logger.writeln(traceStats.get(), 1);
+			}
+		} else if (benchmarkMode) {
+			writer.cell("");
+			writer.cell("");
+		}
+		printSolverStatistics(configuration.getSolverInstrumentation());
+	}
+
+	private void printSolverStatistics(final Optional<SolverInstrumentation> instrumentation) {
+		if (instrumentation.isPresent()) {
+			for (final Category category : Category.values()) {
+				final SolverCallStatistics stats = instrumentation.get().getStatistics(category);
+				if (benchmarkMode) {
+					writer.cell(stats.getChecks());
+					writer.cell(stats.getCheckTimeMs());
+					writer.cell(Joiner.on('/').join(stats.getCheckHistogram()));
+				} else {
+					logger.writeln(category.label + " " + stats, 1);
+				}
+			}
+			if (benchmarkMode) {
+				final SolverCallStatistics totalStats = instrumentation.get().getTotalStatistics();
+				writer.cell(totalStats.getAssertions());
+				writer.cell(totalStats.getAssertionNodes());
+				writer.cell(totalStats.getModelTimeMs());
+				writer.cell(totalStats.getUnsatCoreTimeMs());
+			}
+		} else if (benchmarkMode) {
+			for (int i = 0; i < Category.values().length * 3 + 4; i++) {
+				writer.cell("");
+			}
+		}
+	}
+
+	private void printPortfolio(final Optional<PortfolioResult> portfolioResult) {
+		if (portfolioResult.isPresent()) {
+			final PortfolioResult result = portfolioResult.get();
+			final String winner = result.getWinner().map(Progress::getName).orElse("");
+			if (benchmarkMode) {
+				writer.cell(winner);
+				writer.cell(Joiner.on(' ').join(result.getProgress().stream()
+						.map(p -> p.getName() + ":" + p.getStatus() + ":" + p.getTimeMs()).iterator()));
+			} else {
+				logger.writeln("Winner: " + (winner.isEmpty() ? "none" : winner), 1);
+				for (final Progress progress : result.getProgress()) {
+					logger.writeln(progress, 1, 1);
+				}
+			}
+		} else if (benchmarkMode) {
+			writer.cell("");
+			writer.cell("");
 		}
 	}
 
@@ -182,8 +463,8 @@ public class CfaCli {
 
 	private void writeVisualStatus(final SafetyResult<?, ?> status, final String filename)
 			throws FileNotFoundException {
-		final Graph graph = status.isSafe() ? ArgVisualizer.getDefault().visualize(status.asSafe().getArg())
-				: TraceVisualizer.getDefault().visualize(status.asUnsafe().getTrace());
+		final Graph graph = status.isUnsafe() ? TraceVisualizer.getDefault().visualize(status.asUnsafe().getTrace())
+				: ArgVisualizer.getDefault().visualize(status.getArg());
 		GraphvizWriter.getInstance().writeFile(graph, filename);
 	}
 }
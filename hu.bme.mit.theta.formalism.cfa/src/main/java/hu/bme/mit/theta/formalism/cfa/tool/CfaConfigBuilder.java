@@ -17,30 +17,50 @@ package hu.bme.mit.theta.formalism.cfa.tool;
 
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
 
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.Analysis;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators.ArgNodeComparator;
+import hu.bme.mit.theta.analysis.algorithm.Budget;
+import hu.bme.mit.theta.analysis.algorithm.ExplicitStateChecker;
+import hu.bme.mit.theta.analysis.algorithm.FingerprintSet;
+import hu.bme.mit.theta.analysis.algorithm.MappedFingerprintStore;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Abstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.BasicAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
+import hu.bme.mit.theta.analysis.algorithm.cegar.ParallelAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
 import hu.bme.mit.theta.analysis.expl.ExplAnalysis;
 import hu.bme.mit.theta.analysis.expl.ExplPrec;
 import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expl.ExplStmtAnalysis;
+import hu.bme.mit.theta.analysis.expl.ExplSubsumptionIndex;
 import hu.bme.mit.theta.analysis.expl.ItpRefToExplPrec;
 import hu.bme.mit.theta.analysis.expl.VarsRefToExplPrec;
+import hu.bme.mit.theta.analysis.expr.ExprAction;
 import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.expr.PostCache;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceBwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceFwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSeqItpChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSession;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUnsatCoreChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ItpRefutation;
+import hu.bme.mit.theta.analysis.expr.refinement.MultiExprTraceRefiner;
 import hu.bme.mit.theta.analysis.expr.refinement.PrecRefiner;
 import hu.bme.mit.theta.analysis.expr.refinement.Refutation;
 import hu.bme.mit.theta.analysis.expr.refinement.RefutationToPrec;
@@ -48,12 +68,19 @@ import hu.bme.mit.theta.analysis.expr.refinement.SingleExprTraceRefiner;
 import hu.bme.mit.theta.analysis.pred.ExprSplitters;
 import hu.bme.mit.theta.analysis.pred.ExprSplitters.ExprSplitter;
 import hu.bme.mit.theta.analysis.pred.ItpRefToSimplePredPrec;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
 import hu.bme.mit.theta.analysis.pred.PredAnalysis;
+import hu.bme.mit.theta.analysis.pred.PredBddEncoder;
 import hu.bme.mit.theta.analysis.pred.PredState;
+import hu.bme.mit.theta.analysis.pred.PredSubsumptionIndex;
 import hu.bme.mit.theta.analysis.pred.SimplePredPrec;
+import hu.bme.mit.theta.analysis.reachedset.SubsumptionIndex;
 import hu.bme.mit.theta.analysis.waitlist.PriorityWaitlist;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.impl.NullLogger;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
 import hu.bme.mit.theta.formalism.cfa.CFA;
 import hu.bme.mit.theta.formalism.cfa.analysis.CfaAction;
 import hu.bme.mit.theta.formalism.cfa.analysis.CfaAnalysis;
@@ -68,13 +95,27 @@ import hu.bme.mit.theta.formalism.cfa.analysis.prec.GlobalCfaPrec;
 import hu.bme.mit.theta.formalism.cfa.analysis.prec.GlobalCfaPrecRefiner;
 import hu.bme.mit.theta.formalism.cfa.analysis.prec.LocalCfaPrec;
 import hu.bme.mit.theta.formalism.cfa.analysis.prec.LocalCfaPrecRefiner;
+import hu.bme.mit.theta.solver.CachingSolverFactory;
 import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.SolverInstrumentation;
+import hu.bme.mit.theta.solver.SolverInstrumentation.Category;
 import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
 
 public class CfaConfigBuilder {
 	public enum Domain {
-		EXPL, PRED
+		EXPL, PRED,
+
+		/**
+		 * Explicit-state model checking tracking all variables, without
+		 * building an ARG and without refinement. The refinement strategy is
+		 * only used for checking the feasibility of counterexamples. The result
+		 * is unknown (imprecise) instead of safe if a variable left without a
+		 * value by a havoc (see {@link CfaConfigBuilder#maxEnum(int)}) guards
+		 * the path to the error location, even if the model is safe.
+		 */
+		EXPL_NOARG
 	};
 
 	public enum Refinement {
@@ -121,6 +162,20 @@ public class CfaConfigBuilder {
 		}
 	};
 
+	public enum PredAbstraction {
+		ALLSAT(PredAbstractors::allSat),
+
+		BOOLEAN(PredAbstractors::booleanAllSat),
+
+		CARTESIAN(PredAbstractors::cartesian);
+
+		public final Function<Solver, PredAbstractor> factory;
+
+		private PredAbstraction(final Function<Solver, PredAbstractor> factory) {
+			this.factory = factory;
+		}
+	};
+
 	public enum PrecGranularity {
 		GLOBAL {
 			@Override
@@ -178,8 +233,20 @@ public class CfaConfigBuilder {
 	private final Refinement refinement;
 	private Search search = Search.BFS;
 	private PredSplit predSplit = PredSplit.WHOLE;
+	private PredAbstraction predAbstraction = PredAbstraction.ALLSAT;
 	private PrecGranularity precGranularity = PrecGranularity.GLOBAL;
 	private Encoding encoding = Encoding.LBE;
+	private int threads = 1;
+	private int maxCexs = 1;
+	private int maxEnum = 10;
+	private Optional<Path> storeDirectory = Optional.empty();
+	private long storeQuota = 1L << 30;
+	private long postCacheSize = 0;
+	private long solverCacheSize = 0;
+	private Budget budget = Budget.unlimited();
+	private boolean bddPredStates = false;
+	private boolean incrementalTraceCheck = false;
+	private boolean solverStatistics = false;
 
 	public CfaConfigBuilder(final Domain domain, final Refinement refinement) {
 		this.domain = domain;
@@ -206,6 +273,11 @@ public class CfaConfigBuilder {
 		return this;
 	}
 
+	public CfaConfigBuilder predAbstraction(final PredAbstraction predAbstraction) {
+		this.predAbstraction = predAbstraction;
+		return this;
+	}
+
 	public CfaConfigBuilder precGranularity(final PrecGranularity precGranularity) {
 		this.precGranularity = precGranularity;
 		return this;
@@ -216,37 +288,144 @@ public class CfaConfigBuilder {
 		return this;
 	}
 
+	public CfaConfigBuilder threads(final int threads) {
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * Sets the number of counterexamples refined in each iteration, where 0
+	 * means all counterexamples of the ARG.
+	 */
+	public CfaConfigBuilder maxCexs(final int maxCexs) {
+		this.maxCexs = maxCexs;
+		return this;
+	}
+
+	/**
+	 * Sets the maximal number of successor states enumerated with the solver
+	 * if a transition cannot be evaluated explicitly, which is only used by the
+	 * {@link Domain#EXPL_NOARG} domain. If there are more successors (or the
+	 * limit is 0), the values of the affected variables are left unknown.
+	 */
+	public CfaConfigBuilder maxEnum(final int maxEnum) {
+		this.maxEnum = maxEnum;
+		return this;
+	}
+
+	/**
+	 * Sets the directory where the {@link Domain#EXPL_NOARG} domain stores the
+	 * visited states in memory-mapped files, using at most the given number of
+	 * bytes of memory (for the mapped segments, and the filter and buffer on
+	 * the heap). By default, the visited states are stored on the heap.
+	 */
+	public CfaConfigBuilder store(final Path storeDirectory, final long storeQuota) {
+		this.storeDirectory = Optional.of(storeDirectory);
+		this.storeQuota = storeQuota;
+		return this;
+	}
+
+	/**
+	 * Sets the maximal number of abstract post results kept between
+	 * iterations, where 0 disables the cache.
+	 */
+	public CfaConfigBuilder postCacheSize(final long postCacheSize) {
+		this.postCacheSize = postCacheSize;
+		return this;
+	}
+
+	/**
+	 * Sets the maximal number of check results cached for the abstraction
+	 * solvers, where 0 disables the cache.
+	 */
+	public CfaConfigBuilder solverCacheSize(final long solverCacheSize) {
+		this.solverCacheSize = solverCacheSize;
+		return this;
+	}
+
+	/**
+	 * Sets the time and memory limits of the check, which are checked between
+	 * the iterations of the CEGAR loop.
+	 */
+	public CfaConfigBuilder budget(final Budget budget) {
+		this.budget = budget;
+		return this;
+	}
+
+	/**
+	 * Sets whether predicate states should also be stored as BDDs, in which
+	 * case coverage checks are performed on the BDDs instead of the solver.
+	 */
+	public CfaConfigBuilder bddPredStates(final boolean bddPredStates) {
+		this.bddPredStates = bddPredStates;
+		return this;
+	}
+
+	/**
+	 * Sets whether counterexamples should be checked incrementally, keeping the
+	 * prefix shared with the previous counterexample on the solver stack. This
+	 * has no effect on backward binary interpolation.
+	 */
+	public CfaConfigBuilder incrementalTraceCheck(final boolean incrementalTraceCheck) {
+		this.incrementalTraceCheck = incrementalTraceCheck;
+		return this;
+	}
+
+	/**
+	 * Sets whether the usage of the solvers should be recorded for each
+	 * category of callers, which can then be queried from the configuration.
+	 */
+	public CfaConfigBuilder solverStatistics(final boolean solverStatistics) {
+		this.solverStatistics = solverStatistics;
+		return this;
+	}
+
 	public Config<? extends State, ? extends Action, ? extends Prec> build(final CFA cfa) {
-		final ItpSolver solver = solverFactory.createItpSolver();
+		// Only the trace checkers need interpolation, abstraction is done on a
+		// lightweight solver without proof generation
+		final Optional<SolverInstrumentation> instrumentation = createInstrumentation();
+		final SolverFactory abstractionFactory = createAbstractionSolverFactory();
+		final Collection<Solver> solvers = new CopyOnWriteArrayList<>();
+		final Solver abstractionSolver = register(solvers, abstractionFactory.createSolver());
+		final ItpSolver refinementSolver = instrument(instrumentation,
+				register(solvers, solverFactory.createItpSolver()));
+		final ExprTraceSession<ItpSolver> traceSession = createTraceSession(True(), refinementSolver);
 		final CfaLts lts = encoding.getLts();
 
 		if (domain == Domain.EXPL) {
+			final Optional<PostCache<ExplState>> postCache = createPostCache();
 			final Analysis<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> analysis = CfaAnalysis
-					.create(cfa.getInitLoc(), ExplAnalysis.create(solver, True()));
+					.create(cfa.getInitLoc(), createExplAnalysis(
+							instrument(instrumentation, abstractionSolver, Category.ABSTRACTION), True(), postCache));
 			final ArgBuilder<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> argBuilder = ArgBuilder.create(lts,
 					analysis, s -> s.getLoc().equals(cfa.getErrorLoc()));
-			final Abstractor<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> abstractor = BasicAbstractor
-					.builder(argBuilder).projection(CfaState::getLoc)
-					.waitlistSupplier(PriorityWaitlist.supplier(search.getComp(cfa))).logger(logger).build();
+			final Abstractor<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> abstractor = createAbstractor(cfa,
+					argBuilder, () -> {
+						final Solver workerSolver = register(solvers, abstractionFactory.createSolver());
+						return ArgBuilder.create(encoding.getLts(),
+								CfaAnalysis.create(cfa.getInitLoc(), createExplAnalysis(
+										instrument(instrumentation, workerSolver, Category.ABSTRACTION), True(), postCache)),
+								s -> s.getLoc().equals(cfa.getErrorLoc()));
+					}, ExplSubsumptionIndex.supplier(n -> n.getState().getState()));
 
 			Refiner<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> refiner = null;
 
 			switch (refinement) {
 			case FW_BIN_ITP:
-				refiner = SingleExprTraceRefiner.create(ExprTraceFwBinItpChecker.create(True(), True(), solver),
-						precGranularity.createRefiner(new ItpRefToExplPrec()), logger);
+				refiner = createRefiner(ExprTraceFwBinItpChecker.create(True(), traceSession),
+						precGranularity.createRefiner(new ItpRefToExplPrec()));
 				break;
 			case BW_BIN_ITP:
-				refiner = SingleExprTraceRefiner.create(ExprTraceBwBinItpChecker.create(True(), True(), solver),
-						precGranularity.createRefiner(new ItpRefToExplPrec()), logger);
+				refiner = createRefiner(ExprTraceBwBinItpChecker.create(True(), True(), refinementSolver),
+						precGranularity.createRefiner(new ItpRefToExplPrec()));
 				break;
 			case SEQ_ITP:
-				refiner = SingleExprTraceRefiner.create(ExprTraceSeqItpChecker.create(True(), True(), solver),
-						precGranularity.createRefiner(new ItpRefToExplPrec()), logger);
+				refiner = createRefiner(ExprTraceSeqItpChecker.create(True(), traceSession),
+						precGranularity.createRefiner(new ItpRefToExplPrec()));
 				break;
 			case UNSAT_CORE:
-				refiner = SingleExprTraceRefiner.create(ExprTraceUnsatCoreChecker.create(True(), True(), solver),
-						precGranularity.createRefiner(new VarsRefToExplPrec()), logger);
+				refiner = createRefiner(ExprTraceUnsatCoreChecker.create(True(), traceSession),
+						precGranularity.createRefiner(new VarsRefToExplPrec()));
 				break;
 			default:
 				throw new UnsupportedOperationException(
@@ -254,49 +433,243 @@ public class CfaConfigBuilder {
 			}
 
 			final SafetyChecker<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> checker = CegarChecker
-					.create(abstractor, refiner, logger);
+					.create(abstractor, refiner, logger, budget);
 
 			final CfaPrec<ExplPrec> prec = precGranularity.createPrec(ExplPrec.create());
 
-			return Config.create(checker, prec);
+			return Config.create(checker, prec, postCache, Collections.emptyList(),
+					getIncrementalSession(traceSession), instrumentation, solvers);
 
 		} else if (domain == Domain.PRED) {
-			final Analysis<CfaState<PredState>, CfaAction, CfaPrec<SimplePredPrec>> analysis = CfaAnalysis
-					.create(cfa.getInitLoc(), PredAnalysis.create(solver, True()));
+			final Optional<PostCache<PredState>> postCache = createPostCache();
+			final Collection<PredAbstractor> predAbstractors = new CopyOnWriteArrayList<>();
+			final Analysis<CfaState<PredState>, CfaAction, CfaPrec<SimplePredPrec>> analysis = CfaAnalysis.create(
+					cfa.getInitLoc(),
+					createPredAnalysis(abstractionSolver, True(), postCache, predAbstractors, instrumentation));
 			final ArgBuilder<CfaState<PredState>, CfaAction, CfaPrec<SimplePredPrec>> argBuilder = ArgBuilder
 					.create(lts, analysis, s -> s.getLoc().equals(cfa.getErrorLoc()));
-			final Abstractor<CfaState<PredState>, CfaAction, CfaPrec<SimplePredPrec>> abstractor = BasicAbstractor
-					.builder(argBuilder).projection(CfaState::getLoc)
-					.waitlistSupplier(PriorityWaitlist.supplier(search.getComp(cfa))).logger(logger).build();
+			final Abstractor<CfaState<PredState>, CfaAction, CfaPrec<SimplePredPrec>> abstractor = createAbstractor(
+					cfa, argBuilder, () -> {
+						final Solver workerSolver = register(solvers, abstractionFactory.createSolver());
+						return ArgBuilder.create(encoding.getLts(),
+								CfaAnalysis.create(cfa.getInitLoc(),
+										createPredAnalysis(workerSolver, True(), postCache, predAbstractors,
+												instrumentation)),
+								s -> s.getLoc().equals(cfa.getErrorLoc()));
+					}, PredSubsumptionIndex.supplier(n -> n.getState().getState()));
+			// Precisions are used by the worker threads, so they get their own
+			// solver. Its checks simplify the predicates of the abstraction.
+			final Solver precSolver = instrument(instrumentation,
+					threads > 1 ? register(solvers, abstractionFactory.createSolver()) : abstractionSolver,
+					Category.ABSTRACTION);
+			final Optional<PredBddEncoder> bddEncoder = bddPredStates ? Optional.of(PredBddEncoder.create())
+					: Optional.empty();
 
 			ExprTraceChecker<ItpRefutation> exprTraceChecker = null;
 			switch (refinement) {
 			case FW_BIN_ITP:
-				exprTraceChecker = ExprTraceFwBinItpChecker.create(True(), True(), solver);
+				exprTraceChecker = ExprTraceFwBinItpChecker.create(True(), traceSession);
 				break;
 			case BW_BIN_ITP:
-				exprTraceChecker = ExprTraceBwBinItpChecker.create(True(), True(), solver);
+				exprTraceChecker = ExprTraceBwBinItpChecker.create(True(), True(), refinementSolver);
 				break;
 			case SEQ_ITP:
-				exprTraceChecker = ExprTraceSeqItpChecker.create(True(), True(), solver);
+				exprTraceChecker = ExprTraceSeqItpChecker.create(True(), traceSession);
 				break;
 			default:
 				throw new UnsupportedOperationException(
 						domain + " domain does not support " + refinement + " refinement.");
 			}
-			final ItpRefToSimplePredPrec refToPrec = new ItpRefToSimplePredPrec(solver, predSplit.splitter);
-			final Refiner<CfaState<PredState>, CfaAction, CfaPrec<SimplePredPrec>> refiner = SingleExprTraceRefiner
-					.create(exprTraceChecker, precGranularity.createRefiner(refToPrec), logger);
+			final ItpRefToSimplePredPrec refToPrec = createItpRefToPrec(precSolver, bddEncoder);
+			final Refiner<CfaState<PredState>, CfaAction, CfaPrec<SimplePredPrec>> refiner = createRefiner(
+					exprTraceChecker, precGranularity.createRefiner(refToPrec));
 
 			final SafetyChecker<CfaState<PredState>, CfaAction, CfaPrec<SimplePredPrec>> checker = CegarChecker
-					.create(abstractor, refiner, logger);
+					.create(abstractor, refiner, logger, budget);
+
+			final SimplePredPrec simplePrec = bddEncoder.isPresent()
+					? SimplePredPrec.create(Collections.emptySet(), precSolver, bddEncoder.get())
+					: SimplePredPrec.create(precSolver);
+			final CfaPrec<SimplePredPrec> prec = precGranularity.createPrec(simplePrec);
+
+			return Config.create(checker, prec, postCache, predAbstractors, getIncrementalSession(traceSession),
+					instrumentation, solvers);
+
+		} else if (domain == Domain.EXPL_NOARG) {
+			final Analysis<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> analysis = CfaAnalysis.create(
+					cfa.getInitLoc(), ExplStmtAnalysis.create(
+							instrument(instrumentation, abstractionSolver, Category.ABSTRACTION), True(), maxEnum));
+			final ExprTraceChecker<?> cexChecker = createCexChecker(traceSession, refinementSolver);
+			final ExplicitStateChecker.Builder<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> builder;
+			builder = ExplicitStateChecker.builder(lts, analysis, s -> s.getLoc().equals(cfa.getErrorLoc()),
+					s -> FingerprintSet.mix(s.getLoc().hashCode()) + s.getState().fingerprint());
+			builder.feasibility(t -> cexChecker.check(t).isFeasible()).budget(budget).logger(logger);
+			if (storeDirectory.isPresent()) {
+				final Path directory = storeDirectory.get();
+				final long quota = storeQuota;
+				builder.store(() -> MappedFingerprintStore.builder(directory).quota(quota).build());
+			}
+
+			switch (search) {
+			case BFS:
+				builder.breadthFirst();
+				break;
+			case DFS:
+				builder.depthFirst();
+				break;
+			default:
+				throw new UnsupportedOperationException(domain + " domain does not support " + search + " search.");
+			}
 
-			final CfaPrec<SimplePredPrec> prec = precGranularity.createPrec(SimplePredPrec.create(solver));
+			final CfaPrec<ExplPrec> prec = precGranularity.createPrec(ExplPrec.create(cfa.getVars()));
 
-			return Config.create(checker, prec);
+			return Config.create(builder.build(), prec, Optional.empty(), Collections.emptyList(),
+					getIncrementalSession(traceSession), instrumentation, solvers);
 
 		} else {
 			throw new UnsupportedOperationException(domain + " domain is not supported.");
 		}
 	}
+
+	private <S extends CfaState<?>, P extends Prec> Abstractor<S, CfaAction, P> createAbstractor(final CFA cfa,
+			final ArgBuilder<S, CfaAction, P> argBuilder,
+			final Supplier<ArgBuilder<S, CfaAction, P>> workerArgBuilderFactory,
+			final Supplier<? extends SubsumptionIndex<? super ArgNode<S, CfaAction>>> subsumptionIndexSupplier) {
+		if (threads > 1) {
+			return ParallelAbstractor.builder(argBuilder, workerArgBuilderFactory).threads(threads)
+					.projection(CfaState::getLoc).subsumptionIndex(subsumptionIndexSupplier)
+					.waitlistSupplier(PriorityWaitlist.supplier(search.getComp(cfa))).logger(logger).build();
+		} else {
+			return BasicAbstractor.builder(argBuilder).projection(CfaState::getLoc)
+					.subsumptionIndex(subsumptionIndexSupplier)
+					.waitlistSupplier(PriorityWaitlist.supplier(search.getComp(cfa))).logger(logger).build();
+		}
+	}
+
+	/**
+	 * Creates the session used by the trace checkers. Incremental sessions keep
+	 * their assertions between refinements, which is possible because the
+	 * interpolating solver is only used by the trace checkers.
+	 */
+	private ExprTraceSession<ItpSolver> createTraceSession(final Expr<BoolType> init, final ItpSolver solver) {
+		if (incrementalTraceCheck && refinement != Refinement.BW_BIN_ITP) {
+			return ExprTraceSession.createIncremental(init, solver);
+		} else {
+			return ExprTraceSession.create(init, solver);
+		}
+	}
+
+	/**
+	 * Creates the trace checker of the refinement strategy for checking the
+	 * feasibility of counterexamples, without using its refutations.
+	 */
+	private ExprTraceChecker<?> createCexChecker(final ExprTraceSession<ItpSolver> traceSession,
+			final ItpSolver refinementSolver) {
+		switch (refinement) {
+		case FW_BIN_ITP:
+			return ExprTraceFwBinItpChecker.create(True(), traceSession);
+		case BW_BIN_ITP:
+			return ExprTraceBwBinItpChecker.create(True(), True(), refinementSolver);
+		case SEQ_ITP:
+			return ExprTraceSeqItpChecker.create(True(), traceSession);
+		case UNSAT_CORE:
+			return ExprTraceUnsatCoreChecker.create(True(), traceSession);
+		default:
+			throw new UnsupportedOperationException(
+					domain + " domain does not support " + refinement + " refinement.");
+		}
+	}
+
+	private static Optional<ExprTraceSession<?>> getIncrementalSession(final ExprTraceSession<?> traceSession) {
+		return traceSession.isIncremental() ? Optional.of(traceSession) : Optional.empty();
+	}
+
+	private ItpRefToSimplePredPrec createItpRefToPrec(final Solver precSolver,
+			final Optional<PredBddEncoder> bddEncoder) {
+		if (bddEncoder.isPresent()) {
+			return new ItpRefToSimplePredPrec(precSolver, predSplit.splitter, bddEncoder.get());
+		} else {
+			return new ItpRefToSimplePredPrec(precSolver, predSplit.splitter);
+		}
+	}
+
+	private SolverFactory createAbstractionSolverFactory() {
+		if (solverCacheSize > 0) {
+			return CachingSolverFactory.create(solverFactory, solverCacheSize);
+		} else {
+			return solverFactory;
+		}
+	}
+
+	/**
+	 * Registers a solver to be closed with the configuration.
+	 */
+	private static <T extends Solver> T register(final Collection<Solver> solvers, final T solver) {
+		solvers.add(solver);
+		return solver;
+	}
+
+	private Optional<SolverInstrumentation> createInstrumentation() {
+		if (solverStatistics) {
+			return Optional.of(SolverInstrumentation.create());
+		} else {
+			return Optional.empty();
+		}
+	}
+
+	private static Solver instrument(final Optional<SolverInstrumentation> instrumentation, final Solver solver,
+			final Category category) {
+		return instrumentation.map(i -> i.instrument(solver, category)).orElse(solver);
+	}
+
+	private static ItpSolver instrument(final Optional<SolverInstrumentation> instrumentation,
+			final ItpSolver solver) {
+		return instrumentation.map(i -> i.instrument(solver)).orElse(solver);
+	}
+
+	private <S extends ExprState> Optional<PostCache<S>> createPostCache() {
+		if (postCacheSize > 0) {
+			return Optional.of(PostCache.create(postCacheSize));
+		} else {
+			return Optional.empty();
+		}
+	}
+
+	private static ExplAnalysis createExplAnalysis(final Solver solver, final Expr<BoolType> initExpr,
+			final Optional<PostCache<ExplState>> postCache) {
+		if (postCache.isPresent()) {
+			return ExplAnalysis.create(solver, initExpr, postCache.get());
+		} else {
+			return ExplAnalysis.create(solver, initExpr);
+		}
+	}
+
+	/**
+	 * Creates a predicate analysis, where the abstractor and the domain
+	 * (coverage checks) share the given solver.
+	 */
+	private PredAnalysis createPredAnalysis(final Solver solver, final Expr<BoolType> initExpr,
+			final Optional<PostCache<PredState>> postCache, final Collection<PredAbstractor> predAbstractors,
+			final Optional<SolverInstrumentation> instrumentation) {
+		final Solver domainSolver = instrument(instrumentation, solver, Category.COVERAGE);
+		final PredAbstractor predAbstractor = predAbstraction.factory
+				.apply(instrument(instrumentation, solver, Category.ABSTRACTION));
+		predAbstractors.add(predAbstractor);
+		if (postCache.isPresent()) {
+			return PredAnalysis.create(domainSolver, initExpr, predAbstractor, postCache.get());
+		} else {
+			return PredAnalysis.create(domainSolver, initExpr, predAbstractor);
+		}
+	}
+
+	private <S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation> Refiner<S, A, P> createRefiner(
+			final ExprTraceChecker<R> exprTraceChecker, final PrecRefiner<S, A, P, R> precRefiner) {
+		if (maxCexs == 1) {
+			return SingleExprTraceRefiner.create(exprTraceChecker, precRefiner, logger);
+		} else if (maxCexs == 0) {
+			return MultiExprTraceRefiner.create(exprTraceChecker, precRefiner, logger);
+		} else {
+			return MultiExprTraceRefiner.create(exprTraceChecker, precRefiner, maxCexs, logger);
+		}
+	}
 }
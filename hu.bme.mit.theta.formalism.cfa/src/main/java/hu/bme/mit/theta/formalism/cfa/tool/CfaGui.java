@@ -168,11 +168,12 @@ public class CfaGui extends BaseGui {
 		protected Void call() throws Exception {
 			try {
 				final CFA cfa = CfaDslManager.createCfa(taModel.getText());
-				final Config<?, ?, ?> config = new CfaConfigBuilder(cbDomain.getValue(), cbRefinement.getValue())
-						.search(cbSearch.getValue()).predSplit(cbPredSplit.getValue())
-						.precGranularity(cbPrecGranularity.getValue()).encoding(cbEncoding.getValue())
-						.logger(new TextAreaLogger(spLogLevel.getValue(), taOutput)).build(cfa);
-				safetyResult = config.check();
+				try (final Config<?, ?, ?> config = new CfaConfigBuilder(cbDomain.getValue(),
+						cbRefinement.getValue()).search(cbSearch.getValue()).predSplit(cbPredSplit.getValue())
+								.precGranularity(cbPrecGranularity.getValue()).encoding(cbEncoding.getValue())
+								.logger(new TextAreaLogger(spLogLevel.getValue(), taOutput)).build(cfa)) {
+					safetyResult = config.check();
+				}
 			} catch (final Exception ex) {
 				Platform.runLater(() -> displayException(ex));
 			} finally {
@@ -213,12 +214,12 @@ public class CfaGui extends BaseGui {
 					throw new IllegalStateException("No result is present.");
 				}
 				String content = "";
-				if (safetyResult.isSafe()) {
+				if (!safetyResult.isUnsafe()) {
 					Graph graph = null;
 					if (cbStructureOnly.isSelected()) {
-						graph = ArgVisualizer.getStructureOnly().visualize(safetyResult.asSafe().getArg());
+						graph = ArgVisualizer.getStructureOnly().visualize(safetyResult.getArg());
 					} else {
-						graph = ArgVisualizer.getDefault().visualize(safetyResult.asSafe().getArg());
+						graph = ArgVisualizer.getDefault().visualize(safetyResult.getArg());
 					}
 					final File tmpFile = File.createTempFile("theta", ".tmp");
 					GraphvizWriter.getInstance().writeFile(graph, tmpFile.getAbsolutePath(), Format.SVG);
@@ -0,0 +1,132 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.formalism.cfa.analysis;
+
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import hu.bme.mit.theta.analysis.Trace;
+import hu.bme.mit.theta.analysis.algorithm.ExplicitStateChecker;
+import hu.bme.mit.theta.analysis.algorithm.FingerprintSet;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult.Unknown.Reason;
+import hu.bme.mit.theta.analysis.expl.ExplPrec;
+import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expl.ExplStmtAnalysis;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUnsatCoreChecker;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.formalism.cfa.CFA;
+import hu.bme.mit.theta.formalism.cfa.analysis.lts.CfaSbeLts;
+import hu.bme.mit.theta.formalism.cfa.analysis.prec.GlobalCfaPrec;
+import hu.bme.mit.theta.formalism.cfa.dsl.CfaDslManager;
+import hu.bme.mit.theta.solver.sat.SatSolverFactory;
+
+@RunWith(Parameterized.class)
+public final class CfaExplicitStateCheckerTest {
+
+	@Parameters(name = "depthFirst: {0}")
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][] {
+
+				{ false },
+
+				{ true }
+
+		});
+	}
+
+	@Parameter(0)
+	public boolean depthFirst;
+
+	/**
+	 * Checks a model where the solver is only used for the initial states, so
+	 * the SAT solver is enough. Counterexamples are checked for feasibility
+	 * only if the model havocs variables, which can only be Boolean.
+	 */
+	private SafetyResult<CfaState<ExplState>, CfaAction> check(final String filepath, final boolean havocs)
+			throws IOException {
+		final CFA cfa = CfaDslManager.createCfa(new FileInputStream(filepath));
+		final CfaAnalysis<ExplState, ExplPrec> analysis = CfaAnalysis.create(cfa.getInitLoc(),
+				ExplStmtAnalysis.create(SatSolverFactory.getInstance().createSolver(), True(), 0));
+		final ExplicitStateChecker.Builder<CfaState<ExplState>, CfaAction, CfaPrec<ExplPrec>> builder;
+		builder = ExplicitStateChecker.builder(CfaSbeLts.getInstance(), analysis,
+				s -> s.getLoc().equals(cfa.getErrorLoc()),
+				s -> FingerprintSet.mix(s.getLoc().hashCode()) + s.getState().fingerprint());
+		if (havocs) {
+			final ExprTraceChecker<?> cexChecker = ExprTraceUnsatCoreChecker.create(True(), True(),
+					SatSolverFactory.getInstance().createSolver());
+			builder.feasibility(t -> cexChecker.check(t).isFeasible());
+		}
+		if (depthFirst) {
+			builder.depthFirst();
+		}
+		return builder.build().check(GlobalCfaPrec.create(ExplPrec.create(cfa.getVars())));
+	}
+
+	@Test
+	public void testSafe() throws IOException {
+		// Act
+		final SafetyResult<CfaState<ExplState>, CfaAction> status = check("src/test/resources/counter5_true.cfa", false);
+
+		// Assert
+		assertTrue(status.isSafe());
+		assertEquals(0, status.getArg().size());
+	}
+
+	@Test
+	public void testUnsafe() throws IOException {
+		// Act
+		final SafetyResult<CfaState<ExplState>, CfaAction> status = check("src/test/resources/counter5_false.cfa", false);
+
+		// Assert
+		assertTrue(status.isUnsafe());
+		final Trace<CfaState<ExplState>, CfaAction> trace = status.asUnsafe().getTrace();
+		// x := 0, five times (x < 5, x := x + 1), x >= 5 and x = 5
+		assertEquals(13, trace.length());
+		assertEquals("L0", trace.getState(0).getLoc().getName());
+		final CfaState<ExplState> last = trace.getState(trace.length());
+		assertEquals("ERR", last.getLoc().getName());
+		final Decl<?> x = last.getState().getDecls().iterator().next();
+		assertEquals(Optional.of(Int(5)), last.getState().eval(x));
+		assertEquals(trace.length() + 1, status.getArg().size());
+	}
+
+	@Test
+	public void testSpurious() throws IOException {
+		// Act
+		final SafetyResult<CfaState<ExplState>, CfaAction> status = check("src/test/resources/havoc_true.cfa", true);
+
+		// Assert
+		assertTrue(status.isUnknown());
+		assertEquals(Reason.IMPRECISE, status.asUnknown().getReason());
+	}
+
+}
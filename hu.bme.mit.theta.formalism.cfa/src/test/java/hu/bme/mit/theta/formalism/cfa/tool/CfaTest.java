@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.formalism.cfa.tool;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.UnaryOperator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.formalism.cfa.CFA;
+import hu.bme.mit.theta.formalism.cfa.dsl.CfaDslManager;
+import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder.Domain;
+import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder.PredAbstraction;
+import hu.bme.mit.theta.formalism.cfa.tool.CfaConfigBuilder.Refinement;
+
+@RunWith(Parameterized.class)
+public class CfaTest {
+
+	/**
+	 * Optional features of the configuration, checked against the expected
+	 * verdict of the model.
+	 */
+	public enum Option {
+		NONE(builder -> builder),
+
+		THREADS(builder -> builder.threads(4)),
+
+		SOME_CEXS(builder -> builder.maxCexs(3)),
+
+		ALL_CEXS(builder -> builder.maxCexs(0)),
+
+		POST_CACHE(builder -> builder.postCacheSize(1000)),
+
+		BOOLEAN_ABSTRACTION(builder -> builder.predAbstraction(PredAbstraction.BOOLEAN)),
+
+		CARTESIAN_ABSTRACTION(builder -> builder.predAbstraction(PredAbstraction.CARTESIAN)),
+
+		INCREMENTAL(builder -> builder.incrementalTraceCheck(true));
+
+		private final UnaryOperator<CfaConfigBuilder> setter;
+
+		private Option(final UnaryOperator<CfaConfigBuilder> setter) {
+			this.setter = setter;
+		}
+	}
+
+	@Parameter(0)
+	public String filepath;
+
+	@Parameter(1)
+	public Domain domain;
+
+	@Parameter(2)
+	public Refinement refinement;
+
+	@Parameter(3)
+	public Option option;
+
+	@Parameter(4)
+	public boolean isSafe;
+
+	@Parameters(name = "{0}, {1}, {2}, {3}, {4}")
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][] {
+
+				{ "src/test/resources/counter5_true.cfa", Domain.EXPL, Refinement.SEQ_ITP, Option.NONE, true },
+
+				{ "src/test/resources/counter5_false.cfa", Domain.PRED, Refinement.BW_BIN_ITP, Option.NONE, false },
+
+				{ "src/test/resources/locking.cfa", Domain.PRED, Refinement.SEQ_ITP, Option.NONE, true },
+
+				{ "src/test/resources/havoc_true.cfa", Domain.EXPL, Refinement.UNSAT_CORE, Option.NONE, true },
+
+				{ "src/test/resources/counter5_true.cfa", Domain.EXPL, Refinement.SEQ_ITP, Option.THREADS, true },
+
+				{ "src/test/resources/counter5_true.cfa", Domain.PRED, Refinement.SEQ_ITP, Option.THREADS, true },
+
+				{ "src/test/resources/counter5_false.cfa", Domain.EXPL, Refinement.UNSAT_CORE, Option.THREADS, false },
+
+				{ "src/test/resources/counter5_false.cfa", Domain.PRED, Refinement.BW_BIN_ITP, Option.THREADS, false },
+
+				{ "src/test/resources/locking.cfa", Domain.PRED, Refinement.SEQ_ITP, Option.THREADS, true },
+
+				{ "src/test/resources/counter5_true.cfa", Domain.PRED, Refinement.SEQ_ITP, Option.SOME_CEXS, true },
+
+				{ "src/test/resources/locking.cfa", Domain.EXPL, Refinement.UNSAT_CORE, Option.ALL_CEXS, true },
+
+				{ "src/test/resources/counter5_false.cfa", Domain.PRED, Refinement.FW_BIN_ITP, Option.SOME_CEXS, false },
+
+				{ "src/test/resources/counter5_false.cfa", Domain.EXPL, Refinement.SEQ_ITP, Option.ALL_CEXS, false },
+
+				{ "src/test/resources/counter5_true.cfa", Domain.EXPL, Refinement.UNSAT_CORE, Option.POST_CACHE, true },
+
+				{ "src/test/resources/locking.cfa", Domain.PRED, Refinement.BW_BIN_ITP, Option.POST_CACHE, true },
+
+				{ "src/test/resources/counter5_false.cfa", Domain.PRED, Refinement.SEQ_ITP, Option.POST_CACHE, false },
+
+				{ "src/test/resources/counter5_true.cfa", Domain.PRED, Refinement.SEQ_ITP, Option.BOOLEAN_ABSTRACTION,
+						true },
+
+				{ "src/test/resources/locking.cfa", Domain.PRED, Refinement.SEQ_ITP, Option.CARTESIAN_ABSTRACTION, true },
+
+				{ "src/test/resources/counter5_false.cfa", Domain.PRED, Refinement.BW_BIN_ITP,
+						Option.BOOLEAN_ABSTRACTION, false },
+
+				{ "src/test/resources/counter5_false.cfa", Domain.PRED, Refinement.SEQ_ITP, Option.CARTESIAN_ABSTRACTION,
+						false },
+
+				{ "src/test/resources/counter5_true.cfa", Domain.PRED, Refinement.FW_BIN_ITP, Option.INCREMENTAL, true },
+
+				{ "src/test/resources/locking.cfa", Domain.EXPL, Refinement.SEQ_ITP, Option.INCREMENTAL, true },
+
+				{ "src/test/resources/havoc_true.cfa", Domain.EXPL, Refinement.UNSAT_CORE, Option.INCREMENTAL, true },
+
+				{ "src/test/resources/counter5_false.cfa", Domain.EXPL, Refinement.UNSAT_CORE, Option.INCREMENTAL, false },
+
+		});
+	}
+
+	@Test
+	public void test() throws IOException {
+		final CFA cfa = CfaDslManager.createCfa(new FileInputStream(filepath));
+
+		try (final Config<?, ?, ?> config = option.setter.apply(new CfaConfigBuilder(domain, refinement)).build(cfa)) {
+			final SafetyResult<?, ?> result = config.check();
+			assertEquals(isSafe, result.isSafe());
+		}
+	}
+
+}
@@ -27,6 +27,7 @@ import hu.bme.mit.theta.analysis.expr.refinement.ItpRefutation;
 import hu.bme.mit.theta.core.model.Valuation;
 import hu.bme.mit.theta.core.type.booltype.BoolExprs;
 import hu.bme.mit.theta.formalism.sts.STS;
+import hu.bme.mit.theta.solver.ItpSolver;
 import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
 
 public final class StsTraceConcretizer {
@@ -34,11 +35,14 @@ public final class StsTraceConcretizer {
 	}
 
 	public static Trace<Valuation, StsAction> concretize(final STS sts, final Trace<ExprState, StsAction> trace) {
-		final ExprTraceChecker<ItpRefutation> checker = ExprTraceFwBinItpChecker.create(sts.getInit(),
-				BoolExprs.Not(sts.getProp()), Z3SolverFactory.getInstace().createItpSolver());
-		final ExprTraceStatus<ItpRefutation> status = checker.check(trace);
-		checkArgument(status.isFeasible(), "Infeasible trace.");
-		final Trace<Valuation, ? extends Action> valuations = status.asFeasible().getValuations();
+		final Trace<Valuation, ? extends Action> valuations;
+		try (final ItpSolver solver = Z3SolverFactory.getInstace().createItpSolver()) {
+			final ExprTraceChecker<ItpRefutation> checker = ExprTraceFwBinItpChecker.create(sts.getInit(),
+					BoolExprs.Not(sts.getProp()), solver);
+			final ExprTraceStatus<ItpRefutation> status = checker.check(trace);
+			checkArgument(status.isFeasible(), "Infeasible trace.");
+			valuations = status.asFeasible().getValuations();
+		}
 
 		assert valuations.getStates().size() == trace.getStates().size();
 
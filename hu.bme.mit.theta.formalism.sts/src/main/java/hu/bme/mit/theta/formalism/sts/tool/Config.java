@@ -15,28 +15,152 @@
  */
 package hu.bme.mit.theta.formalism.sts.tool;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.expr.PostCache;
+import hu.bme.mit.theta.analysis.expr.PostCacheStatistics;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSession;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSessionStatistics;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverInstrumentation;
 
-public final class Config<S extends State, A extends Action, P extends Prec> {
+/**
+ * A configured safety checker with its initial precision. The configuration
+ * owns the solvers of the checker, which are released when it is closed. The
+ * statistics remain available after closing.
+ */
+public final class Config<S extends State, A extends Action, P extends Prec> implements AutoCloseable {
 	private final SafetyChecker<S, A, P> checker;
 	private final P initPrec;
+	private final Optional<? extends PostCache<?>> postCache;
+	private final Collection<? extends PredAbstractor> predAbstractors;
+	private final Optional<? extends ExprTraceSession<?>> traceSession;
+	private final Optional<SolverInstrumentation> solverInstrumentation;
+	private final Collection<? extends Solver> solvers;
 
-	private Config(final SafetyChecker<S, A, P> checker, final P initPrec) {
+	private Config(final SafetyChecker<S, A, P> checker, final P initPrec,
+			final Optional<? extends PostCache<?>> postCache,
+			final Collection<? extends PredAbstractor> predAbstractors,
+			final Optional<? extends ExprTraceSession<?>> traceSession,
+			final Optional<SolverInstrumentation> solverInstrumentation, final Collection<? extends Solver> solvers) {
 		this.checker = checker;
 		this.initPrec = initPrec;
+		this.postCache = checkNotNull(postCache);
+		this.predAbstractors = checkNotNull(predAbstractors);
+		this.traceSession = checkNotNull(traceSession);
+		this.solverInstrumentation = checkNotNull(solverInstrumentation);
+		this.solvers = checkNotNull(solvers);
 	}
 
 	public static <S extends State, A extends Action, P extends Prec> Config<S, A, P> create(
 			final SafetyChecker<S, A, P> checker, final P initPrec) {
-		return new Config<>(checker, initPrec);
+		return new Config<>(checker, initPrec, Optional.empty(), Collections.emptyList(), Optional.empty(),
+				Optional.empty(), Collections.emptyList());
+	}
+
+	public static <S extends State, A extends Action, P extends Prec> Config<S, A, P> create(
+			final SafetyChecker<S, A, P> checker, final P initPrec, final Optional<? extends PostCache<?>> postCache) {
+		return new Config<>(checker, initPrec, postCache, Collections.emptyList(), Optional.empty(), Optional.empty(),
+				Collections.emptyList());
+	}
+
+	/**
+	 * Creates a configuration whose predicate abstractors (including the ones
+	 * created later by worker threads) are collected in the given collection.
+	 */
+	public static <S extends State, A extends Action, P extends Prec> Config<S, A, P> create(
+			final SafetyChecker<S, A, P> checker, final P initPrec, final Optional<? extends PostCache<?>> postCache,
+			final Collection<? extends PredAbstractor> predAbstractors) {
+		return new Config<>(checker, initPrec, postCache, predAbstractors, Optional.empty(), Optional.empty(),
+				Collections.emptyList());
+	}
+
+	/**
+	 * Creates a configuration that also reports the statistics of the given
+	 * incremental trace checking session.
+	 */
+	public static <S extends State, A extends Action, P extends Prec> Config<S, A, P> create(
+			final SafetyChecker<S, A, P> checker, final P initPrec, final Optional<? extends PostCache<?>> postCache,
+			final Collection<? extends PredAbstractor> predAbstractors,
+			final Optional<? extends ExprTraceSession<?>> traceSession) {
+		return new Config<>(checker, initPrec, postCache, predAbstractors, traceSession, Optional.empty(),
+				Collections.emptyList());
+	}
+
+	/**
+	 * Creates a configuration that also reports the statistics of the given
+	 * solver instrumentation.
+	 */
+	public static <S extends State, A extends Action, P extends Prec> Config<S, A, P> create(
+			final SafetyChecker<S, A, P> checker, final P initPrec, final Optional<? extends PostCache<?>> postCache,
+			final Collection<? extends PredAbstractor> predAbstractors,
+			final Optional<? extends ExprTraceSession<?>> traceSession,
+			final Optional<SolverInstrumentation> solverInstrumentation) {
+		return new Config<>(checker, initPrec, postCache, predAbstractors, traceSession, solverInstrumentation,
+				Collections.emptyList());
+	}
+
+	/**
+	 * Creates a configuration that closes the given solvers (including the ones
+	 * added later by worker threads) when it is closed.
+	 */
+	public static <S extends State, A extends Action, P extends Prec> Config<S, A, P> create(
+			final SafetyChecker<S, A, P> checker, final P initPrec, final Optional<? extends PostCache<?>> postCache,
+			final Collection<? extends PredAbstractor> predAbstractors,
+			final Optional<? extends ExprTraceSession<?>> traceSession,
+			final Optional<SolverInstrumentation> solverInstrumentation, final Collection<? extends Solver> solvers) {
+		return new Config<>(checker, initPrec, postCache, predAbstractors, traceSession, solverInstrumentation,
+				solvers);
 	}
 
 	public SafetyResult<S, A> check() {
 		return checker.check(initPrec);
 	}
 
+	public Optional<PostCacheStatistics> getPostCacheStatistics() {
+		return postCache.map(PostCache::getStatistics);
+	}
+
+	/**
+	 * Gets the number of solver calls made for computing abstract states, if
+	 * the configuration uses predicate abstraction.
+	 */
+	public Optional<Long> getAbstractionSolverCalls() {
+		if (predAbstractors.isEmpty()) {
+			return Optional.empty();
+		} else {
+			return Optional.of(PredAbstractors.getSolverCalls(predAbstractors));
+		}
+	}
+
+	public Optional<ExprTraceSessionStatistics> getTraceSessionStatistics() {
+		return traceSession.map(ExprTraceSession::getStatistics);
+	}
+
+	public Optional<SolverInstrumentation> getSolverInstrumentation() {
+		return solverInstrumentation;
+	}
+
+	/**
+	 * Closes the solvers of the configuration. The configuration cannot be
+	 * checked afterwards.
+	 */
+	@Override
+	public void close() {
+		for (final Solver solver : solvers) {
+			solver.close();
+		}
+	}
+
 }
@@ -19,14 +19,30 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
+import com.google.common.base.Joiner;
 
 import hu.bme.mit.theta.analysis.State;
+import hu.bme.mit.theta.analysis.algorithm.Budget;
+import hu.bme.mit.theta.analysis.algorithm.ExplicitStateStatistics;
+import hu.bme.mit.theta.analysis.algorithm.PortfolioChecker;
+import hu.bme.mit.theta.analysis.algorithm.PortfolioResult;
+import hu.bme.mit.theta.analysis.algorithm.PortfolioResult.Progress;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.Statistics;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarStatistics;
+import hu.bme.mit.theta.analysis.expr.PostCacheStatistics;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSessionStatistics;
 import hu.bme.mit.theta.analysis.utils.ArgVisualizer;
 import hu.bme.mit.theta.analysis.utils.TraceVisualizer;
 import hu.bme.mit.theta.common.Utils;
@@ -44,11 +60,18 @@ import hu.bme.mit.theta.formalism.sts.StsUtils;
 import hu.bme.mit.theta.formalism.sts.aiger.BasicAigerParser;
 import hu.bme.mit.theta.formalism.sts.dsl.StsDslManager;
 import hu.bme.mit.theta.formalism.sts.dsl.StsSpec;
+import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder.AbstractionSolver;
 import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder.Domain;
 import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder.InitPrec;
+import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder.PredAbstraction;
 import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder.PredSplit;
 import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder.Refinement;
 import hu.bme.mit.theta.formalism.sts.tool.StsConfigBuilder.Search;
+import hu.bme.mit.theta.solver.SolverCallStatistics;
+import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.SolverInstrumentation;
+import hu.bme.mit.theta.solver.SolverInstrumentation.Category;
+import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
 
 /**
  * A command line interface for running a CEGAR configuration on an STS.
@@ -70,6 +93,18 @@ public class StsCli {
 	@Parameter(names = { "--predsplit" }, description = "Predicate splitting")
 	PredSplit predSplit = PredSplit.WHOLE;
 
+	@Parameter(names = { "--predabstraction" }, description = "Computation of abstract states for predicates")
+	PredAbstraction predAbstraction = PredAbstraction.ALLSAT;
+
+	@Parameter(names = { "--bdd" }, description = "Store predicate states as BDDs for coverage checks")
+	Boolean bddPredStates = false;
+
+	@Parameter(names = { "--incremental" }, description = "Reuse the common prefix of counterexamples in refinement")
+	Boolean incrementalTraceCheck = false;
+
+	@Parameter(names = { "--abstractionsolver" }, description = "Solver used for abstraction (SAT for Boolean models only)")
+	AbstractionSolver abstractionSolver = AbstractionSolver.Z3;
+
 	@Parameter(names = { "--model" }, description = "Path of the input model", required = true)
 	String model;
 
@@ -79,6 +114,49 @@ public class StsCli {
 	@Parameter(names = { "--loglevel" }, description = "Detailedness of logging")
 	Integer logLevel = 1;
 
+	@Parameter(names = { "--threads" }, description = "Number of threads used for building the ARG")
+	Integer threads = 1;
+
+	@Parameter(names = { "--maxcexs" }, description = "Number of counterexamples refined per iteration (0 for all)")
+	Integer maxCexs = 1;
+
+	@Parameter(names = { "--storedir" }, description = "Directory for storing the visited states on disk "
+			+ "(EXPL_NOARG domain, by default they are stored in memory)")
+	String storeDirectory = null;
+
+	@Parameter(names = { "--storequota" }, description = "Memory used for the visited states stored on disk in MB, "
+			+ "including the mapped parts of the files (only with --storedir, at least 1)")
+	Long storeQuota = 1024L;
+
+	@Parameter(names = { "--postcache" }, description = "Size of the abstract post cache (0 to disable)")
+	Long postCacheSize = 0L;
+
+	@Parameter(names = { "--solvercache" }, description = "Size of the abstraction solver cache (0 to disable)")
+	Long solverCacheSize = 0L;
+
+	@Parameter(names = { "--timeout" }, description = "Time limit of the whole check in seconds (0 for no limit)")
+	Long timeout = 0L;
+
+	@Parameter(names = { "--memlimit" }, description = "Memory limit of the whole check in MB (0 for no limit)")
+	Long memoryLimit = 0L;
+
+	@Parameter(names = { "--querytimeout" }, description = "Time limit of a solver query in ms (0 for no limit)")
+	Long queryTimeout = 0L;
+
+	@Parameter(names = { "--rlimit" }, description = "Resource limit of a solver query (0 for no limit)")
+	Long resourceLimit = 0L;
+
+	@Parameter(names = { "--contextpool" }, description = "Number of idle Z3 contexts kept for reuse by the solvers "
+			+ "of the configurations (0 to close the contexts with their solvers)")
+	Integer contextPoolSize = 0;
+
+	@Parameter(names = { "--solverstats" }, description = "Record solver statistics for each category of callers")
+	Boolean solverStatistics = false;
+
+	@Parameter(names = { "--portfolio" }, description = "Additional configurations run in parallel with the main one, "
+			+ "in the form DOMAIN/REFINEMENT[/SEARCH] (a missing search is taken from the main configuration)")
+	List<String> portfolio = new ArrayList<>();
+
 	@Parameter(names = { "--benchmark" }, description = "Benchmark mode (only print metrics)")
 	Boolean benchmarkMode = false;
 
@@ -89,6 +167,7 @@ public class StsCli {
 	boolean headerOnly = false;
 
 	private Logger logger;
+	private Z3SolverFactory solverFactory;
 
 	public StsCli(final String[] args) {
 		this.args = args;
@@ -117,14 +196,17 @@ public class StsCli {
 
 		try {
 			final STS sts = loadModel();
-			final Config<?, ?, ?> configuration = buildConfiguration(sts);
-			final SafetyResult<?, ?> status = configuration.check();
-			printResult(status, sts);
+			solverFactory = createSolverFactory();
+			final SafetyResult<?, ?> status = portfolio.isEmpty() ? runSingle(sts) : runPortfolio(sts);
 			if (dotfile != null) {
 				writeVisualStatus(status, dotfile);
 			}
 		} catch (final Throwable ex) {
 			printError(ex);
+		} finally {
+			if (solverFactory != null) {
+				solverFactory.clearContextPool();
+			}
 		}
 		if (benchmarkMode) {
 			writer.newRow();
@@ -133,10 +215,24 @@ public class StsCli {
 
 	private void printHeader() {
 		final String[] header = new String[] { "Result", "TimeMs", "AbsTimeMs", "RefTimeMs", "Iterations", "ArgSize",
-				"ArgDepth", "ArgMeanBranchFactor", "CexLen", "Vars", "Size" };
+				"ArgDepth", "ArgMeanBranchFactor", "CexLen", "Vars", "Size", "States", "StatesPerSecond",
+				"BytesPerState", "PageIns", "SpilledBytes", "PostCacheHits",
+				"PostCacheMisses", "PostCacheEvictions", "AbsSolverCalls", "TraceReusedAssertions",
+				"TraceSentAssertions" };
 		for (final String str : header) {
 			writer.cell(str);
 		}
+		for (final Category category : Category.values()) {
+			writer.cell(category.label + "Checks");
+			writer.cell(category.label + "CheckTimeMs");
+			writer.cell(category.label + "CheckHistogram");
+		}
+		writer.cell("SolverAssertions");
+		writer.cell("SolverAssertionNodes");
+		writer.cell("ModelTimeMs");
+		writer.cell("UnsatCoreTimeMs");
+		writer.cell("Winner");
+		writer.cell("Portfolio");
 		writer.newRow();
 	}
 
@@ -155,21 +251,105 @@ public class StsCli {
 		}
 	}
 
-	private Config<?, ?, ?> buildConfiguration(final STS sts) {
-		return new StsConfigBuilder(domain, refinement).initPrec(initPrec).search(search).predSplit(predSplit)
-				.logger(logger).build(sts);
+	private SafetyResult<?, ?> runSingle(final STS sts) {
+		try (final Config<?, ?, ?> configuration = buildConfiguration(sts, domain, refinement, search, logger)) {
+			final SafetyResult<?, ?> status = configuration.check();
+			printResult(status, sts, configuration);
+			printPortfolio(Optional.empty());
+			return status;
+		}
 	}
 
-	private void printResult(final SafetyResult<?, ?> status, final STS sts) {
-		final CegarStatistics stats = (CegarStatistics) status.getStats().get();
+	/**
+	 * Runs the main configuration and the additional configurations of the
+	 * portfolio in parallel, each with its own solvers, and reports the result
+	 * of the first definitive one.
+	 */
+	private SafetyResult<?, ?> runPortfolio(final STS sts) {
+		final Map<String, Config<?, ?, ?>> configurations = new LinkedHashMap<>();
+		configurations.put(getName(domain, refinement, search),
+				buildConfiguration(sts, domain, refinement, search, NullLogger.getInstance()));
+		for (final String spec : portfolio) {
+			final String[] parts = spec.split("/");
+			if (parts.length < 2 || parts.length > 3) {
+				throw new IllegalArgumentException("Invalid portfolio configuration: " + spec);
+			}
+			final Domain specDomain = Domain.valueOf(parts[0]);
+			final Refinement specRefinement = Refinement.valueOf(parts[1]);
+			final Search specSearch = parts.length > 2 ? Search.valueOf(parts[2]) : search;
+			final String name = getName(specDomain, specRefinement, specSearch);
+			if (configurations.containsKey(name)) {
+				throw new IllegalArgumentException("Duplicate portfolio configuration: " + name);
+			}
+			configurations.put(name,
+					buildConfiguration(sts, specDomain, specRefinement, specSearch, NullLogger.getInstance()));
+		}
+
+		final PortfolioChecker.Builder builder = PortfolioChecker.builder().logger(logger);
+		// Each configuration is closed by the portfolio when its check ends
+		configurations.forEach((name, configuration) -> builder.add(name, configuration::check, configuration));
+		final PortfolioResult result = builder.build().check();
+
+		final Progress reported = result.getReported()
+				.orElseThrow(() -> new IllegalStateException("None of the configurations finished"));
+		final SafetyResult<?, ?> status = reported.getResult().get();
+		printResult(status, sts, configurations.get(reported.getName()));
+		printPortfolio(Optional.of(result));
+		return status;
+	}
+
+	private static String getName(final Domain domain, final Refinement refinement, final Search search) {
+		return Joiner.on('/').join(domain, refinement, search);
+	}
+
+	private Config<?, ?, ?> buildConfiguration(final STS sts, final Domain domain, final Refinement refinement,
+			final Search search, final Logger logger) {
+		final SolverFactory abstractionSolverFactory = abstractionSolver == AbstractionSolver.Z3 ? solverFactory
+				: abstractionSolver.factory;
+		final StsConfigBuilder builder = new StsConfigBuilder(domain, refinement).initPrec(initPrec).search(search)
+				.predSplit(predSplit).predAbstraction(predAbstraction).bddPredStates(bddPredStates)
+				.incrementalTraceCheck(incrementalTraceCheck).solverStatistics(solverStatistics).threads(threads)
+				.maxCexs(maxCexs).postCacheSize(postCacheSize).solverCacheSize(solverCacheSize)
+				.solverFactory(solverFactory).abstractionSolverFactory(abstractionSolverFactory)
+				.budget(Budget.create(TimeUnit.SECONDS.toMillis(timeout), memoryLimit * 1024 * 1024)).logger(logger);
+		if (storeDirectory != null) {
+			builder.store(Paths.get(storeDirectory), storeQuota * 1024 * 1024);
+		}
+		return builder.build(sts);
+	}
+
+	/**
+	 * Creates the solver factory shared by the configurations, so that they can
+	 * reuse the contexts of the closed solvers from its context pool.
+	 */
+	private Z3SolverFactory createSolverFactory() {
+		return Z3SolverFactory.builder().timeout(queryTimeout, TimeUnit.MILLISECONDS).resourceLimit(resourceLimit)
+				.contextPoolSize(contextPoolSize).build();
+	}
+
+	private void printResult(final SafetyResult<?, ?> status, final STS sts, final Config<?, ?, ?> configuration) {
+		final Statistics stats = status.getStats().get();
+		final Optional<PostCacheStatistics> postCacheStats = configuration.getPostCacheStatistics();
+		final Optional<Long> absSolverCalls = configuration.getAbstractionSolverCalls();
+		final Optional<ExprTraceSessionStatistics> traceStats = configuration.getTraceSessionStatistics();
 		if (benchmarkMode) {
-			writer.cell(status.isSafe());
-			writer.cell(stats.getTotalTimeMs());
-			writer.cell(stats.getAbstractorTimeMs());
-			writer.cell(stats.getRefinerTimeMs());
-			writer.cell(stats.getIterations());
+			writer.cell(status.isUnknown() ? status.asUnknown().getReason() : status.isSafe());
+			if (stats instanceof CegarStatistics) {
+				final CegarStatistics cegarStats = (CegarStatistics) stats;
+				writer.cell(cegarStats.getTotalTimeMs());
+				writer.cell(cegarStats.getAbstractorTimeMs());
+				writer.cell(cegarStats.getRefinerTimeMs());
+				writer.cell(cegarStats.getIterations());
+			} else {
+				// Checkers without abstraction and refinement
+				writer.cell(((ExplicitStateStatistics) stats).getTotalTimeMs());
+				writer.cell("");
+				writer.cell("");
+				writer.cell("");
+			}
 			writer.cell(status.getArg().size());
-			writer.cell(status.getArg().getDepth());
+			// The ARG is empty if the checker does not build one
+			writer.cell(status.getArg().size() > 0 ? status.getArg().getDepth() + "" : "");
 			writer.cell(status.getArg().getMeanBranchingFactor());
 			if (status.isUnsafe()) {
 				writer.cell(status.asUnsafe().getTrace().length() + "");
@@ -178,6 +358,100 @@ public class StsCli {
 			}
 			writer.cell(sts.getVars().size());
 			writer.cell(ExprUtils.nodeCountSize(BoolExprs.And(sts.getInit(), sts.getTrans())));
+			if (stats instanceof ExplicitStateStatistics) {
+				final ExplicitStateStatistics explicitStats = (ExplicitStateStatistics) stats;
+				writer.cell(explicitStats.getStates());
+				writer.cell(explicitStats.getStatesPerSecond());
+				writer.cell(explicitStats.getBytesPerState());
+				writer.cell(explicitStats.getPageIns());
+				writer.cell(explicitStats.getSpilledBytes());
+			} else {
+				writer.cell("");
+				writer.cell("");
+				writer.cell("");
+				writer.cell("");
+				writer.cell("");
+			}
+		}
+		if (postCacheStats.isPresent()) {
+			if (benchmarkMode) {
+				writer.cell(postCacheStats.get().getHits());
+				writer.cell(postCacheStats.get().getMisses());
+				writer.cell(postCacheStats.get().getEvictions());
+			} else {
+				logger.writeln(postCacheStats.get(), 1);
+			}
+		} else if (benchmarkMode) {
+			writer.cell("");
+			writer.cell("");
+			writer.cell("");
+		}
+		if (absSolverCalls.isPresent()) {
+			if (benchmarkMode) {
+				writer.cell(absSolverCalls.get());
+			} else {
+				logger.writeln("Abstraction solver calls: " + absSolverCalls.get(), 1);
+			}
+		} else if (benchmarkMode) {
+			writer.cell("");
+		}
+		if (traceStats.isPresent()) {
+			if (benchmarkMode) {
+				writer.cell(traceStats.get().getReusedAssertions());
+				writer.cell(traceStats.get().getSentAssertions());
+			} else {
+				logger.writeln(traceStats.get(), 1);
+			}
+		} else if (benchmarkMode) {
+			writer.cell("");
+			writer.cell("");
+		}
+		printSolverStatistics(configuration.getSolverInstrumentation());
+	}
+
+	private void printSolverStatistics(final Optional<SolverInstrumentation> instrumentation) {
+		if (instrumentation.isPresent()) {
+			for (final Category category : Category.values()) {
+				final SolverCallStatistics stats = instrumentation.get().getStatistics(category);
+				if (benchmarkMode) {
+					writer.cell(stats.getChecks());
+					writer.cell(stats.getCheckTimeMs());
+					writer.cell(Joiner.on('/').join(stats.getCheckHistogram()));
+				} else {
+					logger.writeln(category.label + " " + stats, 1);
+				}
+			}
+			if (benchmarkMode) {
+				final SolverCallStatistics totalStats = instrumentation.get().getTotalStatistics();
+				writer.cell(totalStats.getAssertions());
+				writer.cell(totalStats.getAssertionNodes());
+				writer.cell(totalStats.getModelTimeMs());
+				writer.cell(totalStats.getUnsatCoreTimeMs());
+			}
+		} else if (benchmarkMode) {
+			for (int i = 0; i < Category.values().length * 3 + 4; i++) {
+				writer.cell("");
+			}
+		}
+	}
+
+	private void printPortfolio(final Optional<PortfolioResult> portfolioResult) {
+		if (portfolioResult.isPresent()) {
+			final PortfolioResult result = portfolioResult.get();
+			final String winner = result.getWinner().map(Progress::getName).orElse("");
+			if (benchmarkMode) {
+				writer.cell(winner);
+				writer.cell(Joiner.on(' ').join(result.getProgress().stream()
+						.map(p -> p.getName() + ":" + p.getStatus() + ":" + p.getTimeMs()).iterator()));
+			} else {
+				logger.writeln("Winner: " + (winner.isEmpty() ? "none" : winner), 1);
+				for (final Progress progress : result.getProgress()) {
+					logger.writeln(progress, 1, 1);
+				}
+			}
+		} else if (benchmarkMode) {
+			writer.cell("");
+			writer.cell("");
 		}
 	}
 
@@ -193,9 +467,9 @@ public class StsCli {
 
 	private void writeVisualStatus(final SafetyResult<?, ?> status, final String filename)
 			throws FileNotFoundException {
-		final Graph graph = status.isSafe()
-				? new ArgVisualizer<>(State::toString, a -> "").visualize(status.asSafe().getArg())
-				: new TraceVisualizer<>(State::toString, a -> "").visualize(status.asUnsafe().getTrace());
+		final Graph graph = status.isUnsafe()
+				? new TraceVisualizer<>(State::toString, a -> "").visualize(status.asUnsafe().getTrace())
+				: new ArgVisualizer<>(State::toString, a -> "").visualize(status.getArg());
 		GraphvizWriter.getInstance().writeFile(graph, filename);
 	}
 }
@@ -17,7 +17,14 @@ package hu.bme.mit.theta.formalism.sts.tool;
 
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import hu.bme.mit.theta.analysis.Action;
 import hu.bme.mit.theta.analysis.Analysis;
@@ -25,37 +32,53 @@ import hu.bme.mit.theta.analysis.LTS;
 import hu.bme.mit.theta.analysis.Prec;
 import hu.bme.mit.theta.analysis.State;
 import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
+import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators;
 import hu.bme.mit.theta.analysis.algorithm.ArgNodeComparators.ArgNodeComparator;
+import hu.bme.mit.theta.analysis.algorithm.Budget;
+import hu.bme.mit.theta.analysis.algorithm.ExplicitStateChecker;
+import hu.bme.mit.theta.analysis.algorithm.MappedFingerprintStore;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Abstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.BasicAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.CegarChecker;
+import hu.bme.mit.theta.analysis.algorithm.cegar.ParallelAbstractor;
 import hu.bme.mit.theta.analysis.algorithm.cegar.Refiner;
 import hu.bme.mit.theta.analysis.expl.ExplAnalysis;
 import hu.bme.mit.theta.analysis.expl.ExplPrec;
 import hu.bme.mit.theta.analysis.expl.ExplState;
+import hu.bme.mit.theta.analysis.expl.ExplSubsumptionIndex;
 import hu.bme.mit.theta.analysis.expl.ExplStatePredicate;
 import hu.bme.mit.theta.analysis.expl.ItpRefToExplPrec;
 import hu.bme.mit.theta.analysis.expl.VarsRefToExplPrec;
 import hu.bme.mit.theta.analysis.expr.ExprAction;
 import hu.bme.mit.theta.analysis.expr.ExprState;
+import hu.bme.mit.theta.analysis.expr.PostCache;
 import hu.bme.mit.theta.analysis.expr.ExprStatePredicate;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceBwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceFwBinItpChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSeqItpChecker;
+import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceSession;
 import hu.bme.mit.theta.analysis.expr.refinement.ExprTraceUnsatCoreChecker;
 import hu.bme.mit.theta.analysis.expr.refinement.ItpRefutation;
 import hu.bme.mit.theta.analysis.expr.refinement.JoiningPrecRefiner;
+import hu.bme.mit.theta.analysis.expr.refinement.MultiExprTraceRefiner;
+import hu.bme.mit.theta.analysis.expr.refinement.PrecRefiner;
+import hu.bme.mit.theta.analysis.expr.refinement.Refutation;
 import hu.bme.mit.theta.analysis.expr.refinement.SingleExprTraceRefiner;
 import hu.bme.mit.theta.analysis.pred.ExprSplitters;
 import hu.bme.mit.theta.analysis.pred.ExprSplitters.ExprSplitter;
 import hu.bme.mit.theta.analysis.pred.ItpRefToSimplePredPrec;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors;
+import hu.bme.mit.theta.analysis.pred.PredAbstractors.PredAbstractor;
 import hu.bme.mit.theta.analysis.pred.PredAnalysis;
+import hu.bme.mit.theta.analysis.pred.PredBddEncoder;
 import hu.bme.mit.theta.analysis.pred.PredPrec;
 import hu.bme.mit.theta.analysis.pred.PredState;
+import hu.bme.mit.theta.analysis.pred.PredSubsumptionIndex;
 import hu.bme.mit.theta.analysis.pred.SimplePredPrec;
+import hu.bme.mit.theta.analysis.reachedset.SubsumptionIndex;
 import hu.bme.mit.theta.analysis.waitlist.PriorityWaitlist;
 import hu.bme.mit.theta.common.logging.Logger;
 import hu.bme.mit.theta.common.logging.impl.NullLogger;
@@ -67,14 +90,26 @@ import hu.bme.mit.theta.formalism.sts.analysis.StsLts;
 import hu.bme.mit.theta.formalism.sts.analysis.initprec.StsEmptyInitPrec;
 import hu.bme.mit.theta.formalism.sts.analysis.initprec.StsInitPrec;
 import hu.bme.mit.theta.formalism.sts.analysis.initprec.StsPropInitPrec;
+import hu.bme.mit.theta.solver.CachingSolverFactory;
 import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverFactory;
+import hu.bme.mit.theta.solver.SolverInstrumentation;
+import hu.bme.mit.theta.solver.SolverInstrumentation.Category;
+import hu.bme.mit.theta.solver.sat.SatSolverFactory;
 import hu.bme.mit.theta.solver.z3.Z3SolverFactory;
 
 public final class StsConfigBuilder {
 
 	public enum Domain {
-		EXPL, PRED
+		EXPL, PRED,
+
+		/**
+		 * Explicit-state model checking tracking all variables, without
+		 * building an ARG and without refinement. The refinement strategy is
+		 * only used for checking the feasibility of counterexamples.
+		 */
+		EXPL_NOARG
 	};
 
 	public enum Refinement {
@@ -108,6 +143,32 @@ public final class StsConfigBuilder {
 		}
 	};
 
+	public enum PredAbstraction {
+		ALLSAT(PredAbstractors::allSat),
+
+		BOOLEAN(PredAbstractors::booleanAllSat),
+
+		CARTESIAN(PredAbstractors::cartesian);
+
+		public final Function<Solver, PredAbstractor> factory;
+
+		private PredAbstraction(final Function<Solver, PredAbstractor> factory) {
+			this.factory = factory;
+		}
+	};
+
+	public enum AbstractionSolver {
+		Z3(Z3SolverFactory.getInstace()),
+
+		SAT(SatSolverFactory.getInstance());
+
+		public final SolverFactory factory;
+
+		private AbstractionSolver(final SolverFactory factory) {
+			this.factory = factory;
+		}
+	};
+
 	public enum InitPrec {
 		EMPTY(new StsEmptyInitPrec()), PROP(new StsPropInitPrec());
 
@@ -121,11 +182,23 @@ public final class StsConfigBuilder {
 
 	private Logger logger = NullLogger.getInstance();
 	private SolverFactory solverFactory = Z3SolverFactory.getInstace();
+	private Optional<SolverFactory> abstractionSolverFactory = Optional.empty();
 	private final Domain domain;
 	private final Refinement refinement;
 	private Search search = Search.BFS;
 	private PredSplit predSplit = PredSplit.WHOLE;
+	private PredAbstraction predAbstraction = PredAbstraction.ALLSAT;
 	private InitPrec initPrec = InitPrec.EMPTY;
+	private int threads = 1;
+	private int maxCexs = 1;
+	private Optional<Path> storeDirectory = Optional.empty();
+	private long storeQuota = 1L << 30;
+	private long postCacheSize = 0;
+	private long solverCacheSize = 0;
+	private Budget budget = Budget.unlimited();
+	private boolean bddPredStates = false;
+	private boolean incrementalTraceCheck = false;
+	private boolean solverStatistics = false;
 
 	public StsConfigBuilder(final Domain domain, final Refinement refinement) {
 		this.domain = domain;
@@ -142,6 +215,16 @@ public final class StsConfigBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets the factory of the solvers used for abstraction, which defaults to
+	 * the solver factory. Refinement always uses the interpolating solvers of
+	 * the solver factory.
+	 */
+	public StsConfigBuilder abstractionSolverFactory(final SolverFactory abstractionSolverFactory) {
+		this.abstractionSolverFactory = Optional.of(abstractionSolverFactory);
+		return this;
+	}
+
 	public StsConfigBuilder search(final Search search) {
 		this.search = search;
 		return this;
@@ -152,6 +235,11 @@ public final class StsConfigBuilder {
 		return this;
 	}
 
+	public StsConfigBuilder predAbstraction(final PredAbstraction predAbstraction) {
+		this.predAbstraction = predAbstraction;
+		return this;
+	}
+
 	public StsConfigBuilder initPrec(final InitPrec initPrec) {
 		this.initPrec = initPrec;
 		return this;
@@ -161,37 +249,134 @@ public final class StsConfigBuilder {
 		return initPrec;
 	}
 
+	public StsConfigBuilder threads(final int threads) {
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * Sets the number of counterexamples refined in each iteration, where 0
+	 * means all counterexamples of the ARG.
+	 */
+	public StsConfigBuilder maxCexs(final int maxCexs) {
+		this.maxCexs = maxCexs;
+		return this;
+	}
+
+	/**
+	 * Sets the directory where the {@link Domain#EXPL_NOARG} domain stores the
+	 * visited states in memory-mapped files, using at most the given number of
+	 * bytes of memory (for the mapped segments, and the filter and buffer on
+	 * the heap). By default, the visited states are stored on the heap.
+	 */
+	public StsConfigBuilder store(final Path storeDirectory, final long storeQuota) {
+		this.storeDirectory = Optional.of(storeDirectory);
+		this.storeQuota = storeQuota;
+		return this;
+	}
+
+	/**
+	 * Sets the maximal number of abstract post results kept between
+	 * iterations, where 0 disables the cache.
+	 */
+	public StsConfigBuilder postCacheSize(final long postCacheSize) {
+		this.postCacheSize = postCacheSize;
+		return this;
+	}
+
+	/**
+	 * Sets the maximal number of check results cached for the abstraction
+	 * solvers, where 0 disables the cache.
+	 */
+	public StsConfigBuilder solverCacheSize(final long solverCacheSize) {
+		this.solverCacheSize = solverCacheSize;
+		return this;
+	}
+
+	/**
+	 * Sets the time and memory limits of the check, which are checked between
+	 * the iterations of the CEGAR loop.
+	 */
+	public StsConfigBuilder budget(final Budget budget) {
+		this.budget = budget;
+		return this;
+	}
+
+	/**
+	 * Sets whether predicate states should also be stored as BDDs, in which
+	 * case coverage checks are performed on the BDDs instead of the solver.
+	 */
+	public StsConfigBuilder bddPredStates(final boolean bddPredStates) {
+		this.bddPredStates = bddPredStates;
+		return this;
+	}
+
+	/**
+	 * Sets whether counterexamples should be checked incrementally, keeping the
+	 * prefix shared with the previous counterexample on the solver stack. This
+	 * has no effect on backward binary interpolation.
+	 */
+	public StsConfigBuilder incrementalTraceCheck(final boolean incrementalTraceCheck) {
+		this.incrementalTraceCheck = incrementalTraceCheck;
+		return this;
+	}
+
+	/**
+	 * Sets whether the usage of the solvers should be recorded for each
+	 * category of callers, which can then be queried from the configuration.
+	 */
+	public StsConfigBuilder solverStatistics(final boolean solverStatistics) {
+		this.solverStatistics = solverStatistics;
+		return this;
+	}
+
 	public Config<? extends State, ? extends Action, ? extends Prec> build(final STS sts) {
-		final ItpSolver solver = solverFactory.createItpSolver();
+		// Only the trace checkers need interpolation, abstraction is done on a
+		// lightweight solver without proof generation
+		final Optional<SolverInstrumentation> instrumentation = createInstrumentation();
+		final SolverFactory abstractionFactory = createAbstractionSolverFactory();
+		final Collection<Solver> solvers = new CopyOnWriteArrayList<>();
+		final Solver abstractionSolver = register(solvers, abstractionFactory.createSolver());
+		final ItpSolver refinementSolver = instrument(instrumentation,
+				register(solvers, solverFactory.createItpSolver()));
 		final LTS<State, StsAction> lts = StsLts.create(sts);
 		final Expr<BoolType> init = sts.getInit();
 		final Expr<BoolType> negProp = Not(sts.getProp());
+		final ExprTraceSession<ItpSolver> traceSession = createTraceSession(init, refinementSolver);
 
 		if (domain == Domain.EXPL) {
-			final Predicate<ExplState> target = new ExplStatePredicate(negProp, solver);
-			final Analysis<ExplState, ExprAction, ExplPrec> analysis = ExplAnalysis.create(solver, init);
+			final Predicate<ExplState> target = new ExplStatePredicate(negProp,
+					instrument(instrumentation, abstractionSolver, Category.TARGET));
+			final Optional<PostCache<ExplState>> postCache = createPostCache();
+			final Analysis<ExplState, ExprAction, ExplPrec> analysis = createExplAnalysis(
+					instrument(instrumentation, abstractionSolver, Category.ABSTRACTION), init, postCache);
 			final ArgBuilder<ExplState, StsAction, ExplPrec> argBuilder = ArgBuilder.create(lts, analysis, target);
-			final Abstractor<ExplState, StsAction, ExplPrec> abstractor = BasicAbstractor.builder(argBuilder)
-					.waitlistSupplier(PriorityWaitlist.supplier(search.comparator)).logger(logger).build();
+			final Abstractor<ExplState, StsAction, ExplPrec> abstractor = createAbstractor(argBuilder, () -> {
+				final Solver workerSolver = register(solvers, abstractionFactory.createSolver());
+				return ArgBuilder.create(StsLts.create(sts),
+						createExplAnalysis(instrument(instrumentation, workerSolver, Category.ABSTRACTION), init,
+								postCache),
+						new ExplStatePredicate(negProp, instrument(instrumentation, workerSolver, Category.TARGET)));
+			}, ExplSubsumptionIndex.supplier(ArgNode::getState));
 
 			Refiner<ExplState, StsAction, ExplPrec> refiner = null;
 
 			switch (refinement) {
 			case FW_BIN_ITP:
-				refiner = SingleExprTraceRefiner.create(ExprTraceFwBinItpChecker.create(init, negProp, solver),
-						JoiningPrecRefiner.create(new ItpRefToExplPrec()), logger);
+				refiner = createRefiner(ExprTraceFwBinItpChecker.create(negProp, traceSession),
+						JoiningPrecRefiner.create(new ItpRefToExplPrec()));
 				break;
 			case BW_BIN_ITP:
-				refiner = SingleExprTraceRefiner.create(ExprTraceBwBinItpChecker.create(init, negProp, solver),
-						JoiningPrecRefiner.create(new ItpRefToExplPrec()), logger);
+				refiner = createRefiner(ExprTraceBwBinItpChecker.create(init, negProp, refinementSolver),
+						JoiningPrecRefiner.create(new ItpRefToExplPrec()));
 				break;
 			case SEQ_ITP:
-				refiner = SingleExprTraceRefiner.create(ExprTraceSeqItpChecker.create(init, negProp, solver),
-						JoiningPrecRefiner.create(new ItpRefToExplPrec()), logger);
+				refiner = createRefiner(ExprTraceSeqItpChecker.create(negProp, traceSession),
+						JoiningPrecRefiner.create(new ItpRefToExplPrec()));
 				break;
 			case UNSAT_CORE:
-				refiner = SingleExprTraceRefiner.create(ExprTraceUnsatCoreChecker.create(init, negProp, solver),
-						JoiningPrecRefiner.create(new VarsRefToExplPrec()), logger);
+				refiner = createRefiner(ExprTraceUnsatCoreChecker.create(negProp, traceSession),
+						JoiningPrecRefiner.create(new VarsRefToExplPrec()));
 				break;
 			default:
 				throw new UnsupportedOperationException(
@@ -199,44 +384,222 @@ public final class StsConfigBuilder {
 			}
 
 			final SafetyChecker<ExplState, StsAction, ExplPrec> checker = CegarChecker.create(abstractor, refiner,
-					logger);
+					logger, budget);
 			final ExplPrec prec = initPrec.builder.createExpl(sts);
-			return Config.create(checker, prec);
+			return Config.create(checker, prec, postCache, Collections.emptyList(),
+					getIncrementalSession(traceSession), instrumentation, solvers);
 
 		} else if (domain == Domain.PRED) {
-			final Predicate<ExprState> target = new ExprStatePredicate(negProp, solver);
-			final Analysis<PredState, ExprAction, PredPrec> analysis = PredAnalysis.create(solver, init);
+			final Predicate<ExprState> target = new ExprStatePredicate(negProp,
+					instrument(instrumentation, abstractionSolver, Category.TARGET));
+			final Optional<PostCache<PredState>> postCache = createPostCache();
+			final Collection<PredAbstractor> predAbstractors = new CopyOnWriteArrayList<>();
+			final Analysis<PredState, ExprAction, PredPrec> analysis = createPredAnalysis(abstractionSolver, init,
+					postCache, predAbstractors, instrumentation);
 			final ArgBuilder<PredState, StsAction, SimplePredPrec> argBuilder = ArgBuilder.create(lts, analysis,
 					target);
-			final Abstractor<PredState, StsAction, SimplePredPrec> abstractor = BasicAbstractor.builder(argBuilder)
-					.waitlistSupplier(PriorityWaitlist.supplier(search.comparator)).logger(logger).build();
+			final Abstractor<PredState, StsAction, SimplePredPrec> abstractor = createAbstractor(argBuilder, () -> {
+				final Solver workerSolver = register(solvers, abstractionFactory.createSolver());
+				return ArgBuilder.create(StsLts.create(sts),
+						createPredAnalysis(workerSolver, init, postCache, predAbstractors, instrumentation),
+						new ExprStatePredicate(negProp, instrument(instrumentation, workerSolver, Category.TARGET)));
+			}, PredSubsumptionIndex.supplier(ArgNode::getState));
+			// Precisions are used by the worker threads, so they get their own
+			// solver. Its checks simplify the predicates of the abstraction.
+			final Solver precSolver = instrument(instrumentation,
+					threads > 1 ? register(solvers, abstractionFactory.createSolver()) : abstractionSolver,
+					Category.ABSTRACTION);
+			final Optional<PredBddEncoder> bddEncoder = bddPredStates ? Optional.of(PredBddEncoder.create())
+					: Optional.empty();
 
 			ExprTraceChecker<ItpRefutation> exprTraceChecker = null;
 			switch (refinement) {
 			case FW_BIN_ITP:
-				exprTraceChecker = ExprTraceFwBinItpChecker.create(init, negProp, solver);
+				exprTraceChecker = ExprTraceFwBinItpChecker.create(negProp, traceSession);
 				break;
 			case BW_BIN_ITP:
-				exprTraceChecker = ExprTraceBwBinItpChecker.create(init, negProp, solver);
+				exprTraceChecker = ExprTraceBwBinItpChecker.create(init, negProp, refinementSolver);
 				break;
 			case SEQ_ITP:
-				exprTraceChecker = ExprTraceSeqItpChecker.create(init, negProp, solver);
+				exprTraceChecker = ExprTraceSeqItpChecker.create(negProp, traceSession);
 				break;
 			default:
 				throw new UnsupportedOperationException(
 						domain + " domain does not support " + refinement + " refinement.");
 			}
-			final Refiner<PredState, StsAction, SimplePredPrec> refiner = SingleExprTraceRefiner.create(
-					exprTraceChecker, JoiningPrecRefiner.create(new ItpRefToSimplePredPrec(solver, predSplit.splitter)),
-					logger);
+			final Refiner<PredState, StsAction, SimplePredPrec> refiner = createRefiner(exprTraceChecker,
+					JoiningPrecRefiner.create(createItpRefToPrec(precSolver, bddEncoder)));
 
 			final SafetyChecker<PredState, StsAction, SimplePredPrec> checker = CegarChecker.create(abstractor, refiner,
-					logger);
-
-			final SimplePredPrec prec = initPrec.builder.createSimplePred(sts, solver);
-			return Config.create(checker, prec);
+					logger, budget);
+
+			final SimplePredPrec simplePrec = initPrec.builder.createSimplePred(sts, precSolver);
+			final SimplePredPrec prec = bddEncoder.isPresent()
+					? SimplePredPrec.create(simplePrec.getPreds(), precSolver, bddEncoder.get()) : simplePrec;
+			return Config.create(checker, prec, postCache, predAbstractors, getIncrementalSession(traceSession),
+					instrumentation, solvers);
+		} else if (domain == Domain.EXPL_NOARG) {
+			final Predicate<ExplState> target = new ExplStatePredicate(negProp,
+					instrument(instrumentation, abstractionSolver, Category.TARGET));
+			final Analysis<ExplState, ExprAction, ExplPrec> analysis = createExplAnalysis(
+					instrument(instrumentation, abstractionSolver, Category.ABSTRACTION), init, Optional.empty());
+			final ExprTraceChecker<?> cexChecker = createCexChecker(init, negProp, traceSession, refinementSolver);
+			final ExplicitStateChecker.Builder<ExplState, StsAction, ExplPrec> builder = ExplicitStateChecker
+					.builder(lts, analysis, target, ExplState::fingerprint)
+					.feasibility(t -> cexChecker.check(t).isFeasible()).budget(budget).logger(logger);
+			if (search == Search.DFS) {
+				builder.depthFirst();
+			}
+			if (storeDirectory.isPresent()) {
+				final Path directory = storeDirectory.get();
+				final long quota = storeQuota;
+				builder.store(() -> MappedFingerprintStore.builder(directory).quota(quota).build());
+			}
+			final ExplPrec prec = ExplPrec.create(sts.getVars());
+			return Config.create(builder.build(), prec, Optional.empty(), Collections.emptyList(),
+					getIncrementalSession(traceSession), instrumentation, solvers);
 		} else {
 			throw new UnsupportedOperationException(domain + " domain is not supported.");
 		}
 	}
+
+	private <S extends State, A extends Action, P extends Prec> Abstractor<S, A, P> createAbstractor(
+			final ArgBuilder<S, A, P> argBuilder, final Supplier<ArgBuilder<S, A, P>> workerArgBuilderFactory,
+			final Supplier<? extends SubsumptionIndex<? super ArgNode<S, A>>> subsumptionIndexSupplier) {
+		if (threads > 1) {
+			return ParallelAbstractor.builder(argBuilder, workerArgBuilderFactory).threads(threads)
+					.subsumptionIndex(subsumptionIndexSupplier)
+					.waitlistSupplier(PriorityWaitlist.supplier(search.comparator)).logger(logger).build();
+		} else {
+			return BasicAbstractor.builder(argBuilder).subsumptionIndex(subsumptionIndexSupplier)
+					.waitlistSupplier(PriorityWaitlist.supplier(search.comparator)).logger(logger).build();
+		}
+	}
+
+	/**
+	 * Creates the session used by the trace checkers. Incremental sessions keep
+	 * their assertions between refinements, which is possible because the
+	 * interpolating solver is only used by the trace checkers.
+	 */
+	private ExprTraceSession<ItpSolver> createTraceSession(final Expr<BoolType> init, final ItpSolver solver) {
+		if (incrementalTraceCheck && refinement != Refinement.BW_BIN_ITP) {
+			return ExprTraceSession.createIncremental(init, solver);
+		} else {
+			return ExprTraceSession.create(init, solver);
+		}
+	}
+
+	/**
+	 * Creates the trace checker of the refinement strategy for checking the
+	 * feasibility of counterexamples, without using its refutations.
+	 */
+	private ExprTraceChecker<?> createCexChecker(final Expr<BoolType> init, final Expr<BoolType> negProp,
+			final ExprTraceSession<ItpSolver> traceSession, final ItpSolver refinementSolver) {
+		switch (refinement) {
+		case FW_BIN_ITP:
+			return ExprTraceFwBinItpChecker.create(negProp, traceSession);
+		case BW_BIN_ITP:
+			return ExprTraceBwBinItpChecker.create(init, negProp, refinementSolver);
+		case SEQ_ITP:
+			return ExprTraceSeqItpChecker.create(negProp, traceSession);
+		case UNSAT_CORE:
+			return ExprTraceUnsatCoreChecker.create(negProp, traceSession);
+		default:
+			throw new UnsupportedOperationException(
+					domain + " domain does not support " + refinement + " refinement.");
+		}
+	}
+
+	private static Optional<ExprTraceSession<?>> getIncrementalSession(final ExprTraceSession<?> traceSession) {
+		return traceSession.isIncremental() ? Optional.of(traceSession) : Optional.empty();
+	}
+
+	private ItpRefToSimplePredPrec createItpRefToPrec(final Solver precSolver,
+			final Optional<PredBddEncoder> bddEncoder) {
+		if (bddEncoder.isPresent()) {
+			return new ItpRefToSimplePredPrec(precSolver, predSplit.splitter, bddEncoder.get());
+		} else {
+			return new ItpRefToSimplePredPrec(precSolver, predSplit.splitter);
+		}
+	}
+
+	private SolverFactory createAbstractionSolverFactory() {
+		if (solverCacheSize > 0) {
+			return CachingSolverFactory.create(abstractionSolverFactory.orElse(solverFactory), solverCacheSize);
+		} else {
+			return abstractionSolverFactory.orElse(solverFactory);
+		}
+	}
+
+	/**
+	 * Registers a solver to be closed with the configuration.
+	 */
+	private static <T extends Solver> T register(final Collection<Solver> solvers, final T solver) {
+		solvers.add(solver);
+		return solver;
+	}
+
+	private Optional<SolverInstrumentation> createInstrumentation() {
+		if (solverStatistics) {
+			return Optional.of(SolverInstrumentation.create());
+		} else {
+			return Optional.empty();
+		}
+	}
+
+	private static Solver instrument(final Optional<SolverInstrumentation> instrumentation, final Solver solver,
+			final Category category) {
+		return instrumentation.map(i -> i.instrument(solver, category)).orElse(solver);
+	}
+
+	private static ItpSolver instrument(final Optional<SolverInstrumentation> instrumentation,
+			final ItpSolver solver) {
+		return instrumentation.map(i -> i.instrument(solver)).orElse(solver);
+	}
+
+	private <S extends ExprState> Optional<PostCache<S>> createPostCache() {
+		if (postCacheSize > 0) {
+			return Optional.of(PostCache.create(postCacheSize));
+		} else {
+			return Optional.empty();
+		}
+	}
+
+	private static ExplAnalysis createExplAnalysis(final Solver solver, final Expr<BoolType> initExpr,
+			final Optional<PostCache<ExplState>> postCache) {
+		if (postCache.isPresent()) {
+			return ExplAnalysis.create(solver, initExpr, postCache.get());
+		} else {
+			return ExplAnalysis.create(solver, initExpr);
+		}
+	}
+
+	/**
+	 * Creates a predicate analysis, where the abstractor and the domain
+	 * (coverage checks) share the given solver.
+	 */
+	private PredAnalysis createPredAnalysis(final Solver solver, final Expr<BoolType> initExpr,
+			final Optional<PostCache<PredState>> postCache, final Collection<PredAbstractor> predAbstractors,
+			final Optional<SolverInstrumentation> instrumentation) {
+		final Solver domainSolver = instrument(instrumentation, solver, Category.COVERAGE);
+		final PredAbstractor predAbstractor = predAbstraction.factory
+				.apply(instrument(instrumentation, solver, Category.ABSTRACTION));
+		predAbstractors.add(predAbstractor);
+		if (postCache.isPresent()) {
+			return PredAnalysis.create(domainSolver, initExpr, predAbstractor, postCache.get());
+		} else {
+			return PredAnalysis.create(domainSolver, initExpr, predAbstractor);
+		}
+	}
+
+	private <S extends ExprState, A extends ExprAction, P extends Prec, R extends Refutation> Refiner<S, A, P> createRefiner(
+			final ExprTraceChecker<R> exprTraceChecker, final PrecRefiner<S, A, P, R> precRefiner) {
+		if (maxCexs == 1) {
+			return SingleExprTraceRefiner.create(exprTraceChecker, precRefiner, logger);
+		} else if (maxCexs == 0) {
+			return MultiExprTraceRefiner.create(exprTraceChecker, precRefiner, logger);
+		} else {
+			return MultiExprTraceRefiner.create(exprTraceChecker, precRefiner, maxCexs, logger);
+		}
+	}
 }
@@ -158,10 +158,12 @@ public class StsGui extends BaseGui {
 					throw new UnsupportedOperationException("STS contains multiple properties.");
 				}
 				sts = StsUtils.eliminateIte(Utils.singleElementOf(stss));
-				final Config<?, ?, ?> config = new StsConfigBuilder(cbDomain.getValue(), cbRefinement.getValue())
-						.search(cbSearch.getValue()).predSplit(cbPredSplit.getValue()).initPrec(cbInitPrec.getValue())
-						.logger(new TextAreaLogger(spLogLevel.getValue(), taOutput)).build(sts);
-				safetyResult = config.check();
+				try (final Config<?, ?, ?> config = new StsConfigBuilder(cbDomain.getValue(),
+						cbRefinement.getValue()).search(cbSearch.getValue()).predSplit(cbPredSplit.getValue())
+								.initPrec(cbInitPrec.getValue())
+								.logger(new TextAreaLogger(spLogLevel.getValue(), taOutput)).build(sts)) {
+					safetyResult = config.check();
+				}
 			} catch (final Exception ex) {
 				Platform.runLater(() -> displayException(ex));
 			} finally {
@@ -180,12 +182,12 @@ public class StsGui extends BaseGui {
 					throw new IllegalStateException("No result is present.");
 				}
 				String content = "";
-				if (safetyResult.isSafe()) {
+				if (!safetyResult.isUnsafe()) {
 					Graph graph = null;
 					if (cbStructureOnly.isSelected()) {
-						graph = ArgVisualizer.getStructureOnly().visualize(safetyResult.asSafe().getArg());
+						graph = ArgVisualizer.getStructureOnly().visualize(safetyResult.getArg());
 					} else {
-						graph = ArgVisualizer.getDefault().visualize(safetyResult.asSafe().getArg());
+						graph = ArgVisualizer.getDefault().visualize(safetyResult.getArg());
 					}
 					final File tmpFile = File.createTempFile("theta", ".tmp");
 					GraphvizWriter.getInstance().writeFile(graph, tmpFile.getAbsolutePath(), Format.SVG);
@@ -125,6 +125,7 @@ public final class XtaProcess {
 		checkArgument(locs.contains(source));
 		checkArgument(locs.contains(target));
 		final Edge edge = new Edge(source, target, guards, sync, updates);
+		edges.add(edge);
 		source.outEdges.add(edge);
 		target.inEdges.add(edge);
 		return edge;
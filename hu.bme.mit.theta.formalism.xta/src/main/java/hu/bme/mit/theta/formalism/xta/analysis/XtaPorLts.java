@@ -0,0 +1,284 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.formalism.xta.analysis;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.core.decl.VarDecl;
+import hu.bme.mit.theta.core.model.Valuation;
+import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+import hu.bme.mit.theta.core.utils.StmtUtils;
+import hu.bme.mit.theta.formalism.xta.Guard;
+import hu.bme.mit.theta.formalism.xta.Sync;
+import hu.bme.mit.theta.formalism.xta.Sync.Kind;
+import hu.bme.mit.theta.formalism.xta.Update;
+import hu.bme.mit.theta.formalism.xta.XtaProcess;
+import hu.bme.mit.theta.formalism.xta.XtaProcess.Edge;
+import hu.bme.mit.theta.formalism.xta.XtaProcess.Loc;
+import hu.bme.mit.theta.formalism.xta.XtaProcess.LocKind;
+import hu.bme.mit.theta.formalism.xta.XtaSystem;
+
+/**
+ * LTS with partial order reduction (ample sets) that preserves the
+ * reachability of visible locations. If a process is in a location where all
+ * outgoing edges are local and independent of the other processes, and at
+ * least one of them is enabled, only the edges of that process are returned.
+ * Otherwise, all actions are returned, as in {@link XtaLts}.
+ *
+ * An edge can be in an ample set (computed statically) if
+ * <ul>
+ * <li>it has no synchronization (so it is independent of the edges of the
+ * other processes that synchronize),</li>
+ * <li>it has no clock guards or clock updates, and its source and target
+ * locations are normal locations without invariants (so it does not change the
+ * zone, and the order of time elapse and the edge does not matter),</li>
+ * <li>it only updates variables that no other process uses and only reads
+ * variables that no other process updates,</li>
+ * <li>its source and target locations are not visible, and</li>
+ * <li>it is not on a cycle of such edges (so every cycle of the reduced state
+ * space contains a fully expanded state).</li>
+ * </ul>
+ * The ample set only depends on the locations and the data valuation, so
+ * states that can cover each other are expanded the same way.
+ *
+ * Time is global in the zone graph, so an edge that constrains or resets a
+ * clock does not commute with the edges of other processes, even if the clock
+ * is local to its process: taking it first can exclude runs where the other
+ * processes move before the guard becomes true or before the reset. Such edges
+ * could only be reduced with a local-time zone semantics, which the zone
+ * analyses do not implement. Therefore the reduction does not apply to networks
+ * where every edge synchronizes, uses a shared variable, a clock or a location
+ * invariant. This includes the Fischer, CSMA and FDDI models of the test
+ * resources, where no action is pruned.
+ */
+public final class XtaPorLts implements LTS<XtaState<?>, XtaAction> {
+
+	private final XtaSystem system;
+	private final XtaLts lts;
+	private final Set<Loc> ampleLocs;
+	private long prunedActions;
+
+	private XtaPorLts(final XtaSystem system, final Predicate<? super Loc> visible) {
+		this.system = checkNotNull(system);
+		this.lts = XtaLts.create(system);
+		this.ampleLocs = computeAmpleLocs(system, checkNotNull(visible));
+		this.prunedActions = 0;
+	}
+
+	/**
+	 * Creates an LTS where no location is visible, which is suitable if the
+	 * target of the search does not depend on the locations (e.g., when the
+	 * whole state space is explored).
+	 */
+	public static XtaPorLts create(final XtaSystem system) {
+		return new XtaPorLts(system, l -> false);
+	}
+
+	/**
+	 * Creates an LTS that preserves the reachability of states that are
+	 * characterized by the visible locations (e.g., the error locations).
+	 */
+	public static XtaPorLts create(final XtaSystem system, final Predicate<? super Loc> visible) {
+		return new XtaPorLts(system, visible);
+	}
+
+	@Override
+	public Collection<XtaAction> getEnabledActionsFor(final XtaState<?> state) {
+		for (final Loc loc : state.getLocs()) {
+			if (ampleLocs.contains(loc) && isAnyEnabled(loc, state.getVal())) {
+				final Collection<XtaAction> result = new ArrayList<>(loc.getOutEdges().size());
+				for (final Edge edge : loc.getOutEdges()) {
+					result.add(XtaAction.simple(system, state.getLocs(), edge));
+				}
+				prunedActions += countActions(state.getLocs()) - result.size();
+				return result;
+			}
+		}
+		return lts.getEnabledActionsFor(state);
+	}
+
+	/**
+	 * Gets the number of actions that were not returned since the creation of
+	 * the LTS.
+	 */
+	public long getPrunedActions() {
+		return prunedActions;
+	}
+
+	////
+
+	private static boolean isAnyEnabled(final Loc loc, final Valuation val) {
+		for (final Edge edge : loc.getOutEdges()) {
+			boolean enabled = true;
+			for (final Guard guard : edge.getGuards()) {
+				enabled &= ((BoolLitExpr) guard.toExpr().eval(val)).getValue();
+			}
+			if (enabled) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Counts the actions that the full LTS would return without creating them.
+	 */
+	private static int countActions(final List<Loc> locs) {
+		int count = 0;
+		for (final Loc emitLoc : locs) {
+			for (final Edge emitEdge : emitLoc.getOutEdges()) {
+				if (!emitEdge.getSync().isPresent()) {
+					count++;
+				} else if (emitEdge.getSync().get().getKind() == Kind.EMIT) {
+					for (final Loc recvLoc : locs) {
+						if (recvLoc != emitLoc) {
+							for (final Edge recvEdge : recvLoc.getOutEdges()) {
+								if (isMatchingRecv(emitEdge.getSync().get(), recvEdge)) {
+									count++;
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	private static boolean isMatchingRecv(final Sync emitSync, final Edge recvEdge) {
+		return recvEdge.getSync().isPresent() && recvEdge.getSync().get().getKind() == Kind.RECV
+				&& recvEdge.getSync().get().getLabel().equals(emitSync.getLabel());
+	}
+
+	////
+
+	private static Set<Loc> computeAmpleLocs(final XtaSystem system, final Predicate<? super Loc> visible) {
+		final Map<XtaProcess, Set<VarDecl<?>>> usedVars = new IdentityHashMap<>();
+		final Map<XtaProcess, Set<VarDecl<?>>> updatedVars = new IdentityHashMap<>();
+		for (final XtaProcess process : system.getProcesses()) {
+			final Set<VarDecl<?>> used = new HashSet<>();
+			final Set<VarDecl<?>> updated = new HashSet<>();
+			for (final Loc loc : process.getLocs()) {
+				loc.getInvars().forEach(i -> used.addAll(ExprUtils.getVars(i.toExpr())));
+			}
+			for (final Edge edge : process.getEdges()) {
+				edge.getGuards().forEach(g -> used.addAll(ExprUtils.getVars(g.toExpr())));
+				edge.getUpdates().forEach(u -> updated.addAll(StmtUtils.getVars(u.toStmt())));
+				// Arguments of synchronizations can be read and written
+				edge.getSync().ifPresent(s -> updated.addAll(ExprUtils.getVars(s.getArgs())));
+			}
+			used.addAll(updated);
+			usedVars.put(process, used);
+			updatedVars.put(process, updated);
+		}
+
+		final Set<Loc> result = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (final XtaProcess process : system.getProcesses()) {
+			final Set<VarDecl<?>> usedByOthers = new HashSet<>();
+			final Set<VarDecl<?>> updatedByOthers = new HashSet<>();
+			for (final XtaProcess other : system.getProcesses()) {
+				if (other != process) {
+					usedByOthers.addAll(usedVars.get(other));
+					updatedByOthers.addAll(updatedVars.get(other));
+				}
+			}
+
+			final Set<Edge> ampleEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (final Edge edge : process.getEdges()) {
+				if (isLocal(edge, usedByOthers, updatedByOthers) && isTimeless(edge) && !visible.test(edge.getSource())
+						&& !visible.test(edge.getTarget())) {
+					ampleEdges.add(edge);
+				}
+			}
+			final Set<Edge> cyclicEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (final Edge edge : ampleEdges) {
+				if (isReachable(edge.getTarget(), edge.getSource(), ampleEdges)) {
+					cyclicEdges.add(edge);
+				}
+			}
+			ampleEdges.removeAll(cyclicEdges);
+
+			for (final Loc loc : process.getLocs()) {
+				if (!loc.getOutEdges().isEmpty() && ampleEdges.containsAll(loc.getOutEdges())) {
+					result.add(loc);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static boolean isLocal(final Edge edge, final Set<VarDecl<?>> usedByOthers,
+			final Set<VarDecl<?>> updatedByOthers) {
+		if (edge.getSync().isPresent()) {
+			return false;
+		}
+		for (final Guard guard : edge.getGuards()) {
+			if (!Collections.disjoint(ExprUtils.getVars(guard.toExpr()), updatedByOthers)) {
+				return false;
+			}
+		}
+		for (final Update update : edge.getUpdates()) {
+			if (!Collections.disjoint(StmtUtils.getVars(update.toStmt()), usedByOthers)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isTimeless(final Edge edge) {
+		return edge.getGuards().stream().allMatch(Guard::isDataGuard)
+				&& edge.getUpdates().stream().allMatch(Update::isDataUpdate) && isTimeless(edge.getSource())
+				&& isTimeless(edge.getTarget());
+	}
+
+	private static boolean isTimeless(final Loc loc) {
+		return loc.getKind() == LocKind.NORMAL && loc.getInvars().isEmpty();
+	}
+
+	private static boolean isReachable(final Loc from, final Loc to, final Set<Edge> edges) {
+		final Set<Loc> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		final Deque<Loc> waiting = new ArrayDeque<>();
+		visited.add(from);
+		waiting.add(from);
+		while (!waiting.isEmpty()) {
+			final Loc loc = waiting.remove();
+			if (loc == to) {
+				return true;
+			}
+			for (final Edge edge : loc.getOutEdges()) {
+				if (edges.contains(edge) && visited.add(edge.getTarget())) {
+					waiting.add(edge.getTarget());
+				}
+			}
+		}
+		return false;
+	}
+
+}
@@ -22,9 +22,11 @@ import java.util.Collection;
 import hu.bme.mit.theta.analysis.Analysis;
 import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.analysis.impl.PrecMappingAnalysis;
+import hu.bme.mit.theta.analysis.reachedset.SubsumptionIndex;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.zone.ZonePrec;
 import hu.bme.mit.theta.analysis.zone.ZoneState;
+import hu.bme.mit.theta.analysis.zone.ZoneSubsumptionIndex;
 import hu.bme.mit.theta.analysis.zone.itp.ItpZoneAnalysis;
 import hu.bme.mit.theta.analysis.zone.itp.ItpZoneState;
 import hu.bme.mit.theta.formalism.xta.XtaSystem;
@@ -113,6 +115,14 @@ public abstract class ItpStrategy implements LazyXtaChecker.AlgorithmStrategy<It
 		return nodeToCover.getState().getState().getZone().isLeq(coveringNode.getState().getState().getInterpolant());
 	}
 
+	@Override
+	public final SubsumptionIndex<ArgNode<XtaState<ItpZoneState>, XtaAction>> createSubsumptionIndex() {
+		// The zone of the node to be covered is included in its interpolant,
+		// which is only known to be weaker (e.g., top after resetState)
+		return ZoneSubsumptionIndex.create(n -> n.getState().getState().getZone(),
+				n -> n.getState().getState().getInterpolant());
+	}
+
 	@Override
 	public final boolean shouldRefine(final ArgNode<XtaState<ItpZoneState>, XtaAction> node) {
 		return node.getState().getState().getZone().isBottom();
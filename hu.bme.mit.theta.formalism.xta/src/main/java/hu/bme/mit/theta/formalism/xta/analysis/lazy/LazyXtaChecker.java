@@ -30,10 +30,14 @@ import hu.bme.mit.theta.analysis.algorithm.ARG;
 import hu.bme.mit.theta.analysis.algorithm.ArgBuilder;
 import hu.bme.mit.theta.analysis.algorithm.ArgNode;
 import hu.bme.mit.theta.analysis.algorithm.ArgTrace;
+import hu.bme.mit.theta.analysis.algorithm.Budget;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
+import hu.bme.mit.theta.analysis.algorithm.SafetyResult.Unknown.Reason;
 import hu.bme.mit.theta.analysis.algorithm.SearchStrategy;
+import hu.bme.mit.theta.analysis.reachedset.NullSubsumptionIndex;
 import hu.bme.mit.theta.analysis.reachedset.Partition;
+import hu.bme.mit.theta.analysis.reachedset.SubsumptionIndex;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.waitlist.Waitlist;
 import hu.bme.mit.theta.common.product.Tuple;
@@ -44,6 +48,7 @@ import hu.bme.mit.theta.formalism.xta.XtaSystem;
 import hu.bme.mit.theta.formalism.xta.analysis.XtaAction;
 import hu.bme.mit.theta.formalism.xta.analysis.XtaAnalysis;
 import hu.bme.mit.theta.formalism.xta.analysis.XtaLts;
+import hu.bme.mit.theta.formalism.xta.analysis.XtaPorLts;
 import hu.bme.mit.theta.formalism.xta.analysis.XtaState;
 
 public final class LazyXtaChecker<S extends State> implements SafetyChecker<XtaState<S>, XtaAction, UnitPrec> {
@@ -64,22 +69,30 @@ public final class LazyXtaChecker<S extends State> implements SafetyChecker<XtaS
 				LazyXtaStatistics.Builder statistics);
 
 		void resetState(ArgNode<XtaState<S>, XtaAction> node);
+
+		default SubsumptionIndex<ArgNode<XtaState<S>, XtaAction>> createSubsumptionIndex() {
+			return NullSubsumptionIndex.create();
+		}
 	}
 
 	private final AlgorithmStrategy<S> algorithm;
 	private final SearchStrategy search;
+	private final Budget budget;
+	private final LTS<XtaState<?>, XtaAction> lts;
 
 	private final ArgBuilder<XtaState<S>, XtaAction, UnitPrec> argBuilder;
 
-	private LazyXtaChecker(final XtaSystem system, final AlgorithmStrategy<S> algorithm, final SearchStrategy search,
-			final Predicate<? super List<? extends Loc>> errorLocs) {
+	private LazyXtaChecker(final XtaSystem system, final LTS<XtaState<?>, XtaAction> lts,
+			final AlgorithmStrategy<S> algorithm, final SearchStrategy search,
+			final Predicate<? super List<? extends Loc>> errorLocs, final Budget budget) {
 		checkNotNull(system);
 		checkNotNull(errorLocs);
 
 		this.algorithm = checkNotNull(algorithm);
 		this.search = checkNotNull(search);
+		this.budget = checkNotNull(budget);
+		this.lts = checkNotNull(lts);
 
-		final LTS<XtaState<?>, XtaAction> lts = XtaLts.create(system);
 		final Analysis<XtaState<S>, XtaAction, UnitPrec> analysis = XtaAnalysis.create(system, algorithm.getAnalysis());
 		final Predicate<XtaState<?>> target = s -> errorLocs.test(s.getLocs());
 
@@ -89,7 +102,32 @@ public final class LazyXtaChecker<S extends State> implements SafetyChecker<XtaS
 	public static <S extends State> LazyXtaChecker<S> create(final XtaSystem system,
 			final AlgorithmStrategy<S> algorithmStrategy, final SearchStrategy searchStrategy,
 			final Predicate<? super List<? extends Loc>> errorLocs) {
-		return new LazyXtaChecker<>(system, algorithmStrategy, searchStrategy, errorLocs);
+		return new LazyXtaChecker<>(system, XtaLts.create(system), algorithmStrategy, searchStrategy, errorLocs,
+				Budget.unlimited());
+	}
+
+	/**
+	 * Creates a checker that stops with an unknown result when the budget is
+	 * exhausted. The budget is checked before processing each node of the
+	 * waitlist.
+	 */
+	public static <S extends State> LazyXtaChecker<S> create(final XtaSystem system,
+			final AlgorithmStrategy<S> algorithmStrategy, final SearchStrategy searchStrategy,
+			final Predicate<? super List<? extends Loc>> errorLocs, final Budget budget) {
+		return new LazyXtaChecker<>(system, XtaLts.create(system), algorithmStrategy, searchStrategy, errorLocs,
+				budget);
+	}
+
+	/**
+	 * Creates a checker that explores the actions given by the LTS, e.g., an
+	 * {@link XtaPorLts}, whose reduction must preserve the reachability of the
+	 * error locations.
+	 */
+	public static <S extends State> LazyXtaChecker<S> create(final XtaSystem system,
+			final LTS<XtaState<?>, XtaAction> lts, final AlgorithmStrategy<S> algorithmStrategy,
+			final SearchStrategy searchStrategy, final Predicate<? super List<? extends Loc>> errorLocs,
+			final Budget budget) {
+		return new LazyXtaChecker<>(system, lts, algorithmStrategy, searchStrategy, errorLocs, budget);
 	}
 
 	@Override
@@ -103,13 +141,20 @@ public final class LazyXtaChecker<S extends State> implements SafetyChecker<XtaS
 		private final Partition<ArgNode<XtaState<S>, XtaAction>, Tuple2<List<Loc>, Valuation>> reachedSet;
 
 		private final LazyXtaStatistics.Builder statistics;
+		private final Budget.Monitor monitor;
+		private final long initialPrunedActions;
+		private Optional<Reason> unknownReason;
 
 		private CheckMethod() {
 			arg = argBuilder.createArg();
 			waitlist = search.createWaitlist();
-			reachedSet = Partition.of(n -> Tuple.of(n.getState().getLocs(), n.getState().getVal()));
+			reachedSet = Partition.of(n -> Tuple.of(n.getState().getLocs(), n.getState().getVal()),
+					algorithm::createSubsumptionIndex);
 
 			statistics = LazyXtaStatistics.builder(arg);
+			monitor = budget.start();
+			initialPrunedActions = getPrunedActions();
+			unknownReason = Optional.empty();
 
 			argBuilder.init(arg, UnitPrec.getInstance());
 			waitlist.addAll(arg.getInitNodes());
@@ -117,7 +162,12 @@ public final class LazyXtaChecker<S extends State> implements SafetyChecker<XtaS
 
 		public SafetyResult<XtaState<S>, XtaAction> run() {
 			final Optional<ArgNode<XtaState<S>, XtaAction>> unsafeNode = searchForUnsafeNode();
-			if (unsafeNode.isPresent()) {
+			statistics.coverage(reachedSet.getPrunedCandidates(), reachedSet.getSavedLeqChecks());
+			statistics.reduction(getPrunedActions() - initialPrunedActions);
+			if (unknownReason.isPresent()) {
+				final LazyXtaStatistics stats = statistics.build();
+				return SafetyResult.unknown(unknownReason.get(), arg, stats);
+			} else if (unsafeNode.isPresent()) {
 				final ArgTrace<XtaState<S>, XtaAction> argTrace = ArgTrace.to(unsafeNode.get());
 				final Trace<XtaState<S>, XtaAction> trace = argTrace.toTrace();
 				final LazyXtaStatistics stats = statistics.build();
@@ -133,6 +183,11 @@ public final class LazyXtaChecker<S extends State> implements SafetyChecker<XtaS
 			statistics.startAlgorithm();
 
 			while (!waitlist.isEmpty()) {
+				unknownReason = monitor.check();
+				if (unknownReason.isPresent()) {
+					break;
+				}
+
 				final ArgNode<XtaState<S>, XtaAction> v = waitlist.remove();
 				assert v.isLeaf();
 
@@ -163,7 +218,7 @@ public final class LazyXtaChecker<S extends State> implements SafetyChecker<XtaS
 			final Collection<ArgNode<XtaState<S>, XtaAction>> candidates = reachedSet.get(nodeToCover);
 
 			if (!candidates.isEmpty()) {
-				for (final ArgNode<XtaState<S>, XtaAction> coveringNode : candidates) {
+				for (final ArgNode<XtaState<S>, XtaAction> coveringNode : reachedSet.getCandidates(nodeToCover)) {
 					if (algorithm.covers(nodeToCover, coveringNode)) {
 						nodeToCover.setCoveringNode(coveringNode);
 						return;
@@ -188,6 +243,10 @@ public final class LazyXtaChecker<S extends State> implements SafetyChecker<XtaS
 			}
 		}
 
+		private long getPrunedActions() {
+			return lts instanceof XtaPorLts ? ((XtaPorLts) lts).getPrunedActions() : 0;
+		}
+
 		private void expand(final ArgNode<XtaState<S>, XtaAction> v) {
 			argBuilder.expand(v, UnitPrec.getInstance());
 			reachedSet.add(v);
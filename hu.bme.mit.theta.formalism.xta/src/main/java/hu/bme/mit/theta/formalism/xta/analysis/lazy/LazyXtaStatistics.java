@@ -40,6 +40,9 @@ public final class LazyXtaStatistics extends Statistics {
 	private final long argNodesFeasible;
 	private final long argNodesExpanded;
 	private final long discreteStatesExpanded;
+	private final long prunedCandidates;
+	private final long savedLeqChecks;
+	private final long prunedActions;
 
 	private LazyXtaStatistics(final Builder builder) {
 		algorithmTimeInMs = builder.algorithmTimer.elapsed(TimeUnit.MILLISECONDS);
@@ -52,6 +55,9 @@ public final class LazyXtaStatistics extends Statistics {
 		argNodesExpanded = builder.arg.getNodes().filter(ArgNode::isExpanded).count();
 		discreteStatesExpanded = builder.arg.getNodes().filter(ArgNode::isExpanded)
 				.map(n -> Tuple.of(n.getState().getLocs(), n.getState().getVal())).collect(toSet()).size();
+		prunedCandidates = builder.prunedCandidates;
+		savedLeqChecks = builder.savedLeqChecks;
+		prunedActions = builder.prunedActions;
 
 		addStat("AlgorithmTimeInMs", this::getAlgorithmTimeInMs);
 		addStat("RefinementTimeInMs", this::getRefinementTimeInMs);
@@ -62,6 +68,9 @@ public final class LazyXtaStatistics extends Statistics {
 		addStat("ArgNodesFeasible", this::getArgNodesFeasible);
 		addStat("ArgNodesExpanded", this::getArgNodesExpanded);
 		addStat("DiscreteStatesExpanded", this::getDiscreteStatesExpanded);
+		addStat("PrunedCandidates", this::getPrunedCandidates);
+		addStat("SavedLeqChecks", this::getSavedLeqChecks);
+		addStat("PrunedActions", this::getPrunedActions);
 	}
 
 	public static Builder builder(final ARG<? extends XtaState<?>, ?> arg) {
@@ -104,6 +113,21 @@ public final class LazyXtaStatistics extends Statistics {
 		return discreteStatesExpanded;
 	}
 
+	public long getPrunedCandidates() {
+		return prunedCandidates;
+	}
+
+	public long getSavedLeqChecks() {
+		return savedLeqChecks;
+	}
+
+	/**
+	 * Gets the number of actions omitted by partial order reduction.
+	 */
+	public long getPrunedActions() {
+		return prunedActions;
+	}
+
 	public static final class Builder {
 
 		private enum State {
@@ -118,6 +142,9 @@ public final class LazyXtaStatistics extends Statistics {
 		private final Stopwatch interpolationTimer;
 
 		private long refinementSteps;
+		private long prunedCandidates;
+		private long savedLeqChecks;
+		private long prunedActions;
 
 		private Builder(final ARG<? extends XtaState<?>, ?> arg) {
 			this.arg = checkNotNull(arg);
@@ -126,6 +153,9 @@ public final class LazyXtaStatistics extends Statistics {
 			refinementTimer = Stopwatch.createUnstarted();
 			interpolationTimer = Stopwatch.createUnstarted();
 			refinementSteps = 0;
+			prunedCandidates = 0;
+			savedLeqChecks = 0;
+			prunedActions = 0;
 		}
 
 		public void startAlgorithm() {
@@ -169,6 +199,17 @@ public final class LazyXtaStatistics extends Statistics {
 			refinementSteps++;
 		}
 
+		public void coverage(final long prunedCandidates, final long savedLeqChecks) {
+			checkState(state == State.STOPPED);
+			this.prunedCandidates = prunedCandidates;
+			this.savedLeqChecks = savedLeqChecks;
+		}
+
+		public void reduction(final long prunedActions) {
+			checkState(state == State.STOPPED);
+			this.prunedActions = prunedActions;
+		}
+
 		public LazyXtaStatistics build() {
 			checkState(state == State.STOPPED);
 			state = State.BUILT;
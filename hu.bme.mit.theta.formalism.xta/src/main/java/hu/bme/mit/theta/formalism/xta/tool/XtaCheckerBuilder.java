@@ -15,10 +15,16 @@
  */
 package hu.bme.mit.theta.formalism.xta.tool;
 
+import hu.bme.mit.theta.analysis.LTS;
+import hu.bme.mit.theta.analysis.algorithm.Budget;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SearchStrategy;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.formalism.xta.XtaSystem;
+import hu.bme.mit.theta.formalism.xta.analysis.XtaAction;
+import hu.bme.mit.theta.formalism.xta.analysis.XtaLts;
+import hu.bme.mit.theta.formalism.xta.analysis.XtaPorLts;
+import hu.bme.mit.theta.formalism.xta.analysis.XtaState;
 import hu.bme.mit.theta.formalism.xta.analysis.lazy.ActStrategy;
 import hu.bme.mit.theta.formalism.xta.analysis.lazy.BinItpStrategy;
 import hu.bme.mit.theta.formalism.xta.analysis.lazy.ItpStrategy.ItpOperator;
@@ -101,16 +107,50 @@ public final class XtaCheckerBuilder {
 		public abstract SearchStrategy create();
 	}
 
+	public enum Reduction {
+
+		NONE {
+			@Override
+			public LTS<XtaState<?>, XtaAction> create(final XtaSystem system) {
+				return XtaLts.create(system);
+			}
+		},
+
+		/**
+		 * Partial order reduction with {@link XtaPorLts}. It only prunes edges
+		 * without synchronization, shared variables, clocks and invariants.
+		 */
+		POR {
+			@Override
+			public LTS<XtaState<?>, XtaAction> create(final XtaSystem system) {
+				return XtaPorLts.create(system);
+			}
+		};
+
+		public abstract LTS<XtaState<?>, XtaAction> create(final XtaSystem system);
+	}
+
 	private XtaCheckerBuilder() {
 	}
 
 	public static SafetyChecker<?, ?, UnitPrec> build(final Algorithm algorithm, final Search search,
 			final XtaSystem xta) {
+		return build(algorithm, search, xta, Budget.unlimited());
+	}
+
+	public static SafetyChecker<?, ?, UnitPrec> build(final Algorithm algorithm, final Search search,
+			final XtaSystem xta, final Budget budget) {
+		return build(algorithm, search, xta, budget, Reduction.NONE);
+	}
+
+	public static SafetyChecker<?, ?, UnitPrec> build(final Algorithm algorithm, final Search search,
+			final XtaSystem xta, final Budget budget, final Reduction reduction) {
 		final LazyXtaChecker.AlgorithmStrategy<?> algorithmStrategy = algorithm.create(xta);
 		final SearchStrategy searchStrategy = search.create();
+		final LTS<XtaState<?>, XtaAction> lts = reduction.create(xta);
 
-		final SafetyChecker<?, ?, UnitPrec> checker = LazyXtaChecker.create(xta, algorithmStrategy, searchStrategy,
-				l -> false);
+		final SafetyChecker<?, ?, UnitPrec> checker = LazyXtaChecker.create(xta, lts, algorithmStrategy,
+				searchStrategy, l -> false, budget);
 		return checker;
 	}
 }
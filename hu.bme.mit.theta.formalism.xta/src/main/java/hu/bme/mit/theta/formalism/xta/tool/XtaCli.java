@@ -19,11 +19,13 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
 
+import hu.bme.mit.theta.analysis.algorithm.Budget;
 import hu.bme.mit.theta.analysis.algorithm.SafetyChecker;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
@@ -37,6 +39,7 @@ import hu.bme.mit.theta.formalism.xta.XtaSystem;
 import hu.bme.mit.theta.formalism.xta.analysis.lazy.LazyXtaStatistics;
 import hu.bme.mit.theta.formalism.xta.dsl.XtaDslManager;
 import hu.bme.mit.theta.formalism.xta.tool.XtaCheckerBuilder.Algorithm;
+import hu.bme.mit.theta.formalism.xta.tool.XtaCheckerBuilder.Reduction;
 import hu.bme.mit.theta.formalism.xta.tool.XtaCheckerBuilder.Search;
 
 public final class XtaCli {
@@ -53,6 +56,16 @@ public final class XtaCli {
 	@Parameter(names = { "--search" }, description = "Search strategy", required = true)
 	Search search;
 
+	@Parameter(names = { "--reduction" }, description = "Partial order reduction (only prunes edges "
+			+ "without synchronization, shared variables, clocks and invariants)")
+	Reduction reduction = Reduction.NONE;
+
+	@Parameter(names = { "--timeout" }, description = "Time limit of the whole check in seconds (0 for no limit)")
+	Long timeout = 0L;
+
+	@Parameter(names = { "--memlimit" }, description = "Memory limit of the whole check in MB (0 for no limit)")
+	Long memoryLimit = 0L;
+
 	@Parameter(names = { "--benchmark" }, description = "Benchmark mode (only print metrics)")
 	Boolean benchmarkMode = false;
 
@@ -88,7 +101,9 @@ public final class XtaCli {
 
 		try {
 			final XtaSystem xta = loadModel();
-			final SafetyChecker<?, ?, UnitPrec> checker = XtaCheckerBuilder.build(algorithm, search, xta);
+			final Budget budget = Budget.create(TimeUnit.SECONDS.toMillis(timeout), memoryLimit * 1024 * 1024);
+			final SafetyChecker<?, ?, UnitPrec> checker = XtaCheckerBuilder.build(algorithm, search, xta, budget,
+					reduction);
 			final SafetyResult<?, ?> result = checker.check(UnitPrec.getInstance());
 			printResult(result);
 			if (dotfile != null) {
@@ -113,6 +128,9 @@ public final class XtaCli {
 		writer.cell("ArgNodesFeasible");
 		writer.cell("ArgNodesExpanded");
 		writer.cell("DiscreteStatesExpanded");
+		writer.cell("PrunedCandidates");
+		writer.cell("SavedLeqChecks");
+		writer.cell("PrunedActions");
 		writer.newRow();
 	}
 
@@ -125,7 +143,7 @@ public final class XtaCli {
 		final LazyXtaStatistics stats = (LazyXtaStatistics) result.getStats().get();
 
 		if (benchmarkMode) {
-			writer.cell(result.isSafe());
+			writer.cell(result.isUnknown() ? result.asUnknown().getReason() : result.isSafe());
 			writer.cell(stats.getAlgorithmTimeInMs());
 			writer.cell(stats.getRefinementTimeInMs());
 			writer.cell(stats.getInterpolationTimeInMs());
@@ -135,6 +153,9 @@ public final class XtaCli {
 			writer.cell(stats.getArgNodesFeasible());
 			writer.cell(stats.getArgNodesExpanded());
 			writer.cell(stats.getDiscreteStatesExpanded());
+			writer.cell(stats.getPrunedCandidates());
+			writer.cell(stats.getSavedLeqChecks());
+			writer.cell(stats.getPrunedActions());
 		} else {
 			System.out.println(stats.toString());
 		}
@@ -152,8 +173,8 @@ public final class XtaCli {
 
 	private void writeVisualStatus(final SafetyResult<?, ?> status, final String filename)
 			throws FileNotFoundException {
-		final Graph graph = status.isSafe() ? ArgVisualizer.getDefault().visualize(status.asSafe().getArg())
-				: TraceVisualizer.getDefault().visualize(status.asUnsafe().getTrace());
+		final Graph graph = status.isUnsafe() ? TraceVisualizer.getDefault().visualize(status.asUnsafe().getTrace())
+				: ArgVisualizer.getDefault().visualize(status.getArg());
 		GraphvizWriter.getInstance().writeFile(graph, filename);
 	}
 
@@ -190,11 +190,11 @@ public class XtaGui extends BaseGui {
 					throw new IllegalStateException("No result is present.");
 				}
 				Graph graph = null;
-				if (safetyResult.isSafe()) {
+				if (!safetyResult.isUnsafe()) {
 					if (cbStructureOnly.isSelected()) {
-						graph = ArgVisualizer.getStructureOnly().visualize(safetyResult.asSafe().getArg());
+						graph = ArgVisualizer.getStructureOnly().visualize(safetyResult.getArg());
 					} else {
-						graph = ArgVisualizer.getDefault().visualize(safetyResult.asSafe().getArg());
+						graph = ArgVisualizer.getDefault().visualize(safetyResult.getArg());
 					}
 				} else {
 					graph = TraceVisualizer.getDefault().visualize(safetyResult.asUnsafe().getTrace());
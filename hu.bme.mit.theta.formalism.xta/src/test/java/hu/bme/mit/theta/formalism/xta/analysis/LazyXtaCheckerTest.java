@@ -15,6 +15,7 @@
  */
 package hu.bme.mit.theta.formalism.xta.analysis;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.FileNotFoundException;
@@ -22,6 +23,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -30,10 +34,15 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameter;
 import org.junit.runners.Parameterized.Parameters;
 
+import com.google.common.collect.ImmutableSet;
+
+import hu.bme.mit.theta.analysis.algorithm.Budget;
 import hu.bme.mit.theta.analysis.algorithm.SafetyResult;
 import hu.bme.mit.theta.analysis.algorithm.SearchStrategy;
 import hu.bme.mit.theta.analysis.unit.UnitPrec;
 import hu.bme.mit.theta.analysis.zone.itp.ItpZoneState;
+import hu.bme.mit.theta.formalism.xta.XtaProcess;
+import hu.bme.mit.theta.formalism.xta.XtaProcess.Loc;
 import hu.bme.mit.theta.formalism.xta.XtaSystem;
 import hu.bme.mit.theta.formalism.xta.analysis.XtaAction;
 import hu.bme.mit.theta.formalism.xta.analysis.lazy.ActStrategy;
@@ -51,15 +60,17 @@ public final class LazyXtaCheckerTest {
 	public static Collection<Object[]> data() {
 		return Arrays.asList(new Object[][] {
 
-				// { "/critical-2-25-50.xta" },
+				// { "/critical-2-25-50.xta", false },
+
+				{ "/csma-2.xta", false },
 
-				{ "/csma-2.xta" },
+				{ "/fddi-2.xta", false },
 
-				{ "/fddi-2.xta" },
+				{ "/fischer-2-32-64.xta", false },
 
-				{ "/fischer-2-32-64.xta" },
+				{ "/fischer-local-2-32-64.xta", true },
 
-				{ "/lynch-2-16.xta" }
+				{ "/lynch-2-16.xta", false }
 
 		});
 	}
@@ -67,6 +78,10 @@ public final class LazyXtaCheckerTest {
 	@Parameter(0)
 	public String filepath;
 
+	// Whether partial order reduction prunes actions of the model
+	@Parameter(1)
+	public boolean reducible;
+
 	private XtaSystem system;
 
 	@Before
@@ -117,6 +132,60 @@ public final class LazyXtaCheckerTest {
 		System.out.println(status.getStats().get());
 	}
 
+	@Test
+	public void testLuStrategyWithPor() {
+		// Arrange
+		final LazyXtaChecker<?> checker = LazyXtaChecker.create(system, XtaPorLts.create(system),
+				LuStrategy.create(system), SearchStrategy.breadthFirst(), l -> false, Budget.unlimited());
+
+		// Act
+		final SafetyResult<?, XtaAction> status = checker.check(UnitPrec.getInstance());
+
+		// Assert
+		assertTrue(status.isSafe());
+		System.out.println(status.getStats().get());
+	}
+
+	@Test
+	public void testPorPreservesReachability() {
+		// Arrange
+		final List<XtaProcess> processes = system.getProcesses();
+		int safe = 0;
+		int unsafe = 0;
+		long prunedActions = 0;
+
+		for (final Loc loc0 : processes.get(0).getLocs()) {
+			for (final Loc loc1 : processes.get(1).getLocs()) {
+				final Predicate<List<? extends Loc>> errorLocs = locs -> locs.get(0) == loc0 && locs.get(1) == loc1;
+				final Set<Loc> visible = ImmutableSet.of(loc0, loc1);
+				final LazyXtaChecker<?> checker = LazyXtaChecker.create(system, LuStrategy.create(system),
+						SearchStrategy.breadthFirst(), errorLocs);
+				final XtaPorLts porLts = XtaPorLts.create(system, visible::contains);
+				final LazyXtaChecker<?> porChecker = LazyXtaChecker.create(system, porLts, LuStrategy.create(system),
+						SearchStrategy.breadthFirst(), errorLocs, Budget.unlimited());
+
+				// Act
+				final SafetyResult<?, XtaAction> status = checker.check(UnitPrec.getInstance());
+				final SafetyResult<?, XtaAction> porStatus = porChecker.check(UnitPrec.getInstance());
+
+				// Assert
+				assertEquals(loc0.getName() + ", " + loc1.getName(), status.isSafe(), porStatus.isSafe());
+				prunedActions += porLts.getPrunedActions();
+				if (status.isSafe()) {
+					safe++;
+				} else {
+					unsafe++;
+				}
+			}
+		}
+
+		// Both verdicts must occur, otherwise the comparison is vacuous
+		assertTrue(safe > 0);
+		assertTrue(unsafe > 0);
+		// The comparison is also vacuous if the reduction prunes nothing
+		assertEquals(reducible, prunedActions > 0);
+	}
+
 	@Test
 	public void testActStrategy() {
 		// Arrange
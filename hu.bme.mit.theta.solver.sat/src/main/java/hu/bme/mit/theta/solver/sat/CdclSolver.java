@@ -0,0 +1,740 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.sat;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A conflict-driven clause learning SAT solver working on integer literals. The
+ * positive literal of variable v is 2v and the negative literal is 2v+1.
+ * Clauses can only be added between solver calls, and they are kept until they
+ * are explicitly removed. Incrementality is achieved by assumptions, which are
+ * assigned before any other decision.
+ * <p>
+ * The solver uses two watched literals for propagation, first UIP learning with
+ * non-chronological backtracking, VSIDS decision heuristic with phase saving,
+ * Luby restarts and activity based deletion of learnt clauses.
+ */
+final class CdclSolver {
+
+	private static final byte UNDEF = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = -1;
+
+	private static final double VAR_DECAY = 0.95;
+	private static final double CLAUSE_DECAY = 0.999;
+	private static final int RESTART_BASE = 100;
+	private static final double LEARNT_RATIO = 1.0 / 3.0;
+	private static final double LEARNT_GROWTH = 1.1;
+
+	private static final class Clause {
+		final int[] lits;
+		final boolean learnt;
+		double activity;
+		boolean deleted;
+
+		Clause(final int[] lits, final boolean learnt) {
+			this.lits = lits;
+			this.learnt = learnt;
+			this.activity = 0;
+			this.deleted = false;
+		}
+	}
+
+	private int nVars;
+	private byte[] assigns;
+	private boolean[] polarity;
+	private int[] level;
+	private Clause[] reason;
+	private double[] activity;
+	private boolean[] seen;
+	private final List<List<Clause>> watches;
+
+	private final List<Clause> clauses;
+	private final List<Clause> learnts;
+
+	private int[] trail;
+	private int trailSize;
+	private int qhead;
+	private final IntList trailLim;
+
+	private final VarHeap order;
+	private double varInc;
+	private double clauseInc;
+	private double maxLearnts;
+
+	private boolean ok;
+	private boolean[] model;
+	private final Set<Integer> conflict;
+
+	CdclSolver() {
+		nVars = 0;
+		assigns = new byte[16];
+		polarity = new boolean[16];
+		level = new int[16];
+		reason = new Clause[16];
+		activity = new double[16];
+		seen = new boolean[16];
+		watches = new ArrayList<>();
+		clauses = new ArrayList<>();
+		learnts = new ArrayList<>();
+		trail = new int[16];
+		trailSize = 0;
+		qhead = 0;
+		trailLim = new IntList();
+		order = new VarHeap();
+		varInc = 1;
+		clauseInc = 1;
+		maxLearnts = 0;
+		ok = true;
+		model = null;
+		conflict = new HashSet<>();
+	}
+
+	////
+
+	static int lit(final int var, final boolean negated) {
+		return 2 * var + (negated ? 1 : 0);
+	}
+
+	static int var(final int lit) {
+		return lit >> 1;
+	}
+
+	static int neg(final int lit) {
+		return lit ^ 1;
+	}
+
+	private static boolean sign(final int lit) {
+		return (lit & 1) == 1;
+	}
+
+	////
+
+	int newVar() {
+		final int var = nVars++;
+		if (var == assigns.length) {
+			final int capacity = 2 * assigns.length;
+			assigns = Arrays.copyOf(assigns, capacity);
+			polarity = Arrays.copyOf(polarity, capacity);
+			level = Arrays.copyOf(level, capacity);
+			reason = Arrays.copyOf(reason, capacity);
+			activity = Arrays.copyOf(activity, capacity);
+			seen = Arrays.copyOf(seen, capacity);
+			trail = Arrays.copyOf(trail, capacity);
+		}
+		// Negative phase by default
+		polarity[var] = true;
+		watches.add(new ArrayList<>());
+		watches.add(new ArrayList<>());
+		order.insert(var);
+		return var;
+	}
+
+	int getNumVars() {
+		return nVars;
+	}
+
+	/**
+	 * Adds a clause. Returns false if the clauses became unsatisfiable
+	 * regardless of the assumptions.
+	 */
+	boolean addClause(final int... lits) {
+		cancelUntil(0);
+		if (!ok) {
+			return false;
+		}
+
+		final IntList simplified = new IntList();
+		for (final int lit : lits) {
+			checkArgument(var(lit) < nVars, "Unknown variable");
+			final byte value = value(lit);
+			if (value == TRUE || simplified.contains(neg(lit))) {
+				// Satisfied or tautology
+				return true;
+			} else if (value == UNDEF && !simplified.contains(lit)) {
+				simplified.add(lit);
+			}
+		}
+
+		if (simplified.size() == 0) {
+			ok = false;
+			return false;
+		} else if (simplified.size() == 1) {
+			enqueue(simplified.get(0), null);
+			ok = propagate() == null;
+			return ok;
+		} else {
+			final Clause clause = new Clause(simplified.toArray(), false);
+			clauses.add(clause);
+			attach(clause);
+			return true;
+		}
+	}
+
+	/**
+	 * Removes every clause (including learnt ones) containing the given
+	 * literal. Variables of removed clauses are kept, so the literal should
+	 * not be used afterwards.
+	 */
+	void removeClausesWith(final int lit) {
+		cancelUntil(0);
+		removeClausesWith(clauses, lit);
+		removeClausesWith(learnts, lit);
+	}
+
+	private void removeClausesWith(final List<Clause> clauses, final int lit) {
+		int j = 0;
+		for (int i = 0; i < clauses.size(); i++) {
+			final Clause clause = clauses.get(i);
+			if (contains(clause.lits, lit)) {
+				// Watch lists are cleaned lazily during propagation
+				clause.deleted = true;
+			} else {
+				clauses.set(j++, clause);
+			}
+		}
+		truncate(clauses, j);
+	}
+
+	/**
+	 * Checks satisfiability under the given assumptions. If the result is
+	 * satisfiable, the model can be queried, otherwise the assumptions
+	 * responsible for unsatisfiability can be queried.
+	 */
+	boolean solve(final int... assumptions) {
+		model = null;
+		conflict.clear();
+		cancelUntil(0);
+		if (!ok) {
+			return false;
+		}
+		if (propagate() != null) {
+			ok = false;
+			return false;
+		}
+
+		maxLearnts = Math.max(clauses.size() * LEARNT_RATIO, 100);
+		byte status = UNDEF;
+		for (int restart = 0; status == UNDEF; restart++) {
+			status = search(assumptions, (long) (luby(restart) * RESTART_BASE));
+			maxLearnts *= LEARNT_GROWTH;
+		}
+
+		if (status == TRUE) {
+			model = new boolean[nVars];
+			for (int var = 0; var < nVars; var++) {
+				model[var] = assigns[var] == TRUE;
+			}
+		}
+		cancelUntil(0);
+		return status == TRUE;
+	}
+
+	boolean modelValue(final int var) {
+		checkState(model != null, "No model available.");
+		return model[var];
+	}
+
+	/**
+	 * Gets the variables of the assumptions that were responsible for the last
+	 * unsatisfiable result.
+	 */
+	Collection<Integer> getConflictVars() {
+		return conflict;
+	}
+
+	////
+
+	private byte search(final int[] assumptions, final long maxConflicts) {
+		long conflicts = 0;
+		final IntList learntLits = new IntList();
+
+		while (true) {
+			final Clause confl = propagate();
+			if (confl != null) {
+				conflicts++;
+				if (decisionLevel() == 0) {
+					ok = false;
+					return FALSE;
+				}
+
+				learntLits.clear();
+				final int backtrackLevel = analyze(confl, learntLits);
+				cancelUntil(backtrackLevel);
+				if (learntLits.size() == 1) {
+					enqueue(learntLits.get(0), null);
+				} else {
+					final Clause learnt = new Clause(learntLits.toArray(), true);
+					learnts.add(learnt);
+					attach(learnt);
+					bumpClause(learnt);
+					enqueue(learnt.lits[0], learnt);
+				}
+				varInc /= VAR_DECAY;
+				clauseInc /= CLAUSE_DECAY;
+
+			} else {
+				if (conflicts >= maxConflicts) {
+					cancelUntil(0);
+					return UNDEF;
+				}
+				if (learnts.size() - trailSize >= maxLearnts) {
+					reduceLearnts();
+				}
+
+				int next = -1;
+				while (decisionLevel() < assumptions.length) {
+					final int assumption = assumptions[decisionLevel()];
+					final byte value = value(assumption);
+					if (value == TRUE) {
+						// Dummy decision level to keep levels aligned with
+						// assumptions
+						trailLim.add(trailSize);
+					} else if (value == FALSE) {
+						analyzeFinal(assumption);
+						return FALSE;
+					} else {
+						next = assumption;
+						break;
+					}
+				}
+
+				if (next == -1) {
+					next = pickBranchLit();
+					if (next == -1) {
+						return TRUE;
+					}
+				}
+
+				trailLim.add(trailSize);
+				enqueue(next, null);
+			}
+		}
+	}
+
+	private Clause propagate() {
+		Clause confl = null;
+		while (qhead < trailSize) {
+			final int p = trail[qhead++];
+			final int falseLit = neg(p);
+			final List<Clause> ws = watches.get(p);
+
+			int i = 0;
+			int j = 0;
+			final int size = ws.size();
+			while (i < size) {
+				final Clause clause = ws.get(i++);
+				if (clause.deleted) {
+					continue;
+				}
+				final int[] lits = clause.lits;
+
+				// Make sure the false literal is the second one
+				if (lits[0] == falseLit) {
+					lits[0] = lits[1];
+					lits[1] = falseLit;
+				}
+
+				if (value(lits[0]) == TRUE) {
+					ws.set(j++, clause);
+					continue;
+				}
+
+				boolean foundWatch = false;
+				for (int k = 2; k < lits.length; k++) {
+					if (value(lits[k]) != FALSE) {
+						lits[1] = lits[k];
+						lits[k] = falseLit;
+						watches.get(neg(lits[1])).add(clause);
+						foundWatch = true;
+						break;
+					}
+				}
+				if (foundWatch) {
+					continue;
+				}
+
+				ws.set(j++, clause);
+				if (value(lits[0]) == FALSE) {
+					confl = clause;
+					qhead = trailSize;
+					while (i < size) {
+						ws.set(j++, ws.get(i++));
+					}
+				} else {
+					enqueue(lits[0], clause);
+				}
+			}
+			truncate(ws, j);
+		}
+		return confl;
+	}
+
+	private int analyze(final Clause confl, final IntList learntLits) {
+		int pathCount = 0;
+		int p = -1;
+		int index = trailSize - 1;
+		Clause clause = confl;
+
+		// Placeholder for the asserting literal
+		learntLits.add(-1);
+		do {
+			if (clause.learnt) {
+				bumpClause(clause);
+			}
+			for (int k = (p == -1 ? 0 : 1); k < clause.lits.length; k++) {
+				final int q = clause.lits[k];
+				final int v = var(q);
+				if (!seen[v] && level[v] > 0) {
+					bumpVar(v);
+					seen[v] = true;
+					if (level[v] >= decisionLevel()) {
+						pathCount++;
+					} else {
+						learntLits.add(q);
+					}
+				}
+			}
+
+			while (!seen[var(trail[index])]) {
+				index--;
+			}
+			p = trail[index];
+			index--;
+			clause = reason[var(p)];
+			seen[var(p)] = false;
+			pathCount--;
+		} while (pathCount > 0);
+		learntLits.set(0, neg(p));
+
+		for (int i = 1; i < learntLits.size(); i++) {
+			seen[var(learntLits.get(i))] = false;
+		}
+
+		if (learntLits.size() == 1) {
+			return 0;
+		}
+
+		// Put the literal with the highest level to the second place so that
+		// it is watched
+		int maxIndex = 1;
+		for (int i = 2; i < learntLits.size(); i++) {
+			if (level[var(learntLits.get(i))] > level[var(learntLits.get(maxIndex))]) {
+				maxIndex = i;
+			}
+		}
+		final int tmp = learntLits.get(1);
+		learntLits.set(1, learntLits.get(maxIndex));
+		learntLits.set(maxIndex, tmp);
+		return level[var(learntLits.get(1))];
+	}
+
+	/**
+	 * Collects the assumptions that imply the negation of the given
+	 * (falsified) assumption.
+	 */
+	private void analyzeFinal(final int assumption) {
+		conflict.add(var(assumption));
+		if (decisionLevel() == 0) {
+			return;
+		}
+
+		seen[var(assumption)] = true;
+		for (int i = trailSize - 1; i >= trailLim.get(0); i--) {
+			final int v = var(trail[i]);
+			if (seen[v]) {
+				final Clause clause = reason[v];
+				if (clause == null) {
+					assert level[v] > 0;
+					conflict.add(v);
+				} else {
+					for (int k = 1; k < clause.lits.length; k++) {
+						if (level[var(clause.lits[k])] > 0) {
+							seen[var(clause.lits[k])] = true;
+						}
+					}
+				}
+				seen[v] = false;
+			}
+		}
+		seen[var(assumption)] = false;
+	}
+
+	private int pickBranchLit() {
+		while (!order.isEmpty()) {
+			final int var = order.removeMax();
+			if (assigns[var] == UNDEF) {
+				return lit(var, polarity[var]);
+			}
+		}
+		return -1;
+	}
+
+	private void reduceLearnts() {
+		final double limit = clauseInc / learnts.size();
+		learnts.sort((c1, c2) -> Double.compare(c1.activity, c2.activity));
+		int j = 0;
+		for (int i = 0; i < learnts.size(); i++) {
+			final Clause clause = learnts.get(i);
+			if (clause.lits.length > 2 && !isLocked(clause) && (i < learnts.size() / 2 || clause.activity < limit)) {
+				clause.deleted = true;
+			} else {
+				learnts.set(j++, clause);
+			}
+		}
+		truncate(learnts, j);
+	}
+
+	private boolean isLocked(final Clause clause) {
+		final int first = clause.lits[0];
+		return reason[var(first)] == clause && value(first) == TRUE;
+	}
+
+	////
+
+	private void attach(final Clause clause) {
+		watches.get(neg(clause.lits[0])).add(clause);
+		watches.get(neg(clause.lits[1])).add(clause);
+	}
+
+	private void enqueue(final int lit, final Clause from) {
+		final int var = var(lit);
+		assert assigns[var] == UNDEF;
+		assigns[var] = sign(lit) ? FALSE : TRUE;
+		level[var] = decisionLevel();
+		reason[var] = from;
+		trail[trailSize++] = lit;
+	}
+
+	private void cancelUntil(final int targetLevel) {
+		if (decisionLevel() > targetLevel) {
+			final int limit = trailLim.get(targetLevel);
+			for (int i = trailSize - 1; i >= limit; i--) {
+				final int var = var(trail[i]);
+				assigns[var] = UNDEF;
+				reason[var] = null;
+				polarity[var] = sign(trail[i]);
+				order.insert(var);
+			}
+			trailSize = limit;
+			qhead = limit;
+			trailLim.truncate(targetLevel);
+		}
+	}
+
+	private int decisionLevel() {
+		return trailLim.size();
+	}
+
+	private byte value(final int lit) {
+		final byte value = assigns[var(lit)];
+		return sign(lit) ? (byte) -value : value;
+	}
+
+	private void bumpVar(final int var) {
+		activity[var] += varInc;
+		if (activity[var] > 1e100) {
+			for (int v = 0; v < nVars; v++) {
+				activity[v] *= 1e-100;
+			}
+			varInc *= 1e-100;
+		}
+		order.increased(var);
+	}
+
+	private void bumpClause(final Clause clause) {
+		clause.activity += clauseInc;
+		if (clause.activity > 1e20) {
+			for (final Clause learnt : learnts) {
+				learnt.activity *= 1e-20;
+			}
+			clauseInc *= 1e-20;
+		}
+	}
+
+	////
+
+	private static boolean contains(final int[] lits, final int lit) {
+		for (final int l : lits) {
+			if (l == lit) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static <T> void truncate(final List<T> list, final int size) {
+		list.subList(size, list.size()).clear();
+	}
+
+	private static double luby(final int x) {
+		int size = 1;
+		int seq = 0;
+		while (size < x + 1) {
+			seq++;
+			size = 2 * size + 1;
+		}
+		int i = x;
+		while (size - 1 != i) {
+			size = (size - 1) >> 1;
+			seq--;
+			i = i % size;
+		}
+		return Math.pow(2, seq);
+	}
+
+	////
+
+	private static final class IntList {
+		private int[] elems = new int[8];
+		private int size = 0;
+
+		void add(final int elem) {
+			if (size == elems.length) {
+				elems = Arrays.copyOf(elems, 2 * size);
+			}
+			elems[size++] = elem;
+		}
+
+		int get(final int index) {
+			assert index < size;
+			return elems[index];
+		}
+
+		void set(final int index, final int elem) {
+			assert index < size;
+			elems[index] = elem;
+		}
+
+		boolean contains(final int elem) {
+			for (int i = 0; i < size; i++) {
+				if (elems[i] == elem) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		int size() {
+			return size;
+		}
+
+		void clear() {
+			size = 0;
+		}
+
+		void truncate(final int newSize) {
+			size = newSize;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(elems, size);
+		}
+	}
+
+	/**
+	 * Binary max-heap of variables ordered by their activity.
+	 */
+	private final class VarHeap {
+		private int[] heap = new int[16];
+		private int[] indices = new int[16];
+		private int size = 0;
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		void insert(final int var) {
+			if (var >= indices.length) {
+				final int oldLength = indices.length;
+				indices = Arrays.copyOf(indices, Math.max(2 * oldLength, var + 1));
+				Arrays.fill(indices, oldLength, indices.length, -1);
+			} else if (indices[var] >= 0 && indices[var] < size && heap[indices[var]] == var) {
+				return;
+			}
+			if (size == heap.length) {
+				heap = Arrays.copyOf(heap, 2 * size);
+			}
+			heap[size] = var;
+			indices[var] = size;
+			size++;
+			up(size - 1);
+		}
+
+		void increased(final int var) {
+			if (var < indices.length && indices[var] >= 0 && indices[var] < size && heap[indices[var]] == var) {
+				up(indices[var]);
+			}
+		}
+
+		int removeMax() {
+			final int var = heap[0];
+			size--;
+			indices[var] = -1;
+			if (size > 0) {
+				heap[0] = heap[size];
+				indices[heap[0]] = 0;
+				down(0);
+			}
+			return var;
+		}
+
+		private void up(final int index) {
+			final int var = heap[index];
+			int i = index;
+			while (i > 0) {
+				final int parent = (i - 1) >> 1;
+				if (activity[heap[parent]] >= activity[var]) {
+					break;
+				}
+				heap[i] = heap[parent];
+				indices[heap[i]] = i;
+				i = parent;
+			}
+			heap[i] = var;
+			indices[var] = i;
+		}
+
+		private void down(final int index) {
+			final int var = heap[index];
+			int i = index;
+			while (2 * i + 1 < size) {
+				int child = 2 * i + 1;
+				if (child + 1 < size && activity[heap[child + 1]] > activity[heap[child]]) {
+					child++;
+				}
+				if (activity[heap[child]] <= activity[var]) {
+					break;
+				}
+				heap[i] = heap[child];
+				indices[heap[i]] = i;
+				i = child;
+			}
+			heap[i] = var;
+			indices[var] = i;
+		}
+	}
+
+}
@@ -0,0 +1,378 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.sat;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+
+import hu.bme.mit.theta.core.decl.ConstDecl;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.model.AbstractModel;
+import hu.bme.mit.theta.core.model.Model;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.Type;
+import hu.bme.mit.theta.core.type.anytype.IteExpr;
+import hu.bme.mit.theta.core.type.anytype.RefExpr;
+import hu.bme.mit.theta.core.type.booltype.AndExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.IffExpr;
+import hu.bme.mit.theta.core.type.booltype.ImplyExpr;
+import hu.bme.mit.theta.core.type.booltype.NotExpr;
+import hu.bme.mit.theta.core.type.booltype.OrExpr;
+import hu.bme.mit.theta.core.type.booltype.XorExpr;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+import hu.bme.mit.theta.core.utils.TypeUtils;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverStatus;
+import hu.bme.mit.theta.solver.Stack;
+import hu.bme.mit.theta.solver.impl.StackImpl;
+
+/**
+ * Solver for purely Boolean expressions. Expressions are transformed to CNF by
+ * the Tseitin encoding and checked by a CDCL SAT solver. Clauses of each stack
+ * level are guarded by an activation literal, which is assumed while the level
+ * is active, and removed when the level is popped. Tracked expressions are
+ * guarded by their own activation literal, which is used to get unsat cores.
+ */
+final class SatSolver implements Solver {
+
+	private CdclSolver solver;
+
+	private Stack<Expr<BoolType>> assertions;
+	private Stack<Integer> trackVars;
+	private final List<Integer> levelVars;
+	private final Map<Integer, Expr<BoolType>> trackVarToAssertion;
+	private final Map<Decl<?>, Integer> declToVar;
+
+	private Model model;
+	private Collection<Expr<BoolType>> unsatCore;
+	private SolverStatus status;
+
+	SatSolver() {
+		solver = new CdclSolver();
+		assertions = new StackImpl<>();
+		trackVars = new StackImpl<>();
+		levelVars = new ArrayList<>();
+		trackVarToAssertion = new HashMap<>();
+		declToVar = new HashMap<>();
+	}
+
+	////
+
+	@Override
+	public void add(final Expr<BoolType> assertion) {
+		checkNotNull(assertion);
+		assertions.add(assertion);
+		encode(assertion, getGuards());
+		clearState();
+	}
+
+	@Override
+	public void track(final Expr<BoolType> assertion) {
+		checkNotNull(assertion);
+		assertions.add(assertion);
+		final int trackVar = solver.newVar();
+		trackVars.add(trackVar);
+		trackVarToAssertion.put(trackVar, assertion);
+
+		final List<Integer> guards = getGuards();
+		guards.add(CdclSolver.lit(trackVar, true));
+		encode(assertion, guards);
+		clearState();
+	}
+
+	@Override
+	public SolverStatus check() {
+		final List<Integer> assumptions = new ArrayList<>();
+		for (final int levelVar : levelVars) {
+			assumptions.add(CdclSolver.lit(levelVar, false));
+		}
+		for (final int trackVar : trackVars) {
+			assumptions.add(CdclSolver.lit(trackVar, false));
+		}
+
+		final boolean sat = solver.solve(assumptions.stream().mapToInt(Integer::intValue).toArray());
+		status = sat ? SolverStatus.SAT : SolverStatus.UNSAT;
+		return status;
+	}
+
+	@Override
+	public void push() {
+		assertions.push();
+		trackVars.push();
+		levelVars.add(solver.newVar());
+	}
+
+	@Override
+	public void pop(final int n) {
+		assertions.pop(n);
+		trackVars.pop(n);
+		for (int i = 0; i < n; i++) {
+			final int levelVar = levelVars.remove(levelVars.size() - 1);
+			solver.removeClausesWith(CdclSolver.lit(levelVar, true));
+		}
+		trackVarToAssertion.keySet().retainAll(trackVars.toCollection());
+		clearState();
+	}
+
+	@Override
+	public void reset() {
+		solver = new CdclSolver();
+		assertions = new StackImpl<>();
+		trackVars = new StackImpl<>();
+		levelVars.clear();
+		trackVarToAssertion.clear();
+		declToVar.clear();
+		clearState();
+	}
+
+	@Override
+	public SolverStatus getStatus() {
+		checkState(status != null, "Solver status is unknown.");
+		return status;
+	}
+
+	@Override
+	public Model getModel() {
+		checkState(status == SolverStatus.SAT, "Cannot get model if status is not SAT.");
+
+		if (model == null) {
+			model = new SatModel(collectConsts(assertions.toCollection()));
+		}
+
+		return model;
+	}
+
+	@Override
+	public Collection<Expr<BoolType>> getUnsatCore() {
+		checkState(status == SolverStatus.UNSAT, "Cannot get unsat core if status is not UNSAT");
+
+		if (unsatCore == null) {
+			final List<Expr<BoolType>> core = new ArrayList<>();
+			for (final int var : solver.getConflictVars()) {
+				final Expr<BoolType> assertion = trackVarToAssertion.get(var);
+				if (assertion != null) {
+					core.add(assertion);
+				}
+			}
+			unsatCore = core;
+		}
+
+		return Collections.unmodifiableCollection(unsatCore);
+	}
+
+	@Override
+	public Collection<Expr<BoolType>> getAssertions() {
+		return assertions.toCollection();
+	}
+
+	private void clearState() {
+		status = null;
+		model = null;
+		unsatCore = null;
+	}
+
+	////
+
+	private List<Integer> getGuards() {
+		final List<Integer> guards = new ArrayList<>();
+		if (!levelVars.isEmpty()) {
+			guards.add(CdclSolver.lit(levelVars.get(levelVars.size() - 1), true));
+		}
+		return guards;
+	}
+
+	private void encode(final Expr<BoolType> assertion, final List<Integer> guards) {
+		final Expr<BoolType> normalized = normalize(assertion);
+		final Set<ConstDecl<?>> consts = collectConsts(Collections.singleton(normalized));
+		final Expr<BoolType> cnf = ExprUtils.transformEquiSatCnf(normalized);
+
+		// Representatives introduced by the encoding are only used in the
+		// clauses of this assertion
+		final Map<Decl<?>, Integer> representatives = new HashMap<>();
+		for (final Expr<BoolType> clause : getClauses(cnf)) {
+			final List<Integer> lits = new ArrayList<>(guards);
+			boolean satisfied = false;
+			for (final Expr<BoolType> lit : getLits(clause)) {
+				final Optional<Integer> encodedLit = encodeLit(lit, consts, representatives);
+				if (encodedLit.isPresent()) {
+					lits.add(encodedLit.get());
+				} else if (isTrue(lit)) {
+					satisfied = true;
+					break;
+				}
+			}
+			if (!satisfied) {
+				solver.addClause(lits.stream().mapToInt(Integer::intValue).toArray());
+			}
+		}
+	}
+
+	private Optional<Integer> encodeLit(final Expr<BoolType> lit, final Set<ConstDecl<?>> consts,
+			final Map<Decl<?>, Integer> representatives) {
+		if (lit instanceof NotExpr) {
+			final Optional<Integer> opLit = encodeLit(((NotExpr) lit).getOp(), consts, representatives);
+			return opLit.map(CdclSolver::neg);
+		} else if (lit instanceof BoolLitExpr) {
+			return Optional.empty();
+		} else if (lit instanceof RefExpr) {
+			final Decl<?> decl = ((RefExpr<?>) lit).getDecl();
+			final Map<Decl<?>, Integer> vars = consts.contains(decl) ? declToVar : representatives;
+			final int var = vars.computeIfAbsent(decl, d -> solver.newVar());
+			return Optional.of(CdclSolver.lit(var, false));
+		} else {
+			throw new AssertionError("Unexpected literal in CNF: " + lit);
+		}
+	}
+
+	private static boolean isTrue(final Expr<BoolType> lit) {
+		if (lit instanceof NotExpr) {
+			return !isTrue(((NotExpr) lit).getOp());
+		} else {
+			return lit instanceof BoolLitExpr && ((BoolLitExpr) lit).getValue();
+		}
+	}
+
+	private static List<Expr<BoolType>> getClauses(final Expr<BoolType> cnf) {
+		final List<Expr<BoolType>> clauses = new ArrayList<>();
+		collectClauses(cnf, clauses);
+		return clauses;
+	}
+
+	private static void collectClauses(final Expr<BoolType> expr, final List<Expr<BoolType>> clauses) {
+		if (expr instanceof AndExpr) {
+			for (final Expr<BoolType> op : ((AndExpr) expr).getOps()) {
+				collectClauses(op, clauses);
+			}
+		} else {
+			clauses.add(expr);
+		}
+	}
+
+	private static List<? extends Expr<BoolType>> getLits(final Expr<BoolType> clause) {
+		if (clause instanceof OrExpr) {
+			return ((OrExpr) clause).getOps();
+		} else {
+			return ImmutableList.of(clause);
+		}
+	}
+
+	/**
+	 * Rewrites the connectives that are not handled by the CNF transformation
+	 * and checks that the expression is purely Boolean.
+	 */
+	private static Expr<BoolType> normalize(final Expr<BoolType> expr) {
+		if (expr instanceof BoolLitExpr) {
+			return expr;
+		} else if (expr instanceof RefExpr) {
+			final Decl<?> decl = ((RefExpr<?>) expr).getDecl();
+			if (!(decl instanceof ConstDecl)) {
+				throw new UnsupportedOperationException("SAT solver only supports constants, found " + decl);
+			}
+			return expr;
+		} else if (expr instanceof NotExpr || expr instanceof AndExpr || expr instanceof OrExpr
+				|| expr instanceof ImplyExpr || expr instanceof IffExpr) {
+			return expr.map(op -> normalize(TypeUtils.cast(op, Bool())));
+		} else if (expr instanceof XorExpr) {
+			final XorExpr xorExpr = (XorExpr) expr;
+			return Not(Iff(normalize(xorExpr.getLeftOp()), normalize(xorExpr.getRightOp())));
+		} else if (expr instanceof IteExpr) {
+			final IteExpr<?> iteExpr = (IteExpr<?>) expr;
+			final Expr<BoolType> cond = normalize(iteExpr.getCond());
+			final Expr<BoolType> then = normalize(TypeUtils.cast(iteExpr.getThen(), Bool()));
+			final Expr<BoolType> elze = normalize(TypeUtils.cast(iteExpr.getElse(), Bool()));
+			return And(Imply(cond, then), Imply(Not(cond), elze));
+		} else {
+			throw new UnsupportedOperationException("SAT solver only supports Boolean connectives, found " + expr);
+		}
+	}
+
+	private static Set<ConstDecl<?>> collectConsts(final Collection<? extends Expr<?>> exprs) {
+		final Set<ConstDecl<?>> consts = new LinkedHashSet<>();
+		for (final Expr<?> expr : exprs) {
+			collectConsts(expr, consts);
+		}
+		return consts;
+	}
+
+	private static void collectConsts(final Expr<?> expr, final Set<ConstDecl<?>> consts) {
+		if (expr instanceof RefExpr) {
+			final Decl<?> decl = ((RefExpr<?>) expr).getDecl();
+			if (decl instanceof ConstDecl) {
+				consts.add((ConstDecl<?>) decl);
+			}
+		} else {
+			for (final Expr<?> op : expr.getOps()) {
+				collectConsts(op, consts);
+			}
+		}
+	}
+
+	////
+
+	private final class SatModel extends AbstractModel {
+		private final Collection<ConstDecl<?>> constDecls;
+		private final Map<Decl<?>, Boolean> values;
+
+		private SatModel(final Collection<ConstDecl<?>> constDecls) {
+			this.constDecls = ImmutableList.copyOf(constDecls);
+			values = new HashMap<>();
+			for (final ConstDecl<?> constDecl : constDecls) {
+				final Integer var = declToVar.get(constDecl);
+				// Constants without a variable were simplified out, any value
+				// is fine for them
+				values.put(constDecl, var != null && solver.modelValue(var));
+			}
+		}
+
+		@Override
+		public Collection<? extends Decl<?>> getDecls() {
+			return constDecls;
+		}
+
+		@Override
+		public <DeclType extends Type> Optional<LitExpr<DeclType>> eval(final Decl<DeclType> decl) {
+			checkNotNull(decl);
+			final Boolean value = values.get(decl);
+			if (value == null) {
+				return Optional.empty();
+			}
+			@SuppressWarnings("unchecked")
+			final LitExpr<DeclType> lit = (LitExpr<DeclType>) Bool(value);
+			return Optional.of(lit);
+		}
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.sat;
+
+import hu.bme.mit.theta.solver.ItpSolver;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverFactory;
+
+/**
+ * Factory for the pure Java SAT solver, which only supports purely Boolean
+ * expressions over constants. It cannot compute interpolants.
+ */
+public final class SatSolverFactory implements SolverFactory {
+
+	private static final SatSolverFactory INSTANCE = new SatSolverFactory();
+
+	private SatSolverFactory() {
+	}
+
+	public static SatSolverFactory getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public Solver createSolver() {
+		return new SatSolver();
+	}
+
+	@Override
+	public ItpSolver createItpSolver() {
+		throw new UnsupportedOperationException("SAT solver does not support interpolation.");
+	}
+
+}
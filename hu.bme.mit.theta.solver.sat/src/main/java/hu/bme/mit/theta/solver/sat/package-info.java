@@ -0,0 +1,8 @@
+/**
+ * This package contains a pure Java CDCL SAT solver for purely Boolean
+ * expressions. Only {@link SatSolverFactory} should be used from this project
+ * to create solver instances, and then the common interfaces should be
+ * preferred (e.g., {@link hu.bme.mit.theta.solver.Solver}).
+ */
+
+package hu.bme.mit.theta.solver.sat;
@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.sat;
+
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Iff;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Imply;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Or;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Xor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.decl.ConstDecl;
+import hu.bme.mit.theta.core.model.BasicValuation;
+import hu.bme.mit.theta.core.model.Model;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolLitExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.SolverStatus;
+
+public final class SatSolverTest {
+
+	private final ConstDecl<BoolType> ca = Const("a", Bool());
+	private final ConstDecl<BoolType> cb = Const("b", Bool());
+	private final ConstDecl<BoolType> cc = Const("c", Bool());
+
+	private final Expr<BoolType> a = ca.getRef();
+	private final Expr<BoolType> b = cb.getRef();
+	private final Expr<BoolType> c = cc.getRef();
+
+	@Test
+	public void testSimple() {
+		final Solver solver = SatSolverFactory.getInstance().createSolver();
+
+		solver.add(Imply(a, b));
+		solver.add(Xor(b, c));
+		solver.add(a);
+		assertTrue(solver.check().isSat());
+
+		final Model model = solver.getModel();
+		assertEquals(Bool(true), model.eval(ca).get());
+		assertEquals(Bool(true), model.eval(cb).get());
+		assertEquals(Bool(false), model.eval(cc).get());
+
+		solver.add(c);
+		assertTrue(solver.check().isUnsat());
+	}
+
+	@Test
+	public void testFalse() {
+		final Solver solver = SatSolverFactory.getInstance().createSolver();
+		solver.add(Or(a, False()));
+		assertTrue(solver.check().isSat());
+		solver.add(False());
+		assertTrue(solver.check().isUnsat());
+	}
+
+	@Test
+	public void testPushPop() {
+		final Solver solver = SatSolverFactory.getInstance().createSolver();
+
+		solver.add(Iff(a, b));
+		solver.push();
+		solver.add(a);
+		solver.add(Not(b));
+		assertTrue(solver.check().isUnsat());
+		solver.pop();
+
+		assertTrue(solver.check().isSat());
+		solver.push();
+		solver.add(Not(a));
+		assertTrue(solver.check().isSat());
+		assertEquals(Bool(false), solver.getModel().eval(cb).get());
+		solver.pop();
+
+		assertEquals(1, solver.getAssertions().size());
+	}
+
+	@Test
+	public void testUnsatCore() {
+		final Solver solver = SatSolverFactory.getInstance().createSolver();
+
+		solver.add(Imply(a, b));
+		solver.track(c);
+		solver.track(a);
+		solver.track(Not(b));
+		assertTrue(solver.check().isUnsat());
+
+		final Collection<Expr<BoolType>> core = solver.getUnsatCore();
+		assertEquals(2, core.size());
+		assertTrue(core.contains(a));
+		assertTrue(core.contains(Not(b)));
+	}
+
+	@Test
+	public void testRandom() {
+		final Random random = new Random(0);
+		final List<ConstDecl<BoolType>> consts = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			consts.add(Const("x" + i, Bool()));
+		}
+
+		for (int round = 0; round < 200; round++) {
+			final List<Expr<BoolType>> clauses = new ArrayList<>();
+			final int nClauses = 10 + random.nextInt(30);
+			for (int i = 0; i < nClauses; i++) {
+				final List<Expr<BoolType>> lits = new ArrayList<>();
+				for (int j = 0; j < 3; j++) {
+					final Expr<BoolType> ref = consts.get(random.nextInt(consts.size())).getRef();
+					lits.add(random.nextBoolean() ? ref : Not(ref));
+				}
+				clauses.add(Or(lits));
+			}
+			final Expr<BoolType> expr = And(clauses);
+
+			final Solver solver = SatSolverFactory.getInstance().createSolver();
+			solver.add(expr);
+			final SolverStatus status = solver.check();
+			assertEquals(bruteForce(expr, consts), status.isSat());
+			if (status.isSat()) {
+				final BoolLitExpr value = (BoolLitExpr) ExprUtils.simplify(expr, solver.getModel());
+				assertTrue(value.getValue());
+			}
+		}
+	}
+
+	private static boolean bruteForce(final Expr<BoolType> expr, final List<ConstDecl<BoolType>> consts) {
+		for (int bits = 0; bits < (1 << consts.size()); bits++) {
+			final BasicValuation.Builder builder = BasicValuation.builder();
+			for (int i = 0; i < consts.size(); i++) {
+				builder.put(consts.get(i), Bool((bits & (1 << i)) != 0));
+			}
+			if (((BoolLitExpr) expr.eval(builder.build())).getValue()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.z3;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of idle Z3 contexts. Solvers borrow a context when they are
+ * created and release it when they are closed, so the (expensive) creation of
+ * contexts is avoided if solvers are created repeatedly. Contexts that do not
+ * fit in the pool are closed, freeing their native memory. The pool can be
+ * used from multiple threads, but a borrowed context is owned by a single
+ * solver until it is released.
+ */
+final class Z3ContextPool<C extends com.microsoft.z3.Context> {
+
+	private final Supplier<C> contextFactory;
+	private final BlockingQueue<C> idleContexts;
+	private final LongAdder createdContexts;
+
+	Z3ContextPool(final Supplier<C> contextFactory, final int size) {
+		checkArgument(size >= 0, "Pool size must be non-negative");
+		this.contextFactory = checkNotNull(contextFactory);
+		idleContexts = size > 0 ? new ArrayBlockingQueue<>(size) : null;
+		createdContexts = new LongAdder();
+	}
+
+	/**
+	 * Gets an idle context from the pool, or creates a new one if the pool is
+	 * empty.
+	 */
+	C borrow() {
+		if (idleContexts != null) {
+			final C context = idleContexts.poll();
+			if (context != null) {
+				return context;
+			}
+		}
+		createdContexts.increment();
+		return contextFactory.get();
+	}
+
+	/**
+	 * Returns a context to the pool. The context must not contain any
+	 * assertions, i.e., the solvers created on it must be reset. If the pool is
+	 * full, the context is closed.
+	 */
+	void release(final C context) {
+		checkNotNull(context);
+		if (idleContexts == null || !idleContexts.offer(context)) {
+			context.close();
+		}
+	}
+
+	/**
+	 * Creates new contexts until the pool is full.
+	 */
+	void fill() {
+		if (idleContexts != null) {
+			while (idleContexts.remainingCapacity() > 0) {
+				createdContexts.increment();
+				final C context = contextFactory.get();
+				if (!idleContexts.offer(context)) {
+					context.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Closes the contexts in the pool.
+	 */
+	void clear() {
+		if (idleContexts != null) {
+			C context;
+			while ((context = idleContexts.poll()) != null) {
+				context.close();
+			}
+		}
+	}
+
+	int getIdleContexts() {
+		return idleContexts == null ? 0 : idleContexts.size();
+	}
+
+	long getCreatedContexts() {
+		return createdContexts.sum();
+	}
+
+}
@@ -50,17 +50,18 @@ final class Z3ItpSolver implements ItpSolver {
 
 	private final Z3Solver solver;
 
-	private final Stack<Z3ItpMarker> markers;
+	private Stack<Z3ItpMarker> markers;
 
 	public Z3ItpSolver(final Z3SymbolTable symbolTable, final Z3TransformationManager transformationManager,
 			final Z3TermTransformer termTransformer, final com.microsoft.z3.InterpolationContext z3Context,
-			final com.microsoft.z3.Solver z3Solver) {
+			final com.microsoft.z3.Solver z3Solver, final Runnable contextReleaser) {
 		this.transformationManager = transformationManager;
 		this.termTransformer = termTransformer;
 		this.z3Context = z3Context;
 		this.z3Solver = z3Solver;
 
-		solver = new Z3Solver(symbolTable, transformationManager, termTransformer, z3Context, z3Solver);
+		solver = new Z3Solver(symbolTable, transformationManager, termTransformer, z3Context, z3Solver,
+				contextReleaser);
 
 		markers = new StackImpl<>();
 	}
@@ -185,6 +186,12 @@ final class Z3ItpSolver implements ItpSolver {
 	@Override
 	public void reset() {
 		solver.reset();
+		markers = new StackImpl<>();
+	}
+
+	@Override
+	public void close() {
+		solver.close();
 	}
 
 	@Override
@@ -56,7 +56,9 @@ final class Z3Solver implements Solver {
 	private final com.microsoft.z3.Context z3Context;
 	private final com.microsoft.z3.Solver z3Solver;
 
-	private final Stack<Expr<BoolType>> assertions;
+	private final Runnable contextReleaser;
+
+	private Stack<Expr<BoolType>> assertions;
 	private final Map<String, Expr<BoolType>> assumptions;
 
 	private static final String ASSUMPTION_LABEL = "_LABEL_%d";
@@ -65,15 +67,23 @@ final class Z3Solver implements Solver {
 	private Model model;
 	private Collection<Expr<BoolType>> unsatCore;
 	private SolverStatus status;
+	private boolean closed;
 
+	/**
+	 * Creates a solver that owns the given context and solver until it is
+	 * closed, when the solver is reset and the context is released by the
+	 * given callback.
+	 */
 	public Z3Solver(final Z3SymbolTable symbolTable, final Z3TransformationManager transformationManager,
 			final Z3TermTransformer termTransformer, final com.microsoft.z3.Context z3Context,
-			final com.microsoft.z3.Solver z3Solver) {
+			final com.microsoft.z3.Solver z3Solver, final Runnable contextReleaser) {
 		this.symbolTable = symbolTable;
 		this.transformationManager = transformationManager;
 		this.termTransformer = termTransformer;
 		this.z3Context = z3Context;
 		this.z3Solver = z3Solver;
+		this.contextReleaser = checkNotNull(contextReleaser);
+		closed = false;
 
 		assertions = new StackImpl<>();
 		assumptions = new HashMap<>();
@@ -84,11 +94,13 @@ final class Z3Solver implements Solver {
 	@Override
 	public void add(final Expr<BoolType> assertion) {
 		checkNotNull(assertion);
+		checkOpen();
 		final com.microsoft.z3.BoolExpr term = (com.microsoft.z3.BoolExpr) transformationManager.toTerm(assertion);
 		add(assertion, term);
 	}
 
 	void add(final Expr<BoolType> assertion, final com.microsoft.z3.BoolExpr term) {
+		checkOpen();
 		assertions.add(assertion);
 		z3Solver.add(term);
 		clearState();
@@ -97,6 +109,7 @@ final class Z3Solver implements Solver {
 	@Override
 	public void track(final Expr<BoolType> assertion) {
 		checkNotNull(assertion);
+		checkOpen();
 
 		assertions.add(assertion);
 		final com.microsoft.z3.BoolExpr term = (com.microsoft.z3.BoolExpr) transformationManager.toTerm(assertion);
@@ -112,6 +125,8 @@ final class Z3Solver implements Solver {
 
 	@Override
 	public SolverStatus check() {
+		checkOpen();
+		status = null;
 		final Status z3Status = z3Solver.check();
 		status = transformStatus(z3Status);
 		return status;
@@ -124,18 +139,20 @@ final class Z3Solver implements Solver {
 		case UNSATISFIABLE:
 			return SolverStatus.UNSAT;
 		default:
-			throw new UnknownSolverStatusException();
+			throw new UnknownSolverStatusException(z3Solver.getReasonUnknown());
 		}
 	}
 
 	@Override
 	public void push() {
+		checkOpen();
 		assertions.push();
 		z3Solver.push();
 	}
 
 	@Override
 	public void pop(final int n) {
+		checkOpen();
 		assertions.pop(n);
 		z3Solver.pop(n);
 		clearState();
@@ -143,7 +160,26 @@ final class Z3Solver implements Solver {
 
 	@Override
 	public void reset() {
-		throw new UnsupportedOperationException();
+		checkOpen();
+		z3Solver.reset();
+		assertions = new StackImpl<>();
+		assumptions.clear();
+		labelNum = 0;
+		clearState();
+	}
+
+	/**
+	 * Removes the assertions from the solver and releases its context, which
+	 * might be reused by other solvers.
+	 */
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			clearState();
+			z3Solver.reset();
+			contextReleaser.run();
+		}
 	}
 
 	@Override
@@ -214,6 +250,10 @@ final class Z3Solver implements Solver {
 		return assertions.toCollection();
 	}
 
+	private void checkOpen() {
+		checkState(!closed, "Solver is closed.");
+	}
+
 	private void clearState() {
 		status = null;
 		model = null;
@@ -15,6 +15,11 @@
  */
 package hu.bme.mit.theta.solver.z3;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
 import com.microsoft.z3.InterpolationContext;
 
 import hu.bme.mit.theta.common.OsHelper;
@@ -24,6 +29,8 @@ import hu.bme.mit.theta.solver.SolverFactory;
 import hu.bme.mit.theta.solver.z3.transform.Z3SymbolTable;
 import hu.bme.mit.theta.solver.z3.transform.Z3TermTransformer;
 import hu.bme.mit.theta.solver.z3.transform.Z3TransformationManager;
+import hu.bme.mit.theta.solver.z3.transform.Z3TransformationSettings;
+import hu.bme.mit.theta.solver.z3.transform.Z3TransformationStatistics;
 
 public final class Z3SolverFactory implements SolverFactory {
 
@@ -31,16 +38,80 @@ public final class Z3SolverFactory implements SolverFactory {
 
 	static {
 		loadLibraries();
-		INSTACE = new Z3SolverFactory();
+		INSTACE = builder().build();
 	}
 
-	private Z3SolverFactory() {
+	private final Z3TransformationSettings transformationSettings;
+	private final Z3TransformationStatistics transformationStatistics;
+	private final int timeoutMs;
+	private final int resourceLimit;
+	private final Z3ContextPool<com.microsoft.z3.Context> contextPool;
+	private final Z3ContextPool<InterpolationContext> itpContextPool;
+
+	private Z3SolverFactory(final Builder builder) {
+		this.transformationSettings = builder.transformationSettings;
+		this.transformationStatistics = new Z3TransformationStatistics();
+		this.timeoutMs = builder.timeoutMs;
+		this.resourceLimit = builder.resourceLimit;
+		this.contextPool = new Z3ContextPool<>(com.microsoft.z3.Context::new, builder.contextPoolSize);
+		this.itpContextPool = new Z3ContextPool<>(InterpolationContext::mkContext, builder.contextPoolSize);
 	}
 
 	public static Z3SolverFactory getInstace() {
 		return INSTACE;
 	}
 
+	/**
+	 * Creates a factory whose solvers use the given settings for caching the
+	 * transformations between expressions and Z3 terms.
+	 */
+	public static Z3SolverFactory create(final Z3TransformationSettings transformationSettings) {
+		return builder().transformationSettings(transformationSettings).build();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public Z3TransformationSettings getTransformationSettings() {
+		return transformationSettings;
+	}
+
+	/**
+	 * Gets the transformation statistics summed over all solvers created by
+	 * this factory.
+	 */
+	public Z3TransformationStatistics getTransformationStatistics() {
+		return transformationStatistics;
+	}
+
+	/**
+	 * Creates contexts until the context pools are full, so that the solvers
+	 * created later do not have to wait for the creation of their contexts.
+	 */
+	public void warmUp() {
+		contextPool.fill();
+		itpContextPool.fill();
+	}
+
+	/**
+	 * Closes the idle contexts in the context pools, freeing their native
+	 * memory. The contexts of solvers that are not closed yet are not
+	 * affected.
+	 */
+	public void clearContextPool() {
+		contextPool.clear();
+		itpContextPool.clear();
+	}
+
+	/**
+	 * Gets the number of contexts created by this factory, which is smaller
+	 * than the number of solvers created if contexts are reused from the pool.
+	 */
+	public long getCreatedContexts() {
+		return contextPool.getCreatedContexts() + itpContextPool.getCreatedContexts();
+	}
+
 	private static void loadLibraries() {
 		switch (OsHelper.getOs()) {
 		case WINDOWS:
@@ -56,28 +127,121 @@ public final class Z3SolverFactory implements SolverFactory {
 		}
 	}
 
+	/**
+	 * Creates a solver on a plain context. Unlike the interpolation context, it
+	 * does not generate proofs. The context is borrowed from the context pool
+	 * and it is returned when the solver is closed.
+	 */
 	@Override
 	public Solver createSolver() {
-		final com.microsoft.z3.Context z3Context = new com.microsoft.z3.Context();
+		final com.microsoft.z3.Context z3Context = contextPool.borrow();
 		final com.microsoft.z3.Solver z3Solver = z3Context.mkSimpleSolver();
+		setLimits(z3Context, z3Solver);
 
 		final Z3SymbolTable symbolTable = new Z3SymbolTable();
-		final Z3TransformationManager transformationManager = new Z3TransformationManager(symbolTable, z3Context);
-		final Z3TermTransformer termTransformer = new Z3TermTransformer(symbolTable);
+		final Z3TransformationManager transformationManager = new Z3TransformationManager(symbolTable, z3Context,
+				transformationSettings, transformationStatistics);
+		final Z3TermTransformer termTransformer = new Z3TermTransformer(symbolTable, transformationSettings,
+				transformationStatistics);
 
-		return new Z3Solver(symbolTable, transformationManager, termTransformer, z3Context, z3Solver);
+		return new Z3Solver(symbolTable, transformationManager, termTransformer, z3Context, z3Solver,
+				() -> contextPool.release(z3Context));
 	}
 
+	/**
+	 * Creates a solver on an interpolation context, which has proof generation
+	 * enabled. The context is borrowed from the interpolation context pool and
+	 * it is returned when the solver is closed.
+	 */
 	@Override
 	public ItpSolver createItpSolver() {
-		final com.microsoft.z3.InterpolationContext z3Context = InterpolationContext.mkContext();
+		final com.microsoft.z3.InterpolationContext z3Context = itpContextPool.borrow();
 		final com.microsoft.z3.Solver z3Solver = z3Context.mkSimpleSolver();
+		setLimits(z3Context, z3Solver);
 
 		final Z3SymbolTable symbolTable = new Z3SymbolTable();
-		final Z3TransformationManager transformationManager = new Z3TransformationManager(symbolTable, z3Context);
-		final Z3TermTransformer termTransformer = new Z3TermTransformer(symbolTable);
+		final Z3TransformationManager transformationManager = new Z3TransformationManager(symbolTable, z3Context,
+				transformationSettings, transformationStatistics);
+		final Z3TermTransformer termTransformer = new Z3TermTransformer(symbolTable, transformationSettings,
+				transformationStatistics);
 
-		return new Z3ItpSolver(symbolTable, transformationManager, termTransformer, z3Context, z3Solver);
+		return new Z3ItpSolver(symbolTable, transformationManager, termTransformer, z3Context, z3Solver,
+				() -> itpContextPool.release(z3Context));
+	}
+
+	/**
+	 * Sets the limits of a single check. If a limit is reached, the check
+	 * throws an UnknownSolverStatusException.
+	 */
+	private void setLimits(final com.microsoft.z3.Context z3Context, final com.microsoft.z3.Solver z3Solver) {
+		if (timeoutMs > 0 || resourceLimit > 0) {
+			final com.microsoft.z3.Params params = z3Context.mkParams();
+			if (timeoutMs > 0) {
+				params.add("timeout", timeoutMs);
+			}
+			if (resourceLimit > 0) {
+				params.add("rlimit", resourceLimit);
+			}
+			z3Solver.setParameters(params);
+		}
+	}
+
+	public static final class Builder {
+		private Z3TransformationSettings transformationSettings;
+		private int timeoutMs;
+		private int resourceLimit;
+		private int contextPoolSize;
+
+		private Builder() {
+			transformationSettings = Z3TransformationSettings.getDefault();
+			timeoutMs = 0;
+			resourceLimit = 0;
+			contextPoolSize = 0;
+		}
+
+		/**
+		 * Sets the caching of the transformations between expressions and Z3
+		 * terms.
+		 */
+		public Builder transformationSettings(final Z3TransformationSettings transformationSettings) {
+			this.transformationSettings = checkNotNull(transformationSettings);
+			return this;
+		}
+
+		/**
+		 * Sets the time limit of a single check, where 0 means no limit.
+		 */
+		public Builder timeout(final long timeout, final TimeUnit unit) {
+			final long timeoutMs = unit.toMillis(timeout);
+			checkArgument(timeoutMs >= 0 && timeoutMs <= Integer.MAX_VALUE, "Timeout out of range");
+			this.timeoutMs = (int) timeoutMs;
+			return this;
+		}
+
+		/**
+		 * Sets the resource limit (rlimit) of a single check, where 0 means
+		 * no limit. Unlike the timeout, this limit is deterministic.
+		 */
+		public Builder resourceLimit(final long resourceLimit) {
+			checkArgument(resourceLimit >= 0 && resourceLimit <= Integer.MAX_VALUE, "Resource limit out of range");
+			this.resourceLimit = (int) resourceLimit;
+			return this;
+		}
+
+		/**
+		 * Sets the maximal number of idle contexts kept for reuse (for both
+		 * plain and interpolation contexts), where 0 means that the context
+		 * of a solver is closed when the solver is closed.
+		 */
+		public Builder contextPoolSize(final int contextPoolSize) {
+			checkArgument(contextPoolSize >= 0, "Context pool size must be non-negative");
+			this.contextPoolSize = contextPoolSize;
+			return this;
+		}
+
+		public Z3SolverFactory build() {
+			return new Z3SolverFactory(this);
+		}
 	}
 
 }
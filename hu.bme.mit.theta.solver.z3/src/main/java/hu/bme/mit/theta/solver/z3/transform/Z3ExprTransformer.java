@@ -15,10 +15,10 @@
  */
 package hu.bme.mit.theta.solver.z3.transform;
 
-import java.util.concurrent.ExecutionException;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.microsoft.z3.Context;
 
 import hu.bme.mit.theta.common.DispatchTable;
@@ -63,22 +63,36 @@ import hu.bme.mit.theta.core.type.rattype.RatMulExpr;
 import hu.bme.mit.theta.core.type.rattype.RatNegExpr;
 import hu.bme.mit.theta.core.type.rattype.RatNeqExpr;
 import hu.bme.mit.theta.core.type.rattype.RatSubExpr;
+import hu.bme.mit.theta.solver.z3.transform.Z3TransformationSettings.CachePolicy;
+import hu.bme.mit.theta.solver.z3.transform.Z3TransformationStatistics.CacheStatistics;
 
 class Z3ExprTransformer {
 
-	private static final int CACHE_SIZE = 1000;
-
 	private final Z3TransformationManager transformer;
 	private final Context context;
 
+	private final boolean caching;
 	private final Cache<Expr<?>, com.microsoft.z3.Expr> exprToTerm;
+	private final CacheStatistics statistics;
 	private final DispatchTable<com.microsoft.z3.Expr> table;
 
-	Z3ExprTransformer(final Z3TransformationManager transformer, final Context context) {
+	// Subterms transformed during the current top-level call, so that shared
+	// subterms are transformed only once even if they are evicted from the cache
+	private Map<Expr<?>, com.microsoft.z3.Expr> callCache;
+
+	Z3ExprTransformer(final Z3TransformationManager transformer, final Context context,
+			final Z3TransformationSettings settings, final Z3TransformationStatistics statistics) {
 		this.context = context;
 		this.transformer = transformer;
+		this.statistics = statistics.getExprToTerm();
 
-		exprToTerm = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+		caching = settings.getCachePolicy() != CachePolicy.NONE;
+		exprToTerm = settings.buildCache(n -> {
+			if (n.wasEvicted()) {
+				this.statistics.evict();
+			}
+		});
+		callCache = null;
 
 		table = DispatchTable.<com.microsoft.z3.Expr>builder()
 
@@ -170,11 +184,38 @@ class Z3ExprTransformer {
 	}
 
 	public com.microsoft.z3.Expr toTerm(final Expr<?> expr) {
+		if (callCache != null) {
+			return transform(expr);
+		}
+
+		final long start = System.nanoTime();
+		callCache = new HashMap<>();
 		try {
-			return exprToTerm.get(expr, () -> table.dispatch(expr));
-		} catch (final ExecutionException e) {
-			throw new AssertionError();
+			return transform(expr);
+		} finally {
+			callCache = null;
+			statistics.addTransformationTime(System.nanoTime() - start);
+		}
+	}
+
+	private com.microsoft.z3.Expr transform(final Expr<?> expr) {
+		com.microsoft.z3.Expr term = callCache.get(expr);
+		if (term == null && caching) {
+			term = exprToTerm.getIfPresent(expr);
 		}
+
+		if (term != null) {
+			statistics.hit();
+		} else {
+			statistics.miss();
+			term = table.dispatch(expr);
+			if (caching) {
+				exprToTerm.put(expr, term);
+			}
+		}
+
+		callCache.put(expr, term);
+		return term;
 	}
 
 	////
@@ -37,12 +37,12 @@ import static hu.bme.mit.theta.core.type.rattype.RatExprs.Add;
 import static hu.bme.mit.theta.core.type.rattype.RatExprs.Mul;
 import static hu.bme.mit.theta.core.type.rattype.RatExprs.Rat;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.Map;
 
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.microsoft.z3.FuncDecl;
 import com.microsoft.z3.IntNum;
 import com.microsoft.z3.RatNum;
@@ -55,6 +55,8 @@ import hu.bme.mit.theta.core.type.booltype.BoolType;
 import hu.bme.mit.theta.core.type.inttype.IntType;
 import hu.bme.mit.theta.core.type.rattype.RatType;
 import hu.bme.mit.theta.core.utils.TypeUtils;
+import hu.bme.mit.theta.solver.z3.transform.Z3TransformationSettings.CachePolicy;
+import hu.bme.mit.theta.solver.z3.transform.Z3TransformationStatistics.CacheStatistics;
 
 public class Z3TermTransformer {
 
@@ -62,22 +64,66 @@ public class Z3TermTransformer {
 
 	final Cache<com.microsoft.z3.Expr, Expr<?>> termToExpr;
 
-	private static final int CACHE_SIZE = 1000;
+	private final boolean caching;
+	private final CacheStatistics statistics;
+
+	// Subterms transformed during the current top-level call, so that shared
+	// subterms are transformed only once even if they are evicted from the cache
+	private Map<com.microsoft.z3.Expr, Expr<?>> callCache;
 
 	public Z3TermTransformer(final Z3SymbolTable symbolTable) {
-		this.symbolTable = symbolTable;
+		this(symbolTable, Z3TransformationSettings.getDefault(), new Z3TransformationStatistics());
+	}
 
-		termToExpr = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+	public Z3TermTransformer(final Z3SymbolTable symbolTable, final Z3TransformationSettings settings,
+			final Z3TransformationStatistics statistics) {
+		this.symbolTable = symbolTable;
+		this.statistics = statistics.getTermToExpr();
+
+		caching = settings.getCachePolicy() != CachePolicy.NONE;
+		termToExpr = settings.buildCache(n -> {
+			if (n.wasEvicted()) {
+				this.statistics.evict();
+			}
+		});
+		callCache = null;
 	}
 
 	public Expr<?> toExpr(final com.microsoft.z3.Expr term) {
+		if (callCache != null) {
+			return transformCached(term);
+		}
+
+		final long start = System.nanoTime();
+		callCache = new HashMap<>();
 		try {
-			return termToExpr.get(term, () -> transform(term));
-		} catch (final ExecutionException e) {
-			throw new AssertionError();
+			return transformCached(term);
+		} finally {
+			callCache = null;
+			statistics.addTransformationTime(System.nanoTime() - start);
 		}
 	}
 
+	private Expr<?> transformCached(final com.microsoft.z3.Expr term) {
+		Expr<?> expr = callCache.get(term);
+		if (expr == null && caching) {
+			expr = termToExpr.getIfPresent(term);
+		}
+
+		if (expr != null) {
+			statistics.hit();
+		} else {
+			statistics.miss();
+			expr = transform(term);
+			if (caching) {
+				termToExpr.put(term, expr);
+			}
+		}
+
+		callCache.put(term, expr);
+		return expr;
+	}
+
 	////////
 
 	private Expr<?> transform(final com.microsoft.z3.Expr term) {
@@ -28,9 +28,14 @@ public class Z3TransformationManager {
 	final Z3ExprTransformer exprTransformer;
 
 	public Z3TransformationManager(final Z3SymbolTable symbolTable, final Context context) {
+		this(symbolTable, context, Z3TransformationSettings.getDefault(), new Z3TransformationStatistics());
+	}
+
+	public Z3TransformationManager(final Z3SymbolTable symbolTable, final Context context,
+			final Z3TransformationSettings settings, final Z3TransformationStatistics statistics) {
 		this.typeTransformer = new Z3TypeTransformer(this, context);
 		this.declTransformer = new Z3DeclTransformer(this, symbolTable, context);
-		this.exprTransformer = new Z3ExprTransformer(this, context);
+		this.exprTransformer = new Z3ExprTransformer(this, context, settings, statistics);
 	}
 
 	public com.microsoft.z3.Sort toSort(final Type type) {
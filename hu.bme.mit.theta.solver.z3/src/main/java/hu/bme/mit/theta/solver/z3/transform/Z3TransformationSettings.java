@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.z3.transform;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+
+import hu.bme.mit.theta.common.Utils;
+
+/**
+ * Settings of the caches used when transforming expressions to Z3 terms and
+ * back.
+ */
+public final class Z3TransformationSettings {
+
+	private static final long DEFAULT_CACHE_SIZE = 10000;
+
+	public enum CachePolicy {
+		/**
+		 * Results are not cached between transformations.
+		 */
+		NONE,
+
+		/**
+		 * At most a given number of results are cached, the least recently used
+		 * ones are evicted first.
+		 */
+		BOUNDED,
+
+		/**
+		 * Every result is cached for the lifetime of the solver.
+		 */
+		UNBOUNDED
+	}
+
+	private final CachePolicy cachePolicy;
+	private final long cacheSize;
+
+	private Z3TransformationSettings(final CachePolicy cachePolicy, final long cacheSize) {
+		this.cachePolicy = checkNotNull(cachePolicy);
+		this.cacheSize = cacheSize;
+	}
+
+	public static Z3TransformationSettings getDefault() {
+		return bounded(DEFAULT_CACHE_SIZE);
+	}
+
+	public static Z3TransformationSettings none() {
+		return new Z3TransformationSettings(CachePolicy.NONE, 0);
+	}
+
+	public static Z3TransformationSettings bounded(final long cacheSize) {
+		checkArgument(cacheSize > 0, "Cache size must be positive.");
+		return new Z3TransformationSettings(CachePolicy.BOUNDED, cacheSize);
+	}
+
+	public static Z3TransformationSettings unbounded() {
+		return new Z3TransformationSettings(CachePolicy.UNBOUNDED, 0);
+	}
+
+	public CachePolicy getCachePolicy() {
+		return cachePolicy;
+	}
+
+	/**
+	 * Gets the maximal number of cached results, which is only meaningful for
+	 * the bounded policy.
+	 */
+	public long getCacheSize() {
+		return cacheSize;
+	}
+
+	<K, V> Cache<K, V> buildCache(final RemovalListener<K, V> removalListener) {
+		final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+		switch (cachePolicy) {
+		case NONE:
+			builder.maximumSize(0);
+			break;
+		case BOUNDED:
+			builder.maximumSize(cacheSize);
+			break;
+		case UNBOUNDED:
+			break;
+		default:
+			throw new AssertionError();
+		}
+		return builder.removalListener(removalListener).build();
+	}
+
+	@Override
+	public String toString() {
+		final String policy = cachePolicy == CachePolicy.BOUNDED ? cachePolicy + "(" + cacheSize + ")"
+				: cachePolicy.toString();
+		return Utils.toStringBuilder(getClass().getSimpleName()).add(policy).toString();
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.z3.transform;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import hu.bme.mit.theta.common.Utils;
+
+/**
+ * Statistics of the transformations between expressions and Z3 terms. A single
+ * instance can be shared between the transformers of several solvers (possibly
+ * running on different threads), in which case it contains the sum of their
+ * statistics.
+ */
+public final class Z3TransformationStatistics {
+
+	private final CacheStatistics exprToTerm;
+	private final CacheStatistics termToExpr;
+
+	public Z3TransformationStatistics() {
+		exprToTerm = new CacheStatistics();
+		termToExpr = new CacheStatistics();
+	}
+
+	/**
+	 * Gets the statistics of transforming expressions to Z3 terms.
+	 */
+	public CacheStatistics getExprToTerm() {
+		return exprToTerm;
+	}
+
+	/**
+	 * Gets the statistics of transforming Z3 terms (models, interpolants) back
+	 * to expressions.
+	 */
+	public CacheStatistics getTermToExpr() {
+		return termToExpr;
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add("ExprToTerm: " + exprToTerm)
+				.add("TermToExpr: " + termToExpr).toString();
+	}
+
+	public static final class CacheStatistics {
+		private final LongAdder hits;
+		private final LongAdder misses;
+		private final LongAdder evictions;
+		private final LongAdder transformationTimeNanos;
+
+		private CacheStatistics() {
+			hits = new LongAdder();
+			misses = new LongAdder();
+			evictions = new LongAdder();
+			transformationTimeNanos = new LongAdder();
+		}
+
+		/**
+		 * Gets the number of subterms found in the cache, including the ones
+		 * shared within a single transformation.
+		 */
+		public long getHits() {
+			return hits.sum();
+		}
+
+		/**
+		 * Gets the number of subterms that had to be transformed.
+		 */
+		public long getMisses() {
+			return misses.sum();
+		}
+
+		public long getEvictions() {
+			return evictions.sum();
+		}
+
+		/**
+		 * Gets the total time spent in top-level transformations in
+		 * milliseconds.
+		 */
+		public long getTransformationTimeMs() {
+			return transformationTimeNanos.sum() / 1_000_000;
+		}
+
+		void hit() {
+			hits.increment();
+		}
+
+		void miss() {
+			misses.increment();
+		}
+
+		void evict() {
+			evictions.increment();
+		}
+
+		void addTransformationTime(final long nanos) {
+			transformationTimeNanos.add(nanos);
+		}
+
+		@Override
+		public String toString() {
+			return Utils.toStringBuilder(getClass().getSimpleName()).add("Hits: " + getHits())
+					.add("Misses: " + getMisses()).add("Evictions: " + getEvictions())
+					.add("Time: " + getTransformationTimeMs() + " ms").toString();
+		}
+	}
+
+}
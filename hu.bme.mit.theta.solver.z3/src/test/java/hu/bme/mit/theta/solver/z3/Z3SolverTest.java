@@ -18,16 +18,29 @@ package hu.bme.mit.theta.solver.z3;
 import static hu.bme.mit.theta.core.decl.Decls.Const;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
 import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Gt;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
+import com.microsoft.z3.Native;
+
 import hu.bme.mit.theta.core.decl.ConstDecl;
 import hu.bme.mit.theta.core.model.Model;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.ItpSolver;
 import hu.bme.mit.theta.solver.Solver;
 import hu.bme.mit.theta.solver.SolverStatus;
 
@@ -54,4 +67,91 @@ public final class Z3SolverTest {
 		solver.pop();
 	}
 
+	@Test
+	public void testReset() {
+		try (final Solver solver = Z3SolverFactory.getInstace().createSolver()) {
+			final ConstDecl<BoolType> ca = Const("a", Bool());
+
+			solver.add(False());
+			solver.track(ca.getRef());
+			assertTrue(solver.check().isUnsat());
+
+			solver.reset();
+			assertTrue(solver.getAssertions().isEmpty());
+
+			solver.add(Not(ca.getRef()));
+			assertTrue(solver.check().isSat());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testClosed() {
+		final Solver solver = Z3SolverFactory.getInstace().createSolver();
+		solver.close();
+		solver.close();
+		solver.check();
+	}
+
+	@Test
+	public void testContextPool() {
+		final Z3SolverFactory factory = Z3SolverFactory.builder().contextPoolSize(2).build();
+
+		for (int i = 0; i < 10; i++) {
+			try (final Solver solver = factory.createSolver()) {
+				final ConstDecl<IntType> cx = Const("x", Int());
+				solver.add(Gt(cx.getRef(), Int(i)));
+				assertTrue(solver.check().isSat());
+			}
+			try (final ItpSolver solver = factory.createItpSolver()) {
+				final ConstDecl<BoolType> cx = Const("x", Bool());
+				solver.add(solver.createMarker(), cx.getRef());
+				assertTrue(solver.check().isSat());
+			}
+		}
+
+		assertEquals(2, factory.getCreatedContexts());
+		factory.clearContextPool();
+	}
+
+	/**
+	 * Checks that the native memory stays flat when a pooled context is reused
+	 * for many solvers. After a warmup, the memory is sampled at several
+	 * checkpoints, which must stay within a small tolerance of the memory after
+	 * the warmup and must not grow monotonically.
+	 */
+	@Test
+	public void testNativeMemorySoak() {
+		final Z3SolverFactory factory = Z3SolverFactory.builder().contextPoolSize(1).build();
+		final ConstDecl<IntType> cx = Const("x", Int());
+		final int checksPerCheckpoint = 1000;
+		final int checkpoints = 6;
+
+		final long[] memory = new long[checkpoints + 1];
+		for (int checkpoint = 0; checkpoint <= checkpoints; checkpoint++) {
+			for (int i = 0; i < checksPerCheckpoint; i++) {
+				final int n = checkpoint * checksPerCheckpoint + i;
+				try (final Solver solver = factory.createSolver()) {
+					solver.add(Gt(cx.getRef(), Int(n)));
+					solver.add(Lt(cx.getRef(), Int(n + 2)));
+					assertTrue(solver.check().isSat());
+					solver.getModel().eval(cx);
+				}
+			}
+			System.gc();
+			memory[checkpoint] = Native.getEstimatedAllocSize();
+		}
+
+		assertEquals(1, factory.getCreatedContexts());
+		// The first checkpoint ends the warmup
+		final long tolerance = memory[0] / 10 + (256 << 10);
+		boolean growing = true;
+		for (int checkpoint = 1; checkpoint <= checkpoints; checkpoint++) {
+			assertTrue("Native memory grew to " + Arrays.toString(memory),
+					memory[checkpoint] <= memory[0] + tolerance);
+			growing &= memory[checkpoint] > memory[checkpoint - 1];
+		}
+		assertFalse("Native memory grew monotonically: " + Arrays.toString(memory), growing);
+		factory.clearContextPool();
+	}
+
 }
@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *  
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver.z3;
+
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Int;
+import static hu.bme.mit.theta.core.type.inttype.IntExprs.Lt;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.decl.ConstDecl;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.inttype.IntType;
+import hu.bme.mit.theta.solver.Solver;
+import hu.bme.mit.theta.solver.z3.transform.Z3TransformationSettings;
+import hu.bme.mit.theta.solver.z3.transform.Z3TransformationStatistics.CacheStatistics;
+
+public final class Z3TransformationCacheTest {
+
+	private final ConstDecl<IntType> cx = Const("x", Int());
+	private final Expr<BoolType> sub = Lt(cx.getRef(), Int(1));
+	// Subterms: and, not, lt, x, 1 where lt is shared
+	private final Expr<BoolType> expr = And(sub, Not(sub));
+
+	@Test
+	public void testSharedSubtermsWithoutCache() {
+		final Z3SolverFactory factory = Z3SolverFactory.create(Z3TransformationSettings.none());
+		final Solver solver = factory.createSolver();
+		final CacheStatistics stats = factory.getTransformationStatistics().getExprToTerm();
+
+		solver.add(expr);
+		assertEquals(5, stats.getMisses());
+		assertEquals(1, stats.getHits());
+
+		solver.add(expr);
+		assertEquals(10, stats.getMisses());
+		assertEquals(2, stats.getHits());
+		assertEquals(0, stats.getEvictions());
+	}
+
+	@Test
+	public void testUnboundedCache() {
+		final Z3SolverFactory factory = Z3SolverFactory.create(Z3TransformationSettings.unbounded());
+		final Solver solver = factory.createSolver();
+		final CacheStatistics stats = factory.getTransformationStatistics().getExprToTerm();
+
+		solver.add(expr);
+		solver.add(expr);
+		assertEquals(5, stats.getMisses());
+		assertEquals(2, stats.getHits());
+	}
+
+	@Test
+	public void testBoundedCacheEvicts() {
+		final Z3SolverFactory factory = Z3SolverFactory.create(Z3TransformationSettings.bounded(1));
+		final Solver solver = factory.createSolver();
+		final CacheStatistics stats = factory.getTransformationStatistics().getExprToTerm();
+
+		solver.add(expr);
+		assertEquals(5, stats.getMisses());
+		assertEquals(4, stats.getEvictions());
+	}
+
+	@Test
+	public void testStatisticsAreShared() {
+		final Z3SolverFactory factory = Z3SolverFactory.create(Z3TransformationSettings.unbounded());
+		final CacheStatistics stats = factory.getTransformationStatistics().getExprToTerm();
+
+		factory.createSolver().add(expr);
+		factory.createItpSolver().add(expr);
+		assertEquals(10, stats.getMisses());
+	}
+
+}
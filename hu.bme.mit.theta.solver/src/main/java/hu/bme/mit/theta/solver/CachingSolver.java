@@ -0,0 +1,275 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.model.AbstractModel;
+import hu.bme.mit.theta.core.model.Model;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.Type;
+import hu.bme.mit.theta.core.type.booltype.AndExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.TrueExpr;
+import hu.bme.mit.theta.solver.impl.StackImpl;
+
+/**
+ * A solver that looks up the result of each check in a cache before calling
+ * the wrapped solver. Assertions and push/pop operations are passed to the
+ * wrapped solver immediately, so that it can be checked on demand if a model
+ * or an unsat core is requested that is not yet in the cache.
+ */
+final class CachingSolver implements Solver {
+
+	private final Solver solver;
+	private final Cache<Key, Entry> cache;
+
+	private Stack<Expr<BoolType>> assertions;
+	private Stack<Expr<BoolType>> trackedAssertions;
+
+	private Entry entry;
+	private boolean solverChecked;
+
+	CachingSolver(final Solver solver, final Cache<Key, Entry> cache) {
+		this.solver = checkNotNull(solver);
+		this.cache = checkNotNull(cache);
+		assertions = new StackImpl<>();
+		trackedAssertions = new StackImpl<>();
+		clearState();
+	}
+
+	@Override
+	public void add(final Expr<BoolType> assertion) {
+		checkNotNull(assertion);
+		solver.add(assertion);
+		addConjuncts(assertion);
+		clearState();
+	}
+
+	@Override
+	public void track(final Expr<BoolType> assertion) {
+		checkNotNull(assertion);
+		solver.track(assertion);
+		trackedAssertions.add(assertion);
+		clearState();
+	}
+
+	@Override
+	public SolverStatus check() {
+		final Key key = new Key(assertions.toCollection(), trackedAssertions.toCollection());
+		final Entry cached = cache.getIfPresent(key);
+		if (cached != null) {
+			entry = cached;
+			solverChecked = false;
+		} else {
+			entry = new Entry(solver.check());
+			solverChecked = true;
+			cache.put(key, entry);
+		}
+		return entry.status;
+	}
+
+	@Override
+	public void push() {
+		solver.push();
+		assertions.push();
+		trackedAssertions.push();
+	}
+
+	@Override
+	public void pop(final int n) {
+		solver.pop(n);
+		assertions.pop(n);
+		trackedAssertions.pop(n);
+		clearState();
+	}
+
+	@Override
+	public void reset() {
+		solver.reset();
+		assertions = new StackImpl<>();
+		trackedAssertions = new StackImpl<>();
+		clearState();
+	}
+
+	@Override
+	public void close() {
+		solver.close();
+	}
+
+	@Override
+	public SolverStatus getStatus() {
+		checkState(entry != null, "Solver status is unknown.");
+		return entry.status;
+	}
+
+	@Override
+	public Model getModel() {
+		checkState(entry != null && entry.status == SolverStatus.SAT, "Cannot get model if status is not SAT.");
+		Model model = entry.model;
+		if (model == null) {
+			checkSolver();
+			model = CachedModel.copyOf(solver.getModel());
+			entry.model = model;
+		}
+		return model;
+	}
+
+	@Override
+	public Collection<Expr<BoolType>> getUnsatCore() {
+		checkState(entry != null && entry.status == SolverStatus.UNSAT,
+				"Cannot get unsat core if status is not UNSAT");
+		Collection<Expr<BoolType>> unsatCore = entry.unsatCore;
+		if (unsatCore == null) {
+			checkSolver();
+			unsatCore = ImmutableList.copyOf(solver.getUnsatCore());
+			entry.unsatCore = unsatCore;
+		}
+		return unsatCore;
+	}
+
+	@Override
+	public Collection<Expr<BoolType>> getAssertions() {
+		return solver.getAssertions();
+	}
+
+	////
+
+	private void addConjuncts(final Expr<BoolType> assertion) {
+		if (assertion instanceof AndExpr) {
+			for (final Expr<BoolType> op : ((AndExpr) assertion).getOps()) {
+				addConjuncts(op);
+			}
+		} else if (!(assertion instanceof TrueExpr)) {
+			assertions.add(assertion);
+		}
+	}
+
+	private void checkSolver() {
+		if (!solverChecked) {
+			final SolverStatus status = solver.check();
+			checkState(status == entry.status, "Cached status differs from the status of the solver.");
+			solverChecked = true;
+		}
+	}
+
+	private void clearState() {
+		entry = null;
+		solverChecked = false;
+	}
+
+	////
+
+	/**
+	 * The normalized assertion stack: the order of assertions, duplicates and
+	 * the push levels do not matter. Untracked assertions are also split into
+	 * conjuncts, while tracked assertions are kept as they are, because they
+	 * can appear in unsat cores.
+	 */
+	static final class Key {
+		private final ImmutableSet<Expr<BoolType>> assertions;
+		private final ImmutableSet<Expr<BoolType>> trackedAssertions;
+		private final int hashCode;
+
+		private Key(final Collection<Expr<BoolType>> assertions,
+				final Collection<Expr<BoolType>> trackedAssertions) {
+			this.assertions = ImmutableSet.copyOf(assertions);
+			this.trackedAssertions = ImmutableSet.copyOf(trackedAssertions);
+			hashCode = 31 * this.assertions.hashCode() + this.trackedAssertions.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (obj instanceof Key) {
+				final Key that = (Key) obj;
+				return this.hashCode == that.hashCode && this.assertions.equals(that.assertions)
+						&& this.trackedAssertions.equals(that.trackedAssertions);
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * The result of a check. The model and the unsat core are only stored
+	 * when they are first requested.
+	 */
+	static final class Entry {
+		private final SolverStatus status;
+		private volatile Model model;
+		private volatile Collection<Expr<BoolType>> unsatCore;
+
+		private Entry(final SolverStatus status) {
+			this.status = checkNotNull(status);
+		}
+	}
+
+	/**
+	 * A copy of a model that does not depend on the solver that produced it,
+	 * so that it can be shared between solvers.
+	 */
+	private static final class CachedModel extends AbstractModel {
+		private final Map<Decl<?>, LitExpr<?>> declToValue;
+
+		private CachedModel(final Map<Decl<?>, LitExpr<?>> declToValue) {
+			this.declToValue = declToValue;
+		}
+
+		private static CachedModel copyOf(final Model model) {
+			final ImmutableMap.Builder<Decl<?>, LitExpr<?>> builder = ImmutableMap.builder();
+			for (final Decl<?> decl : model.getDecls()) {
+				final Optional<? extends LitExpr<?>> value = model.eval(decl);
+				if (value.isPresent()) {
+					builder.put(decl, value.get());
+				}
+			}
+			return new CachedModel(builder.build());
+		}
+
+		@Override
+		public Collection<? extends Decl<?>> getDecls() {
+			return declToValue.keySet();
+		}
+
+		@Override
+		public <DeclType extends Type> Optional<LitExpr<DeclType>> eval(final Decl<DeclType> decl) {
+			checkNotNull(decl);
+			@SuppressWarnings("unchecked")
+			final LitExpr<DeclType> value = (LitExpr<DeclType>) declToValue.get(decl);
+			return Optional.ofNullable(value);
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.solver.CachingSolver.Entry;
+import hu.bme.mit.theta.solver.CachingSolver.Key;
+
+/**
+ * A decorator for solver factories whose solvers cache the results of their
+ * checks. The key of a check is the normalized assertion stack (the set of
+ * assertions and tracked assertions), so a repeated query returns the cached
+ * status (and model or unsat core) without calling the wrapped solver. The
+ * cache is bounded, the least recently used results are evicted when it is
+ * full. It is shared between all solvers created by the factory, even if they
+ * are used from different threads.
+ *
+ * Interpolating solvers are not cached, they are created by the wrapped
+ * factory.
+ */
+public final class CachingSolverFactory implements SolverFactory {
+
+	private final SolverFactory solverFactory;
+	private final long maximumSize;
+	private final Cache<Key, Entry> cache;
+
+	private CachingSolverFactory(final SolverFactory solverFactory, final long maximumSize) {
+		checkArgument(maximumSize > 0, "Cache size must be positive");
+		this.solverFactory = checkNotNull(solverFactory);
+		this.maximumSize = maximumSize;
+		cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+	}
+
+	public static CachingSolverFactory create(final SolverFactory solverFactory, final long maximumSize) {
+		return new CachingSolverFactory(solverFactory, maximumSize);
+	}
+
+	@Override
+	public Solver createSolver() {
+		return new CachingSolver(solverFactory.createSolver(), cache);
+	}
+
+	@Override
+	public ItpSolver createItpSolver() {
+		return solverFactory.createItpSolver();
+	}
+
+	public SolverCacheStatistics getStatistics() {
+		return new SolverCacheStatistics(cache.stats(), cache.size());
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add(solverFactory).add(maximumSize).toString();
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+import java.util.List;
+
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.SolverInstrumentation.Recorder;
+
+/**
+ * An interpolating solver that records its checks like InstrumentedSolver and
+ * records the computation of each interpolant as a check of a separate
+ * category.
+ */
+final class InstrumentedItpSolver extends InstrumentedSolver implements ItpSolver {
+
+	private final ItpSolver solver;
+	private final Recorder itpRecorder;
+
+	InstrumentedItpSolver(final ItpSolver solver, final Recorder recorder, final Recorder itpRecorder) {
+		super(solver, recorder);
+		this.solver = solver;
+		this.itpRecorder = checkNotNull(itpRecorder);
+	}
+
+	@Override
+	public ItpPattern createPattern(final ItpMarker marker) {
+		return solver.createPattern(marker);
+	}
+
+	@Override
+	public ItpPattern createBinPattern(final ItpMarker markerA, final ItpMarker markerB) {
+		return solver.createBinPattern(markerA, markerB);
+	}
+
+	@Override
+	public ItpPattern createSeqPattern(final List<? extends ItpMarker> markers) {
+		return solver.createSeqPattern(markers);
+	}
+
+	@Override
+	public ItpMarker createMarker() {
+		return solver.createMarker();
+	}
+
+	@Override
+	public void add(final ItpMarker marker, final Expr<BoolType> assertion) {
+		solver.add(marker, assertion);
+		getRecorder().recordAssertion(assertion);
+	}
+
+	@Override
+	public Interpolant getInterpolant(final ItpPattern pattern) {
+		final long start = System.nanoTime();
+		try {
+			return solver.getInterpolant(pattern);
+		} finally {
+			itpRecorder.recordCheck(System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Collection<? extends ItpMarker> getMarkers() {
+		return solver.getMarkers();
+	}
+
+}
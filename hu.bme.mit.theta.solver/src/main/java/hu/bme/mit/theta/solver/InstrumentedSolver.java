@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+
+import hu.bme.mit.theta.core.model.Model;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.SolverInstrumentation.Recorder;
+
+/**
+ * A solver that passes each operation to the wrapped solver and records the
+ * checks, assertions and model or unsat core extractions.
+ */
+class InstrumentedSolver implements Solver {
+
+	private final Solver solver;
+	private final Recorder recorder;
+
+	InstrumentedSolver(final Solver solver, final Recorder recorder) {
+		this.solver = checkNotNull(solver);
+		this.recorder = checkNotNull(recorder);
+	}
+
+	@Override
+	public void add(final Expr<BoolType> assertion) {
+		solver.add(assertion);
+		recorder.recordAssertion(assertion);
+	}
+
+	@Override
+	public void track(final Expr<BoolType> assertion) {
+		solver.track(assertion);
+		recorder.recordAssertion(assertion);
+	}
+
+	@Override
+	public SolverStatus check() {
+		final long start = System.nanoTime();
+		try {
+			return solver.check();
+		} finally {
+			recorder.recordCheck(System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public void push() {
+		solver.push();
+	}
+
+	@Override
+	public void pop(final int n) {
+		solver.pop(n);
+	}
+
+	@Override
+	public void reset() {
+		solver.reset();
+	}
+
+	@Override
+	public SolverStatus getStatus() {
+		return solver.getStatus();
+	}
+
+	@Override
+	public Model getModel() {
+		final long start = System.nanoTime();
+		try {
+			return solver.getModel();
+		} finally {
+			recorder.recordModel(System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Collection<Expr<BoolType>> getUnsatCore() {
+		final long start = System.nanoTime();
+		try {
+			return solver.getUnsatCore();
+		} finally {
+			recorder.recordUnsatCore(System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Collection<Expr<BoolType>> getAssertions() {
+		return solver.getAssertions();
+	}
+
+	@Override
+	public void close() {
+		solver.close();
+	}
+
+	protected final Recorder getRecorder() {
+		return recorder;
+	}
+
+}
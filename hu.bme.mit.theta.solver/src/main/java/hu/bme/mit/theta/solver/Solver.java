@@ -21,7 +21,7 @@ import hu.bme.mit.theta.core.model.Model;
 import hu.bme.mit.theta.core.type.Expr;
 import hu.bme.mit.theta.core.type.booltype.BoolType;
 
-public interface Solver {
+public interface Solver extends AutoCloseable {
 
 	void add(Expr<BoolType> assertion);
 
@@ -58,4 +58,12 @@ public interface Solver {
 	Collection<Expr<BoolType>> getUnsatCore();
 
 	Collection<Expr<BoolType>> getAssertions();
+
+	/**
+	 * Releases the resources (e.g., native memory) held by the solver. The
+	 * solver, and the models obtained from it, cannot be used afterwards.
+	 */
+	@Override
+	default void close() {
+	}
 }
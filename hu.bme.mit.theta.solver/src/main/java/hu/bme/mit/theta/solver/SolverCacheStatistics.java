@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver;
+
+import com.google.common.cache.CacheStats;
+
+import hu.bme.mit.theta.common.Utils;
+
+/**
+ * Statistics of the cache of a CachingSolverFactory at a given point in time.
+ */
+public final class SolverCacheStatistics {
+
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long size;
+
+	SolverCacheStatistics(final CacheStats stats, final long size) {
+		hits = stats.hitCount();
+		misses = stats.missCount();
+		evictions = stats.evictionCount();
+		this.size = size;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of checks that had to be performed by the wrapped
+	 * solvers.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the ratio of checks answered from the cache, or 0 if there were no
+	 * checks.
+	 */
+	public double getHitRate() {
+		final long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add("Hits: " + hits).add("Misses: " + misses)
+				.add("Evictions: " + evictions).add("Size: " + size).toString();
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.List;
+
+import com.google.common.primitives.Longs;
+
+import hu.bme.mit.theta.common.Utils;
+
+/**
+ * Statistics of the solvers of a category of a SolverInstrumentation at a
+ * given point in time.
+ *
+ * The latency of the checks is given as a histogram, where bucket i counts the
+ * checks that took less than 10^i milliseconds (but not less than 10^(i-1)),
+ * and the last bucket counts the remaining checks.
+ */
+public final class SolverCallStatistics {
+
+	static final int HISTOGRAM_BUCKETS = 6;
+
+	private final long checks;
+	private final long checkTimeMs;
+	private final long[] checkHistogram;
+	private final long assertions;
+	private final long assertionNodes;
+	private final long models;
+	private final long modelTimeMs;
+	private final long unsatCores;
+	private final long unsatCoreTimeMs;
+
+	SolverCallStatistics(final long checks, final long checkTimeMs, final long[] checkHistogram,
+			final long assertions, final long assertionNodes, final long models, final long modelTimeMs,
+			final long unsatCores, final long unsatCoreTimeMs) {
+		checkArgument(checkHistogram.length == HISTOGRAM_BUCKETS);
+		this.checks = checks;
+		this.checkTimeMs = checkTimeMs;
+		this.checkHistogram = checkHistogram;
+		this.assertions = assertions;
+		this.assertionNodes = assertionNodes;
+		this.models = models;
+		this.modelTimeMs = modelTimeMs;
+		this.unsatCores = unsatCores;
+		this.unsatCoreTimeMs = unsatCoreTimeMs;
+	}
+
+	static int getBucket(final long timeMs) {
+		int bucket = 0;
+		for (long bound = 1; bucket < HISTOGRAM_BUCKETS - 1 && timeMs >= bound; bound *= 10) {
+			bucket++;
+		}
+		return bucket;
+	}
+
+	public long getChecks() {
+		return checks;
+	}
+
+	public long getCheckTimeMs() {
+		return checkTimeMs;
+	}
+
+	public List<Long> getCheckHistogram() {
+		return Longs.asList(checkHistogram.clone());
+	}
+
+	public long getAssertions() {
+		return assertions;
+	}
+
+	/**
+	 * Gets the total number of nodes in the expressions of the assertions.
+	 */
+	public long getAssertionNodes() {
+		return assertionNodes;
+	}
+
+	public long getModels() {
+		return models;
+	}
+
+	public long getModelTimeMs() {
+		return modelTimeMs;
+	}
+
+	public long getUnsatCores() {
+		return unsatCores;
+	}
+
+	public long getUnsatCoreTimeMs() {
+		return unsatCoreTimeMs;
+	}
+
+	@Override
+	public String toString() {
+		return Utils.toStringBuilder(getClass().getSimpleName()).add("Checks: " + checks)
+				.add("CheckTimeMs: " + checkTimeMs).add("CheckHistogram: " + getCheckHistogram())
+				.add("Assertions: " + assertions).add("AssertionNodes: " + assertionNodes).add("Models: " + models)
+				.add("ModelTimeMs: " + modelTimeMs).add("UnsatCores: " + unsatCores)
+				.add("UnsatCoreTimeMs: " + unsatCoreTimeMs).toString();
+	}
+
+}
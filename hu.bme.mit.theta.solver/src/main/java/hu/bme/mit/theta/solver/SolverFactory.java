@@ -17,8 +17,15 @@ package hu.bme.mit.theta.solver;
 
 public interface SolverFactory {
 
+	/**
+	 * Creates a solver without interpolation. It does not have to produce
+	 * proofs, so it should be preferred when no interpolants are needed.
+	 */
 	Solver createSolver();
 
+	/**
+	 * Creates a solver that can also compute interpolants.
+	 */
 	ItpSolver createItpSolver();
 
 }
@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import hu.bme.mit.theta.common.ToStringBuilder;
+import hu.bme.mit.theta.common.Utils;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.utils.ExprUtils;
+
+/**
+ * Collects statistics about the usage of solvers. Solvers are wrapped by
+ * decorators that record the number and latency of the checks, the number and
+ * size of the assertions and the time spent on extracting models and unsat
+ * cores. The statistics are kept separately for each category of callers, so
+ * the same solver can be wrapped multiple times with different categories.
+ * Statistics can be recorded from multiple threads.
+ */
+public final class SolverInstrumentation {
+
+	/**
+	 * The category of the caller of a solver.
+	 */
+	public enum Category {
+		ABSTRACTION("Abstraction"),
+
+		COVERAGE("Coverage"),
+
+		TARGET("Target"),
+
+		TRACE_CHECK("TraceCheck"),
+
+		INTERPOLATION("Itp");
+
+		public final String label;
+
+		private Category(final String label) {
+			this.label = label;
+		}
+	}
+
+	private final Map<Category, Recorder> recorders;
+
+	private SolverInstrumentation() {
+		recorders = new EnumMap<>(Category.class);
+		for (final Category category : Category.values()) {
+			recorders.put(category, new Recorder());
+		}
+	}
+
+	public static SolverInstrumentation create() {
+		return new SolverInstrumentation();
+	}
+
+	/**
+	 * Wraps a solver so that its usage is recorded in the given category.
+	 */
+	public Solver instrument(final Solver solver, final Category category) {
+		return new InstrumentedSolver(solver, recorders.get(checkNotNull(category)));
+	}
+
+	/**
+	 * Wraps an interpolating solver. Checks are recorded as trace checks,
+	 * while the computation of interpolants is recorded as interpolation.
+	 */
+	public ItpSolver instrument(final ItpSolver solver) {
+		return new InstrumentedItpSolver(solver, recorders.get(Category.TRACE_CHECK),
+				recorders.get(Category.INTERPOLATION));
+	}
+
+	public SolverCallStatistics getStatistics(final Category category) {
+		return recorders.get(checkNotNull(category)).getStatistics();
+	}
+
+	/**
+	 * Gets the statistics summed over all categories.
+	 */
+	public SolverCallStatistics getTotalStatistics() {
+		final Recorder total = new Recorder();
+		for (final Recorder recorder : recorders.values()) {
+			recorder.addTo(total);
+		}
+		return total.getStatistics();
+	}
+
+	@Override
+	public String toString() {
+		final ToStringBuilder builder = Utils.toStringBuilder(getClass().getSimpleName());
+		for (final Category category : Category.values()) {
+			builder.add(category.label + ": " + getStatistics(category));
+		}
+		return builder.toString();
+	}
+
+	static final class Recorder {
+		private final LongAdder checks = new LongAdder();
+		private final LongAdder checkTimeNs = new LongAdder();
+		private final LongAdder[] checkHistogram = new LongAdder[SolverCallStatistics.HISTOGRAM_BUCKETS];
+		private final LongAdder assertions = new LongAdder();
+		private final LongAdder assertionNodes = new LongAdder();
+		private final LongAdder models = new LongAdder();
+		private final LongAdder modelTimeNs = new LongAdder();
+		private final LongAdder unsatCores = new LongAdder();
+		private final LongAdder unsatCoreTimeNs = new LongAdder();
+
+		Recorder() {
+			for (int i = 0; i < checkHistogram.length; i++) {
+				checkHistogram[i] = new LongAdder();
+			}
+		}
+
+		void recordCheck(final long timeNs) {
+			checks.increment();
+			checkTimeNs.add(timeNs);
+			checkHistogram[SolverCallStatistics.getBucket(TimeUnit.NANOSECONDS.toMillis(timeNs))].increment();
+		}
+
+		void recordAssertion(final Expr<BoolType> assertion) {
+			assertions.increment();
+			assertionNodes.add(ExprUtils.nodeCountSize(assertion));
+		}
+
+		void recordModel(final long timeNs) {
+			models.increment();
+			modelTimeNs.add(timeNs);
+		}
+
+		void recordUnsatCore(final long timeNs) {
+			unsatCores.increment();
+			unsatCoreTimeNs.add(timeNs);
+		}
+
+		private void addTo(final Recorder other) {
+			other.checks.add(checks.sum());
+			other.checkTimeNs.add(checkTimeNs.sum());
+			for (int i = 0; i < checkHistogram.length; i++) {
+				other.checkHistogram[i].add(checkHistogram[i].sum());
+			}
+			other.assertions.add(assertions.sum());
+			other.assertionNodes.add(assertionNodes.sum());
+			other.models.add(models.sum());
+			other.modelTimeNs.add(modelTimeNs.sum());
+			other.unsatCores.add(unsatCores.sum());
+			other.unsatCoreTimeNs.add(unsatCoreTimeNs.sum());
+		}
+
+		private SolverCallStatistics getStatistics() {
+			final long[] histogram = new long[checkHistogram.length];
+			for (int i = 0; i < histogram.length; i++) {
+				histogram[i] = checkHistogram[i].sum();
+			}
+			return new SolverCallStatistics(checks.sum(), TimeUnit.NANOSECONDS.toMillis(checkTimeNs.sum()), histogram,
+					assertions.sum(), assertionNodes.sum(), models.sum(),
+					TimeUnit.NANOSECONDS.toMillis(modelTimeNs.sum()), unsatCores.sum(),
+					TimeUnit.NANOSECONDS.toMillis(unsatCoreTimeNs.sum()));
+		}
+	}
+
+}
@@ -18,4 +18,16 @@ package hu.bme.mit.theta.solver;
 public final class UnknownSolverStatusException extends RuntimeException {
 	private static final long serialVersionUID = -7472824180590849943L;
 
+	public UnknownSolverStatusException() {
+		super();
+	}
+
+	/**
+	 * Creates an exception with the reason reported by the solver (e.g., a
+	 * timeout or an exceeded resource limit).
+	 */
+	public UnknownSolverStatusException(final String reason) {
+		super(reason);
+	}
+
 }
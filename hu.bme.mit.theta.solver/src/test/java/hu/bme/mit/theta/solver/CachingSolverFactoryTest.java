@@ -0,0 +1,290 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver;
+
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.False;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.True;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.decl.ConstDecl;
+import hu.bme.mit.theta.core.decl.Decl;
+import hu.bme.mit.theta.core.model.AbstractModel;
+import hu.bme.mit.theta.core.model.Model;
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.LitExpr;
+import hu.bme.mit.theta.core.type.Type;
+import hu.bme.mit.theta.core.type.anytype.RefExpr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.core.type.booltype.NotExpr;
+import hu.bme.mit.theta.solver.impl.StackImpl;
+
+public final class CachingSolverFactoryTest {
+
+	private final ConstDecl<BoolType> ca = Const("a", Bool());
+	private final ConstDecl<BoolType> cb = Const("b", Bool());
+	private final Expr<BoolType> a = ca.getRef();
+	private final Expr<BoolType> b = cb.getRef();
+
+	private CountingSolverFactory countingFactory;
+	private CachingSolverFactory factory;
+
+	@Before
+	public void before() {
+		countingFactory = new CountingSolverFactory();
+		factory = CachingSolverFactory.create(countingFactory, 100);
+	}
+
+	@Test
+	public void testRepeatedQuery() {
+		final Solver solver = factory.createSolver();
+
+		solver.add(a);
+		solver.add(b);
+		assertTrue(solver.check().isSat());
+		solver.reset();
+		solver.add(b);
+		solver.push();
+		solver.add(And(a, True()));
+		assertTrue(solver.check().isSat());
+
+		assertEquals(1, countingFactory.checks);
+		assertEquals(1, factory.getStatistics().getHits());
+		assertEquals(1, factory.getStatistics().getMisses());
+		assertEquals(0.5, factory.getStatistics().getHitRate(), 0);
+
+		solver.pop();
+		solver.add(Not(a));
+		assertTrue(solver.check().isSat());
+		solver.add(a);
+		assertTrue(solver.check().isUnsat());
+		assertEquals(3, countingFactory.checks);
+	}
+
+	@Test
+	public void testSharedBetweenSolvers() {
+		final Solver solver1 = factory.createSolver();
+		final Solver solver2 = factory.createSolver();
+
+		solver1.add(a);
+		assertTrue(solver1.check().isSat());
+		solver2.add(a);
+		assertTrue(solver2.check().isSat());
+
+		assertEquals(1, countingFactory.checks);
+	}
+
+	@Test
+	public void testModel() {
+		final Solver solver1 = factory.createSolver();
+		final Solver solver2 = factory.createSolver();
+
+		solver1.add(a);
+		solver1.check();
+		solver2.add(a);
+		solver2.check();
+		assertEquals(1, countingFactory.checks);
+
+		// The model is not cached yet, so the backend of the second solver
+		// has to be checked
+		assertEquals(Bool(true), solver2.getModel().eval(ca).get());
+		assertEquals(2, countingFactory.checks);
+		assertEquals(Bool(true), solver1.getModel().eval(ca).get());
+		assertEquals(2, countingFactory.checks);
+	}
+
+	@Test
+	public void testUnsatCore() {
+		final Solver solver = factory.createSolver();
+
+		solver.track(a);
+		solver.track(Not(a));
+		assertTrue(solver.check().isUnsat());
+		final Collection<Expr<BoolType>> unsatCore = solver.getUnsatCore();
+
+		solver.reset();
+		solver.track(Not(a));
+		solver.track(a);
+		assertTrue(solver.check().isUnsat());
+		assertEquals(unsatCore, solver.getUnsatCore());
+		assertEquals(1, countingFactory.checks);
+
+		// Tracked assertions are not mixed with untracked ones
+		solver.reset();
+		solver.add(a);
+		solver.track(Not(a));
+		assertTrue(solver.check().isUnsat());
+		assertEquals(2, countingFactory.checks);
+	}
+
+	@Test
+	public void testEviction() {
+		final CachingSolverFactory smallFactory = CachingSolverFactory.create(countingFactory, 1);
+		final Solver solver = smallFactory.createSolver();
+
+		solver.add(a);
+		solver.check();
+		solver.push();
+		solver.add(b);
+		solver.check();
+		solver.pop();
+		solver.check();
+
+		assertEquals(3, countingFactory.checks);
+		assertEquals(2, smallFactory.getStatistics().getEvictions());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testStatusCleared() {
+		final Solver solver = factory.createSolver();
+		solver.add(a);
+		solver.check();
+		solver.add(b);
+		solver.getStatus();
+	}
+
+	////
+
+	private static final class CountingSolverFactory implements SolverFactory {
+		private int checks = 0;
+
+		@Override
+		public Solver createSolver() {
+			return new LiteralSolver(this);
+		}
+
+		@Override
+		public ItpSolver createItpSolver() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * A solver for conjunctions of literals that counts the checks.
+	 */
+	private static final class LiteralSolver implements Solver {
+		private final CountingSolverFactory factory;
+		private Stack<Expr<BoolType>> assertions = new StackImpl<>();
+		private Stack<Expr<BoolType>> tracked = new StackImpl<>();
+		private SolverStatus status = null;
+
+		private LiteralSolver(final CountingSolverFactory factory) {
+			this.factory = factory;
+		}
+
+		@Override
+		public void add(final Expr<BoolType> assertion) {
+			assertions.add(assertion);
+			status = null;
+		}
+
+		@Override
+		public void track(final Expr<BoolType> assertion) {
+			assertions.add(assertion);
+			tracked.add(assertion);
+			status = null;
+		}
+
+		@Override
+		public SolverStatus check() {
+			factory.checks++;
+			final Collection<Expr<BoolType>> exprs = getAssertions();
+			boolean unsat = exprs.contains(False());
+			for (final Expr<BoolType> expr : exprs) {
+				unsat |= expr instanceof NotExpr && exprs.contains(((NotExpr) expr).getOp());
+			}
+			status = unsat ? SolverStatus.UNSAT : SolverStatus.SAT;
+			return status;
+		}
+
+		@Override
+		public void push() {
+			assertions.push();
+			tracked.push();
+		}
+
+		@Override
+		public void pop(final int n) {
+			assertions.pop(n);
+			tracked.pop(n);
+			status = null;
+		}
+
+		@Override
+		public void reset() {
+			assertions = new StackImpl<>();
+			tracked = new StackImpl<>();
+			status = null;
+		}
+
+		@Override
+		public SolverStatus getStatus() {
+			return status;
+		}
+
+		@Override
+		public Model getModel() {
+			if (status != SolverStatus.SAT) {
+				throw new IllegalStateException();
+			}
+			final List<Decl<?>> trueDecls = new ArrayList<>();
+			for (final Expr<BoolType> expr : getAssertions()) {
+				if (expr instanceof RefExpr) {
+					trueDecls.add(((RefExpr<?>) expr).getDecl());
+				}
+			}
+			return new AbstractModel() {
+				@Override
+				public Collection<? extends Decl<?>> getDecls() {
+					return trueDecls;
+				}
+
+				@Override
+				public <DeclType extends Type> Optional<LitExpr<DeclType>> eval(final Decl<DeclType> decl) {
+					@SuppressWarnings("unchecked")
+					final LitExpr<DeclType> value = (LitExpr<DeclType>) Bool(true);
+					return trueDecls.contains(decl) ? Optional.of(value) : Optional.empty();
+				}
+			};
+		}
+
+		@Override
+		public Collection<Expr<BoolType>> getUnsatCore() {
+			if (status != SolverStatus.UNSAT) {
+				throw new IllegalStateException();
+			}
+			return new ArrayList<>(tracked.toCollection());
+		}
+
+		@Override
+		public Collection<Expr<BoolType>> getAssertions() {
+			return new ArrayList<>(assertions.toCollection());
+		}
+	}
+
+}
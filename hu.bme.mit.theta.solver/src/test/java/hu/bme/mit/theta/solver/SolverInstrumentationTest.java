@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2017 Budapest University of Technology and Economics
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package hu.bme.mit.theta.solver;
+
+import static hu.bme.mit.theta.core.decl.Decls.Const;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.And;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Bool;
+import static hu.bme.mit.theta.core.type.booltype.BoolExprs.Not;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hu.bme.mit.theta.core.type.Expr;
+import hu.bme.mit.theta.core.type.booltype.BoolType;
+import hu.bme.mit.theta.solver.SolverInstrumentation.Category;
+
+public final class SolverInstrumentationTest {
+
+	private final Expr<BoolType> a = Const("a", Bool()).getRef();
+	private final Expr<BoolType> b = Const("b", Bool()).getRef();
+
+	private SolverStub stub;
+	private SolverInstrumentation instrumentation;
+
+	@Before
+	public void before() {
+		stub = new SolverStub();
+		instrumentation = SolverInstrumentation.create();
+	}
+
+	@Test
+	public void testCategories() {
+		final Solver abstractionSolver = instrumentation.instrument(stub, Category.ABSTRACTION);
+		final Solver coverageSolver = instrumentation.instrument(stub, Category.COVERAGE);
+
+		abstractionSolver.add(And(a, Not(b)));
+		abstractionSolver.check();
+		abstractionSolver.check();
+		abstractionSolver.getModel();
+		coverageSolver.push();
+		coverageSolver.track(a);
+		coverageSolver.check();
+		coverageSolver.getUnsatCore();
+		coverageSolver.pop();
+
+		final SolverCallStatistics abstractionStats = instrumentation.getStatistics(Category.ABSTRACTION);
+		assertEquals(2, abstractionStats.getChecks());
+		assertEquals(1, abstractionStats.getAssertions());
+		assertEquals(4, abstractionStats.getAssertionNodes());
+		assertEquals(1, abstractionStats.getModels());
+		assertEquals(0, abstractionStats.getUnsatCores());
+		assertEquals(Arrays.asList(2L, 0L, 0L, 0L, 0L, 0L), abstractionStats.getCheckHistogram());
+
+		final SolverCallStatistics coverageStats = instrumentation.getStatistics(Category.COVERAGE);
+		assertEquals(1, coverageStats.getChecks());
+		assertEquals(1, coverageStats.getAssertions());
+		assertEquals(1, coverageStats.getAssertionNodes());
+		assertEquals(1, coverageStats.getUnsatCores());
+
+		assertEquals(0, instrumentation.getStatistics(Category.TARGET).getChecks());
+		assertEquals(3, instrumentation.getTotalStatistics().getChecks());
+		assertEquals(0, stub.nPush);
+	}
+
+	@Test
+	public void testHistogramBuckets() {
+		assertEquals(0, SolverCallStatistics.getBucket(0));
+		assertEquals(1, SolverCallStatistics.getBucket(1));
+		assertEquals(1, SolverCallStatistics.getBucket(9));
+		assertEquals(2, SolverCallStatistics.getBucket(10));
+		assertEquals(4, SolverCallStatistics.getBucket(9999));
+		assertEquals(5, SolverCallStatistics.getBucket(10000));
+		assertEquals(5, SolverCallStatistics.getBucket(Long.MAX_VALUE));
+	}
+
+}